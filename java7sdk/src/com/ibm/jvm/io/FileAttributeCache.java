@@ -0,0 +1,428 @@
+/*
+ * Licensed Materials - Property of IBM,
+ * (c) Copyright IBM Corp. 2014  All Rights Reserved.
+ */
+
+package com.ibm.jvm.io;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sun.reflect.CallerSensitive;
+import sun.reflect.Reflection;
+import sun.security.action.GetBooleanAction;
+import sun.security.action.GetIntegerAction;
+
+/**
+ * A cache of the basic attributes of files of the default file system,
+ * consulted by {@link java.io.File} and {@link java.nio.file.Files} when
+ * the system property <code>com.ibm.jvm.io.fileAttributeCache</code> is
+ * <code>true</code>.
+ * <p>
+ * Without the cache, each of <code>File.exists()</code>,
+ * <code>isDirectory()</code>, <code>isFile()</code>, <code>length()</code>
+ * and <code>lastModified()</code>, and the matching methods of
+ * <code>Files</code>, is a separate system call. With it, the first query
+ * of a file reads all of its basic attributes with a single call, following
+ * symbolic links, and later queries are answered from memory. That a file
+ * does not exist is cached as well.
+ * <p>
+ * Entries are invalidated through a {@link WatchService}: the directory of
+ * each cached file is registered with the service, and a daemon thread
+ * drops the entries of the files it reports as created, deleted or
+ * modified. Files in a directory that cannot be watched are not cached.
+ * The methods of <code>File</code> and <code>Files</code> that create,
+ * delete, move or touch files, and closing a
+ * <code>FileOutputStream</code>, invalidate the entries they affect at
+ * once; changes made in any other way, by this process through other
+ * streams and channels or by another process, are seen once the watch
+ * service reports them, which may take a moment. In particular, while this
+ * process writes a file through <code>FileOutputStream.write</code>, a
+ * <code>RandomAccessFile</code> or a <code>FileChannel</code>, the
+ * <code>length()</code> and <code>lastModified()</code> answered for it
+ * may be stale until that report, or until the
+ * <code>FileOutputStream</code> is closed. Applications that poll the size
+ * of a file they are writing should not enable the cache. A file reached
+ * through a symbolic link is invalidated by the changes reported in the
+ * directory of the link, not in that of its target. When a directory is
+ * moved or deleted, the entries of all the files under it are dropped and
+ * its watches cancelled.
+ * <p>
+ * The cache holds at most <code>com.ibm.jvm.io.fileAttributeCache.size</code>
+ * entries, 131072 by default, and watches at most
+ * <code>com.ibm.jvm.io.fileAttributeCache.directories</code> directories,
+ * 8192 by default. When it is full, an arbitrary eighth of the entries is
+ * dropped.
+ * <p>
+ * Only classes of the bootstrap class path may use this class: the
+ * attributes it answers are not subject to the security manager, so the
+ * callers must make their own checks.
+ *
+ * @since 1.7
+ */
+public final class FileAttributeCache {
+
+	private static final FileAttributeCache instance;
+
+	static {
+		boolean enabled = AccessController.doPrivileged(
+				new GetBooleanAction("com.ibm.jvm.io.fileAttributeCache")).booleanValue(); //$NON-NLS-1$
+		if (enabled) {
+			int size = AccessController.doPrivileged(
+					new GetIntegerAction("com.ibm.jvm.io.fileAttributeCache.size", 131072)).intValue(); //$NON-NLS-1$
+			int directories = AccessController.doPrivileged(
+					new GetIntegerAction("com.ibm.jvm.io.fileAttributeCache.directories", 8192)).intValue(); //$NON-NLS-1$
+			instance = new FileAttributeCache(Math.max(size, 16), Math.max(directories, 1));
+		} else {
+			instance = null;
+		}
+	}
+
+	/*
+	 * The attributes of a file, or null if it does not exist.
+	 */
+	private static final class Entry {
+		final BasicFileAttributes attributes;
+
+		Entry(BasicFileAttributes attributes) {
+			this.attributes = attributes;
+		}
+	}
+
+	private static final Entry ABSENT = new Entry(null);
+
+	private final int maxEntries;
+	private final int maxDirectories;
+	private final FileSystem fileSystem = FileSystems.getDefault();
+
+	/* The cached entries, keyed by absolute path */
+	private final ConcurrentHashMap<Path, Entry> entries = new ConcurrentHashMap<>();
+	/* The watched directories */
+	private final ConcurrentHashMap<Path, WatchKey> directories = new ConcurrentHashMap<>();
+	private final AtomicBoolean evicting = new AtomicBoolean();
+	/* Incremented before entries are invalidated */
+	private final AtomicLong generation = new AtomicLong();
+
+	/* Created with the first directory watched; null if it cannot be */
+	private volatile WatchService watcher;
+	private boolean watcherFailed;
+
+	private FileAttributeCache(int maxEntries, int maxDirectories) {
+		this.maxEntries = maxEntries;
+		this.maxDirectories = maxDirectories;
+	}
+
+	/**
+	 * Answers the cache, or null if it is not enabled.
+	 *
+	 * @return the file attribute cache, or null
+	 *
+	 * @throws SecurityException if the caller is not a class of the
+	 *         bootstrap class path
+	 */
+	@CallerSensitive
+	public static FileAttributeCache getInstance() {
+		if (Reflection.getCallerClass().getClassLoader() != null) {
+			throw new SecurityException();
+		}
+		return instance;
+	}
+
+	/**
+	 * Answers the basic attributes of a file, following symbolic links, as
+	 * {@link java.nio.file.Files#readAttributes(Path, Class, java.nio.file.LinkOption...)}
+	 * does, from the cache if they are there.
+	 *
+	 * @param path the file
+	 * @return the attributes of the file, or null if the path is not of the
+	 *         default file system
+	 *
+	 * @throws NoSuchFileException if the file does not exist
+	 * @throws IOException if the attributes cannot be read
+	 */
+	public BasicFileAttributes readAttributes(Path path) throws IOException {
+		if (path.getFileSystem() != fileSystem) {
+			return null;
+		}
+		final Path absolute = path.toAbsolutePath();
+		Path key = absolute.normalize();
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			// Watch before reading, so that no change is missed. A path
+			// with . or .. is read but not cached, as .. after a symbolic
+			// link need not lead where the normalized path does.
+			boolean watched = key.equals(absolute) && watch(key.getParent());
+			long stamp = generation.get();
+			try {
+				// Not through Files, which consults this cache
+				entry = new Entry(AccessController.doPrivileged(
+					new PrivilegedExceptionAction<BasicFileAttributes>() {
+						public BasicFileAttributes run() throws IOException {
+							return fileSystem.provider().readAttributes(absolute, BasicFileAttributes.class);
+						}
+					}));
+			} catch (PrivilegedActionException e) {
+				if (!(e.getException() instanceof NoSuchFileException)) {
+					throw (IOException) e.getException();
+				}
+				entry = ABSENT;
+			}
+			if (watched) {
+				if (entries.size() >= maxEntries) {
+					evict();
+				}
+				entries.put(key, entry);
+				if (generation.get() != stamp) {
+					// The file may have changed after it was read
+					entries.remove(key, entry);
+				}
+			}
+		}
+		if (entry == ABSENT) {
+			throw new NoSuchFileException(path.toString());
+		}
+		return entry.attributes;
+	}
+
+	/**
+	 * Answers the basic attributes of a file, or null if it does not exist,
+	 * cannot be read or is not of the default file system.
+	 *
+	 * @param path the file
+	 * @return the attributes of the file, or null
+	 */
+	public BasicFileAttributes readAttributesOrNull(Path path) {
+		try {
+			return readAttributes(path);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Drops the cached attributes of a file, and those of its directory,
+	 * after the file has been changed. If the file was cached as a directory
+	 * or is watched as one, the entries of all the files under it are
+	 * dropped as well, since a directory that is moved or deleted leaves no
+	 * event for them.
+	 *
+	 * @param path the file
+	 */
+	public void invalidate(Path path) {
+		if (path.getFileSystem() != fileSystem) {
+			return;
+		}
+		Path key = path.toAbsolutePath().normalize();
+		generation.incrementAndGet();
+		if (isDirectory(key, entries.remove(key))) {
+			invalidateTree(key);
+		}
+		Path dir = key.getParent();
+		if (dir != null) {
+			entries.remove(dir);
+		}
+	}
+
+	/**
+	 * Drops the cached attributes of a file given by name, and those of its
+	 * directory and of the files under it, after the file has been changed.
+	 *
+	 * @param name the name of the file
+	 */
+	public void invalidate(String name) {
+		try {
+			invalidate(fileSystem.getPath(name));
+		} catch (InvalidPathException e) {
+			// nothing can be cached under that name
+		}
+	}
+
+	/*
+	 * Registers a directory with the watch service, answering whether the
+	 * files in it may be cached.
+	 */
+	private boolean watch(final Path dir) {
+		if (dir == null) {
+			// a root is never invalidated by a watch service
+			return false;
+		}
+		if (directories.containsKey(dir)) {
+			return true;
+		}
+		if (directories.size() >= maxDirectories) {
+			return false;
+		}
+		final WatchService service = watcher();
+		if (service == null) {
+			return false;
+		}
+		try {
+			WatchKey key = AccessController.doPrivileged(new PrivilegedExceptionAction<WatchKey>() {
+				public WatchKey run() throws IOException {
+					return dir.register(service,
+							StandardWatchEventKinds.ENTRY_CREATE,
+							StandardWatchEventKinds.ENTRY_DELETE,
+							StandardWatchEventKinds.ENTRY_MODIFY);
+				}
+			});
+			directories.putIfAbsent(dir, key);
+			return true;
+		} catch (PrivilegedActionException | UnsupportedOperationException | ClosedWatchServiceException e) {
+			return false;
+		}
+	}
+
+	private WatchService watcher() {
+		WatchService service = watcher;
+		if (service == null) {
+			synchronized (this) {
+				service = watcher;
+				if (service == null && !watcherFailed) {
+					try {
+						service = fileSystem.newWatchService();
+					} catch (IOException | UnsupportedOperationException e) {
+						watcherFailed = true;
+						return null;
+					}
+					startWatching(service);
+					watcher = service;
+				}
+			}
+		}
+		return service;
+	}
+
+	private void startWatching(final WatchService service) {
+		AccessController.doPrivileged(new PrivilegedAction<Void>() {
+			public Void run() {
+				Thread thread = new Thread(new Runnable() {
+					public void run() {
+						processEvents(service);
+					}
+				}, "File attribute cache watcher"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				thread.start();
+				return null;
+			}
+		});
+	}
+
+	/*
+	 * Drops the entries of the files reported changed, until the watch
+	 * service is closed.
+	 */
+	private void processEvents(WatchService service) {
+		for (;;) {
+			WatchKey key;
+			try {
+				key = service.take();
+			} catch (InterruptedException e) {
+				continue;
+			} catch (ClosedWatchServiceException e) {
+				generation.incrementAndGet();
+				entries.clear();
+				directories.clear();
+				return;
+			}
+			Path dir = (Path) key.watchable();
+			generation.incrementAndGet();
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+					// a subdirectory may have been moved or deleted
+					invalidateTree(dir);
+				} else {
+					Path file = dir.resolve((Path) event.context());
+					Entry entry = entries.remove(file);
+					if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE && isDirectory(file, entry)) {
+						// a subdirectory moved away leaves no event of its own
+						invalidateTree(file);
+					}
+				}
+			}
+			// The directory changed along with its entries
+			entries.remove(dir);
+			if (!key.reset()) {
+				// The directory itself was deleted, or can no longer be watched
+				generation.incrementAndGet();
+				directories.remove(dir, key);
+				invalidateTree(dir);
+			}
+		}
+	}
+
+	/*
+	 * Answers whether a file whose entry was removed is known to be a
+	 * directory, as it was cached or is watched as one. Only then can there
+	 * be entries or watches under it, so that the others need no scan.
+	 */
+	private boolean isDirectory(Path file, Entry entry) {
+		if (entry != null && entry != ABSENT) {
+			return entry.attributes.isDirectory();
+		}
+		return directories.containsKey(file);
+	}
+
+	/*
+	 * Stops watching a directory and the directories under it, and drops
+	 * the entries of all the files under it.
+	 */
+	private void invalidateTree(Path dir) {
+		boolean watched = false;
+		for (Iterator<Map.Entry<Path, WatchKey>> iter = directories.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<Path, WatchKey> watch = iter.next();
+			if (watch.getKey().startsWith(dir)) {
+				iter.remove();
+				watch.getValue().cancel();
+				watched = true;
+			}
+		}
+		entries.remove(dir);
+		if (!watched) {
+			// only the files of a watched directory are cached
+			return;
+		}
+		for (Iterator<Path> iter = entries.keySet().iterator(); iter.hasNext();) {
+			if (iter.next().startsWith(dir)) {
+				iter.remove();
+			}
+		}
+	}
+
+	/*
+	 * Drops an arbitrary eighth of the entries, unless another thread is
+	 * already doing so.
+	 */
+	private void evict() {
+		if (!evicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			int count = maxEntries / 8;
+			for (Iterator<Path> iter = entries.keySet().iterator(); count > 0 && iter.hasNext(); count--) {
+				iter.next();
+				iter.remove();
+			}
+		} finally {
+			evicting.set(false);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package com.ibm.lang.management;
+
+import java.beans.ConstructorProperties;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * The class loading statistics of one class loader, as gathered when the
+ * system property <code>ibm.cl.profile</code> is <code>true</code>.
+ * <p>
+ * Times are in nanoseconds. The time in <code>findClass</code> includes
+ * the time spent defining the classes found.
+ * </p>
+ *
+ * @see ClassLoadingMXBean#getClassLoaderStatistics()
+ * @since 1.7
+ */
+public final class ClassLoaderStatistics {
+
+    private final String classLoader;
+    private final long loadClassCount;
+    private final long lockWaitTime;
+    private final long findClassCount;
+    private final long findClassTime;
+    private final long defineClassCount;
+    private final long defineClassTime;
+
+    /**
+     * Creates statistics with the specified values.
+     */
+    @ConstructorProperties({ "classLoader", "loadClassCount", "lockWaitTime",
+            "findClassCount", "findClassTime", "defineClassCount",
+            "defineClassTime" })
+    public ClassLoaderStatistics(String classLoader, long loadClassCount,
+            long lockWaitTime, long findClassCount, long findClassTime,
+            long defineClassCount, long defineClassTime) {
+        this.classLoader = classLoader;
+        this.loadClassCount = loadClassCount;
+        this.lockWaitTime = lockWaitTime;
+        this.findClassCount = findClassCount;
+        this.findClassTime = findClassTime;
+        this.defineClassCount = defineClassCount;
+        this.defineClassTime = defineClassTime;
+    }
+
+    /**
+     * @return the class name and identity hash code of the class loader,
+     *         as <code>name@hash</code>
+     */
+    public String getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * @return the number of calls to <code>loadClass</code>
+     */
+    public long getLoadClassCount() {
+        return loadClassCount;
+    }
+
+    /**
+     * @return the time spent waiting for the lock returned by
+     *         <code>getClassLoadingLock</code>, or for the class loader
+     *         itself if it is not parallel capable
+     */
+    public long getLockWaitTime() {
+        return lockWaitTime;
+    }
+
+    /**
+     * @return the number of calls to <code>findClass</code>
+     */
+    public long getFindClassCount() {
+        return findClassCount;
+    }
+
+    /**
+     * @return the time spent in <code>findClass</code>
+     */
+    public long getFindClassTime() {
+        return findClassTime;
+    }
+
+    /**
+     * @return the number of classes defined
+     */
+    public long getDefineClassCount() {
+        return defineClassCount;
+    }
+
+    /**
+     * @return the time spent in <code>defineClass</code>
+     */
+    public long getDefineClassTime() {
+        return defineClassTime;
+    }
+
+    /**
+     * Receives a {@link CompositeData} representing a
+     * <code>ClassLoaderStatistics</code> object and attempts to return the
+     * root <code>ClassLoaderStatistics</code> instance.
+     *
+     * @param cd
+     *            a <code>CompositeData</code> that represents a
+     *            <code>ClassLoaderStatistics</code>.
+     * @return if <code>cd</code> is non- <code>null</code>, returns a new
+     *         instance of <code>ClassLoaderStatistics</code>. If
+     *         <code>cd</code> is <code>null</code>, returns
+     *         <code>null</code>.
+     * @throws IllegalArgumentException
+     *             if argument <code>cd</code> does not correspond to a
+     *             <code>ClassLoaderStatistics</code> with the attributes
+     *             <code>classLoader</code> (<code>java.lang.String</code>)
+     *             and <code>loadClassCount</code>,
+     *             <code>lockWaitTime</code>, <code>findClassCount</code>,
+     *             <code>findClassTime</code>,
+     *             <code>defineClassCount</code> and
+     *             <code>defineClassTime</code> (<code>java.lang.Long</code>)
+     */
+    public static ClassLoaderStatistics from(CompositeData cd) {
+        ClassLoaderStatistics result = null;
+
+        if (cd != null) {
+            // Does cd meet the necessary criteria to create a new
+            // ClassLoaderStatistics ? If not then one of the following
+            // method invocations will exit on an IllegalArgumentException...
+            ManagementUtils.verifyFieldNumber(cd, 7);
+            String[] attributeNames = { "classLoader", "loadClassCount", //$NON-NLS-1$ //$NON-NLS-2$
+                    "lockWaitTime", "findClassCount", "findClassTime", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    "defineClassCount", "defineClassTime" }; //$NON-NLS-1$ //$NON-NLS-2$
+            ManagementUtils.verifyFieldNames(cd, attributeNames);
+            String[] attributeTypes = { "java.lang.String", "java.lang.Long", //$NON-NLS-1$ //$NON-NLS-2$
+                    "java.lang.Long", "java.lang.Long", "java.lang.Long", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    "java.lang.Long", "java.lang.Long" }; //$NON-NLS-1$ //$NON-NLS-2$
+            ManagementUtils.verifyFieldTypes(cd, attributeNames, attributeTypes);
+
+            // Extract the values of the attributes and use them to construct
+            // a new ClassLoaderStatistics.
+            Object[] attributeVals = cd.getAll(attributeNames);
+            result = new ClassLoaderStatistics((String) attributeVals[0],
+                    ((Long) attributeVals[1]).longValue(),
+                    ((Long) attributeVals[2]).longValue(),
+                    ((Long) attributeVals[3]).longValue(),
+                    ((Long) attributeVals[4]).longValue(),
+                    ((Long) attributeVals[5]).longValue(),
+                    ((Long) attributeVals[6]).longValue());
+        }// end if cd is not null
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return classLoader + "[loadClass=" + loadClassCount //$NON-NLS-1$
+                + ", lockWait=" + lockWaitTime //$NON-NLS-1$
+                + "ns, findClass=" + findClassCount + "/" + findClassTime //$NON-NLS-1$ //$NON-NLS-2$
+                + "ns, defineClass=" + defineClassCount + "/" + defineClassTime //$NON-NLS-1$ //$NON-NLS-2$
+                + "ns]"; //$NON-NLS-1$
+    }
+}
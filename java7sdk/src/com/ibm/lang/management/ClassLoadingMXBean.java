@@ -0,0 +1,39 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package com.ibm.lang.management;
+
+/**
+ * The IBM-specific interface for monitoring the class loading system of
+ * the virtual machine.
+ *
+ * @since 1.7
+ */
+public interface ClassLoadingMXBean extends
+        java.lang.management.ClassLoadingMXBean {
+
+    /**
+     * Answers whether class loading is being profiled, which is the case
+     * when the system property <code>ibm.cl.profile</code> is
+     * <code>true</code>.
+     *
+     * @return true if class loading is being profiled
+     */
+    public boolean isProfilingEnabled();
+
+    /**
+     * Returns the class loading statistics of each class loader that has
+     * loaded a class since profiling was enabled.
+     *
+     * @return the statistics of the class loaders, empty if class loading
+     *         is not being profiled
+     * @throws SecurityException
+     *             if a {@link SecurityManager} is being used and the caller
+     *             does not have the <code>ManagementPermission</code> value
+     *             of "monitor".
+     */
+    public ClassLoaderStatistics[] getClassLoaderStatistics();
+
+}
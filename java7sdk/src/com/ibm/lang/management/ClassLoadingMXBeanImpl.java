@@ -5,7 +5,6 @@
 
 package com.ibm.lang.management;
 
-import java.lang.management.ClassLoadingMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ManagementPermission;
 
@@ -34,7 +33,7 @@ public final class ClassLoadingMXBeanImpl extends DynamicMXBeanImpl implements
     @Override
     public javax.management.MBeanInfo getMBeanInfo() {
         if (info == null) {
-            setMBeanInfo(ManagementUtils.getMBeanInfo(ClassLoadingMXBean.class.getName()));
+            setMBeanInfo(ManagementUtils.getMBeanInfo(java.lang.management.ClassLoadingMXBean.class.getName()));
         }
         return info;
     }
@@ -127,6 +126,28 @@ public final class ClassLoadingMXBeanImpl extends DynamicMXBeanImpl implements
         }
         this.setVerboseImpl(value);
     }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.ibm.lang.management.ClassLoadingMXBean#isProfilingEnabled()
+     */
+    public boolean isProfilingEnabled() {
+        return ClassLoadingProfiler.isProfilingEnabled();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.ibm.lang.management.ClassLoadingMXBean#getClassLoaderStatistics()
+     */
+    public ClassLoaderStatistics[] getClassLoaderStatistics() {
+        SecurityManager security = System.getSecurityManager();
+        if (security != null) {
+            security.checkPermission(new ManagementPermission("monitor"));
+        }
+        return ClassLoadingProfiler.getStatistics();
+    }
 }
 
 /*
@@ -0,0 +1,323 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package com.ibm.lang.management;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sun.reflect.CallerSensitive;
+import sun.reflect.Reflection;
+
+/**
+ * Gathers the class loading statistics reported by
+ * {@link ClassLoadingMXBean#getClassLoaderStatistics()}, and records and
+ * replays the order in which the application class loader loads classes.
+ * <p>
+ * This class is used by <code>java.lang.ClassLoader</code>, which enables
+ * it with these system properties:
+ * <ul>
+ * <li><code>ibm.cl.profile=true</code> counts the calls to
+ * <code>loadClass</code>, <code>findClass</code> and
+ * <code>defineClass</code> of each class loader, and times them along with
+ * the wait for the class loading lock.</li>
+ * <li><code>ibm.cl.recordLoadOrder=<i>file</i></code> writes the names of
+ * the classes loaded through the application class loader to the file, in
+ * load order, when the virtual machine shuts down.</li>
+ * <li><code>ibm.cl.preload=<i>file</i></code> loads the classes named in a
+ * file so written in background threads, as soon as the class loaders are
+ * initialized. The number of threads is set by
+ * <code>ibm.cl.preloadThreads</code> and defaults to half the
+ * processors.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Only classes of the bootstrap class path may use the methods of this
+ * class: they write and load files with the privileges of the virtual
+ * machine.
+ * </p>
+ *
+ * @since 1.7
+ */
+public final class ClassLoadingProfiler {
+
+    private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+    private static volatile boolean profilingEnabled;
+
+    /* The counters of each class loader; weak so class loaders can be unloaded */
+    private static final Map<ClassLoader, Counters> counters = new WeakHashMap<ClassLoader, Counters>();
+
+    /* The classes loaded through the application class loader, in order */
+    private static final Set<String> loadOrder = new LinkedHashSet<String>();
+
+    private ClassLoadingProfiler() {
+    }
+
+    private static void checkCaller(Class<?> caller) {
+        if (caller.getClassLoader() != null) {
+            throw new SecurityException();
+        }
+    }
+
+    /**
+     * The counters of one class loader, updated by
+     * <code>java.lang.ClassLoader</code>.
+     */
+    public static final class Counters {
+        private final String classLoader;
+        private final AtomicLong loadClassCount = new AtomicLong();
+        private final AtomicLong lockWaitTime = new AtomicLong();
+        private final AtomicLong findClassCount = new AtomicLong();
+        private final AtomicLong findClassTime = new AtomicLong();
+        private final AtomicLong defineClassCount = new AtomicLong();
+        private final AtomicLong defineClassTime = new AtomicLong();
+
+        Counters(ClassLoader loader) {
+            classLoader = loader.getClass().getName() + '@'
+                    + Integer.toHexString(System.identityHashCode(loader));
+        }
+
+        /**
+         * Counts a call to <code>loadClass</code> that waited the
+         * specified number of nanoseconds for the class loading lock.
+         */
+        public void loadClassCalled(long lockWaitNanos) {
+            loadClassCount.incrementAndGet();
+            lockWaitTime.addAndGet(lockWaitNanos);
+        }
+
+        /**
+         * Counts a call to <code>findClass</code> that took the specified
+         * number of nanoseconds.
+         */
+        public void findClassCalled(long nanos) {
+            findClassCount.incrementAndGet();
+            findClassTime.addAndGet(nanos);
+        }
+
+        /**
+         * Counts a class defined in the specified number of nanoseconds.
+         */
+        public void classDefined(long nanos) {
+            defineClassCount.incrementAndGet();
+            defineClassTime.addAndGet(nanos);
+        }
+
+        ClassLoaderStatistics getStatistics() {
+            return new ClassLoaderStatistics(classLoader,
+                    loadClassCount.get(), lockWaitTime.get(),
+                    findClassCount.get(), findClassTime.get(),
+                    defineClassCount.get(), defineClassTime.get());
+        }
+    }
+
+    /**
+     * Records that class loading is being profiled.
+     *
+     * @throws SecurityException
+     *             if the caller is not a class of the bootstrap class path
+     */
+    @CallerSensitive
+    public static void enableProfiling() {
+        checkCaller(Reflection.getCallerClass());
+        profilingEnabled = true;
+    }
+
+    /**
+     * @return true if class loading is being profiled
+     */
+    static boolean isProfilingEnabled() {
+        return profilingEnabled;
+    }
+
+    /**
+     * Answers the counters of the specified class loader, creating them on
+     * first use.
+     *
+     * @param loader
+     *            the class loader
+     * @return the counters of <code>loader</code>
+     *
+     * @throws SecurityException
+     *             if the caller is not a class of the bootstrap class path
+     */
+    @CallerSensitive
+    public static Counters countersFor(ClassLoader loader) {
+        checkCaller(Reflection.getCallerClass());
+        synchronized (counters) {
+            Counters result = counters.get(loader);
+            if (result == null) {
+                result = new Counters(loader);
+                counters.put(loader, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @return the statistics of all the class loaders that have counters
+     */
+    static ClassLoaderStatistics[] getStatistics() {
+        List<Counters> all;
+        synchronized (counters) {
+            all = new ArrayList<Counters>(counters.values());
+        }
+        ClassLoaderStatistics[] result = new ClassLoaderStatistics[all.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = all.get(i).getStatistics();
+        }
+        return result;
+    }
+
+    /**
+     * Records that the application class loader has loaded the specified
+     * class.
+     *
+     * @param className
+     *            the name of the class
+     *
+     * @throws SecurityException
+     *             if the caller is not a class of the bootstrap class path
+     */
+    @CallerSensitive
+    public static void classLoaded(String className) {
+        checkCaller(Reflection.getCallerClass());
+        synchronized (loadOrder) {
+            loadOrder.add(className);
+        }
+    }
+
+    /**
+     * Arranges for the classes recorded by {@link #classLoaded(String)} to
+     * be written to the specified file when the virtual machine shuts down.
+     *
+     * @param fileName
+     *            the name of the file
+     *
+     * @throws SecurityException
+     *             if the caller is not a class of the bootstrap class path
+     */
+    @CallerSensitive
+    public static void recordLoadOrder(final String fileName) {
+        checkCaller(Reflection.getCallerClass());
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            public Void run() {
+                Runtime.getRuntime().addShutdownHook(new Thread("Class load order writer") { //$NON-NLS-1$
+                    public void run() {
+                        writeLoadOrder(fileName);
+                    }
+                });
+                return null;
+            }
+        });
+    }
+
+    private static void writeLoadOrder(String fileName) {
+        String[] names;
+        synchronized (loadOrder) {
+            names = loadOrder.toArray(new String[loadOrder.size()]);
+        }
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(fileName), ENCODING))) {
+            for (String name : names) {
+                out.write(name);
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            if (ManagementUtils.VERBOSE_MODE) {
+                e.printStackTrace(System.err);
+            }
+        }
+    }
+
+    /**
+     * Starts background threads that load the classes named in the
+     * specified file with the specified class loader, in the order of the
+     * file, without initializing them. Classes that cannot be loaded are
+     * ignored.
+     *
+     * @param fileName
+     *            the name of a file written by
+     *            {@link #recordLoadOrder(String)}
+     * @param loader
+     *            the class loader to load the classes with
+     *
+     * @throws SecurityException
+     *             if the caller is not a class of the bootstrap class path
+     */
+    @CallerSensitive
+    public static void preload(final String fileName, final ClassLoader loader) {
+        checkCaller(Reflection.getCallerClass());
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            public Void run() {
+                final String[] names = readLoadOrder(fileName);
+                if (names.length == 0) {
+                    return null;
+                }
+                int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+                String value = System.getProperty("ibm.cl.preloadThreads"); //$NON-NLS-1$
+                if (value != null) {
+                    try {
+                        threads = Math.max(1, Integer.parseInt(value));
+                    } catch (NumberFormatException e) {
+                    }
+                }
+                threads = Math.min(threads, names.length);
+                for (int i = 0; i < threads; i++) {
+                    final int first = i;
+                    final int stride = threads;
+                    // each thread takes every stride-th class, so the
+                    // classes needed first are loaded first
+                    Thread t = new Thread("Class preloader " + i) { //$NON-NLS-1$
+                        public void run() {
+                            for (int j = first; j < names.length; j += stride) {
+                                try {
+                                    Class.forName(names[j], false, loader);
+                                } catch (ClassNotFoundException | LinkageError e) {
+                                }
+                            }
+                        }
+                    };
+                    t.setDaemon(true);
+                    t.start();
+                }
+                return null;
+            }
+        });
+    }
+
+    private static String[] readLoadOrder(String fileName) {
+        List<String> names = new ArrayList<String>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new FileInputStream(fileName), ENCODING))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.length() > 0) {
+                    names.add(line);
+                }
+            }
+        } catch (IOException e) {
+            // nothing to preload, as on the first run
+        }
+        return names.toArray(new String[names.size()]);
+    }
+}
@@ -90,6 +90,8 @@ public class ManagementUtils {
 
     private static CompositeType STACKTRACEELEMENT_COMPOSITETYPE;
 
+    private static CompositeType CLASSLOADERSTATISTICS_COMPOSITETYPE;
+
     /**
      * System property setting used to decide if non-fatal exceptions should be
      * written out to console.
@@ -270,6 +272,7 @@ public class ManagementUtils {
         ret.put("java.lang.management.RuntimeMXBean", RuntimeMXBean.class);
         ret.put("java.lang.management.ThreadMXBean", ThreadMXBean.class);
         
+        ret.put("com.ibm.lang.management.ClassLoadingMXBean", ClassLoadingMXBean.class);
         ret.put("com.ibm.lang.management.GarbageCollectorMXBean", GarbageCollectorMXBean.class);
         ret.put("com.ibm.lang.management.MemoryMXBean", MemoryMXBean.class);
         ret.put("com.ibm.lang.management.MemoryPoolMXBean", MemoryPoolMXBean.class);
@@ -280,12 +283,14 @@ public class ManagementUtils {
     
     private static HashMap<String,Class> getLocalIBMAvailableInterfaces() {
     	HashMap<String,Class> ret = new HashMap<String,Class>();
+        ret.put("java.lang.management.ClassLoadingMXBean", com.ibm.lang.management.ClassLoadingMXBean.class);
         ret.put("java.lang.management.GarbageCollectorMXBean", com.ibm.lang.management.GarbageCollectorMXBean.class);
         ret.put("java.lang.management.MemoryMXBean", com.ibm.lang.management.MemoryMXBean.class);
         ret.put("java.lang.management.MemoryPoolMXBean", com.ibm.lang.management.MemoryPoolMXBean.class);
         ret.put("java.lang.management.OperatingSystemMXBean", com.ibm.lang.management.OperatingSystemMXBean.class);
         ret.put("java.lang.management.RuntimeMXBean", com.ibm.lang.management.RuntimeMXBean.class);
         
+        ret.put("com.ibm.lang.management.ClassLoadingMXBean", com.ibm.lang.management.ClassLoadingMXBean.class);
         ret.put("com.ibm.lang.management.GarbageCollectorMXBean", com.ibm.lang.management.GarbageCollectorMXBean.class);
         ret.put("com.ibm.lang.management.MemoryMXBean", com.ibm.lang.management.MemoryMXBean.class);
         ret.put("com.ibm.lang.management.MemoryPoolMXBean", com.ibm.lang.management.MemoryPoolMXBean.class);
@@ -308,6 +313,7 @@ public class ManagementUtils {
         ret.put("java.lang.management.RuntimeMXBean", RuntimeMXBeanImpl.getInstance());
         ret.put("java.lang.management.ThreadMXBean", ThreadMXBeanImpl.getInstance());
         
+        ret.put("com.ibm.lang.management.ClassLoadingMXBean", ClassLoadingMXBeanImpl.getInstance());
         ret.put("com.ibm.lang.management.GarbageCollectorMXBean", GarbageCollectorMXBeanImpl.getInstanceFromMgmtUtils());
         ret.put("com.ibm.lang.management.MemoryMXBean", MemoryMXBeanImpl.getInstance());
         ret.put("com.ibm.lang.management.MemoryPoolMXBean", MemoryPoolMXBeanImpl.getInstanceFromMgmtUtils());
@@ -606,6 +612,70 @@ public class ManagementUtils {
         return MEMORYUSAGE_COMPOSITETYPE;
     }
 
+    /**
+     * @param statistics
+     *            a {@link ClassLoaderStatistics} object.
+     * @return a {@link CompositeData} object that represents the supplied
+     *         <code>statistics</code> object.
+     */
+    public static CompositeData toClassLoaderStatisticsCompositeData(
+            ClassLoaderStatistics statistics) {
+        // Bail out early on null input.
+        if (statistics == null) {
+            return null;
+        }
+
+        CompositeData result = null;
+        String[] names = { "classLoader", "loadClassCount", "lockWaitTime",
+                "findClassCount", "findClassTime", "defineClassCount",
+                "defineClassTime" };
+        Object[] values = { statistics.getClassLoader(),
+                new Long(statistics.getLoadClassCount()),
+                new Long(statistics.getLockWaitTime()),
+                new Long(statistics.getFindClassCount()),
+                new Long(statistics.getFindClassTime()),
+                new Long(statistics.getDefineClassCount()),
+                new Long(statistics.getDefineClassTime()) };
+        CompositeType cType = getClassLoaderStatisticsCompositeType();
+        try {
+            result = new CompositeDataSupport(cType, names, values);
+        } catch (OpenDataException e) {
+            if (ManagementUtils.VERBOSE_MODE) {
+                e.printStackTrace(System.err);
+            }// end if
+        }
+        return result;
+    }
+
+    /**
+     * @return an instance of {@link CompositeType} for the
+     *         {@link ClassLoaderStatistics} class.
+     */
+    public static CompositeType getClassLoaderStatisticsCompositeType() {
+        if (CLASSLOADERSTATISTICS_COMPOSITETYPE == null) {
+            String[] typeNames = { "classLoader", "loadClassCount",
+                    "lockWaitTime", "findClassCount", "findClassTime",
+                    "defineClassCount", "defineClassTime" };
+            String[] typeDescs = { "classLoader", "loadClassCount",
+                    "lockWaitTime", "findClassCount", "findClassTime",
+                    "defineClassCount", "defineClassTime" };
+            OpenType[] typeTypes = { SimpleType.STRING, SimpleType.LONG,
+                    SimpleType.LONG, SimpleType.LONG, SimpleType.LONG,
+                    SimpleType.LONG, SimpleType.LONG };
+            try {
+                CLASSLOADERSTATISTICS_COMPOSITETYPE = new CompositeType(
+                        ClassLoaderStatistics.class.getName(),
+                        ClassLoaderStatistics.class.getName(), typeNames,
+                        typeDescs, typeTypes);
+            } catch (OpenDataException e) {
+                if (ManagementUtils.VERBOSE_MODE) {
+                    e.printStackTrace(System.err);
+                }// end if
+            }
+        }
+        return CLASSLOADERSTATISTICS_COMPOSITETYPE;
+    }
+
     /**
      * @param info
      *            a {@link java.lang.management.MemoryNotificationInfo}object.
@@ -1325,6 +1395,9 @@ public class ManagementUtils {
             } else if (realClass.equals(LockInfo.class)) {
                 result = (T) ManagementUtils
                         .toLockInfoCompositeData((LockInfo) data);
+            } else if (realClass.equals(ClassLoaderStatistics.class)) {
+                result = (T) ManagementUtils
+                        .toClassLoaderStatisticsCompositeData((ClassLoaderStatistics) data);
             }
         } else if (openClass.equals(TabularData.class)) {
             if (realClass.equals(Map.class)) {
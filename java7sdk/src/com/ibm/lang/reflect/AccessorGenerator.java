@@ -0,0 +1,626 @@
+/*
+ * Licensed Materials - Property of IBM,
+ * (c) Copyright IBM Corp. 2014  All Rights Reserved.
+ */
+
+package com.ibm.lang.reflect;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.sun.xml.internal.ws.org.objectweb.asm.ClassWriter;
+import com.sun.xml.internal.ws.org.objectweb.asm.Label;
+import com.sun.xml.internal.ws.org.objectweb.asm.MethodVisitor;
+import com.sun.xml.internal.ws.org.objectweb.asm.Opcodes;
+import com.sun.xml.internal.ws.org.objectweb.asm.Type;
+
+/**
+ * Generates the class files of field and method accessors. The classes are
+ * meant to be defined as anonymous classes hosted by the declaring class of
+ * the member, which gives them the access rights of that class.
+ */
+final class AccessorGenerator implements Opcodes {
+
+	private static final String OBJECT = "java/lang/Object";
+	private static final String FIELD_ACCESSOR = "com/ibm/lang/reflect/FieldAccessor";
+	private static final String SERIAL_FIELD_ACCESSOR = "com/ibm/lang/reflect/SerialFieldAccessor";
+
+	/* The primitive types with a typed getter and setter, in FieldAccessor order */
+	private static final Class<?>[] PRIMITIVES = {
+		boolean.class, byte.class, char.class, short.class,
+		int.class, long.class, float.class, double.class
+	};
+
+	private AccessorGenerator() {
+	}
+
+	/**
+	 * Generates a subclass of {@link FieldAccessor} for the specified field.
+	 * Setters are only generated if the field is not final.
+	 */
+	static byte[] generateFieldAccessor(String className, Field field) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_6, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null, FIELD_ACCESSOR, null);
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "(Ljava/lang/reflect/Field;)V", null, null); //$NON-NLS-1$
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKESPECIAL, FIELD_ACCESSOR, "<init>", "(Ljava/lang/reflect/Field;)V"); //$NON-NLS-1$
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		Class<?> type = field.getType();
+		Type fieldType = Type.getType(type);
+		String owner = Type.getInternalName(field.getDeclaringClass());
+		boolean isStatic = Modifier.isStatic(field.getModifiers());
+
+		// get(Object), boxing primitive values
+		mv = cw.visitMethod(ACC_PUBLIC, "get", "(Ljava/lang/Object;)Ljava/lang/Object;", null, null); //$NON-NLS-1$
+		mv.visitCode();
+		loadField(mv, owner, field.getName(), fieldType, isStatic);
+		if (type.isPrimitive()) {
+			box(mv, type);
+		}
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// the typed getters the field type widens to
+		for (Class<?> to : PRIMITIVES) {
+			if (!type.isPrimitive() || !widens(type, to)) {
+				continue;
+			}
+			Type toType = Type.getType(to);
+			mv = cw.visitMethod(ACC_PUBLIC, getterName(to), "(Ljava/lang/Object;)" + toType.getDescriptor(), null, null); //$NON-NLS-1$
+			mv.visitCode();
+			loadField(mv, owner, field.getName(), fieldType, isStatic);
+			convert(mv, fieldType, toType);
+			mv.visitInsn(toType.getOpcode(IRETURN));
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		if (Modifier.isFinal(field.getModifiers())) {
+			cw.visitEnd();
+			return cw.toByteArray();
+		}
+
+		int putOpcode = isStatic ? PUTSTATIC : PUTFIELD;
+		if (type.isPrimitive()) {
+			// the typed setters whose type widens to the field type;
+			// set(Object, Object) unwraps and dispatches to them
+			for (Class<?> from : PRIMITIVES) {
+				if (!widens(from, type)) {
+					continue;
+				}
+				Type fromType = Type.getType(from);
+				mv = cw.visitMethod(ACC_PUBLIC, setterName(from), "(Ljava/lang/Object;" + fromType.getDescriptor() + ")V", null, null); //$NON-NLS-1$
+				mv.visitCode();
+				loadTarget(mv, owner, isStatic);
+				mv.visitVarInsn(fromType.getOpcode(ILOAD), 2);
+				convert(mv, fromType, fieldType);
+				mv.visitFieldInsn(putOpcode, owner, field.getName(), fieldType.getDescriptor());
+				mv.visitInsn(RETURN);
+				mv.visitMaxs(0, 0);
+				mv.visitEnd();
+			}
+		} else {
+			// set(Object, Object) with a type check of non-null values
+			String typeName = fieldType.getInternalName();
+			mv = cw.visitMethod(ACC_PUBLIC, "set", "(Ljava/lang/Object;Ljava/lang/Object;)V", null, new String[] { "java/lang/IllegalAccessException" }); //$NON-NLS-1$ //$NON-NLS-2$
+			mv.visitCode();
+			Label store = new Label();
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitJumpInsn(IFNULL, store);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitTypeInsn(INSTANCEOF, typeName);
+			mv.visitJumpInsn(IFNE, store);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(INVOKEVIRTUAL, OBJECT, "getClass", "()Ljava/lang/Class;"); //$NON-NLS-1$
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getName", "()Ljava/lang/String;"); //$NON-NLS-1$ //$NON-NLS-2$
+			mv.visitMethodInsn(INVOKEVIRTUAL, FIELD_ACCESSOR, "setFailed", "(Ljava/lang/String;)Ljava/lang/IllegalArgumentException;"); //$NON-NLS-1$
+			mv.visitInsn(ATHROW);
+			mv.visitLabel(store);
+			loadTarget(mv, owner, isStatic);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitTypeInsn(CHECKCAST, typeName);
+			mv.visitFieldInsn(putOpcode, owner, field.getName(), fieldType.getDescriptor());
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Generates a class implementing {@code type}, whose single abstract
+	 * method {@code sam} invokes {@code method}. For an instance method, the
+	 * first parameter of {@code sam} is the receiver.
+	 *
+	 * @throws IllegalArgumentException if the parameter or return types of
+	 *         {@code sam} cannot be adapted to those of {@code method}
+	 */
+	static byte[] generateMethodAccessor(String className, Method method, Class<?> type, Method sam) {
+		boolean isStatic = Modifier.isStatic(method.getModifiers());
+		Class<?>[] targetParams = method.getParameterTypes();
+		Class<?>[] samParams = sam.getParameterTypes();
+		int receiverCount = isStatic ? 0 : 1;
+		if (samParams.length != targetParams.length + receiverCount) {
+			throw mismatch(method, sam);
+		}
+
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_6, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null, OBJECT,
+				new String[] { Type.getInternalName(type) });
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null); //$NON-NLS-1$
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V"); //$NON-NLS-1$
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		Class<?> declaringClass = method.getDeclaringClass();
+		String owner = Type.getInternalName(declaringClass);
+		mv = cw.visitMethod(ACC_PUBLIC, sam.getName(), Type.getMethodDescriptor(sam), null, null);
+		mv.visitCode();
+		int slot = 1;
+		if (!isStatic) {
+			if (samParams[0].isPrimitive()) {
+				throw mismatch(method, sam);
+			}
+			mv.visitVarInsn(ALOAD, slot++);
+			if (!declaringClass.isAssignableFrom(samParams[0])) {
+				mv.visitTypeInsn(CHECKCAST, owner);
+			}
+		}
+		for (int i = 0; i < targetParams.length; i++) {
+			Class<?> from = samParams[i + receiverCount];
+			Type fromType = Type.getType(from);
+			mv.visitVarInsn(fromType.getOpcode(ILOAD), slot);
+			slot += fromType.getSize();
+			if (!adapt(mv, from, targetParams[i])) {
+				throw mismatch(method, sam);
+			}
+		}
+
+		int opcode;
+		if (isStatic) {
+			opcode = INVOKESTATIC;
+		} else if (declaringClass.isInterface()) {
+			opcode = INVOKEINTERFACE;
+		} else if (Modifier.isPrivate(method.getModifiers())) {
+			opcode = INVOKESPECIAL;
+		} else {
+			opcode = INVOKEVIRTUAL;
+		}
+		mv.visitMethodInsn(opcode, owner, method.getName(), Type.getMethodDescriptor(method));
+
+		Class<?> returnType = method.getReturnType();
+		Class<?> samReturn = sam.getReturnType();
+		if (samReturn == void.class) {
+			if (returnType != void.class) {
+				mv.visitInsn(Type.getType(returnType).getSize() == 2 ? POP2 : POP);
+			}
+		} else if (returnType == void.class) {
+			if (samReturn.isPrimitive()) {
+				throw mismatch(method, sam);
+			}
+			mv.visitInsn(ACONST_NULL);
+		} else if (!adapt(mv, returnType, samReturn)) {
+			throw mismatch(method, sam);
+		}
+		mv.visitInsn(Type.getType(samReturn).getOpcode(IRETURN));
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Generates a subclass of {@link SerialFieldAccessor} for the specified
+	 * fields of {@code host}. Null fields are skipped: their values are not
+	 * read and are discarded when written. Primitive fields come first, and
+	 * {@code offsets} gives the position of each value in the byte array or
+	 * the object array.
+	 *
+	 * @param offsets the offsets of the field values in the arrays
+	 * @param unsafeOffsets the {@link sun.misc.Unsafe} offsets of the
+	 *        fields, used to write those that cannot be written with
+	 *        {@code putfield}
+	 */
+	static byte[] generateSerialFieldAccessor(String className, Class<?> host, Field[] fields,
+			char[] typeCodes, int[] offsets, long[] unsafeOffsets) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_6, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null, SERIAL_FIELD_ACCESSOR, null);
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "([Ljava/lang/reflect/Field;)V", null, null); //$NON-NLS-1$
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKESPECIAL, SERIAL_FIELD_ACCESSOR, "<init>", "([Ljava/lang/reflect/Field;)V"); //$NON-NLS-1$
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		String owner = Type.getInternalName(host);
+		int numPrimFields = 0;
+		while (numPrimFields < typeCodes.length && typeCodes[numPrimFields] != 'L' && typeCodes[numPrimFields] != '[') {
+			numPrimFields++;
+		}
+		// a field listed twice is written once, by its first entry
+		boolean[] written = new boolean[fields.length];
+		Set<Field> seen = new HashSet<Field>();
+		for (int i = 0; i < fields.length; i++) {
+			written[i] = fields[i] != null && seen.add(fields[i]);
+		}
+
+		// getPrimFieldValues(Object, byte[]) and getObjFieldValues(Object, Object[])
+		for (int pass = 0; pass < 2; pass++) {
+			boolean prim = pass == 0;
+			mv = cw.visitMethod(ACC_PUBLIC, prim ? "getPrimFieldValues" : "getObjFieldValues", //$NON-NLS-1$ //$NON-NLS-2$
+					prim ? "(Ljava/lang/Object;[B)V" : "(Ljava/lang/Object;[Ljava/lang/Object;)V", null, null); //$NON-NLS-1$ //$NON-NLS-2$
+			mv.visitCode();
+			beginBatch(mv, owner);
+			for (int i = prim ? 0 : numPrimFields; i < (prim ? numPrimFields : fields.length); i++) {
+				Field field = fields[i];
+				if (field == null) {
+					continue;
+				}
+				Type fieldType = Type.getType(field.getType());
+				mv.visitVarInsn(ALOAD, 2);
+				push(mv, offsets[i]);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitFieldInsn(GETFIELD, owner, field.getName(), fieldType.getDescriptor());
+				switch (typeCodes[i]) {
+				case 'Z':
+				case 'B':
+					mv.visitInsn(BASTORE);
+					break;
+				case 'L':
+				case '[':
+					mv.visitInsn(AASTORE);
+					break;
+				default:
+					mv.visitMethodInsn(INVOKESTATIC, SERIAL_FIELD_ACCESSOR, "put" + marshalName(field.getType()), //$NON-NLS-1$
+							"([BI" + fieldType.getDescriptor() + ")V"); //$NON-NLS-1$
+					break;
+				}
+			}
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		// setPrimFieldValues(Object, byte[])
+		mv = cw.visitMethod(ACC_PUBLIC, "setPrimFieldValues", "(Ljava/lang/Object;[B)V", null, null); //$NON-NLS-1$
+		mv.visitCode();
+		beginBatch(mv, owner);
+		for (int i = 0; i < numPrimFields; i++) {
+			if (!written[i]) {
+				continue;
+			}
+			Field field = fields[i];
+			Type fieldType = Type.getType(field.getType());
+			boolean isFinal = Modifier.isFinal(field.getModifiers());
+			if (isFinal) {
+				mv.visitFieldInsn(GETSTATIC, SERIAL_FIELD_ACCESSOR, "UNSAFE", "Lsun/misc/Unsafe;"); //$NON-NLS-1$
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitLdcInsn(Long.valueOf(unsafeOffsets[i]));
+			} else {
+				mv.visitVarInsn(ALOAD, 3);
+			}
+			mv.visitVarInsn(ALOAD, 2);
+			push(mv, offsets[i]);
+			if (typeCodes[i] == 'B') {
+				mv.visitInsn(BALOAD);
+			} else {
+				mv.visitMethodInsn(INVOKESTATIC, SERIAL_FIELD_ACCESSOR, "get" + marshalName(field.getType()), //$NON-NLS-1$
+						"([BI)" + fieldType.getDescriptor()); //$NON-NLS-1$
+			}
+			if (isFinal) {
+				mv.visitMethodInsn(INVOKEVIRTUAL, "sun/misc/Unsafe", "put" + marshalName(field.getType()), //$NON-NLS-1$ //$NON-NLS-2$
+						"(Ljava/lang/Object;J" + fieldType.getDescriptor() + ")V"); //$NON-NLS-1$
+			} else {
+				mv.visitFieldInsn(PUTFIELD, owner, field.getName(), fieldType.getDescriptor());
+			}
+		}
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// setObjFieldValues(Object, Object[]), checking the type of each value
+		mv = cw.visitMethod(ACC_PUBLIC, "setObjFieldValues", "(Ljava/lang/Object;[Ljava/lang/Object;)V", null, null); //$NON-NLS-1$
+		mv.visitCode();
+		beginBatch(mv, owner);
+		for (int i = numPrimFields; i < fields.length; i++) {
+			if (!written[i]) {
+				continue;
+			}
+			Field field = fields[i];
+			Class<?> type = field.getType();
+			boolean named = isAccessible(type, host);
+			mv.visitVarInsn(ALOAD, 2);
+			push(mv, offsets[i]);
+			mv.visitInsn(AALOAD);
+			mv.visitVarInsn(ASTORE, 4);
+			Label store = new Label();
+			if (type != Object.class) {
+				if (named) {
+					mv.visitVarInsn(ALOAD, 4);
+					mv.visitJumpInsn(IFNULL, store);
+					mv.visitVarInsn(ALOAD, 4);
+					mv.visitTypeInsn(INSTANCEOF, Type.getInternalName(type));
+					mv.visitJumpInsn(IFNE, store);
+				} else {
+					mv.visitVarInsn(ALOAD, 0);
+					push(mv, i);
+					mv.visitVarInsn(ALOAD, 4);
+					mv.visitMethodInsn(INVOKEVIRTUAL, SERIAL_FIELD_ACCESSOR, "isAssignable", "(ILjava/lang/Object;)Z"); //$NON-NLS-1$
+					mv.visitJumpInsn(IFNE, store);
+				}
+				mv.visitVarInsn(ALOAD, 0);
+				push(mv, i);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitVarInsn(ALOAD, 4);
+				mv.visitMethodInsn(INVOKEVIRTUAL, SERIAL_FIELD_ACCESSOR, "castFailed", //$NON-NLS-1$
+						"(ILjava/lang/Object;Ljava/lang/Object;)Ljava/lang/ClassCastException;"); //$NON-NLS-1$
+				mv.visitInsn(ATHROW);
+			}
+			mv.visitLabel(store);
+			if (named && !Modifier.isFinal(field.getModifiers())) {
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitVarInsn(ALOAD, 4);
+				if (type != Object.class) {
+					mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+				}
+				mv.visitFieldInsn(PUTFIELD, owner, field.getName(), Type.getDescriptor(type));
+			} else {
+				mv.visitFieldInsn(GETSTATIC, SERIAL_FIELD_ACCESSOR, "UNSAFE", "Lsun/misc/Unsafe;"); //$NON-NLS-1$
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitLdcInsn(Long.valueOf(unsafeOffsets[i]));
+				mv.visitVarInsn(ALOAD, 4);
+				mv.visitMethodInsn(INVOKEVIRTUAL, "sun/misc/Unsafe", "putObject", "(Ljava/lang/Object;JLjava/lang/Object;)V"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/*
+	 * Throws NullPointerException for a null target, whether or not there
+	 * are fields to move, and keeps the cast target in local 3.
+	 */
+	private static void beginBatch(MethodVisitor mv, String owner) {
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, OBJECT, "getClass", "()Ljava/lang/Class;"); //$NON-NLS-1$
+		mv.visitInsn(POP);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, owner);
+		mv.visitVarInsn(ASTORE, 3);
+	}
+
+	/*
+	 * Answers whether code in host can name the specified type in an
+	 * instanceof or checkcast instruction.
+	 */
+	private static boolean isAccessible(Class<?> type, Class<?> host) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive()) {
+			return true;
+		}
+		if (type.getClassLoader() == host.getClassLoader() && packageName(type).equals(packageName(host))) {
+			return true;
+		}
+		for (Class<?> c = type; c != null; c = c.getDeclaringClass()) {
+			if (!Modifier.isPublic(c.getModifiers())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String packageName(Class<?> type) {
+		String name = type.getName();
+		int i = name.lastIndexOf('.');
+		return i < 0 ? "" : name.substring(0, i); //$NON-NLS-1$
+	}
+
+	/* The suffix of the marshalling methods of a primitive type, as "Int" */
+	private static String marshalName(Class<?> type) {
+		String name = type.getName();
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+	private static void push(MethodVisitor mv, int value) {
+		if (value >= -1 && value <= 5) {
+			mv.visitInsn(ICONST_0 + value);
+		} else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			mv.visitIntInsn(BIPUSH, value);
+		} else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			mv.visitIntInsn(SIPUSH, value);
+		} else {
+			mv.visitLdcInsn(Integer.valueOf(value));
+		}
+	}
+
+	private static IllegalArgumentException mismatch(Method method, Method sam) {
+		return new IllegalArgumentException(sam + " cannot invoke " + method);
+	}
+
+	private static void loadTarget(MethodVisitor mv, String owner, boolean isStatic) {
+		if (!isStatic) {
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, owner);
+		}
+	}
+
+	private static void loadField(MethodVisitor mv, String owner, String name, Type type, boolean isStatic) {
+		loadTarget(mv, owner, isStatic);
+		mv.visitFieldInsn(isStatic ? GETSTATIC : GETFIELD, owner, name, type.getDescriptor());
+	}
+
+	/**
+	 * Converts the value on top of the stack from {@code from} to {@code to}
+	 * by primitive widening, boxing, unboxing or a cast.
+	 *
+	 * @return false if no such conversion exists
+	 */
+	private static boolean adapt(MethodVisitor mv, Class<?> from, Class<?> to) {
+		if (from == to) {
+			return true;
+		}
+		if (from.isPrimitive()) {
+			if (to.isPrimitive()) {
+				if (!widens(from, to)) {
+					return false;
+				}
+				convert(mv, Type.getType(from), Type.getType(to));
+				return true;
+			}
+			if (!to.isAssignableFrom(wrapper(from))) {
+				return false;
+			}
+			box(mv, from);
+			return true;
+		}
+		if (to.isPrimitive()) {
+			// unbox a wrapper of a narrower type, or cast to the wrapper of to
+			Class<?> primitive = to;
+			for (Class<?> p : PRIMITIVES) {
+				if (wrapper(p) == from) {
+					primitive = p;
+					break;
+				}
+			}
+			Class<?> wrapper = wrapper(primitive);
+			if (!widens(primitive, to) || !from.isAssignableFrom(wrapper)) {
+				return false;
+			}
+			String wrapperName = Type.getInternalName(wrapper);
+			if (from != wrapper) {
+				mv.visitTypeInsn(CHECKCAST, wrapperName);
+			}
+			mv.visitMethodInsn(INVOKEVIRTUAL, wrapperName, primitive.getName() + "Value", "()" + Type.getDescriptor(primitive)); //$NON-NLS-1$ //$NON-NLS-2$
+			convert(mv, Type.getType(primitive), Type.getType(to));
+			return true;
+		}
+		if (!to.isAssignableFrom(from)) {
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(to));
+		}
+		return true;
+	}
+
+	private static void box(MethodVisitor mv, Class<?> type) {
+		String wrapperName = Type.getInternalName(wrapper(type));
+		mv.visitMethodInsn(INVOKESTATIC, wrapperName, "valueOf", //$NON-NLS-1$
+				"(" + Type.getDescriptor(type) + ")L" + wrapperName + ";"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/* Emits the widening conversion between the stack forms of two primitive types */
+	private static void convert(MethodVisitor mv, Type from, Type to) {
+		int f = stackSort(from);
+		int t = stackSort(to);
+		if (f == t) {
+			return;
+		}
+		switch (f) {
+		case Type.INT:
+			mv.visitInsn(t == Type.LONG ? I2L : t == Type.FLOAT ? I2F : I2D);
+			break;
+		case Type.LONG:
+			mv.visitInsn(t == Type.FLOAT ? L2F : L2D);
+			break;
+		default:
+			mv.visitInsn(F2D);
+			break;
+		}
+	}
+
+	private static int stackSort(Type type) {
+		switch (type.getSort()) {
+		case Type.BOOLEAN:
+		case Type.BYTE:
+		case Type.CHAR:
+		case Type.SHORT:
+			return Type.INT;
+		default:
+			return type.getSort();
+		}
+	}
+
+	/**
+	 * Answers whether a value of primitive type {@code from} can be converted
+	 * to primitive type {@code to} by an identity or widening conversion.
+	 */
+	static boolean widens(Class<?> from, Class<?> to) {
+		if (from == to) {
+			return true;
+		}
+		if (from == boolean.class || to == boolean.class || to == byte.class || to == char.class
+				|| (from == char.class && to == short.class)) {
+			return false;
+		}
+		return rank(from) < rank(to);
+	}
+
+	private static int rank(Class<?> type) {
+		if (type == byte.class) {
+			return 1;
+		} else if (type == short.class || type == char.class) {
+			return 2;
+		} else if (type == int.class) {
+			return 3;
+		} else if (type == long.class) {
+			return 4;
+		} else if (type == float.class) {
+			return 5;
+		}
+		return 6;
+	}
+
+	static Class<?> wrapper(Class<?> type) {
+		if (type == int.class) {
+			return Integer.class;
+		} else if (type == long.class) {
+			return Long.class;
+		} else if (type == boolean.class) {
+			return Boolean.class;
+		} else if (type == double.class) {
+			return Double.class;
+		} else if (type == float.class) {
+			return Float.class;
+		} else if (type == char.class) {
+			return Character.class;
+		} else if (type == byte.class) {
+			return Byte.class;
+		}
+		return Short.class;
+	}
+
+	private static String getterName(Class<?> type) {
+		String name = type.getName();
+		return "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1); //$NON-NLS-1$
+	}
+
+	private static String setterName(Class<?> type) {
+		String name = type.getName();
+		return "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1); //$NON-NLS-1$
+	}
+}
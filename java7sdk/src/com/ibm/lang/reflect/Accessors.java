@@ -0,0 +1,532 @@
+/*
+ * Licensed Materials - Property of IBM,
+ * (c) Copyright IBM Corp. 2014  All Rights Reserved.
+ */
+
+package com.ibm.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import sun.misc.Unsafe;
+import sun.reflect.CallerSensitive;
+import sun.reflect.Reflection;
+
+/**
+ * Creates accessors that read and write fields and invoke methods without
+ * the per-call overhead of {@link Field#get(Object)} and
+ * {@link Method#invoke(Object, Object...)}.
+ * <p>
+ * Each accessor is an instance of a class generated for its member and
+ * defined as an anonymous class of the declaring class. Field accessors
+ * use {@code getfield}/{@code putfield} directly and have a method for each
+ * primitive type, see {@link FieldAccessor}. Method accessors implement a
+ * caller-supplied interface with a single abstract method and call the
+ * target with a plain {@code invoke} instruction, so the arguments are
+ * neither copied into an {@code Object[]} nor boxed.
+ * <p>
+ * Accessors are cached per member, so asking again for the same member
+ * answers the same accessor. Access is checked once, when the accessor is
+ * created: the member must be public and declared by a public class, or
+ * must have been made accessible with
+ * {@link AccessibleObject#setAccessible(boolean)}.
+ * <p>
+ * A generated accessor runs with the rights of the declaring class, so one
+ * is only generated if the caller is on the bootstrap class path, or if
+ * the member is declared by a class of the caller's class loader or of a
+ * loader delegating to it. For other members, and for members of classes
+ * of the bootstrap class path, the accessor uses plain reflection instead,
+ * and is not cached; a checked exception its interface method does not
+ * declare then reaches the caller wrapped in an
+ * {@link java.lang.reflect.UndeclaredThrowableException}. Callers not on
+ * the bootstrap class path cannot get an
+ * accessor or a method handle for a caller-sensitive method, as the
+ * method would see the accessor, not the caller, as its caller.
+ *
+ * @since 1.7
+ */
+public final class Accessors {
+
+	private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+
+	/* Accessors of the members of each class, keyed by member */
+	private static final ClassValue<ConcurrentMap<Object, Object>> cache = new ClassValue<ConcurrentMap<Object, Object>>() {
+		protected ConcurrentMap<Object, Object> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<Object, Object>();
+		}
+	};
+
+	private Accessors() {
+	}
+
+	/**
+	 * Answers an accessor for the specified field. The accessor has no
+	 * setters if the field is final.
+	 *
+	 * @param field the field
+	 * @return the accessor
+	 * @throws IllegalAccessException if the field is not accessible
+	 */
+	@CallerSensitive
+	public static FieldAccessor fieldAccessor(Field field) throws IllegalAccessException {
+		checkAccess(field, field);
+		Class<?> host = field.getDeclaringClass();
+		if (!mayDefineIn(host, Reflection.getCallerClass())) {
+			return new ReflectiveFieldAccessor(field);
+		}
+		ConcurrentMap<Object, Object> accessors = cache.get(host);
+		Object accessor = accessors.get(field);
+		if (accessor == null) {
+			byte[] bytes = AccessorGenerator.generateFieldAccessor(className(host, "FieldAccessor"), field); //$NON-NLS-1$
+			Class<?> accessorClass = UNSAFE.defineAnonymousClass(host, bytes, null);
+			try {
+				accessor = accessorClass.getConstructor(Field.class).newInstance(field);
+			} catch (NoSuchMethodException e) {
+				throw new InternalError(e.toString());
+			} catch (InstantiationException e) {
+				throw new InternalError(e.toString());
+			} catch (InvocationTargetException e) {
+				throw new InternalError(e.toString());
+			}
+			Object existing = accessors.putIfAbsent(field, accessor);
+			if (existing != null) {
+				accessor = existing;
+			}
+		}
+		return (FieldAccessor) accessor;
+	}
+
+	/**
+	 * Answers an instance of the interface {@code type} whose single abstract
+	 * method invokes the specified method. For an instance method, the first
+	 * parameter of the interface method is the receiver; the remaining
+	 * parameters are passed as the arguments. Parameters and the result are
+	 * converted by primitive widening, boxing, unboxing and reference casts
+	 * where their types differ, and a non-void result is discarded if the
+	 * interface method returns {@code void}.
+	 * <p>
+	 * Exceptions thrown by the method are propagated as they are, without an
+	 * {@link InvocationTargetException}.
+	 *
+	 * @param method the method to invoke
+	 * @param type an interface with one abstract method, visible to the class
+	 *        loader of the declaring class of {@code method}
+	 * @return the accessor
+	 * @throws IllegalAccessException if the method is not accessible, or
+	 *         is caller-sensitive and the caller is not on the bootstrap
+	 *         class path
+	 * @throws IllegalArgumentException if {@code type} is not such an
+	 *         interface, or its method cannot invoke {@code method}
+	 */
+	@CallerSensitive
+	public static <T> T methodAccessor(Method method, Class<T> type) throws IllegalAccessException {
+		Class<?> caller = Reflection.getCallerClass();
+		checkAccess(method, method);
+		checkCallerSensitive(method, caller);
+		Class<?> host = method.getDeclaringClass();
+		Method sam = singleAbstractMethod(type);
+		if (sam != null && !mayDefineIn(host, caller)) {
+			// a proxy is defined by the loader of type, so need not see host
+			return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+					new ReflectiveInvoker(method, sam)));
+		}
+		if (sam == null || !isVisible(type, host.getClassLoader())) {
+			throw new IllegalArgumentException(type + " is not an interface with a single abstract method visible from " + host); //$NON-NLS-1$
+		}
+		// the accessor only refers to classes visible from host, so caching
+		// it in host cannot keep another class loader alive
+		ConcurrentMap<Object, Object> accessors = cache.get(host);
+		Object key = Arrays.asList(method, type);
+		Object accessor = accessors.get(key);
+		if (accessor == null) {
+			byte[] bytes = AccessorGenerator.generateMethodAccessor(className(host, "MethodAccessor"), method, type, sam); //$NON-NLS-1$
+			Class<?> accessorClass = UNSAFE.defineAnonymousClass(host, bytes, null);
+			try {
+				accessor = UNSAFE.allocateInstance(accessorClass);
+			} catch (InstantiationException e) {
+				throw new InternalError(e.toString());
+			}
+			Object existing = accessors.putIfAbsent(key, accessor);
+			if (existing != null) {
+				accessor = existing;
+			}
+		}
+		return type.cast(accessor);
+	}
+
+	/**
+	 * Answers a method handle invoking the specified method, with the type
+	 * of {@link MethodHandles.Lookup#unreflect(Method)}. Method handles
+	 * already call their target without boxing or an argument array, so this
+	 * only replaces the access checks of the lookup with those described
+	 * above.
+	 *
+	 * @param method the method to invoke
+	 * @return the method handle
+	 * @throws IllegalAccessException if the method is not accessible, or
+	 *         is caller-sensitive and the caller is not on the bootstrap
+	 *         class path
+	 */
+	@CallerSensitive
+	public static MethodHandle methodHandle(Method method) throws IllegalAccessException {
+		checkAccess(method, method);
+		checkCallerSensitive(method, Reflection.getCallerClass());
+		return MethodHandles.publicLookup().unreflect(method);
+	}
+
+	/**
+	 * Answers a method handle reading the specified field, with the type of
+	 * {@link MethodHandles.Lookup#unreflectGetter(Field)}.
+	 *
+	 * @param field the field to read
+	 * @return the method handle
+	 * @throws IllegalAccessException if the field is not accessible
+	 */
+	public static MethodHandle getterHandle(Field field) throws IllegalAccessException {
+		checkAccess(field, field);
+		return MethodHandles.publicLookup().unreflectGetter(field);
+	}
+
+	/**
+	 * Answers a method handle writing the specified field, with the type of
+	 * {@link MethodHandles.Lookup#unreflectSetter(Field)}.
+	 *
+	 * @param field the field to write
+	 * @return the method handle
+	 * @throws IllegalAccessException if the field is not accessible or is
+	 *         final
+	 */
+	public static MethodHandle setterHandle(Field field) throws IllegalAccessException {
+		checkAccess(field, field);
+		return MethodHandles.publicLookup().unreflectSetter(field);
+	}
+
+	/**
+	 * Answers an accessor that moves the serializable fields of a class
+	 * between its instances and the arrays used by
+	 * <code>java.io.ObjectStreamClass</code>. Only classes on the bootstrap
+	 * class path may call this method, since the accessor reads and writes
+	 * the fields regardless of their access modifiers.
+	 *
+	 * @param fields the fields, primitive fields first, all declared by the
+	 *        same class, with null for values that are discarded when read
+	 * @param typeCodes the type code of each field, as
+	 *        {@link java.io.ObjectStreamField#getTypeCode()}
+	 * @param offsets the position of the value of each field in the byte
+	 *        array or the object array
+	 * @return the accessor, or null if none of the fields is present
+	 * @throws SecurityException if the caller is not on the bootstrap class
+	 *         path
+	 */
+	@CallerSensitive
+	public static SerialFieldAccessor serialFieldAccessor(Field[] fields, char[] typeCodes, int[] offsets) {
+		if (Reflection.getCallerClass().getClassLoader() != null) {
+			throw new SecurityException("serialFieldAccessor"); //$NON-NLS-1$
+		}
+		Class<?> host = null;
+		long[] unsafeOffsets = new long[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			if (fields[i] != null) {
+				host = fields[i].getDeclaringClass();
+				unsafeOffsets[i] = UNSAFE.objectFieldOffset(fields[i]);
+			}
+		}
+		if (host == null) {
+			return null;
+		}
+		byte[] bytes = AccessorGenerator.generateSerialFieldAccessor(className(host, "SerialFieldAccessor"), //$NON-NLS-1$
+				host, fields, typeCodes, offsets, unsafeOffsets);
+		Class<?> accessorClass = UNSAFE.defineAnonymousClass(host, bytes, null);
+		try {
+			return (SerialFieldAccessor) accessorClass.getConstructor(Field[].class).newInstance((Object) fields.clone());
+		} catch (NoSuchMethodException e) {
+			throw new InternalError(e.toString());
+		} catch (InstantiationException e) {
+			throw new InternalError(e.toString());
+		} catch (IllegalAccessException e) {
+			throw new InternalError(e.toString());
+		} catch (InvocationTargetException e) {
+			throw new InternalError(e.toString());
+		}
+	}
+
+	private static void checkAccess(AccessibleObject object, Member member) throws IllegalAccessException {
+		if (!object.isAccessible()
+				&& !(Modifier.isPublic(member.getModifiers()) && Modifier.isPublic(member.getDeclaringClass().getModifiers()))) {
+			throw new IllegalAccessException(member + " is not accessible, it must be made accessible with setAccessible(true)"); //$NON-NLS-1$
+		}
+	}
+
+	private static void checkCallerSensitive(Method method, Class<?> caller) throws IllegalAccessException {
+		if (caller.getClassLoader() != null && method.isAnnotationPresent(CallerSensitive.class)) {
+			throw new IllegalAccessException(method + " is caller-sensitive"); //$NON-NLS-1$
+		}
+	}
+
+	/*
+	 * Answers whether an accessor for a member of host may be defined as an
+	 * anonymous class of host for the specified caller: the caller is on the
+	 * bootstrap class path, or host is defined by the loader of the caller
+	 * or by a loader delegating to it, so host has no rights the caller's
+	 * own classes could not be given.
+	 */
+	private static boolean mayDefineIn(Class<?> host, Class<?> caller) {
+		ClassLoader callerLoader = caller.getClassLoader();
+		if (callerLoader == null) {
+			return true;
+		}
+		for (ClassLoader loader = host.getClassLoader(); loader != null; loader = loader.getParent()) {
+			if (loader == callerLoader) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String className(Class<?> host, String kind) {
+		return host.getName().replace('.', '/') + "$$" + kind; //$NON-NLS-1$
+	}
+
+	private static boolean isVisible(Class<?> type, ClassLoader loader) {
+		try {
+			return Class.forName(type.getName(), false, loader) == type;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Answers the single abstract method of an interface, disregarding the
+	 * public methods of {@code Object}, or null if there is not exactly one.
+	 */
+	static Method singleAbstractMethod(Class<?> type) {
+		if (!type.isInterface()) {
+			return null;
+		}
+		Method result = null;
+		for (Method m : type.getMethods()) {
+			if (isObjectMethod(m)) {
+				continue;
+			}
+			if (result != null && !(result.getName().equals(m.getName())
+					&& Arrays.equals(result.getParameterTypes(), m.getParameterTypes()))) {
+				return null;
+			}
+			result = m;
+		}
+		return result;
+	}
+
+	private static boolean isObjectMethod(Method m) {
+		try {
+			return Modifier.isPublic(Object.class.getMethod(m.getName(), m.getParameterTypes()).getModifiers());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/*
+	 * Reads and writes a field through reflection, for fields whose class
+	 * may not host a generated accessor for the caller.
+	 */
+	private static final class ReflectiveFieldAccessor extends FieldAccessor {
+		ReflectiveFieldAccessor(Field field) {
+			super(field);
+		}
+
+		public Object get(Object obj) {
+			try {
+				return getField().get(obj);
+			} catch (IllegalAccessException e) {
+				throw accessFailed(e);
+			}
+		}
+
+		public boolean getBoolean(Object obj) {
+			try {
+				return getField().getBoolean(obj);
+			} catch (IllegalAccessException e) {
+				throw accessFailed(e);
+			}
+		}
+
+		public byte getByte(Object obj) {
+			try {
+				return getField().getByte(obj);
+			} catch (IllegalAccessException e) {
+				throw accessFailed(e);
+			}
+		}
+
+		public char getChar(Object obj) {
+			try {
+				return getField().getChar(obj);
+			} catch (IllegalAccessException e) {
+				throw accessFailed(e);
+			}
+		}
+
+		public short getShort(Object obj) {
+			try {
+				return getField().getShort(obj);
+			} catch (IllegalAccessException e) {
+				throw accessFailed(e);
+			}
+		}
+
+		public int getInt(Object obj) {
+			try {
+				return getField().getInt(obj);
+			} catch (IllegalAccessException e) {
+				throw accessFailed(e);
+			}
+		}
+
+		public long getLong(Object obj) {
+			try {
+				return getField().getLong(obj);
+			} catch (IllegalAccessException e) {
+				throw accessFailed(e);
+			}
+		}
+
+		public float getFloat(Object obj) {
+			try {
+				return getField().getFloat(obj);
+			} catch (IllegalAccessException e) {
+				throw accessFailed(e);
+			}
+		}
+
+		public double getDouble(Object obj) {
+			try {
+				return getField().getDouble(obj);
+			} catch (IllegalAccessException e) {
+				throw accessFailed(e);
+			}
+		}
+
+		public void set(Object obj, Object value) throws IllegalAccessException {
+			getField().set(obj, value);
+		}
+
+		public void setBoolean(Object obj, boolean value) throws IllegalAccessException {
+			getField().setBoolean(obj, value);
+		}
+
+		public void setByte(Object obj, byte value) throws IllegalAccessException {
+			getField().setByte(obj, value);
+		}
+
+		public void setChar(Object obj, char value) throws IllegalAccessException {
+			getField().setChar(obj, value);
+		}
+
+		public void setShort(Object obj, short value) throws IllegalAccessException {
+			getField().setShort(obj, value);
+		}
+
+		public void setInt(Object obj, int value) throws IllegalAccessException {
+			getField().setInt(obj, value);
+		}
+
+		public void setLong(Object obj, long value) throws IllegalAccessException {
+			getField().setLong(obj, value);
+		}
+
+		public void setFloat(Object obj, float value) throws IllegalAccessException {
+			getField().setFloat(obj, value);
+		}
+
+		public void setDouble(Object obj, double value) throws IllegalAccessException {
+			getField().setDouble(obj, value);
+		}
+
+		/*
+		 * The access was checked when the accessor was created, so this
+		 * only happens if the field has since been made inaccessible.
+		 */
+		private static IllegalAccessError accessFailed(IllegalAccessException e) {
+			IllegalAccessError error = new IllegalAccessError(e.getMessage());
+			error.initCause(e);
+			return error;
+		}
+	}
+
+	/*
+	 * Invokes a method through reflection for the single abstract method of
+	 * a proxy, with the conversions of a generated method accessor, for
+	 * methods whose class may not host a generated accessor for the caller.
+	 */
+	private static final class ReflectiveInvoker implements InvocationHandler {
+		private final Method method;
+		private final Method sam;
+
+		ReflectiveInvoker(Method method, Method sam) {
+			this.method = method;
+			this.sam = sam;
+		}
+
+		public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+			if (m.getDeclaringClass() == Object.class) {
+				String name = m.getName();
+				if (name.equals("equals")) { //$NON-NLS-1$
+					return Boolean.valueOf(proxy == args[0]);
+				} else if (name.equals("hashCode")) { //$NON-NLS-1$
+					return Integer.valueOf(System.identityHashCode(proxy));
+				}
+				return proxy.getClass().getName() + "[" + method + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			Object receiver = null;
+			Object[] arguments = (args == null) ? new Object[0] : args;
+			if (!Modifier.isStatic(method.getModifiers())) {
+				receiver = arguments[0];
+				arguments = Arrays.copyOfRange(arguments, 1, arguments.length);
+			}
+			try {
+				return convert(method.invoke(receiver, arguments), sam.getReturnType());
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		/*
+		 * Converts a result to the return type of the interface method by
+		 * primitive widening, or discards it for void.
+		 */
+		private static Object convert(Object value, Class<?> type) {
+			if (type == void.class) {
+				return null;
+			}
+			if (!type.isPrimitive() || type == boolean.class || type == char.class || value == null) {
+				return value;
+			}
+			Number number = (value instanceof Character)
+					? Integer.valueOf(((Character) value).charValue())
+					: (Number) value;
+			if (type == short.class) {
+				return Short.valueOf(number.shortValue());
+			} else if (type == int.class) {
+				return Integer.valueOf(number.intValue());
+			} else if (type == long.class) {
+				return Long.valueOf(number.longValue());
+			} else if (type == float.class) {
+				return Float.valueOf(number.floatValue());
+			} else if (type == double.class) {
+				return Double.valueOf(number.doubleValue());
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed Materials - Property of IBM,
+ * (c) Copyright IBM Corp. 2014  All Rights Reserved.
+ */
+
+package com.ibm.lang.reflect;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Reads and writes one field with the primitive-specialized methods of
+ * {@link Field}, but without per-call access checks or boxing.
+ * <p>
+ * Instances are created by {@link Accessors#fieldAccessor(Field)}, which
+ * generates a subclass that reads and writes the field with
+ * {@code getfield}/{@code putfield} (or their static forms) and overrides
+ * the methods valid for the type of the field. The methods that are not
+ * overridden fail as the matching {@link Field} methods would.
+ * <p>
+ * The {@code obj} argument is ignored for static fields. For instance
+ * fields, a {@code null} or a non-instance {@code obj} results in a
+ * {@link NullPointerException} or {@link ClassCastException}.
+ *
+ * @since 1.7
+ */
+public abstract class FieldAccessor {
+
+	private final Field field;
+
+	/**
+	 * Constructs an accessor for the specified field.
+	 *
+	 * @param field the field read and written by this accessor
+	 */
+	protected FieldAccessor(Field field) {
+		this.field = field;
+	}
+
+	/**
+	 * Answers the field read and written by this accessor.
+	 *
+	 * @return the field
+	 */
+	public final Field getField() {
+		return field;
+	}
+
+	/**
+	 * @see Field#get(Object)
+	 */
+	public abstract Object get(Object obj);
+
+	/**
+	 * @see Field#getBoolean(Object)
+	 */
+	public boolean getBoolean(Object obj) {
+		throw getFailed("boolean");
+	}
+
+	/**
+	 * @see Field#getByte(Object)
+	 */
+	public byte getByte(Object obj) {
+		throw getFailed("byte");
+	}
+
+	/**
+	 * @see Field#getChar(Object)
+	 */
+	public char getChar(Object obj) {
+		throw getFailed("char");
+	}
+
+	/**
+	 * @see Field#getShort(Object)
+	 */
+	public short getShort(Object obj) {
+		throw getFailed("short");
+	}
+
+	/**
+	 * @see Field#getInt(Object)
+	 */
+	public int getInt(Object obj) {
+		throw getFailed("int");
+	}
+
+	/**
+	 * @see Field#getLong(Object)
+	 */
+	public long getLong(Object obj) {
+		throw getFailed("long");
+	}
+
+	/**
+	 * @see Field#getFloat(Object)
+	 */
+	public float getFloat(Object obj) {
+		throw getFailed("float");
+	}
+
+	/**
+	 * @see Field#getDouble(Object)
+	 */
+	public double getDouble(Object obj) {
+		throw getFailed("double");
+	}
+
+	/**
+	 * Sets the field, unwrapping {@code value} if the field has a primitive
+	 * type.
+	 *
+	 * @see Field#set(Object, Object)
+	 */
+	public void set(Object obj, Object value) throws IllegalAccessException {
+		if (value instanceof Integer) {
+			setInt(obj, ((Integer) value).intValue());
+		} else if (value instanceof Long) {
+			setLong(obj, ((Long) value).longValue());
+		} else if (value instanceof Double) {
+			setDouble(obj, ((Double) value).doubleValue());
+		} else if (value instanceof Boolean) {
+			setBoolean(obj, ((Boolean) value).booleanValue());
+		} else if (value instanceof Byte) {
+			setByte(obj, ((Byte) value).byteValue());
+		} else if (value instanceof Character) {
+			setChar(obj, ((Character) value).charValue());
+		} else if (value instanceof Short) {
+			setShort(obj, ((Short) value).shortValue());
+		} else if (value instanceof Float) {
+			setFloat(obj, ((Float) value).floatValue());
+		} else {
+			throw setFailed(value == null ? "null value" : value.getClass().getName());
+		}
+	}
+
+	/**
+	 * @see Field#setBoolean(Object, boolean)
+	 */
+	public void setBoolean(Object obj, boolean z) throws IllegalAccessException {
+		throw setFailed("boolean");
+	}
+
+	/**
+	 * @see Field#setByte(Object, byte)
+	 */
+	public void setByte(Object obj, byte b) throws IllegalAccessException {
+		throw setFailed("byte");
+	}
+
+	/**
+	 * @see Field#setChar(Object, char)
+	 */
+	public void setChar(Object obj, char c) throws IllegalAccessException {
+		throw setFailed("char");
+	}
+
+	/**
+	 * @see Field#setShort(Object, short)
+	 */
+	public void setShort(Object obj, short s) throws IllegalAccessException {
+		throw setFailed("short");
+	}
+
+	/**
+	 * @see Field#setInt(Object, int)
+	 */
+	public void setInt(Object obj, int i) throws IllegalAccessException {
+		throw setFailed("int");
+	}
+
+	/**
+	 * @see Field#setLong(Object, long)
+	 */
+	public void setLong(Object obj, long l) throws IllegalAccessException {
+		throw setFailed("long");
+	}
+
+	/**
+	 * @see Field#setFloat(Object, float)
+	 */
+	public void setFloat(Object obj, float f) throws IllegalAccessException {
+		throw setFailed("float");
+	}
+
+	/**
+	 * @see Field#setDouble(Object, double)
+	 */
+	public void setDouble(Object obj, double d) throws IllegalAccessException {
+		throw setFailed("double");
+	}
+
+	private IllegalArgumentException getFailed(String type) {
+		return new IllegalArgumentException("Attempt to get " + field.getType().getName()
+				+ " field \"" + field + "\" as " + type);
+	}
+
+	/**
+	 * Answers the exception for a value of the specified type that cannot be
+	 * stored in the field, or throws {@code IllegalAccessException} if the
+	 * field is final.
+	 *
+	 * @param type the name of the type of the value
+	 * @return the exception to throw
+	 * @throws IllegalAccessException if the field is final
+	 */
+	protected final IllegalArgumentException setFailed(String type) throws IllegalAccessException {
+		if (Modifier.isFinal(field.getModifiers())) {
+			throw new IllegalAccessException("Can not set final " + field.getType().getName()
+					+ " field \"" + field + "\"");
+		}
+		return new IllegalArgumentException("Can not set " + field.getType().getName()
+				+ " field \"" + field + "\" to " + type);
+	}
+
+	/**
+	 * Answers a description of the field read and written by this accessor.
+	 */
+	public String toString() {
+		return getClass().getName() + "[" + field + "]";
+	}
+}
@@ -0,0 +1,324 @@
+/*
+ * Licensed Materials - Property of IBM,
+ * (c) Copyright IBM Corp. 2014  All Rights Reserved.
+ */
+
+package com.ibm.lang.reflect;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sun.reflect.CallerSensitive;
+import sun.reflect.Reflection;
+
+/**
+ * The reflection metadata of a class, computed once and shared.
+ * <p>
+ * {@link Class#getMethods()} and the other member queries of {@code Class}
+ * must answer new {@code Method} and {@code Field} objects on every call,
+ * because those objects are mutable: a caller may change their accessible
+ * flag. Lookups such as {@link Class#getMethod(String, Class...)} also
+ * search the superclasses and interfaces again each time. This class
+ * answers unmodifiable lists of members that are fetched once per class,
+ * and finds a member by name and parameter types with a single hash
+ * look-up. {@link Class#getMethod(String, Class...)} and
+ * {@link Class#getDeclaredMethod(String, Class...)} use that look-up and
+ * answer a copy of the member found.
+ * <p>
+ * Because the members are shared, only classes of the bootstrap class
+ * path may use this class, and they must never change the members they
+ * are given: a member that needs to be made accessible must be looked up
+ * through {@code Class} instead.
+ * <p>
+ * The data of a class is held through a {@link ClassValue}, so it does not
+ * keep the class or its class loader alive, and its members are held
+ * through soft references, so they are dropped when memory runs low.
+ *
+ * @since 1.7
+ */
+public final class ReflectionData {
+
+	private static final ClassValue<ReflectionData> cache = new ClassValue<ReflectionData>() {
+		protected ReflectionData computeValue(Class<?> type) {
+			return new ReflectionData(type);
+		}
+	};
+
+	private final Class<?> type;
+
+	/*
+	 * Computed on first use; racing threads compute equal values. Held
+	 * softly, so the members of classes reflected on once do not stay in
+	 * memory for the life of the class.
+	 */
+	private volatile SoftReference<Members<Method>> methods;
+	private volatile SoftReference<Members<Method>> declaredMethods;
+	private volatile SoftReference<Members<Field>> fields;
+	private volatile SoftReference<Members<Field>> declaredFields;
+
+	/*
+	 * A list of members and an index of them by name and parameter types.
+	 */
+	private static final class Members<T> {
+		final List<T> list;
+		final Map<Object, T> index;
+
+		Members(T[] members, Map<Object, T> index) {
+			this.list = Collections.unmodifiableList(Arrays.asList(members));
+			this.index = index;
+		}
+	}
+
+	/*
+	 * The key of a method in the index: its name and parameter types.
+	 */
+	private static final class Signature {
+		private final String name;
+		private final Class<?>[] parameterTypes;
+		private final int hash;
+
+		Signature(String name, Class<?>[] parameterTypes) {
+			this.name = name;
+			this.parameterTypes = parameterTypes;
+			this.hash = name.hashCode() * 31 + Arrays.hashCode(parameterTypes);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Signature)) {
+				return false;
+			}
+			Signature other = (Signature) obj;
+			return name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+		}
+	}
+
+	private ReflectionData(Class<?> type) {
+		this.type = type;
+	}
+
+	/**
+	 * Answers the reflection data of the specified class.
+	 *
+	 * @param type the class
+	 * @return the shared reflection data of {@code type}
+	 * @throws SecurityException if the caller is not on the bootstrap class
+	 *         path
+	 */
+	@CallerSensitive
+	public static ReflectionData of(Class<?> type) {
+		Class<?> caller = Reflection.getCallerClass();
+		if (caller.getClassLoader() != null) {
+			throw new SecurityException("ReflectionData"); //$NON-NLS-1$
+		}
+		return cache.get(type);
+	}
+
+	/**
+	 * Answers the public methods of the class, as {@link Class#getMethods()}.
+	 *
+	 * @return an unmodifiable list of the methods
+	 */
+	public List<Method> getMethods() {
+		return methods().list;
+	}
+
+	/**
+	 * Answers the methods declared by the class, as
+	 * {@link Class#getDeclaredMethods()}.
+	 *
+	 * @return an unmodifiable list of the methods
+	 */
+	public List<Method> getDeclaredMethods() {
+		return declaredMethods().list;
+	}
+
+	/**
+	 * Answers the public fields of the class, as {@link Class#getFields()}.
+	 *
+	 * @return an unmodifiable list of the fields
+	 */
+	public List<Field> getFields() {
+		return fields().list;
+	}
+
+	/**
+	 * Answers the fields declared by the class, as
+	 * {@link Class#getDeclaredFields()}.
+	 *
+	 * @return an unmodifiable list of the fields
+	 */
+	public List<Field> getDeclaredFields() {
+		return declaredFields().list;
+	}
+
+	/**
+	 * Answers the public method with the specified name and parameter
+	 * types, chosen as {@link Class#getMethod(String, Class...)} does.
+	 *
+	 * @param name the name of the method
+	 * @param parameterTypes the parameter types, null for none
+	 * @return the method, or null if there is none
+	 */
+	public Method getMethod(String name, Class<?>... parameterTypes) {
+		return methods().index.get(signature(name, parameterTypes));
+	}
+
+	/**
+	 * Answers the method declared by the class with the specified name and
+	 * parameter types, chosen as
+	 * {@link Class#getDeclaredMethod(String, Class...)} does.
+	 *
+	 * @param name the name of the method
+	 * @param parameterTypes the parameter types, null for none
+	 * @return the method, or null if there is none
+	 */
+	public Method getDeclaredMethod(String name, Class<?>... parameterTypes) {
+		return declaredMethods().index.get(signature(name, parameterTypes));
+	}
+
+	/**
+	 * Answers the public field with the specified name, as
+	 * {@link Class#getField(String)}.
+	 *
+	 * @param name the name of the field
+	 * @return the field, or null if there is none
+	 */
+	public Field getField(String name) {
+		return fields().index.get(name);
+	}
+
+	/**
+	 * Answers the field declared by the class with the specified name, as
+	 * {@link Class#getDeclaredField(String)}.
+	 *
+	 * @param name the name of the field
+	 * @return the field, or null if there is none
+	 */
+	public Field getDeclaredField(String name) {
+		return declaredFields().index.get(name);
+	}
+
+	private static Signature signature(String name, Class<?>[] parameterTypes) {
+		return new Signature(name, parameterTypes == null ? new Class<?>[0] : parameterTypes);
+	}
+
+	private static <T> T get(SoftReference<T> ref) {
+		return (ref == null) ? null : ref.get();
+	}
+
+	private Members<Method> methods() {
+		Members<Method> result = get(methods);
+		if (result == null) {
+			result = indexMethods(AccessController.doPrivileged(new PrivilegedAction<Method[]>() {
+				public Method[] run() {
+					return type.getMethods();
+				}
+			}));
+			methods = new SoftReference<Members<Method>>(result);
+		}
+		return result;
+	}
+
+	private Members<Method> declaredMethods() {
+		Members<Method> result = get(declaredMethods);
+		if (result == null) {
+			result = indexMethods(AccessController.doPrivileged(new PrivilegedAction<Method[]>() {
+				public Method[] run() {
+					return type.getDeclaredMethods();
+				}
+			}));
+			declaredMethods = new SoftReference<Members<Method>>(result);
+		}
+		return result;
+	}
+
+	private Members<Field> fields() {
+		Members<Field> result = get(fields);
+		if (result == null) {
+			result = AccessController.doPrivileged(new PrivilegedAction<Members<Field>>() {
+				public Members<Field> run() {
+					return indexPublicFields(type, type.getFields());
+				}
+			});
+			fields = new SoftReference<Members<Field>>(result);
+		}
+		return result;
+	}
+
+	private Members<Field> declaredFields() {
+		Members<Field> result = get(declaredFields);
+		if (result == null) {
+			result = indexFields(AccessController.doPrivileged(new PrivilegedAction<Field[]>() {
+				public Field[] run() {
+					return type.getDeclaredFields();
+				}
+			}));
+			declaredFields = new SoftReference<Members<Field>>(result);
+		}
+		return result;
+	}
+
+	private static Members<Method> indexMethods(Method[] methods) {
+		Map<Object, Method> index = new HashMap<Object, Method>(methods.length * 4 / 3 + 1);
+		for (Method method : methods) {
+			Signature key = new Signature(method.getName(), method.getParameterTypes());
+			Method existing = index.get(key);
+			// of methods differing only in return type, as bridge methods
+			// do, keep the one with the most specific return type; of
+			// methods with the same return type, keep the first, as an
+			// abstract class lists the interface methods it does not
+			// implement after its own
+			Class<?> existingType = (existing == null) ? null : existing.getReturnType();
+			if (existing == null || (existingType != method.getReturnType()
+					&& existingType.isAssignableFrom(method.getReturnType()))) {
+				index.put(key, method);
+			}
+		}
+		return new Members<Method>(methods, Collections.unmodifiableMap(index));
+	}
+
+	private static Members<Field> indexFields(Field[] fields) {
+		Map<Object, Field> index = new HashMap<Object, Field>(fields.length * 4 / 3 + 1);
+		for (Field field : fields) {
+			index.put(field.getName(), field);
+		}
+		return new Members<Field>(fields, Collections.unmodifiableMap(index));
+	}
+
+	private static Members<Field> indexPublicFields(Class<?> type, Field[] fields) {
+		Map<Object, Field> index = new HashMap<Object, Field>(fields.length * 4 / 3 + 1);
+		for (Field field : fields) {
+			String name = field.getName();
+			if (index.containsKey(name)) {
+				continue;
+			}
+			// fields of the same name hide one another in the order
+			// getField(String) searches the superclasses and interfaces
+			Class<?> declaringClass;
+			try {
+				declaringClass = type.getField(name).getDeclaringClass();
+			} catch (NoSuchFieldException e) {
+				throw new InternalError(e.toString());
+			}
+			for (Field candidate : fields) {
+				if (candidate.getDeclaringClass() == declaringClass && candidate.getName().equals(name)) {
+					index.put(name, candidate);
+					break;
+				}
+			}
+		}
+		return new Members<Field>(fields, Collections.unmodifiableMap(index));
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed Materials - Property of IBM,
+ * (c) Copyright IBM Corp. 2014  All Rights Reserved.
+ */
+
+package com.ibm.lang.reflect;
+
+import java.lang.reflect.Field;
+
+import sun.misc.Unsafe;
+
+/**
+ * Reads and writes the serializable fields of one class in batch, in the
+ * layout used by <code>java.io.ObjectStreamClass</code>: primitive values
+ * marshalled big-endian into a byte array at fixed offsets, and object
+ * values stored in an array at fixed indexes.
+ * <p>
+ * Instances are created by
+ * {@link Accessors#serialFieldAccessor(Field[], char[], int[])}, which
+ * generates a subclass that moves each field with {@code getfield} and
+ * {@code putfield} instead of looping over the fields with {@link Unsafe}.
+ * Final fields, and fields whose type is not accessible from the class
+ * declaring them, are written through {@link Unsafe}.
+ *
+ * @since 1.7
+ */
+public abstract class SerialFieldAccessor {
+
+	/** Used by generated subclasses to write final fields */
+	protected static final Unsafe UNSAFE = Unsafe.getUnsafe();
+
+	private final Field[] fields;
+
+	/**
+	 * Constructs an accessor for the specified fields.
+	 *
+	 * @param fields the fields, primitive fields first, with null for
+	 *        values that are discarded when read
+	 */
+	protected SerialFieldAccessor(Field[] fields) {
+		this.fields = fields;
+	}
+
+	/**
+	 * Fetches the primitive field values of {@code obj} into {@code buf}.
+	 */
+	public abstract void getPrimFieldValues(Object obj, byte[] buf);
+
+	/**
+	 * Sets the primitive fields of {@code obj} from the values in
+	 * {@code buf}.
+	 */
+	public abstract void setPrimFieldValues(Object obj, byte[] buf);
+
+	/**
+	 * Fetches the object field values of {@code obj} into {@code vals}.
+	 */
+	public abstract void getObjFieldValues(Object obj, Object[] vals);
+
+	/**
+	 * Sets the object fields of {@code obj} from the values in
+	 * {@code vals}.
+	 *
+	 * @throws ClassCastException if a value is not an instance of the type
+	 *         of its field
+	 */
+	public abstract void setObjFieldValues(Object obj, Object[] vals);
+
+	/**
+	 * Answers whether {@code val} may be stored in field {@code i}, for
+	 * fields whose type a generated subclass cannot name.
+	 */
+	protected final boolean isAssignable(int i, Object val) {
+		return val == null || fields[i].getType().isInstance(val);
+	}
+
+	/**
+	 * Answers the exception for a value that cannot be stored in field
+	 * {@code i} of {@code obj}.
+	 */
+	protected final ClassCastException castFailed(int i, Object obj, Object val) {
+		Field f = fields[i];
+		return new ClassCastException("cannot assign instance of " //$NON-NLS-1$
+				+ val.getClass().getName() + " to field " //$NON-NLS-1$
+				+ f.getDeclaringClass().getName() + "." //$NON-NLS-1$
+				+ f.getName() + " of type " //$NON-NLS-1$
+				+ f.getType().getName() + " in instance of " //$NON-NLS-1$
+				+ obj.getClass().getName());
+	}
+
+	/*
+	 * Big-endian marshalling, as java.io.Bits, for generated subclasses.
+	 */
+
+	protected static boolean getBoolean(byte[] b, int off) {
+		return b[off] != 0;
+	}
+
+	protected static char getChar(byte[] b, int off) {
+		return (char) ((b[off + 1] & 0xFF) + (b[off] << 8));
+	}
+
+	protected static short getShort(byte[] b, int off) {
+		return (short) ((b[off + 1] & 0xFF) + (b[off] << 8));
+	}
+
+	protected static int getInt(byte[] b, int off) {
+		return ((b[off + 3] & 0xFF)) + ((b[off + 2] & 0xFF) << 8)
+				+ ((b[off + 1] & 0xFF) << 16) + ((b[off]) << 24);
+	}
+
+	protected static float getFloat(byte[] b, int off) {
+		return Float.intBitsToFloat(getInt(b, off));
+	}
+
+	protected static long getLong(byte[] b, int off) {
+		return ((b[off + 7] & 0xFFL)) + ((b[off + 6] & 0xFFL) << 8)
+				+ ((b[off + 5] & 0xFFL) << 16) + ((b[off + 4] & 0xFFL) << 24)
+				+ ((b[off + 3] & 0xFFL) << 32) + ((b[off + 2] & 0xFFL) << 40)
+				+ ((b[off + 1] & 0xFFL) << 48) + (((long) b[off]) << 56);
+	}
+
+	protected static double getDouble(byte[] b, int off) {
+		return Double.longBitsToDouble(getLong(b, off));
+	}
+
+	protected static void putBoolean(byte[] b, int off, boolean val) {
+		b[off] = (byte) (val ? 1 : 0);
+	}
+
+	protected static void putChar(byte[] b, int off, char val) {
+		b[off + 1] = (byte) (val);
+		b[off] = (byte) (val >>> 8);
+	}
+
+	protected static void putShort(byte[] b, int off, short val) {
+		b[off + 1] = (byte) (val);
+		b[off] = (byte) (val >>> 8);
+	}
+
+	protected static void putInt(byte[] b, int off, int val) {
+		b[off + 3] = (byte) (val);
+		b[off + 2] = (byte) (val >>> 8);
+		b[off + 1] = (byte) (val >>> 16);
+		b[off] = (byte) (val >>> 24);
+	}
+
+	protected static void putFloat(byte[] b, int off, float val) {
+		putInt(b, off, Float.floatToIntBits(val));
+	}
+
+	protected static void putLong(byte[] b, int off, long val) {
+		b[off + 7] = (byte) (val);
+		b[off + 6] = (byte) (val >>> 8);
+		b[off + 5] = (byte) (val >>> 16);
+		b[off + 4] = (byte) (val >>> 24);
+		b[off + 3] = (byte) (val >>> 32);
+		b[off + 2] = (byte) (val >>> 40);
+		b[off + 1] = (byte) (val >>> 48);
+		b[off] = (byte) (val >>> 56);
+	}
+
+	protected static void putDouble(byte[] b, int off, double val) {
+		putLong(b, off, Double.doubleToLongBits(val));
+	}
+}
@@ -39,6 +39,7 @@ import java.util.*;
 import java.lang.reflect.*;
 import java.util.Objects;
 import sun.reflect.misc.*;
+import com.ibm.lang.reflect.ReflectionData;
 
 
 /**
@@ -107,12 +108,8 @@ public class DefaultPersistenceDelegate extends PersistenceDelegate {
     }
 
     private static boolean definesEquals(Class type) {
-        try {
-            return type == type.getMethod("equals", Object.class).getDeclaringClass();
-        }
-        catch(NoSuchMethodException e) {
-            return false;
-        }
+        Method equals = ReflectionData.of(type).getMethod("equals", Object.class);
+        return equals != null && type == equals.getDeclaringClass();
     }
 
     private boolean definesEquals(Object instance) {
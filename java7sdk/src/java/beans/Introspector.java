@@ -37,7 +37,6 @@
 package java.beans;
 
 import com.sun.beans.TypeResolver;
-import com.sun.beans.WeakCache;
 import com.sun.beans.finder.ClassFinder;
 
 import java.awt.Component;
@@ -47,6 +46,7 @@ import java.lang.ref.SoftReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
 
 import java.util.Map;
 import java.util.ArrayList;
@@ -56,6 +56,7 @@ import java.util.EventListener;
 import java.util.EventObject;
 import java.util.List;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import sun.reflect.misc.ReflectUtil;
 
@@ -108,7 +109,7 @@ public class Introspector {
     public final static int IGNORE_ALL_BEANINFO        = 3;
 
     // Static Caches to speed up introspection.
-    private static final WeakCache<Class<?>, Method[]> declaredMethodCache = new WeakCache<>();
+    private static volatile ClassValue<Method[]> declaredMethodCache = newDeclaredMethodCache();
 
     private Class beanClass;
     private BeanInfo explicitBeanInfo;
@@ -166,19 +167,100 @@ public class Introspector {
             return (new Introspector(beanClass, null, USE_ALL_BEANINFO)).getBeanInfo();
         }
         ThreadGroupContext context = ThreadGroupContext.getContext();
-        BeanInfo beanInfo;
-        synchronized (declaredMethodCache) {
-            beanInfo = context.getBeanInfo(beanClass);
-        }
+        BeanInfo beanInfo = context.getBeanInfo(beanClass);
         if (beanInfo == null) {
             beanInfo = new Introspector(beanClass, null, USE_ALL_BEANINFO).getBeanInfo();
-            synchronized (declaredMethodCache) {
-                context.putBeanInfo(beanClass, beanInfo);
-            }
+            context.putBeanInfo(beanClass, beanInfo);
         }
         return beanInfo;
     }
 
+    /**
+     * Introspect on several Java Beans in parallel, as if by calling
+     * {@link #getBeanInfo(Class)} for each of them.
+     * <p>
+     * The bean classes are shared out among the calling thread and up to one
+     * helper thread per additional processor.  The helper threads belong to
+     * the thread group of the caller, so the results are cached as they would
+     * be by calling {@code getBeanInfo} from the calling thread.  This is
+     * useful to warm the BeanInfo cache for many independent classes while
+     * an application starts.
+     *
+     * @param beanClasses  The bean classes to be analyzed.
+     * @return  The BeanInfo objects describing the beans, in the order of
+     *          {@code beanClasses}.
+     * @exception IntrospectionException if an exception occurs during
+     *              introspection of any of the classes.  The other classes
+     *              are still introspected.  If several classes fail, the
+     *              failure of the first of them in {@code beanClasses} is
+     *              rethrown, whether an exception or an error.
+     * @throws NullPointerException if {@code beanClasses} or any of its
+     *              elements is null.
+     * @since 1.7
+     */
+    public static BeanInfo[] getBeanInfos(final Class<?>... beanClasses)
+        throws IntrospectionException
+    {
+        for (Class<?> beanClass : beanClasses) {
+            if (beanClass == null) {
+                throw new NullPointerException();
+            }
+        }
+        final BeanInfo[] result = new BeanInfo[beanClasses.length];
+        final Throwable[] failures = new Throwable[beanClasses.length];
+        final AtomicInteger next = new AtomicInteger();
+        Runnable task = new Runnable() {
+            public void run() {
+                int i;
+                while ((i = next.getAndIncrement()) < beanClasses.length) {
+                    try {
+                        result[i] = getBeanInfo(beanClasses[i]);
+                    } catch (Throwable exception) {
+                        failures[i] = exception;
+                    }
+                }
+            }
+        };
+        int helpers = Math.min(beanClasses.length, Runtime.getRuntime().availableProcessors()) - 1;
+        Thread[] threads = new Thread[Math.max(helpers, 0)];
+        try {
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(task, "Introspector-" + i);
+                threads[i].setDaemon(true);
+                threads[i].start();
+            }
+            task.run();
+        } finally {
+            // the helpers that were started never outlive the call
+            boolean interrupted = false;
+            for (Thread thread : threads) {
+                while (thread != null) {
+                    try {
+                        thread.join();
+                        break;
+                    } catch (InterruptedException exception) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Throwable failure : failures) {
+            if (failure instanceof IntrospectionException) {
+                throw (IntrospectionException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new UndeclaredThrowableException(failure);
+            }
+        }
+        return result;
+    }
+
     /**
      * Introspect on a Java bean and learn about all its properties, exposed
      * methods, and events, subject to some control flags.
@@ -342,10 +424,8 @@ public class Introspector {
      */
 
     public static void flushCaches() {
-        synchronized (declaredMethodCache) {
-            ThreadGroupContext.getContext().clearBeanInfoCache();
-            declaredMethodCache.clear();
-        }
+        ThreadGroupContext.getContext().clearBeanInfoCache();
+        declaredMethodCache = newDeclaredMethodCache();
     }
 
     /**
@@ -367,10 +447,8 @@ public class Introspector {
         if (clz == null) {
             throw new NullPointerException();
         }
-        synchronized (declaredMethodCache) {
-            ThreadGroupContext.getContext().removeBeanInfo(clz);
-            declaredMethodCache.put(clz, null);
-        }
+        ThreadGroupContext.getContext().removeBeanInfo(clz);
+        declaredMethodCache.remove(clz);
     }
 
     //======================================================================
@@ -1285,20 +1363,22 @@ public class Introspector {
         if (!ReflectUtil.isPackageAccessible(clz)) {
             return new Method[0];
         }
-        synchronized (declaredMethodCache) {
-            Method[] result = declaredMethodCache.get(clz);
-            if (result == null) {
-                result = clz.getMethods();
+        return declaredMethodCache.get(clz);
+    }
+
+    private static ClassValue<Method[]> newDeclaredMethodCache() {
+        return new ClassValue<Method[]>() {
+            protected Method[] computeValue(Class<?> clz) {
+                Method[] result = clz.getMethods();
                 for (int i = 0; i < result.length; i++) {
                     Method method = result[i];
                     if (!method.getDeclaringClass().equals(clz)) {
                         result[i] = null;
                     }
                 }
-                declaredMethodCache.put(clz, result);
+                return result;
             }
-            return result;
-        }
+        };
     }
 
     //======================================================================
@@ -40,8 +40,7 @@ import com.sun.beans.finder.BeanInfoFinder;
 import com.sun.beans.finder.PropertyEditorFinder;
 
 import java.awt.GraphicsEnvironment;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The {@code ThreadGroupContext} is an application-dependent
@@ -71,7 +70,7 @@ final class ThreadGroupContext {
     private volatile boolean isDesignTime;
     private volatile Boolean isGuiAvailable;
 
-    private Map<Class<?>, BeanInfo> beanInfoCache;
+    private volatile BeanInfoCache beanInfoCache;
     private BeanInfoFinder beanInfoFinder;
     private PropertyEditorFinder propertyEditorFinder;
 
@@ -99,29 +98,45 @@ final class ThreadGroupContext {
     }
 
 
+    /**
+     * The BeanInfo cache, held by the bean classes themselves so that it
+     * can be read without locking and does not keep the classes alive.
+     */
+    private static final class BeanInfoCache extends ClassValue<AtomicReference<BeanInfo>> {
+        protected AtomicReference<BeanInfo> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    }
+
     BeanInfo getBeanInfo(Class<?> type) {
-        return (this.beanInfoCache != null)
-                ? this.beanInfoCache.get(type)
+        BeanInfoCache cache = this.beanInfoCache;
+        return (cache != null)
+                ? cache.get(type).get()
                 : null;
     }
 
     BeanInfo putBeanInfo(Class<?> type, BeanInfo info) {
-        if (this.beanInfoCache == null) {
-            this.beanInfoCache = new WeakHashMap<>();
+        BeanInfoCache cache = this.beanInfoCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = this.beanInfoCache;
+                if (cache == null) {
+                    this.beanInfoCache = cache = new BeanInfoCache();
+                }
+            }
         }
-        return this.beanInfoCache.put(type, info);
+        return cache.get(type).getAndSet(info);
     }
 
     void removeBeanInfo(Class<?> type) {
-        if (this.beanInfoCache != null) {
-            this.beanInfoCache.remove(type);
+        BeanInfoCache cache = this.beanInfoCache;
+        if (cache != null) {
+            cache.remove(type);
         }
     }
 
     void clearBeanInfoCache() {
-        if (this.beanInfoCache != null) {
-            this.beanInfoCache.clear();
-        }
+        this.beanInfoCache = null;
     }
 
 
@@ -74,9 +74,10 @@ class BufferedInputStream extends FilterInputStream {
      * Atomic updater to provide compareAndSet for buf. This is
      * necessary because closes can be asynchronous. We use nullness
      * of buf[] as primary indicator that this stream is closed. (The
-     * "in" field is also nulled out on close.)
+     * "in" field is also nulled out on close.) Also used by
+     * UnsyncBufferedInputStream.
      */
-    private static final
+    static final
         AtomicReferenceFieldUpdater<BufferedInputStream, byte[]> bufUpdater =
         AtomicReferenceFieldUpdater.newUpdater
         (BufferedInputStream.class,  byte[].class, "buf");
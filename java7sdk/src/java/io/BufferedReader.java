@@ -36,6 +36,9 @@
 
 package java.io;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import sun.misc.Unsafe;
 
 /**
  * Reads text from a character-input stream, buffering characters so as to
@@ -92,6 +95,20 @@ public class BufferedReader extends Reader {
     private static int defaultCharBufferSize = 8192;
     private static int defaultExpectedLineLength = 80;
 
+    /** The view returned by readLineView, created on first use */
+    private LineView lineView;
+    /** Holds the lines returned by readLineView that span buffer fills */
+    private char[] lineBuf;
+
+    /* For scanning four chars at a time for line terminators */
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+    private static final int charArrayBase =
+        unsafe.arrayBaseOffset(char[].class);
+    private static final long LANE_ONES = 0x0001000100010001L;
+    private static final long LANE_HIGHS = 0x8000800080008000L;
+    private static final long LF_LANES = 0x000A000A000A000AL;
+    private static final long CR_LANES = 0x000D000D000D000DL;
+
     /**
      * Creates a buffering character-input stream that uses an input buffer of
      * the specified size.
@@ -342,13 +359,12 @@ public class BufferedReader extends Reader {
                 skipLF = false;
                 omitLF = false;
 
-            charLoop:
-                for (i = nextChar; i < nChars; i++) {
+                i = indexOfEol(cb, nextChar, nChars);
+                if (i >= 0) {
                     c = cb[i];
-                    if ((c == '\n') || (c == '\r')) {
-                        eol = true;
-                        break charLoop;
-                    }
+                    eol = true;
+                } else {
+                    i = nChars;
                 }
 
                 startChar = nextChar;
@@ -393,6 +409,197 @@ public class BufferedReader extends Reader {
         return readLine(false);
     }
 
+    /**
+     * Answers the index of the first line feed or carriage return in
+     * <code>a[from..to)</code>, or -1.  Four chars are tested at a time,
+     * as the lanes of a long read from the array.
+     */
+    private static int indexOfEol(char[] a, int from, int to) {
+        int i = from;
+        // align the long reads
+        while (i < to && ((charArrayBase + (i << 1)) & 7) != 0) {
+            char c = a[i];
+            if (c == '\n' || c == '\r')
+                return i;
+            i++;
+        }
+        for (; i + 4 <= to; i += 4) {
+            long w = unsafe.getLong(a, charArrayBase + ((long) i << 1));
+            if ((hasZeroLane(w ^ LF_LANES) | hasZeroLane(w ^ CR_LANES)) != 0)
+                break;
+        }
+        for (; i < to; i++) {
+            char c = a[i];
+            if (c == '\n' || c == '\r')
+                return i;
+        }
+        return -1;
+    }
+
+    /** Nonzero if a 16-bit lane of w is zero */
+    private static long hasZeroLane(long w) {
+        return (w - LANE_ONES) & ~w & LANE_HIGHS;
+    }
+
+    /**
+     * Reads a line of text, as {@link #readLine()}, but answers it as a view
+     * of the internal buffer instead of a new string.  The view is only
+     * valid until the next call of a method of this reader; callers that
+     * keep a line must copy it, for example with <code>toString()</code>.
+     * No objects are allocated per line, except when a line spans a refill
+     * of the buffer, in which case it is first copied to a second buffer
+     * that is reused for such lines.
+     *
+     * @return     The contents of the line, not including any
+     *             line-termination characters, or null if the end of the
+     *             stream has been reached
+     *
+     * @exception  IOException  If an I/O error occurs
+     * @since 1.7
+     */
+    public CharSequence readLineView() throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            LineView view = lineView;
+            if (view == null)
+                view = lineView = new LineView();
+            boolean omitLF = skipLF;
+            int spilled = 0;
+
+            for (;;) {
+                if (nextChar >= nChars)
+                    fill();
+                if (nextChar >= nChars) { /* EOF */
+                    if (spilled > 0)
+                        return view.set(lineBuf, 0, spilled);
+                    else
+                        return null;
+                }
+
+                /* Skip a leftover '\n', if necessary */
+                if (omitLF && (cb[nextChar] == '\n'))
+                    nextChar++;
+                skipLF = false;
+                omitLF = false;
+
+                int start = nextChar;
+                int i = indexOfEol(cb, start, nChars);
+                if (i >= 0) {
+                    nextChar = i + 1;
+                    if (cb[i] == '\r')
+                        skipLF = true;
+                    if (spilled == 0)
+                        return view.set(cb, start, i - start);
+                    spilled = spill(spilled, start, i);
+                    return view.set(lineBuf, 0, spilled);
+                }
+                nextChar = nChars;
+                spilled = spill(spilled, start, nChars);
+            }
+        }
+    }
+
+    /**
+     * Appends <code>cb[start..end)</code> to the <code>spilled</code>
+     * chars of the line buffer, and answers the new length.
+     */
+    private int spill(int spilled, int start, int end) {
+        int len = end - start;
+        char[] buf = lineBuf;
+        if (buf == null || buf.length - spilled < len) {
+            char[] nbuf = new char[Math.max(spilled + len,
+                Math.max(defaultExpectedLineLength, spilled * 2))];
+            if (buf != null)
+                System.arraycopy(buf, 0, nbuf, 0, spilled);
+            buf = lineBuf = nbuf;
+        }
+        System.arraycopy(cb, start, buf, spilled, len);
+        return spilled + len;
+    }
+
+    /**
+     * Answers the lines of this reader as a lazy sequence of views, read by
+     * {@link #readLineView()} as the sequence is iterated.  Each view is
+     * only valid until the next call of <code>hasNext()</code> or
+     * <code>next()</code> of the iterator, or of a method of this reader.
+     * Since iterators cannot throw <code>IOException</code>, an I/O error
+     * while reading a line is thrown as an {@link IOError} wrapping it.
+     *
+     * @return     The lines of this reader, which can be iterated once
+     * @since 1.7
+     */
+    public Iterable<CharSequence> lineViews() {
+        return new Iterable<CharSequence>() {
+            public Iterator<CharSequence> iterator() {
+                return new Iterator<CharSequence>() {
+                    private CharSequence nextLine;
+                    private boolean fetched;
+
+                    public boolean hasNext() {
+                        if (!fetched) {
+                            try {
+                                nextLine = readLineView();
+                            } catch (IOException e) {
+                                throw new IOError(e);
+                            }
+                            fetched = true;
+                        }
+                        return nextLine != null;
+                    }
+
+                    public CharSequence next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        fetched = false;
+                        return nextLine;
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * A line of characters in an array, reused for each line returned by
+     * readLineView.
+     */
+    private static final class LineView implements CharSequence {
+        private char[] chars;
+        private int offset;
+        private int length;
+
+        LineView set(char[] chars, int offset, int length) {
+            this.chars = chars;
+            this.offset = offset;
+            this.length = length;
+            return this;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public char charAt(int index) {
+            if (index < 0 || index >= length)
+                throw new StringIndexOutOfBoundsException(index);
+            return chars[offset + index];
+        }
+
+        /** Answers a copy of the characters, which stays valid */
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end)
+                throw new StringIndexOutOfBoundsException();
+            return new String(chars, offset + start, end - start);
+        }
+
+        public String toString() {
+            return new String(chars, offset, length);
+        }
+    }
+
     /**
      * Skips characters.
      *
@@ -0,0 +1,323 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A data input that reads primitive values and
+ * <a href="DataInput.html#modified-utf-8">modified UTF-8</a> strings
+ * straight from a sequence of {@link ByteBuffer}s, in the format of
+ * {@link DataInputStream}.
+ * <p>
+ * The buffers may be heap or direct buffers, such as those returned by
+ * {@link ByteBufferDataOutput#toByteBuffers()} or filled from a channel.
+ * Their content is not copied: the input reads from views of the buffers,
+ * between the position and the limit each has when the input is created,
+ * and does not change the position of the buffers themselves. Values that
+ * span two buffers are assembled byte by byte.
+ * <p>
+ * Since it is an <code>InputStream</code>, a
+ * <code>ByteBufferDataInput</code> can be the source of an
+ * {@link ObjectInputStream}.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @see ByteBufferDataOutput
+ * @since 1.7
+ */
+public class ByteBufferDataInput extends InputStream implements DataInput {
+
+    private final ByteBuffer[] buffers;
+    /** the index of the buffer being read */
+    private int index;
+    /** the buffer being read */
+    private ByteBuffer current;
+
+    /** buffers for strings, created on first use */
+    private byte[] bytearr;
+    private char[] chararr;
+    private char[] lineBuffer;
+
+    /**
+     * Creates an input reading the remaining bytes of the specified
+     * buffers, in order.
+     *
+     * @param buffers the buffers to read
+     */
+    public ByteBufferDataInput(ByteBuffer... buffers) {
+        this.buffers = new ByteBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            this.buffers[i] = buffers[i].duplicate().order(ByteOrder.BIG_ENDIAN);
+        }
+        current = (buffers.length > 0) ? this.buffers[0] : null;
+    }
+
+    /**
+     * Answers the buffer being read if it has at least <code>n</code> bytes
+     * remaining, moving past empty buffers, or null if the next
+     * <code>n</code> bytes span buffers or are not all there.
+     */
+    private ByteBuffer buffer(int n) {
+        while (current != null && !current.hasRemaining()) {
+            nextBuffer();
+        }
+        return (current != null && current.remaining() >= n) ? current : null;
+    }
+
+    private void nextBuffer() {
+        index++;
+        current = (index < buffers.length) ? buffers[index] : null;
+    }
+
+    /**
+     * Returns the number of bytes that remain to be read.
+     *
+     * @return the number of bytes remaining
+     */
+    public long remaining() {
+        long n = 0;
+        for (int i = index; i < buffers.length; i++) {
+            n += buffers[i].remaining();
+        }
+        return n;
+    }
+
+    public int read() {
+        ByteBuffer buf = buffer(1);
+        return (buf == null) ? -1 : buf.get() & 0xFF;
+    }
+
+    public int read(byte[] b, int off, int len) {
+        if ((off | len | (b.length - (len + off)) | (off + len)) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        int total = 0;
+        while (len > 0 && buffer(1) != null) {
+            int n = Math.min(len, current.remaining());
+            current.get(b, off, n);
+            off += n;
+            len -= n;
+            total += n;
+        }
+        return (total == 0) ? -1 : total;
+    }
+
+    public long skip(long n) {
+        long skipped = 0;
+        while (n > 0 && buffer(1) != null) {
+            int k = (int) Math.min(n, current.remaining());
+            current.position(current.position() + k);
+            n -= k;
+            skipped += k;
+        }
+        return skipped;
+    }
+
+    public int available() {
+        return (int) Math.min(remaining(), Integer.MAX_VALUE);
+    }
+
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        if (len < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        int n = 0;
+        while (n < len) {
+            int count = read(b, off + n, len - n);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            n += count;
+        }
+    }
+
+    public int skipBytes(int n) {
+        return (int) skip(n);
+    }
+
+    private int readByteOrFail() throws EOFException {
+        ByteBuffer buf = buffer(1);
+        if (buf == null) {
+            throw new EOFException();
+        }
+        return buf.get() & 0xFF;
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByteOrFail() != 0;
+    }
+
+    public byte readByte() throws IOException {
+        return (byte) readByteOrFail();
+    }
+
+    public int readUnsignedByte() throws IOException {
+        return readByteOrFail();
+    }
+
+    public short readShort() throws IOException {
+        ByteBuffer buf = buffer(2);
+        if (buf != null) {
+            return buf.getShort();
+        }
+        return (short) ((readByteOrFail() << 8) + readByteOrFail());
+    }
+
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    public char readChar() throws IOException {
+        return (char) readShort();
+    }
+
+    public int readInt() throws IOException {
+        ByteBuffer buf = buffer(4);
+        if (buf != null) {
+            return buf.getInt();
+        }
+        return (readByteOrFail() << 24) + (readByteOrFail() << 16)
+            + (readByteOrFail() << 8) + readByteOrFail();
+    }
+
+    public long readLong() throws IOException {
+        ByteBuffer buf = buffer(8);
+        if (buf != null) {
+            return buf.getLong();
+        }
+        return ((long) readInt() << 32) + (readInt() & 0xFFFFFFFFL);
+    }
+
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    /**
+     * Reads a line as {@link DataInputStream#readLine()}, which does not
+     * properly convert bytes to characters.
+     */
+    @Deprecated
+    public String readLine() throws IOException {
+        char[] buf = lineBuffer;
+        if (buf == null) {
+            buf = lineBuffer = new char[128];
+        }
+        int offset = 0;
+        int c;
+        while ((c = read()) != -1 && c != '\n') {
+            if (c == '\r') {
+                ByteBuffer next = buffer(1);
+                if (next != null && next.get(next.position()) == '\n') {
+                    next.get();
+                }
+                break;
+            }
+            if (offset == buf.length) {
+                buf = lineBuffer = Arrays.copyOf(buf, offset + 128);
+            }
+            buf[offset++] = (char) c;
+        }
+        if (c == -1 && offset == 0) {
+            return null;
+        }
+        return String.copyValueOf(buf, 0, offset);
+    }
+
+    /**
+     * Reads a string in modified UTF-8, as
+     * {@link DataInputStream#readUTF()}. A string within one buffer is
+     * decoded straight from the buffer.
+     */
+    public String readUTF() throws IOException {
+        int utflen = readUnsignedShort();
+        if (chararr == null || chararr.length < utflen) {
+            chararr = new char[Math.max(utflen, 80)];
+        }
+        ByteBuffer src = buffer(utflen);
+        int base;
+        if (src != null) {
+            base = src.position();
+            src.position(base + utflen);
+        } else {
+            if (bytearr == null || bytearr.length < utflen) {
+                bytearr = new byte[Math.max(utflen, 80)];
+            }
+            readFully(bytearr, 0, utflen);
+            src = ByteBuffer.wrap(bytearr);
+            base = 0;
+        }
+
+        char[] chars = chararr;
+        int count = 0;
+        int nchars = 0;
+        while (count < utflen) {
+            int c = src.get(base + count) & 0xff;
+            if (c > 127) {
+                break;
+            }
+            count++;
+            chars[nchars++] = (char) c;
+        }
+        while (count < utflen) {
+            int c = src.get(base + count) & 0xff;
+            int char2, char3;
+            switch (c >> 4) {
+                case 0: case 1: case 2: case 3: case 4: case 5: case 6: case 7:
+                    /* 0xxxxxxx*/
+                    count++;
+                    chars[nchars++] = (char) c;
+                    break;
+                case 12: case 13:
+                    /* 110x xxxx   10xx xxxx*/
+                    count += 2;
+                    if (count > utflen)
+                        throw new UTFDataFormatException(
+                            "malformed input: partial character at end");
+                    char2 = src.get(base + count - 1);
+                    if ((char2 & 0xC0) != 0x80)
+                        throw new UTFDataFormatException(
+                            "malformed input around byte " + count);
+                    chars[nchars++] = (char) (((c & 0x1F) << 6) |
+                                              (char2 & 0x3F));
+                    break;
+                case 14:
+                    /* 1110 xxxx  10xx xxxx  10xx xxxx */
+                    count += 3;
+                    if (count > utflen)
+                        throw new UTFDataFormatException(
+                            "malformed input: partial character at end");
+                    char2 = src.get(base + count - 2);
+                    char3 = src.get(base + count - 1);
+                    if (((char2 & 0xC0) != 0x80) || ((char3 & 0xC0) != 0x80))
+                        throw new UTFDataFormatException(
+                            "malformed input around byte " + (count - 1));
+                    chars[nchars++] = (char) (((c     & 0x0F) << 12) |
+                                              ((char2 & 0x3F) << 6)  |
+                                              ((char3 & 0x3F) << 0));
+                    break;
+                default:
+                    /* 10xx xxxx,  1111 xxxx */
+                    throw new UTFDataFormatException(
+                        "malformed input around byte " + count);
+            }
+        }
+        return new String(chars, 0, nchars);
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.io;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A data output that writes primitive values and
+ * <a href="DataInput.html#modified-utf-8">modified UTF-8</a> strings
+ * straight into {@link ByteBuffer} chunks, in the format of
+ * {@link DataOutputStream}.
+ * <p>
+ * Unlike a <code>DataOutputStream</code> over a
+ * <code>ByteArrayOutputStream</code>, no value goes through an intermediate
+ * array and the output is never copied to grow: when a chunk is full, a new
+ * one is taken. Chunks of the default size are pooled: an output that is
+ * {@link #reset() reset} returns them for reuse by later outputs. Closing
+ * the output has no effect, so the data written through a stream that
+ * closes its sink, such as an <code>ObjectOutputStream</code>, can still be
+ * read. The chunks can be heap or direct buffers; the written
+ * data is obtained without copying from {@link #toByteBuffers()}, or written
+ * to a stream or channel.
+ * <p>
+ * Since it is an <code>OutputStream</code>, a
+ * <code>ByteBufferDataOutput</code> can be the sink of an
+ * {@link ObjectOutputStream}.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @see ByteBufferDataInput
+ * @since 1.7
+ */
+public class ByteBufferDataOutput extends OutputStream implements DataOutput {
+
+    /** the size of pooled chunks */
+    static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /** the most chunks of each kind kept in the pools */
+    private static final int POOL_SIZE = 64;
+
+    private static final ArrayBlockingQueue<ByteBuffer> heapPool =
+        new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final ArrayBlockingQueue<ByteBuffer> directPool =
+        new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final int chunkSize;
+    private final boolean direct;
+
+    /** the full chunks, in order */
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    /** the chunk being written, or null */
+    private ByteBuffer current;
+    /** the number of bytes in the full chunks */
+    private long flushed;
+
+    /**
+     * Creates an output writing into pooled heap buffers.
+     */
+    public ByteBufferDataOutput() {
+        this(DEFAULT_CHUNK_SIZE, false);
+    }
+
+    /**
+     * Creates an output writing into buffers of the specified size. Only
+     * buffers of the default size, 8192 bytes, are pooled.
+     *
+     * @param chunkSize the size of each buffer
+     * @param direct whether to allocate direct buffers
+     * @throws IllegalArgumentException if <code>chunkSize</code> is less
+     *         than 8
+     */
+    public ByteBufferDataOutput(int chunkSize, boolean direct) {
+        if (chunkSize < 8) {
+            throw new IllegalArgumentException("Chunk size < 8: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.direct = direct;
+    }
+
+    /**
+     * Makes room for at least <code>n</code> bytes, at most 8, in the
+     * current chunk, and returns it.
+     */
+    private ByteBuffer ensure(int n) {
+        ByteBuffer buf = current;
+        if (buf == null || buf.remaining() < n) {
+            buf = nextChunk();
+        }
+        return buf;
+    }
+
+    private ByteBuffer nextChunk() {
+        if (current != null) {
+            chunks.add(current);
+            flushed += current.position();
+        }
+        ByteBuffer buf = null;
+        if (chunkSize == DEFAULT_CHUNK_SIZE) {
+            buf = (direct ? directPool : heapPool).poll();
+        }
+        if (buf == null) {
+            buf = direct ? ByteBuffer.allocateDirect(chunkSize)
+                         : ByteBuffer.allocate(chunkSize);
+        }
+        current = buf;
+        return buf;
+    }
+
+    private void release(ByteBuffer buf) {
+        if (buf.capacity() == DEFAULT_CHUNK_SIZE) {
+            buf.clear();
+            (buf.isDirect() ? directPool : heapPool).offer(buf);
+        }
+    }
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return the number of bytes written since creation or the last reset
+     */
+    public long size() {
+        return flushed + (current == null ? 0 : current.position());
+    }
+
+    /**
+     * Discards the bytes written, returning the chunks to the pool.
+     */
+    public void reset() {
+        for (ByteBuffer buf : chunks) {
+            release(buf);
+        }
+        chunks.clear();
+        if (current != null) {
+            release(current);
+            current = null;
+        }
+        flushed = 0;
+    }
+
+    /**
+     * Returns the bytes written as read-only buffers sharing the content of
+     * the chunks, each positioned at its first byte and limited to its last,
+     * for example for a gathering write. The buffers are valid until the
+     * output is reset.
+     *
+     * @return the written bytes, in order
+     */
+    public ByteBuffer[] toByteBuffers() {
+        int n = chunks.size() + (current == null ? 0 : 1);
+        ByteBuffer[] result = new ByteBuffer[n];
+        for (int i = 0; i < chunks.size(); i++) {
+            result[i] = readOnly(chunks.get(i));
+        }
+        if (current != null) {
+            result[n - 1] = readOnly(current);
+        }
+        return result;
+    }
+
+    private static ByteBuffer readOnly(ByteBuffer buf) {
+        ByteBuffer result = buf.asReadOnlyBuffer();
+        result.flip();
+        return result;
+    }
+
+    /**
+     * Returns a copy of the bytes written.
+     *
+     * @return the written bytes
+     * @throws OutOfMemoryError if more than 2GB were written
+     */
+    public byte[] toByteArray() {
+        long size = size();
+        if (size > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError();
+        }
+        byte[] result = new byte[(int) size];
+        int off = 0;
+        for (ByteBuffer buf : toByteBuffers()) {
+            int n = buf.remaining();
+            buf.get(result, off, n);
+            off += n;
+        }
+        return result;
+    }
+
+    /**
+     * Writes the bytes written to the specified stream.
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        for (ByteBuffer chunk : chunks) {
+            writeChunk(chunk, out);
+        }
+        if (current != null) {
+            writeChunk(current, out);
+        }
+    }
+
+    private static void writeChunk(ByteBuffer chunk, OutputStream out) throws IOException {
+        if (chunk.hasArray()) {
+            out.write(chunk.array(), chunk.arrayOffset(), chunk.position());
+        } else {
+            ByteBuffer buf = readOnly(chunk);
+            byte[] bytes = new byte[buf.remaining()];
+            buf.get(bytes);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Writes the bytes written to the specified channel.
+     *
+     * @param channel the channel to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        for (ByteBuffer buf : toByteBuffers()) {
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        }
+    }
+
+    public void write(int b) {
+        ensure(1).put((byte) b);
+    }
+
+    public void write(byte[] b, int off, int len) {
+        if ((off | len | (b.length - (len + off)) | (off + len)) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            ByteBuffer buf = ensure(1);
+            int n = Math.min(len, buf.remaining());
+            buf.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of the specified buffer, advancing its
+     * position to its limit.
+     *
+     * @param src the bytes to write
+     */
+    public void write(ByteBuffer src) {
+        while (src.hasRemaining()) {
+            ByteBuffer buf = ensure(1);
+            int n = Math.min(src.remaining(), buf.remaining());
+            int limit = src.limit();
+            src.limit(src.position() + n);
+            buf.put(src);
+            src.limit(limit);
+        }
+    }
+
+    public void writeBoolean(boolean v) {
+        ensure(1).put((byte) (v ? 1 : 0));
+    }
+
+    public void writeByte(int v) {
+        ensure(1).put((byte) v);
+    }
+
+    public void writeShort(int v) {
+        ensure(2).putShort((short) v);
+    }
+
+    public void writeChar(int v) {
+        ensure(2).putChar((char) v);
+    }
+
+    public void writeInt(int v) {
+        ensure(4).putInt(v);
+    }
+
+    public void writeLong(long v) {
+        ensure(8).putLong(v);
+    }
+
+    public void writeFloat(float v) {
+        ensure(4).putInt(Float.floatToIntBits(v));
+    }
+
+    public void writeDouble(double v) {
+        ensure(8).putLong(Double.doubleToLongBits(v));
+    }
+
+    public void writeBytes(String s) {
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            ensure(1).put((byte) s.charAt(i));
+        }
+    }
+
+    public void writeChars(String s) {
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            ensure(2).putChar(s.charAt(i));
+        }
+    }
+
+    /**
+     * Writes a string in modified UTF-8, as
+     * {@link DataOutputStream#writeUTF(String)}, encoding it straight into
+     * the chunks.
+     */
+    public void writeUTF(String str) throws UTFDataFormatException {
+        int strlen = str.length();
+        int utflen = 0;
+        for (int i = 0; i < strlen; i++) {
+            int c = str.charAt(i);
+            if ((c >= 0x0001) && (c <= 0x007F)) {
+                utflen++;
+            } else if (c > 0x07FF) {
+                utflen += 3;
+            } else {
+                utflen += 2;
+            }
+        }
+        if (utflen > 65535) {
+            throw new UTFDataFormatException(
+                "encoded string too long: " + utflen + " bytes");
+        }
+
+        ByteBuffer buf = ensure(2);
+        buf.putShort((short) utflen);
+        for (int i = 0; i < strlen; i++) {
+            int c = str.charAt(i);
+            if (buf.remaining() < 3) {
+                buf = nextChunk();
+            }
+            if ((c >= 0x0001) && (c <= 0x007F)) {
+                buf.put((byte) c);
+            } else if (c > 0x07FF) {
+                buf.put((byte) (0xE0 | ((c >> 12) & 0x0F)));
+                buf.put((byte) (0x80 | ((c >>  6) & 0x3F)));
+                buf.put((byte) (0x80 | ((c >>  0) & 0x3F)));
+            } else {
+                buf.put((byte) (0xC0 | ((c >>  6) & 0x1F)));
+                buf.put((byte) (0x80 | ((c >>  0) & 0x3F)));
+            }
+        }
+    }
+}
@@ -0,0 +1,476 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.io;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+
+/**
+ * Decodes UTF-8, ISO-8859-1 and US-ASCII streams for
+ * {@link InputStreamReader} straight from a byte array into the caller's
+ * char array, without going through a <code>CharsetDecoder</code> and its
+ * buffers.
+ * <p>
+ * Runs of ASCII bytes, the common case for all three charsets, are copied in
+ * a tight loop until a byte with the high bit set is seen. Malformed and
+ * unmappable input is replaced by U+FFFD, as the stream decoder of the
+ * charset does with the <code>REPLACE</code> action: each malformed
+ * sequence gets the same replacement, and an incomplete sequence at the end
+ * of the stream a single one.
+ */
+final class DirectStreamDecoder extends Reader {
+
+    /** the size of the byte buffer when none is given */
+    static final int DEFAULT_BYTE_BUFFER_SIZE = 32768;
+
+    /** the smallest size of the byte buffer */
+    static final int MIN_BYTE_BUFFER_SIZE = 8;
+
+    private static final int UTF_8 = 0;
+    private static final int ISO_8859_1 = 1;
+    private static final int US_ASCII = 2;
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final InputStream in;
+    private final int kind;
+    private final byte[] bb;
+    /** the undecoded bytes are bb[bpos, blim) */
+    private int bpos;
+    private int blim;
+
+    /** set when decoding stopped for lack of room in the output */
+    private boolean overflow;
+
+    /** the second half of a surrogate pair that did not fit in a read */
+    private boolean haveLeftoverChar;
+    private char leftoverChar;
+    private final char[] pair = new char[2];
+
+    private volatile boolean isOpen = true;
+
+    private DirectStreamDecoder(InputStream in, Object lock, int kind, int size) {
+        super(lock);
+        this.in = in;
+        this.kind = kind;
+        this.bb = new byte[size];
+    }
+
+    /**
+     * Returns a decoder for the specified charset if it is one that is
+     * decoded directly, or null.
+     */
+    static DirectStreamDecoder forCharset(InputStream in, Object lock,
+                                          Charset cs, int size)
+    {
+        int kind = kindOf(cs);
+        if (kind < 0) {
+            return null;
+        }
+        return new DirectStreamDecoder(in, lock, kind, size);
+    }
+
+    /**
+     * Returns a decoder for the named charset, or the default charset if
+     * the name is null, if it is one that is decoded directly, or null.
+     * Unknown and illegal names answer null, leaving the error to the
+     * general stream decoder.
+     */
+    static DirectStreamDecoder forName(InputStream in, Object lock,
+                                       String charsetName, int size)
+    {
+        Charset cs;
+        try {
+            if (charsetName == null) {
+                cs = Charset.defaultCharset();
+            } else if (Charset.isSupported(charsetName)) {
+                cs = Charset.forName(charsetName);
+            } else {
+                return null;
+            }
+        } catch (IllegalCharsetNameException x) {
+            return null;
+        }
+        return forCharset(in, lock, cs, size);
+    }
+
+    private static int kindOf(Charset cs) {
+        switch (cs.name()) {
+        case "UTF-8":
+            return UTF_8;
+        case "ISO-8859-1":
+            return ISO_8859_1;
+        case "US-ASCII":
+            return US_ASCII;
+        default:
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the historical name of the charset, as the stream decoder
+     * does, or null if the stream has been closed.
+     */
+    String getEncoding() {
+        if (!isOpen) {
+            return null;
+        }
+        switch (kind) {
+        case UTF_8:
+            return "UTF8";
+        case ISO_8859_1:
+            return "ISO8859_1";
+        default:
+            return "ASCII";
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!isOpen)
+            throw new IOException("Stream closed");
+    }
+
+    public int read() throws IOException {
+        synchronized (lock) {
+            if (haveLeftoverChar) {
+                haveLeftoverChar = false;
+                return leftoverChar;
+            }
+            int n = read(pair, 0, 2);
+            switch (n) {
+            case -1:
+                return -1;
+            case 2:
+                leftoverChar = pair[1];
+                haveLeftoverChar = true;
+                // FALL THROUGH
+            case 1:
+                return pair[0];
+            default:
+                assert false : n;
+                return -1;
+            }
+        }
+    }
+
+    public int read(char cbuf[], int off, int len) throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            if ((off < 0) || (off > cbuf.length) || (len < 0) ||
+                ((off + len) > cbuf.length) || ((off + len) < 0)) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+
+            int n = 0;
+            if (haveLeftoverChar) {
+                cbuf[off] = leftoverChar;
+                off++; len--;
+                haveLeftoverChar = false;
+                n = 1;
+                if ((len == 0) || !implReady())
+                    return n;
+            }
+
+            if (len == 1) {
+                // Read through the pair buffer so that a surrogate pair
+                // is never split by the decoding loop
+                int c = read();
+                if (c == -1)
+                    return (n == 0) ? -1 : n;
+                cbuf[off] = (char)c;
+                return n + 1;
+            }
+
+            int nr = implRead(cbuf, off, off + len);
+            if (nr < 0)
+                return (n == 0) ? -1 : n;
+            return n + nr;
+        }
+    }
+
+    /**
+     * Decodes into cbuf[off, end), reading from the stream until at least
+     * one char is decoded, and then only while the stream has bytes
+     * available. Answers -1 at end of stream.
+     */
+    private int implRead(char[] cbuf, int off, int end) throws IOException {
+        int pos = off;
+        boolean eof = false;
+        for (;;) {
+            pos = decode(cbuf, pos, end, eof);
+            if (pos == end || overflow || eof)
+                break;
+            if (pos > off && !inReady())
+                break;
+            if (fill() < 0) {
+                eof = true;
+            }
+        }
+        if (eof && pos == off && bpos == blim)
+            return -1;
+        return pos - off;
+    }
+
+    /**
+     * Moves the undecoded bytes to the start of the buffer and reads more
+     * after them, answering the number of bytes read or -1 at end of
+     * stream.
+     */
+    private int fill() throws IOException {
+        int rem = blim - bpos;
+        if (bpos > 0) {
+            System.arraycopy(bb, bpos, bb, 0, rem);
+            bpos = 0;
+            blim = rem;
+        }
+        int n = in.read(bb, rem, bb.length - rem);
+        if (n == 0)
+            throw new IOException("Underlying input stream returned zero bytes");
+        if (n > 0)
+            blim += n;
+        return n;
+    }
+
+    private boolean inReady() {
+        try {
+            return in.available() > 0;
+        } catch (IOException x) {
+            return false;
+        }
+    }
+
+    private boolean implReady() {
+        return bpos < blim || inReady();
+    }
+
+    public boolean ready() throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            return haveLeftoverChar || implReady();
+        }
+    }
+
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (!isOpen)
+                return;
+            in.close();
+            isOpen = false;
+        }
+    }
+
+    /**
+     * Decodes the buffered bytes into da[dp, dl), answering the new value
+     * of dp. At end of stream, an incomplete sequence left in the buffer is
+     * replaced.
+     */
+    private int decode(char[] da, int dp, int dl, boolean eof) {
+        overflow = false;
+        byte[] sa = bb;
+        int sp = bpos;
+        int sl = blim;
+        switch (kind) {
+        case UTF_8:
+            dp = decodeUTF8(sa, sp, sl, da, dp, dl);
+            sp = bpos;
+            break;
+        case ISO_8859_1:
+            while (sp < sl && dp < dl) {
+                da[dp++] = (char) (sa[sp++] & 0xff);
+            }
+            break;
+        default:
+            while (sp < sl && dp < dl) {
+                byte b = sa[sp++];
+                da[dp++] = (b >= 0) ? (char) b : REPLACEMENT;
+            }
+            break;
+        }
+
+        if (eof && sp < sl && dp < dl && !overflow) {
+            // An incomplete sequence at end of stream
+            da[dp++] = REPLACEMENT;
+            sp = sl;
+        }
+        bpos = sp;
+        return dp;
+    }
+
+    private static boolean isNotContinuation(int b) {
+        return (b & 0xc0) != 0x80;
+    }
+
+    // [E0]     [A0..BF] [80..BF]
+    // [E1..EF] [80..BF] [80..BF]
+    private static boolean isMalformed3(int b1, int b2, int b3) {
+        return (b1 == (byte)0xe0 && (b2 & 0xe0) == 0x80) ||
+               (b2 & 0xc0) != 0x80 || (b3 & 0xc0) != 0x80;
+    }
+
+    // only used when there are only 2 bytes left
+    private static boolean isMalformed3_2(int b1, int b2) {
+        return (b1 == (byte)0xe0 && (b2 & 0xe0) == 0x80) ||
+               (b2 & 0xc0) != 0x80;
+    }
+
+    // [F0]     [90..BF] [80..BF] [80..BF]
+    // [F1..F3] [80..BF] [80..BF] [80..BF]
+    // [F4]     [80..8F] [80..BF] [80..BF]
+    private static boolean isMalformed4(int b2, int b3, int b4) {
+        return (b2 & 0xc0) != 0x80 || (b3 & 0xc0) != 0x80 ||
+               (b4 & 0xc0) != 0x80;
+    }
+
+    // only used when there are less than 4 bytes left, b1 and b2 unsigned
+    private static boolean isMalformed4_2(int b1, int b2) {
+        return (b1 == 0xf0 && (b2 < 0x90 || b2 > 0xbf)) ||
+               (b1 == 0xf4 && (b2 & 0xf0) != 0x80) ||
+               (b2 & 0xc0) != 0x80;
+    }
+
+    // only used when there are less than 4 bytes left
+    private static boolean isMalformed4_3(int b3) {
+        return (b3 & 0xc0) != 0x80;
+    }
+
+    /**
+     * Answers the length of the malformed three byte sequence at sa[sp].
+     */
+    private static int malformed3(byte[] sa, int sp) {
+        int b1 = sa[sp];
+        int b2 = sa[sp + 1];
+        return ((b1 == (byte)0xe0 && (b2 & 0xe0) == 0x80) ||
+                isNotContinuation(b2)) ? 1 : 2;
+    }
+
+    /**
+     * Answers the length of the malformed four byte sequence at sa[sp].
+     */
+    private static int malformed4(byte[] sa, int sp) {
+        int b1 = sa[sp] & 0xff;
+        int b2 = sa[sp + 1] & 0xff;
+        if (b1 > 0xf4 ||
+            (b1 == 0xf0 && (b2 < 0x90 || b2 > 0xbf)) ||
+            (b1 == 0xf4 && (b2 & 0xf0) != 0x80) ||
+            isNotContinuation(b2))
+            return 1;
+        if (isNotContinuation(sa[sp + 2]))
+            return 2;
+        return 3;
+    }
+
+    /**
+     * Decodes UTF-8 from sa[sp, sl) into da[dp, dl), storing the new value
+     * of sp in bpos and answering the new value of dp. Sets overflow when a
+     * surrogate pair does not fit in the output.
+     */
+    private int decodeUTF8(byte[] sa, int sp, int sl,
+                           char[] da, int dp, int dl)
+    {
+        while (sp < sl && dp < dl) {
+            int b1 = sa[sp];
+            if (b1 >= 0) {
+                // 1 byte, 7 bits: 0xxxxxxx, then the rest of the run
+                int limit = sp + Math.min(sl - sp, dl - dp);
+                do {
+                    da[dp++] = (char) b1;
+                    sp++;
+                } while (sp < limit && (b1 = sa[sp]) >= 0);
+            } else if ((b1 >> 5) == -2 && (b1 & 0x1e) != 0) {
+                // 2 bytes, 11 bits: 110xxxxx 10xxxxxx
+                //                   [C2..DF] [80..BF]
+                if (sl - sp < 2)
+                    break;
+                int b2 = sa[sp + 1];
+                if (isNotContinuation(b2)) {
+                    da[dp++] = REPLACEMENT;
+                    sp++;
+                } else {
+                    da[dp++] = (char) (((b1 << 6) ^ b2) ^
+                                       (((byte) 0xC0 << 6) ^
+                                        ((byte) 0x80 << 0)));
+                    sp += 2;
+                }
+            } else if ((b1 >> 4) == -2) {
+                // 3 bytes, 16 bits: 1110xxxx 10xxxxxx 10xxxxxx
+                int srcRemaining = sl - sp;
+                if (srcRemaining < 3) {
+                    if (srcRemaining > 1 && isMalformed3_2(b1, sa[sp + 1])) {
+                        da[dp++] = REPLACEMENT;
+                        sp++;
+                        continue;
+                    }
+                    break;
+                }
+                int b2 = sa[sp + 1];
+                int b3 = sa[sp + 2];
+                if (isMalformed3(b1, b2, b3)) {
+                    da[dp++] = REPLACEMENT;
+                    sp += malformed3(sa, sp);
+                    continue;
+                }
+                char c = (char)
+                    ((b1 << 12) ^
+                     (b2 <<  6) ^
+                     (b3 ^
+                      (((byte) 0xE0 << 12) ^
+                       ((byte) 0x80 <<  6) ^
+                       ((byte) 0x80 <<  0))));
+                da[dp++] = Character.isSurrogate(c) ? REPLACEMENT : c;
+                sp += 3;
+            } else if ((b1 >> 3) == -2) {
+                // 4 bytes, 21 bits: 11110xxx 10xxxxxx 10xxxxxx 10xxxxxx
+                int srcRemaining = sl - sp;
+                if (srcRemaining < 4 || dl - dp < 2) {
+                    int u1 = b1 & 0xff;
+                    if (u1 > 0xf4 ||
+                        srcRemaining > 1 && isMalformed4_2(u1, sa[sp + 1] & 0xff)) {
+                        da[dp++] = REPLACEMENT;
+                        sp++;
+                        continue;
+                    }
+                    if (srcRemaining > 2 && isMalformed4_3(sa[sp + 2])) {
+                        da[dp++] = REPLACEMENT;
+                        sp += 2;
+                        continue;
+                    }
+                    if (srcRemaining >= 4)
+                        overflow = true;
+                    break;
+                }
+                int b2 = sa[sp + 1];
+                int b3 = sa[sp + 2];
+                int b4 = sa[sp + 3];
+                int uc = ((b1 << 18) ^
+                          (b2 << 12) ^
+                          (b3 <<  6) ^
+                          (b4 ^
+                           (((byte) 0xF0 << 18) ^
+                            ((byte) 0x80 << 12) ^
+                            ((byte) 0x80 <<  6) ^
+                            ((byte) 0x80 <<  0))));
+                if (isMalformed4(b2, b3, b4) ||
+                    // shortest form check
+                    !Character.isSupplementaryCodePoint(uc)) {
+                    da[dp++] = REPLACEMENT;
+                    sp += malformed4(sa, sp);
+                    continue;
+                }
+                da[dp++] = Character.highSurrogate(uc);
+                da[dp++] = Character.lowSurrogate(uc);
+                sp += 4;
+            } else {
+                da[dp++] = REPLACEMENT;
+                sp++;
+            }
+        }
+        bpos = sp;
+        return dp;
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.io;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+
+/**
+ * Encodes chars into UTF-8, ISO-8859-1 or US-ASCII for
+ * {@link OutputStreamWriter} straight from the caller's chars into a byte
+ * array, without going through a <code>CharsetEncoder</code> and its
+ * buffers.
+ * <p>
+ * Runs of ASCII chars are copied in a tight loop until a char above
+ * U+007F is seen. Malformed and unmappable input is replaced by
+ * <code>'?'</code>, as the stream encoder of the charset does with the
+ * <code>REPLACE</code> action; a high surrogate at the end of a write is
+ * kept until the next one, so that a pair split over two writes is encoded
+ * as one character.
+ */
+final class DirectStreamEncoder extends Writer {
+
+    /** the size of the byte buffer when none is given */
+    static final int DEFAULT_BYTE_BUFFER_SIZE = 32768;
+
+    /** the smallest size of the byte buffer */
+    static final int MIN_BYTE_BUFFER_SIZE = 8;
+
+    private static final int UTF_8 = 0;
+    private static final int ISO_8859_1 = 1;
+    private static final int US_ASCII = 2;
+
+    private static final byte REPLACEMENT = (byte) '?';
+
+    /** the number of chars of a string copied at a time */
+    private static final int STRING_CHUNK_SIZE = 1024;
+
+    private final OutputStream out;
+    private final int kind;
+    /** the highest char of the charset */
+    private final char max;
+    private final byte[] bb;
+    /** the encoded bytes not yet written are bb[0, bpos) */
+    private int bpos;
+
+    /** a high surrogate at the end of the last write */
+    private boolean haveLeftoverChar;
+    private char leftoverChar;
+
+    /** scratch arrays for write(int) and write(String), created on use */
+    private char[] single;
+    private char[] chunk;
+
+    private volatile boolean isOpen = true;
+
+    private DirectStreamEncoder(OutputStream out, Object lock, int kind, int size) {
+        super(lock);
+        this.out = out;
+        this.kind = kind;
+        this.max = (kind == UTF_8) ? Character.MAX_VALUE
+                 : (kind == ISO_8859_1) ? '\u00FF' : '\u007F';
+        this.bb = new byte[size];
+    }
+
+    /**
+     * Returns an encoder for the specified charset if it is one that is
+     * encoded directly, or null.
+     */
+    static DirectStreamEncoder forCharset(OutputStream out, Object lock,
+                                          Charset cs, int size)
+    {
+        int kind;
+        switch (cs.name()) {
+        case "UTF-8":
+            kind = UTF_8;
+            break;
+        case "ISO-8859-1":
+            kind = ISO_8859_1;
+            break;
+        case "US-ASCII":
+            kind = US_ASCII;
+            break;
+        default:
+            return null;
+        }
+        return new DirectStreamEncoder(out, lock, kind, size);
+    }
+
+    /**
+     * Returns an encoder for the named charset, or the default charset if
+     * the name is null, if it is one that is encoded directly, or null.
+     * Unknown and illegal names answer null, leaving the error to the
+     * general stream encoder.
+     */
+    static DirectStreamEncoder forName(OutputStream out, Object lock,
+                                       String charsetName, int size)
+    {
+        Charset cs;
+        try {
+            if (charsetName == null) {
+                cs = Charset.defaultCharset();
+            } else if (Charset.isSupported(charsetName)) {
+                cs = Charset.forName(charsetName);
+            } else {
+                return null;
+            }
+        } catch (IllegalCharsetNameException x) {
+            return null;
+        }
+        return forCharset(out, lock, cs, size);
+    }
+
+    /**
+     * Returns the historical name of the charset, as the stream encoder
+     * does, or null if the stream has been closed.
+     */
+    String getEncoding() {
+        if (!isOpen) {
+            return null;
+        }
+        switch (kind) {
+        case UTF_8:
+            return "UTF8";
+        case ISO_8859_1:
+            return "ISO8859_1";
+        default:
+            return "ASCII";
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!isOpen)
+            throw new IOException("Stream closed");
+    }
+
+    public void write(int c) throws IOException {
+        synchronized (lock) {
+            char[] cbuf = single;
+            if (cbuf == null) {
+                cbuf = single = new char[1];
+            }
+            cbuf[0] = (char) c;
+            write(cbuf, 0, 1);
+        }
+    }
+
+    public void write(char cbuf[], int off, int len) throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            if ((off < 0) || (off > cbuf.length) || (len < 0) ||
+                ((off + len) > cbuf.length) || ((off + len) < 0)) {
+                throw new IndexOutOfBoundsException();
+            } else if (len == 0) {
+                return;
+            }
+            encode(cbuf, off, off + len);
+        }
+    }
+
+    public void write(String str, int off, int len) throws IOException {
+        /* Check the len before creating a char buffer */
+        if (len < 0)
+            throw new IndexOutOfBoundsException();
+        synchronized (lock) {
+            ensureOpen();
+            char[] cbuf = chunk;
+            if (cbuf == null) {
+                cbuf = chunk = new char[STRING_CHUNK_SIZE];
+            }
+            while (len > 0) {
+                int n = Math.min(len, STRING_CHUNK_SIZE);
+                str.getChars(off, off + n, cbuf, 0);
+                encode(cbuf, 0, n);
+                off += n;
+                len -= n;
+            }
+        }
+    }
+
+    /**
+     * Writes the encoded bytes to the underlying stream, without flushing
+     * it.
+     */
+    void flushBuffer() throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            writeBytes();
+        }
+    }
+
+    public void flush() throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            writeBytes();
+            out.flush();
+        }
+    }
+
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (!isOpen)
+                return;
+            if (haveLeftoverChar) {
+                // A high surrogate with nothing after it
+                haveLeftoverChar = false;
+                room(1);
+                bb[bpos++] = REPLACEMENT;
+            }
+            writeBytes();
+            out.close();
+            isOpen = false;
+        }
+    }
+
+    private void writeBytes() throws IOException {
+        if (bpos > 0) {
+            out.write(bb, 0, bpos);
+            bpos = 0;
+        }
+    }
+
+    /**
+     * Makes room for n bytes in the buffer.
+     */
+    private void room(int n) throws IOException {
+        if (bb.length - bpos < n) {
+            writeBytes();
+        }
+    }
+
+    /**
+     * Encodes ca[sp, sl) into the buffer, writing it out whenever it fills
+     * up.
+     */
+    private void encode(char[] ca, int sp, int sl) throws IOException {
+        if (haveLeftoverChar) {
+            haveLeftoverChar = false;
+            char lo = ca[sp];
+            if (Character.isLowSurrogate(lo)) {
+                putPair(leftoverChar, lo);
+                sp++;
+            } else {
+                room(1);
+                bb[bpos++] = REPLACEMENT;
+            }
+        }
+
+        byte[] da = bb;
+        int dp = bpos;
+        char max = this.max;
+        while (sp < sl) {
+            if (da.length - dp < 4) {
+                bpos = dp;
+                writeBytes();
+                dp = 0;
+            }
+            char c = ca[sp];
+            if (c < 0x80) {
+                // ASCII run, up to the end of the input or the buffer
+                int limit = sp + Math.min(sl - sp, da.length - dp);
+                do {
+                    da[dp++] = (byte) c;
+                    sp++;
+                } while (sp < limit && (c = ca[sp]) < 0x80);
+            } else if (c <= max && !Character.isSurrogate(c)) {
+                if (kind == ISO_8859_1) {
+                    da[dp++] = (byte) c;
+                } else if (c < 0x800) {
+                    // 2 bytes, 11 bits
+                    da[dp++] = (byte) (0xc0 | (c >> 6));
+                    da[dp++] = (byte) (0x80 | (c & 0x3f));
+                } else {
+                    // 3 bytes, 16 bits
+                    da[dp++] = (byte) (0xe0 | ((c >> 12)));
+                    da[dp++] = (byte) (0x80 | ((c >>  6) & 0x3f));
+                    da[dp++] = (byte) (0x80 | (c & 0x3f));
+                }
+                sp++;
+            } else if (Character.isHighSurrogate(c)) {
+                if (sp + 1 == sl) {
+                    // The low surrogate may come with the next write
+                    leftoverChar = c;
+                    haveLeftoverChar = true;
+                    sp++;
+                    break;
+                }
+                char lo = ca[sp + 1];
+                if (Character.isLowSurrogate(lo)) {
+                    bpos = dp;
+                    putPair(c, lo);
+                    dp = bpos;
+                    sp += 2;
+                } else {
+                    da[dp++] = REPLACEMENT;
+                    sp++;
+                }
+            } else {
+                // A lone low surrogate, or a char the charset cannot map
+                da[dp++] = REPLACEMENT;
+                sp++;
+            }
+        }
+        bpos = dp;
+    }
+
+    /**
+     * Puts a surrogate pair in the buffer: four bytes in UTF-8, a single
+     * replacement otherwise.
+     */
+    private void putPair(char hi, char lo) throws IOException {
+        room(4);
+        if (kind == UTF_8) {
+            int uc = Character.toCodePoint(hi, lo);
+            bb[bpos++] = (byte) (0xf0 | ((uc >> 18)));
+            bb[bpos++] = (byte) (0x80 | ((uc >> 12) & 0x3f));
+            bb[bpos++] = (byte) (0x80 | ((uc >>  6) & 0x3f));
+            bb[bpos++] = (byte) (0x80 | (uc & 0x3f));
+        } else {
+            bb[bpos++] = REPLACEMENT;
+        }
+    }
+}
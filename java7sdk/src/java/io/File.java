@@ -46,6 +46,12 @@ import java.security.AccessController;
 import java.security.SecureRandom;
 import java.nio.file.Path;
 import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import com.ibm.jvm.io.FileAttributeCache;
+import sun.misc.VM;
 import sun.security.action.GetPropertyAction;
 
 /**
@@ -166,6 +172,22 @@ public class File
      */
     static private FileSystem fs = FileSystem.getFileSystem();
 
+    /**
+     * Holds the file attribute cache, initialized on first use once the
+     * VM is booted.
+     */
+    private static class AttributeCacheHolder {
+        static final FileAttributeCache cache = FileAttributeCache.getInstance();
+    }
+
+    /**
+     * Returns the file attribute cache, or null if it is not enabled or the
+     * VM is still booting.
+     */
+    private static FileAttributeCache attributeCache() {
+        return VM.isBooted() ? AttributeCacheHolder.cache : null;
+    }
+
     /**
      * This abstract pathname's normalized pathname string. A normalized
      * pathname string uses the default name-separator character and does not
@@ -822,7 +844,7 @@ public class File
             return false;
         }
         // Check if tenant is enable or not for multiple tenant.                //IBM-multitenancy_management
-        return ((fs.getBooleanAttributes(this) & FileSystem.BA_EXISTS) != 0);
+        return ((getBooleanAttributes() & FileSystem.BA_EXISTS) != 0);
     }
 
     /**
@@ -852,7 +874,7 @@ public class File
         if (isInvalid()) {
             return false;
         }
-        return ((fs.getBooleanAttributes(this) & FileSystem.BA_DIRECTORY)
+        return ((getBooleanAttributes() & FileSystem.BA_DIRECTORY)
                 != 0);
     }
 
@@ -885,7 +907,7 @@ public class File
         if (isInvalid()) {
             return false;
         }
-        return ((fs.getBooleanAttributes(this) & FileSystem.BA_REGULAR) != 0);
+        return ((getBooleanAttributes() & FileSystem.BA_REGULAR) != 0);
     }
 
     /**
@@ -946,6 +968,10 @@ public class File
         if (isInvalid()) {
             return 0L;
         }
+        BasicFileAttributes attrs = cachedAttributes();
+        if (attrs != null) {
+            return (attrs == NONEXISTENT) ? 0L : attrs.lastModifiedTime().toMillis();
+        }
         return fs.getLastModifiedTime(this);
     }
 
@@ -977,9 +1003,74 @@ public class File
         if (isInvalid()) {
             return 0L;
         }
+        BasicFileAttributes attrs = cachedAttributes();
+        if (attrs != null) {
+            return (attrs == NONEXISTENT) ? 0L : attrs.size();
+        }
         return fs.getLength(this);
     }
 
+    /**
+     * Returns the simple boolean attributes of this file, as
+     * FileSystem.getBooleanAttributes, except for BA_HIDDEN, which is only
+     * set when the attribute cache is not used.
+     */
+    private int getBooleanAttributes() {
+        BasicFileAttributes attrs = cachedAttributes();
+        if (attrs == null) {
+            return fs.getBooleanAttributes(this);
+        }
+        if (attrs == NONEXISTENT) {
+            return 0;
+        }
+        return FileSystem.BA_EXISTS
+            | (attrs.isRegularFile() ? FileSystem.BA_REGULAR : 0)
+            | (attrs.isDirectory() ? FileSystem.BA_DIRECTORY : 0);
+    }
+
+    /* Stands for a file that does not exist in the attribute cache */
+    private static final BasicFileAttributes NONEXISTENT = new BasicFileAttributes() {
+        public FileTime lastModifiedTime() { return null; }
+        public FileTime lastAccessTime() { return null; }
+        public FileTime creationTime() { return null; }
+        public boolean isRegularFile() { return false; }
+        public boolean isDirectory() { return false; }
+        public boolean isSymbolicLink() { return false; }
+        public boolean isOther() { return false; }
+        public long size() { return 0L; }
+        public Object fileKey() { return null; }
+    };
+
+    /**
+     * Returns the attributes of this file from the attribute cache,
+     * NONEXISTENT if the file does not exist, or null if the cache is not
+     * enabled or cannot answer. The caller has checked read access.
+     */
+    private BasicFileAttributes cachedAttributes() {
+        FileAttributeCache cache = attributeCache();
+        if (cache == null || path.isEmpty()) {
+            return null;
+        }
+        try {
+            return cache.readAttributes(toPath());
+        } catch (NoSuchFileException x) {
+            return NONEXISTENT;
+        } catch (IOException | InvalidPathException x) {
+            return null;
+        }
+    }
+
+    /**
+     * Drops the cached attributes of the named file after it has been
+     * changed.
+     */
+    static void invalidateAttributes(String path) {
+        FileAttributeCache cache = attributeCache();
+        if (cache != null) {
+            cache.invalidate(path);
+        }
+    }
+
 
     /* -- File operations -- */
 
@@ -1015,7 +1106,11 @@ public class File
         if (isInvalid()) {
             throw new IOException("Invalid file path");
         }
-        return fs.createFileExclusively(path);
+        try {
+            return fs.createFileExclusively(path);
+        } finally {
+            invalidateAttributes(path);
+        }
     }
 
     /**
@@ -1044,7 +1139,11 @@ public class File
         if (isInvalid()) {
             return false;
         }
-        return fs.delete(this);
+        try {
+            return fs.delete(this);
+        } finally {
+            invalidateAttributes(path);
+        }
     }
 
     /**
@@ -1319,7 +1418,11 @@ public class File
         if (isInvalid()) {
             return false;
         }
-        return fs.createDirectory(this);
+        try {
+            return fs.createDirectory(this);
+        } finally {
+            invalidateAttributes(path);
+        }
     }
 
     /**
@@ -1400,7 +1503,12 @@ public class File
         if (this.isInvalid() || dest.isInvalid()) {
             return false;
         }
-        return fs.rename(this, dest);
+        try {
+            return fs.rename(this, dest);
+        } finally {
+            invalidateAttributes(path);
+            invalidateAttributes(dest.path);
+        }
     }
 
     /**
@@ -1438,7 +1546,11 @@ public class File
         if (isInvalid()) {
             return false;
         }
-        return fs.setLastModifiedTime(this, time);
+        try {
+            return fs.setLastModifiedTime(this, time);
+        } finally {
+            invalidateAttributes(path);
+        }
     }
 
     /**
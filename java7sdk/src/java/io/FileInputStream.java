@@ -37,7 +37,9 @@
 package java.io;
 
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import sun.nio.ch.FileChannelImpl;
+import sun.nio.ch.StreamTransfers;
 import sun.misc.IoTrace;
 
 /**
@@ -420,6 +422,55 @@ class FileInputStream extends InputStream
         }
     }
 
+    /**
+     * Reads all remaining bytes from this file input stream and writes them
+     * to the given output stream. Neither stream is closed.
+     *
+     * <p> If this stream reads a regular file and the output stream writes
+     * to a channel, such as a <code>FileOutputStream</code> or a stream
+     * returned by {@link java.nio.channels.Channels#newOutputStream(WritableByteChannel)
+     * Channels.newOutputStream} for a file channel or a blocking socket
+     * channel, then the bytes are moved with {@link
+     * FileChannel#transferTo FileChannel.transferTo}, which the operating
+     * system may carry out without copying them into the Java heap. The
+     * file position of this stream is advanced by the number of bytes
+     * transferred. Otherwise the bytes are copied through a buffer.
+     *
+     * @param      out   the output stream, non-null
+     * @return     the number of bytes transferred
+     * @exception  IOException  if an I/O error occurs when reading or writing
+     * @exception  NullPointerException  if <code>out</code> is
+     *             <code>null</code>
+     * @since      1.7
+     */
+    public long transferTo(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new NullPointerException();
+        }
+        long transferred = 0;
+        WritableByteChannel target = StreamTransfers.transferTarget(out);
+        FileChannel fc = (target != null) ? getChannel() : null;
+        if (fc != null) {
+            // only regular files have a size; pipes and devices report 0
+            long size = fc.size();
+            if (size > 0) {
+                long pos = fc.position();
+                while (pos + transferred < size) {
+                    long n = fc.transferTo(pos + transferred,
+                                           size - pos - transferred, target);
+                    if (n <= 0) {
+                        break;
+                    }
+                    transferred += n;
+                }
+                fc.position(pos + transferred);
+            }
+        }
+        // whatever the channel did not move, including bytes appended since
+        // the size was taken
+        return transferred + super.transferTo(out);
+    }
+
     private static native void initIDs();
     private static boolean CloseFDWithStream = true;
 
@@ -229,6 +229,8 @@ class FileOutputStream extends OutputStream
         this.path = name;
         fd.incrementAndGetUseCount();
         open(name, append);
+        // The file may have been created or truncated
+        File.invalidateAttributes(name);
     }
 
     /**
@@ -402,6 +404,10 @@ class FileOutputStream extends OutputStream
         if ((useCount <= 0) || (!isRunningFinalize() && CloseFDWithStream)) {
             close0();
         }
+
+        if (path != null) {
+            File.invalidateAttributes(path);
+        }
     }
 
     /**
@@ -56,6 +56,9 @@ import com.ibm.jvm.MemorySafetyService;
  */
 public abstract class InputStream implements Closeable {
 
+    // size of the buffer used by transferTo
+    static final int TRANSFER_BUFFER_SIZE = 16384;
+
     // MAX_SKIP_BUFFER_SIZE is used to determine the maximum buffer size to
     // use when skipping.
     private static final int MAX_SKIP_BUFFER_SIZE = 2048;
@@ -385,5 +388,42 @@ public abstract class InputStream implements Closeable {
         return false;
     }
 
+    /**
+     * Reads all bytes from this input stream and writes them to the given
+     * output stream, in the order that they are read. On return, this input
+     * stream will be at end of stream. Neither stream is closed.
+     *
+     * <p> This method may block indefinitely reading from the input stream,
+     * or writing to the output stream. If an I/O error occurs, the streams
+     * may be in an inconsistent state: some bytes may have been read or
+     * written.
+     *
+     * <p> The <code>transferTo</code> method of this class reads into a
+     * buffer and writes the buffer, until the end of the stream. Subclasses
+     * are encouraged to provide a more efficient implementation of this
+     * method where the data can be moved without copying it through the
+     * Java heap.
+     *
+     * @param      out   the output stream, non-null
+     * @return     the number of bytes transferred
+     * @exception  IOException  if an I/O error occurs when reading or writing
+     * @exception  NullPointerException  if <code>out</code> is
+     *             <code>null</code>
+     * @since      1.7
+     */
+    public long transferTo(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new NullPointerException();
+        }
+        long transferred = 0;
+        byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+        int n;
+        while ((n = read(buffer, 0, TRANSFER_BUFFER_SIZE)) >= 0) {
+            out.write(buffer, 0, n);
+            transferred += n;
+        }
+        return transferred;
+    }
+
 }
 //IBM-T6_wrt_bringup
@@ -56,6 +56,13 @@ import com.ibm.jvm.io.LocalizedInputStream;
  * be read ahead from the underlying stream than are necessary to satisfy the
  * current read operation.
  *
+ * <p> The UTF-8, ISO-8859-1 and US-ASCII charsets are decoded directly from
+ * the bytes read into the characters returned, copying runs of ASCII bytes
+ * in a tight loop, rather than through a {@link CharsetDecoder}; the
+ * characters returned are the same. The size of the byte buffer used for
+ * them may be given to {@link #InputStreamReader(InputStream, Charset,
+ * int)}.
+ *
  * <p> For top efficiency, consider wrapping an InputStreamReader within a
  * BufferedReader.  For example:
  *
@@ -75,6 +82,8 @@ import com.ibm.jvm.io.LocalizedInputStream;
 public class InputStreamReader extends Reader {
 
     private final StreamDecoder sd;
+    /** decodes UTF-8, ISO-8859-1 and US-ASCII in place of sd, or null */
+    private final DirectStreamDecoder dd;
 
     /**
      * Creates an InputStreamReader that uses the default charset.
@@ -84,15 +93,18 @@ public class InputStreamReader extends Reader {
     public InputStreamReader(InputStream in) {
         super(in);
         try {
-           InputStream localized = LocalizedInputStream.getInputStream(in);     //IBM-zos_bringup
+            InputStream localized = LocalizedInputStream.getInputStream(in);    //IBM-zos_bringup
+            String encoding;
             if (LocalizedInputStream.nonASCIIPlatform &&                        //IBM-zos_bringup
                 !(in instanceof com.ibm.jvm.io.ConsoleInputStream)) {           //IBM-zos_bringup
-                sd = StreamDecoder.forInputStreamReader                         //IBM-zos_bringup
-                    (localized, this, ConsoleInputStream.getEncoding(localized)); //IBM-zos_bringup
+                encoding = ConsoleInputStream.getEncoding(localized);           //IBM-zos_bringup
             } else {                                                            //IBM-zos_bringup
-                sd = StreamDecoder.forInputStreamReader                         //IBM-zos_bringup
-                    (localized, this, ConsoleInputStream.getEncoding(in));      //IBM-zos_bringup
+                encoding = ConsoleInputStream.getEncoding(in);                  //IBM-zos_bringup
             }                                                                   //IBM-zos_bringup
+            dd = DirectStreamDecoder.forName(localized, this, encoding,
+                                             DirectStreamDecoder.DEFAULT_BYTE_BUFFER_SIZE);
+            sd = (dd != null) ? null
+                : StreamDecoder.forInputStreamReader(localized, this, encoding); //IBM-zos_bringup
         } catch (UnsupportedEncodingException e) {
             // The default encoding should always be available
             throw new Error(e);
@@ -118,7 +130,11 @@ public class InputStreamReader extends Reader {
         super(in);
         if (charsetName == null)
             throw new NullPointerException("charsetName");
-        sd = StreamDecoder.forInputStreamReader(LocalizedInputStream.getInputStream(in), this, charsetName); //IBM-zos_bringup
+        InputStream localized = LocalizedInputStream.getInputStream(in);        //IBM-zos_bringup
+        dd = DirectStreamDecoder.forName(localized, this, charsetName,
+                                         DirectStreamDecoder.DEFAULT_BYTE_BUFFER_SIZE);
+        sd = (dd != null) ? null
+            : StreamDecoder.forInputStreamReader(localized, this, charsetName); //IBM-zos_bringup
     }
 
     /**
@@ -131,10 +147,34 @@ public class InputStreamReader extends Reader {
      * @spec JSR-51
      */
     public InputStreamReader(InputStream in, Charset cs) {
+        this(in, cs, DirectStreamDecoder.DEFAULT_BYTE_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an InputStreamReader that uses the given charset and, if the
+     * charset is UTF-8, ISO-8859-1 or US-ASCII, reads the underlying stream
+     * through a buffer of the given size. Other charsets use the buffer
+     * size of their decoder.
+     *
+     * @param  in          An InputStream
+     * @param  cs          A charset
+     * @param  bufferSize  The size of the byte buffer
+     *
+     * @exception  IllegalArgumentException  If bufferSize is less than 8
+     *
+     * @since 1.7
+     */
+    public InputStreamReader(InputStream in, Charset cs, int bufferSize) {
         super(in);
         if (cs == null)
             throw new NullPointerException("charset");
-        sd = StreamDecoder.forInputStreamReader(LocalizedInputStream.getInputStream(in), this, cs); //IBM-zos_bringup
+        if (bufferSize < DirectStreamDecoder.MIN_BYTE_BUFFER_SIZE)
+            throw new IllegalArgumentException("Buffer size < "
+                + DirectStreamDecoder.MIN_BYTE_BUFFER_SIZE);
+        InputStream localized = LocalizedInputStream.getInputStream(in);        //IBM-zos_bringup
+        dd = DirectStreamDecoder.forCharset(localized, this, cs, bufferSize);
+        sd = (dd != null) ? null
+            : StreamDecoder.forInputStreamReader(localized, this, cs);          //IBM-zos_bringup
     }
 
     /**
@@ -150,6 +190,7 @@ public class InputStreamReader extends Reader {
         super(in);
         if (dec == null)
             throw new NullPointerException("charset decoder");
+        dd = null;
         sd = StreamDecoder.forInputStreamReader(LocalizedInputStream.getInputStream(in), this, dec); //IBM-zos_bringup
     }
 
@@ -174,6 +215,8 @@ public class InputStreamReader extends Reader {
      * @spec JSR-51
      */
     public String getEncoding() {
+        if (dd != null)
+            return dd.getEncoding();
         return sd.getEncoding();
     }
 
@@ -186,6 +229,8 @@ public class InputStreamReader extends Reader {
      * @exception  IOException  If an I/O error occurs
      */
     public int read() throws IOException {
+        if (dd != null)
+            return dd.read();
         return sd.read();
     }
 
@@ -202,6 +247,8 @@ public class InputStreamReader extends Reader {
      * @exception  IOException  If an I/O error occurs
      */
     public int read(char cbuf[], int offset, int length) throws IOException {
+        if (dd != null)
+            return dd.read(cbuf, offset, length);
         return sd.read(cbuf, offset, length);
     }
 
@@ -213,10 +260,16 @@ public class InputStreamReader extends Reader {
      * @exception  IOException  If an I/O error occurs
      */
     public boolean ready() throws IOException {
+        if (dd != null)
+            return dd.ready();
         return sd.ready();
     }
 
     public void close() throws IOException {
+        if (dd != null) {
+            dd.close();
+            return;
+        }
         sd.close();
     }
 }
@@ -0,0 +1,169 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.io;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the positional reads and writes of a {@link RandomAccessFile}
+ * from windows of the file mapped into memory.
+ * <p>
+ * The file is divided into windows of a fixed size, each mapped the first
+ * time it is accessed. A window never extends past the end of the file as
+ * it was when the window was mapped: it is mapped again, longer, when an
+ * access finds that the file has grown beyond it, and accesses past the
+ * end of the file go to the channel. Readers do not lock: the windows are
+ * published in a volatile array that is copied when a window is added, and
+ * each access works on a duplicate of its window.
+ */
+final class MappedFileWindows {
+
+    private static final MappedByteBuffer[] NO_WINDOWS = new MappedByteBuffer[0];
+
+    private final FileChannel channel;
+    private final FileChannel.MapMode mode;
+    private final int windowSize;
+
+    /** the windows mapped so far, indexed by position / windowSize */
+    private volatile MappedByteBuffer[] windows = NO_WINDOWS;
+
+    /** the number of reads and writes served from the windows */
+    private final AtomicLong served = new AtomicLong();
+    /** the number of system calls made to find the size and map windows */
+    private final AtomicLong calls = new AtomicLong();
+
+    /**
+     * Creates windows over the file of the given channel.
+     *
+     * @param writable whether writes may go to the windows
+     */
+    MappedFileWindows(FileChannel channel, boolean writable, int windowSize) {
+        this.channel = channel;
+        this.mode = writable ? FileChannel.MapMode.READ_WRITE
+                             : FileChannel.MapMode.READ_ONLY;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Answers the number of system calls saved: the reads and writes served
+     * from the windows, less the calls made to map them.
+     */
+    long syscallsSaved() {
+        return served.get() - calls.get();
+    }
+
+    /**
+     * Answers the window covering the specified position, mapping it if
+     * needed, or null if the position is at or past the end of the file or
+     * cannot be mapped.
+     */
+    private MappedByteBuffer window(long position) throws IOException {
+        long index = position / windowSize;
+        int start = (int) (position - index * windowSize);
+        MappedByteBuffer[] ws = windows;
+        if (index < ws.length) {
+            MappedByteBuffer w = ws[(int) index];
+            if (w != null && start < w.limit()) {
+                return w;
+            }
+        }
+        if (index >= Integer.MAX_VALUE) {
+            // too far into the file for the window array: use the channel
+            return null;
+        }
+        return map((int) index, start);
+    }
+
+    private synchronized MappedByteBuffer map(int index, int start) throws IOException {
+        MappedByteBuffer[] ws = windows;
+        if (index < ws.length) {
+            MappedByteBuffer w = ws[index];
+            if (w != null && start < w.limit()) {
+                // mapped by another thread meanwhile
+                return w;
+            }
+        }
+        long base = (long) index * windowSize;
+        calls.incrementAndGet();
+        long size = channel.size();
+        if (size <= base + start) {
+            return null;
+        }
+        int length = (int) Math.min(windowSize, size - base);
+        calls.incrementAndGet();
+        MappedByteBuffer w = channel.map(mode, base, length);
+        ws = (index < ws.length) ? ws.clone() : Arrays.copyOf(ws, index + 1);
+        ws[index] = w;
+        windows = ws;
+        return w;
+    }
+
+    /**
+     * Reads up to len bytes at the specified position, as
+     * {@link RandomAccessFile#read(long, byte[], int, int)}. The bytes past
+     * the end of the windows are read from the channel.
+     */
+    int read(long position, byte[] b, int off, int len) throws IOException {
+        int total = 0;
+        while (total < len) {
+            MappedByteBuffer w = window(position);
+            if (w == null) {
+                break;
+            }
+            ByteBuffer buf = w.duplicate();
+            buf.position((int) (position % windowSize));
+            int n = Math.min(len - total, buf.remaining());
+            buf.get(b, off + total, n);
+            position += n;
+            total += n;
+        }
+        if (total == len) {
+            served.incrementAndGet();
+            return total;
+        }
+        // at the end of the file, unless it grew after the size was taken
+        int n = channel.read(ByteBuffer.wrap(b, off + total, len - total), position);
+        if (n > 0) {
+            total += n;
+        }
+        return (total == 0) ? -1 : total;
+    }
+
+    /**
+     * Writes len bytes at the specified position, as
+     * {@link RandomAccessFile#write(long, byte[], int, int)}. The bytes past
+     * the end of the file are written to the channel, extending the file.
+     */
+    void write(long position, byte[] b, int off, int len) throws IOException {
+        int total = 0;
+        if (mode == FileChannel.MapMode.READ_WRITE) {
+            while (total < len) {
+                MappedByteBuffer w = window(position);
+                if (w == null) {
+                    break;
+                }
+                ByteBuffer buf = w.duplicate();
+                buf.position((int) (position % windowSize));
+                int n = Math.min(len - total, buf.remaining());
+                buf.put(b, off + total, n);
+                position += n;
+                total += n;
+            }
+            if (total == len) {
+                served.incrementAndGet();
+                return;
+            }
+        }
+        ByteBuffer src = ByteBuffer.wrap(b, off + total, len - total);
+        while (src.hasRemaining()) {
+            position += channel.write(src, position);
+        }
+    }
+}
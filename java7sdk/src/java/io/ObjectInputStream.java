@@ -50,6 +50,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.WeakInterner;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import static java.io.ObjectStreamClass.processQueue;
@@ -654,6 +655,56 @@ public class ObjectInputStream
         vlist.register(obj, prio);
     }
 
+    /**
+     * Starts reading a new serialization stream from the given input stream,
+     * reusing the handle tables and buffers of this one.  This has the
+     * effect of constructing a new ObjectInputStream on <code>in</code>,
+     * without closing the stream read so far, but saves the allocations of a
+     * new stream.  The stream header is read from <code>in</code>.
+     *
+     * <p>If <code>keepClassDescriptors</code> is true, the class descriptors
+     * read so far stay in the handle table.  This must match the way the
+     * writing ObjectOutputStream was reused, see
+     * {@link ObjectOutputStream#reuse(OutputStream, boolean)}.
+     *
+     * @param   in input stream to read the new stream from
+     * @param   keepClassDescriptors whether to keep the class descriptors
+     *          read so far
+     * @throws  StreamCorruptedException if the stream header is incorrect
+     * @throws  IOException if this stream is deserializing an object, or if
+     *          an I/O error occurs while reading the stream header
+     * @throws  UnsupportedOperationException if this stream was created by
+     *          the no-argument constructor of a subclass
+     * @throws  NullPointerException if <code>in</code> is <code>null</code>
+     * @since   1.7
+     */
+    public void reuse(InputStream in, boolean keepClassDescriptors)
+        throws IOException
+    {
+        if (enableOverride) {
+            throw new UnsupportedOperationException();
+        }
+        if (in == null) {
+            throw new NullPointerException();
+        }
+        if (depth != 0) {
+            throw new IOException("stream active");
+        }
+        if (keepClassDescriptors) {
+            handles.retainClassDescs();
+        } else {
+            handles.clear();
+        }
+        vlist.clear();
+        PackedObjectSupport.resetContext(this);
+        passHandle = NULL_HANDLE;
+        defaultDataEnd = false;
+        closed = false;
+        bin.setInputStream(in);
+        readStreamHeader();
+        bin.setBlockDataMode(true);
+    }
+
     /**
      * Load the local class equivalent of the specified stream class
      * description.  Subclasses may implement this method to allow classes to
@@ -1150,7 +1201,7 @@ public class ObjectInputStream
      *          modified UTF-8 encoding of a string
      */
     public String readUTF() throws IOException {
-        return bin.readUTF();
+        return WeakInterner.dedup(bin.readUTF());
     }
 
     /**
@@ -1626,6 +1677,9 @@ public class ObjectInputStream
 
         ObjectStreamClass desc = new ObjectStreamClass();
         int descHandle = handles.assign(unshared ? unsharedMarker : desc);
+        if (!unshared) {
+            handles.markClassDesc(descHandle);
+        }
         passHandle = NULL_HANDLE;
 
         int numIfaces = bin.readInt();
@@ -1677,6 +1731,9 @@ public class ObjectInputStream
 
         ObjectStreamClass desc = new ObjectStreamClass();
         int descHandle = handles.assign(unshared ? unsharedMarker : desc);
+        if (!unshared) {
+            handles.markClassDesc(descHandle);
+        }
         passHandle = NULL_HANDLE;
 
         ObjectStreamClass readDesc = null;
@@ -1718,7 +1775,8 @@ public class ObjectInputStream
         byte tc = bin.readByte();
         switch (tc) {
             case TC_STRING:
-                str = bin.readUTF();
+                // unshared strings must stay distinct from every other
+                str = unshared ? bin.readUTF() : WeakInterner.dedup(bin.readUTF());
                 break;
 
             case TC_LONGSTRING:
@@ -2491,7 +2549,7 @@ public class ObjectInputStream
         private int unread = 0;
 
         /** underlying stream (wrapped in peekable filter stream) */
-        private final PeekInputStream in;
+        private PeekInputStream in;
         /** loopback stream (for data reads that span data blocks) */
         private final DataInputStream din;
 
@@ -2504,6 +2562,18 @@ public class ObjectInputStream
             din = new DataInputStream(this);
         }
 
+        /**
+         * Discards any buffered data and starts reading from the given
+         * underlying stream, with block data mode off.
+         */
+        void setInputStream(InputStream in) {
+            this.in = new PeekInputStream(in);
+            blkmode = false;
+            pos = 0;
+            end = -1;
+            unread = 0;
+        }
+
         /**
          * Sets block data mode to the given mode (true == on, false == off)
          * and returns the previous mode value.  If the new mode is the same as
@@ -3352,6 +3422,8 @@ public class ObjectInputStream
         int lowDep = -1;
         /** number of handles in table */
         int size = 0;
+        /** handles of shared class descriptors, in ascending order */
+        HandleList classDescs = new HandleList();
 
         /**
          * Creates handle table with the given initial capacity.
@@ -3547,6 +3619,39 @@ public class ObjectInputStream
             Arrays.fill(deps, 0, size, null);
             lowDep = -1;
             size = 0;
+            classDescs.clear();
+        }
+
+        /**
+         * Records that the given handle was assigned to a shared class
+         * descriptor.
+         */
+        void markClassDesc(int handle) {
+            classDescs.add(handle);
+        }
+
+        /**
+         * Removes all handles except those of class descriptors, which are
+         * reassigned from 0 in their original order, keeping their status
+         * (a descriptor of a class that could not be resolved keeps its
+         * exception).  Must only be called when no handle is open.
+         */
+        void retainClassDescs() {
+            int count = classDescs.size();
+            for (int i = 0; i < count; i++) {
+                int handle = classDescs.get(i);
+                status[i] = status[handle];
+                entries[i] = entries[handle];
+            }
+            Arrays.fill(status, count, size, (byte) 0);
+            Arrays.fill(entries, count, size, null);
+            Arrays.fill(deps, 0, size, null);
+            lowDep = -1;
+            size = count;
+            classDescs.clear();
+            for (int i = 0; i < count; i++) {
+                classDescs.add(i);
+            }
         }
 
         /**
@@ -3604,6 +3709,10 @@ public class ObjectInputStream
             public int size() {
                 return size;
             }
+
+            public void clear() {
+                size = 0;
+            }
         }
     }
 
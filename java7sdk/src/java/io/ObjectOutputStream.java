@@ -522,6 +522,60 @@ public class ObjectOutputStream
         bout.setBlockDataMode(true);
     }
 
+    /**
+     * Starts a new serialization stream on the given output stream, reusing
+     * the handle tables and buffers of this one.  This has the effect of
+     * flushing this stream (without closing the underlying stream) and
+     * constructing a new ObjectOutputStream on <code>out</code>, but saves
+     * the allocations of a new stream, which dominate when each stream only
+     * carries a short message.  The stream header is written to
+     * <code>out</code>.
+     *
+     * <p>If <code>keepClassDescriptors</code> is true, the class descriptors
+     * written so far stay in the handle table, so later objects of the same
+     * classes refer to them by handle instead of writing them again.  The
+     * new stream can then only be read by an ObjectInputStream that has read
+     * the same previous streams and is reused in the same way, see
+     * {@link ObjectInputStream#reuse(InputStream, boolean)}.  A call to
+     * {@link #reset()} discards the kept descriptors at both ends.
+     *
+     * @param   out output stream to write the new stream to
+     * @param   keepClassDescriptors whether to keep the class descriptors
+     *          written so far
+     * @throws  IOException if this stream is serializing an object, or if an
+     *          I/O error occurs while flushing this stream or writing the
+     *          stream header
+     * @throws  UnsupportedOperationException if this stream was created by
+     *          the no-argument constructor of a subclass
+     * @throws  NullPointerException if <code>out</code> is <code>null</code>
+     * @since   1.7
+     */
+    public void reuse(OutputStream out, boolean keepClassDescriptors)
+        throws IOException
+    {
+        if (enableOverride) {
+            throw new UnsupportedOperationException();
+        }
+        if (out == null) {
+            throw new NullPointerException();
+        }
+        if (depth != 0) {
+            throw new IOException("stream active");
+        }
+        bout.setBlockDataMode(false);
+        bout.flush();
+        subs.clear();
+        if (keepClassDescriptors) {
+            handles.retainClassDescs();
+        } else {
+            handles.clear();
+        }
+        PackedObjectSupport.resetContext(this);
+        bout.setOutputStream(out);
+        writeStreamHeader();
+        bout.setBlockDataMode(true);
+    }
+
     /**
      * Subclasses may implement this method to allow class data to be stored in
      * the stream. By default this method does nothing.  The corresponding
@@ -1796,7 +1850,7 @@ public class ObjectOutputStream
         private int pos = 0;
 
         /** underlying output stream */
-        private final OutputStream out;
+        private OutputStream out;
         /** loopback stream (for data writes that span data blocks) */
         private final DataOutputStream dout;
 
@@ -1809,6 +1863,14 @@ public class ObjectOutputStream
             dout = new DataOutputStream(this);
         }
 
+        /**
+         * Redirects output to the given underlying stream.  Must only be
+         * called when no data is buffered, as after flush().
+         */
+        void setOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
         /**
          * Sets block data mode to the given mode (true == on, false == off)
          * and returns the previous mode value.  If the new mode is the same as
@@ -2345,6 +2407,24 @@ public class ObjectOutputStream
             size = 0;
         }
 
+        /**
+         * Removes all mappings except those of class descriptors, which are
+         * reassigned handles from 0 in their original order.
+         */
+        void retainClassDescs() {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (objs[i] instanceof ObjectStreamClass) {
+                    objs[count++] = objs[i];
+                }
+            }
+            Object[] descs = Arrays.copyOf(objs, count);
+            clear();
+            for (Object desc : descs) {
+                assign(desc);
+            }
+        }
+
         /**
          * Returns the number of mappings currently in table.
          */
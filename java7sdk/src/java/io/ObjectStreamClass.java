@@ -56,16 +56,21 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import sun.misc.Unsafe;
+import sun.security.action.GetBooleanAction;
 import sun.reflect.CallerSensitive;
 import sun.reflect.Reflection;
 import sun.reflect.ReflectionFactory;
 import sun.reflect.misc.ReflectUtil;
 import com.ibm.jvm.MemorySafetyService;                                         //IBM-T6_wrt_bringup
 import com.ibm.jvm.packed.PackedObject;
+import com.ibm.lang.reflect.Accessors;
+import com.ibm.lang.reflect.ReflectionData;
+import com.ibm.lang.reflect.SerialFieldAccessor;
 
 /**
  * Serialization's descriptor for classes.  It contains the name and
@@ -1486,12 +1491,18 @@ public class ObjectStreamClass implements Serializable {
         Method meth = null;
         Class<?> defCl = cl;
         while (defCl != null) {
-            try {
-                meth = defCl.getDeclaredMethod(name, argTypes);
+            // probe the shared index first, so that classes without the
+            // method cost no NoSuchMethodException
+            if (ReflectionData.of(defCl).getDeclaredMethod(name, argTypes) != null) {
+                try {
+                    // an own copy, as it is made accessible below
+                    meth = defCl.getDeclaredMethod(name, argTypes);
+                } catch (NoSuchMethodException ex) {
+                    throw new InternalError(ex.toString());
+                }
                 break;
-            } catch (NoSuchMethodException ex) {
-                defCl = defCl.getSuperclass();
             }
+            defCl = defCl.getSuperclass();
         }
 
         if ((meth == null) || (meth.getReturnType() != returnType)) {
@@ -1519,6 +1530,9 @@ public class ObjectStreamClass implements Serializable {
                                            Class<?>[] argTypes,
                                            Class<?> returnType)
     {
+        if (ReflectionData.of(cl).getDeclaredMethod(name, argTypes) == null) {
+            return null;
+        }
         try {
             Method meth = cl.getDeclaredMethod(name, argTypes);
             meth.setAccessible(true);
@@ -1782,9 +1796,11 @@ public class ObjectStreamClass implements Serializable {
              * compensate for javac bug in which ABSTRACT bit was set for an
              * interface only if the interface declared methods
              */
-            Method[] methods = cl.getDeclaredMethods();
+            // the shared members are only read here
+            ReflectionData data = ReflectionData.of(cl);
+            List<Method> methods = data.getDeclaredMethods();
             if ((classMods & Modifier.INTERFACE) != 0) {
-                classMods = (methods.length > 0) ?
+                classMods = (methods.size() > 0) ?
                     (classMods | Modifier.ABSTRACT) :
                     (classMods & ~Modifier.ABSTRACT);
             }
@@ -1807,10 +1823,10 @@ public class ObjectStreamClass implements Serializable {
                 }
             }
 
-            Field[] fields = cl.getDeclaredFields();
-            MemberSignature[] fieldSigs = new MemberSignature[fields.length];
-            for (int i = 0; i < fields.length; i++) {
-                fieldSigs[i] = new MemberSignature(fields[i]);
+            List<Field> fields = data.getDeclaredFields();
+            MemberSignature[] fieldSigs = new MemberSignature[fields.size()];
+            for (int i = 0; i < fieldSigs.length; i++) {
+                fieldSigs[i] = new MemberSignature(fields.get(i));
             }
             Arrays.sort(fieldSigs, new Comparator<MemberSignature>() {
                 public int compare(MemberSignature ms1, MemberSignature ms2) {
@@ -1862,9 +1878,9 @@ public class ObjectStreamClass implements Serializable {
                 }
             }
 
-            MemberSignature[] methSigs = new MemberSignature[methods.length];
-            for (int i = 0; i < methods.length; i++) {
-                methSigs[i] = new MemberSignature(methods[i]);
+            MemberSignature[] methSigs = new MemberSignature[methods.size()];
+            for (int i = 0; i < methSigs.length; i++) {
+                methSigs[i] = new MemberSignature(methods.get(i));
             }
             Arrays.sort(methSigs, new Comparator<MemberSignature>() {
                 public int compare(MemberSignature ms1, MemberSignature ms2) {
@@ -1944,13 +1960,20 @@ public class ObjectStreamClass implements Serializable {
 
     /**
      * Class for setting and retrieving serializable field values in batch.
+     * If the system property com.ibm.io.ObjectStreamClass.generateAccessors
+     * is true, each reflector generates a class that moves the fields of its
+     * class with getfield and putfield instead of the loops below.
      */
-    // REMIND: dynamically generate these?
     private static class FieldReflector {
 
         /** handle for performing unsafe operations */
         private static final Unsafe unsafe = Unsafe.getUnsafe();
 
+        /** whether to generate accessors */
+        private static final boolean generateAccessors =
+            AccessController.doPrivileged(new GetBooleanAction(
+                "com.ibm.io.ObjectStreamClass.generateAccessors"));
+
         /** fields to operate on */
         private final ObjectStreamField[] fields;
         /** number of primitive fields */
@@ -1965,6 +1988,8 @@ public class ObjectStreamClass implements Serializable {
         private final char[] typeCodes;
         /** field types */
         private final Class<?>[] types;
+        /** generated accessor, or null to use the unsafe field keys */
+        private final SerialFieldAccessor accessor;
 
         /**
          * Constructs FieldReflector capable of setting/getting values from the
@@ -2001,6 +2026,29 @@ public class ObjectStreamClass implements Serializable {
 
             types = typeList.toArray(new Class<?>[typeList.size()]);
             numPrimFields = nfields - types.length;
+            accessor = generateAccessors ? generateAccessor() : null;
+        }
+
+        /**
+         * Generates an accessor for the fields, or returns null if that is
+         * not possible, in which case the unsafe field keys are used.
+         */
+        private SerialFieldAccessor generateAccessor() {
+            final Field[] rfs = new Field[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                rfs[i] = fields[i].getField();
+            }
+            try {
+                return AccessController.doPrivileged(
+                    new PrivilegedAction<SerialFieldAccessor>() {
+                        public SerialFieldAccessor run() {
+                            return Accessors.serialFieldAccessor(
+                                rfs, typeCodes, offsets);
+                        }
+                    });
+            } catch (RuntimeException | LinkageError e) {
+                return null;
+            }
         }
 
         /**
@@ -2019,6 +2067,10 @@ public class ObjectStreamClass implements Serializable {
          * is responsible for ensuring that obj is of the proper type.
          */
         void getPrimFieldValues(Object obj, byte[] buf) {
+            if (accessor != null) {
+                accessor.getPrimFieldValues(obj, buf);
+                return;
+            }
             if (obj == null) {
                 throw new NullPointerException();
             }
@@ -2074,6 +2126,10 @@ public class ObjectStreamClass implements Serializable {
          * is responsible for ensuring that obj is of the proper type.
          */
         void setPrimFieldValues(Object obj, byte[] buf) {
+            if (accessor != null) {
+                accessor.setPrimFieldValues(obj, buf);
+                return;
+            }
             if (obj == null) {
                 throw new NullPointerException();
             }
@@ -2128,6 +2184,10 @@ public class ObjectStreamClass implements Serializable {
          * responsible for ensuring that obj is of the proper type.
          */
         void getObjFieldValues(Object obj, Object[] vals) {
+            if (accessor != null) {
+                accessor.getObjFieldValues(obj, vals);
+                return;
+            }
             if (obj == null) {
                 throw new NullPointerException();
             }
@@ -2156,6 +2216,10 @@ public class ObjectStreamClass implements Serializable {
          * ClassCastException.
          */
         void setObjFieldValues(Object obj, Object[] vals) {
+            if (accessor != null) {
+                accessor.setObjFieldValues(obj, vals);
+                return;
+            }
             if (obj == null) {
                 throw new NullPointerException();
             }
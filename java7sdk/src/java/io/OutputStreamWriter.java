@@ -55,6 +55,12 @@ import sun.nio.cs.StreamEncoder;
  * purposes.  Note that the characters passed to the write() methods are not
  * buffered.
  *
+ * <p> The UTF-8, ISO-8859-1 and US-ASCII charsets are encoded directly from
+ * the characters written into the byte buffer, copying runs of ASCII
+ * characters in a tight loop, rather than through a {@link CharsetEncoder};
+ * the bytes written are the same. The size of the byte buffer used for them
+ * may be given to {@link #OutputStreamWriter(OutputStream, Charset, int)}.
+ *
  * <p> For top efficiency, consider wrapping an OutputStreamWriter within a
  * BufferedWriter so as to avoid frequent converter invocations.  For example:
  *
@@ -95,6 +101,8 @@ public class OutputStreamWriter extends Writer {
 	private volatile boolean streamClosed = false;                           //IBM-perf_ShortString
 	private boolean bufferFlushed = true;                                    //IBM-perf_ShortString
         private final StreamEncoder se;                                         //IBM-perf_ShortString
+    /** encodes UTF-8, ISO-8859-1 and US-ASCII in place of se, or null */
+    private final DirectStreamEncoder de;
 
     /**
      * Creates an OutputStreamWriter that uses the named charset.
@@ -115,7 +123,10 @@ public class OutputStreamWriter extends Writer {
         super(out);
         if (charsetName == null)
             throw new NullPointerException("charsetName");
-        se = StreamEncoder.forOutputStreamWriter(out, this, charsetName);
+        de = DirectStreamEncoder.forName(out, this, charsetName,
+                                         DirectStreamEncoder.DEFAULT_BYTE_BUFFER_SIZE);
+        se = (de != null) ? null
+            : StreamEncoder.forOutputStreamWriter(out, this, charsetName);
     }
 
     /**
@@ -125,8 +136,11 @@ public class OutputStreamWriter extends Writer {
      */
     public OutputStreamWriter(OutputStream out) {
         super(out);
+        de = DirectStreamEncoder.forName(out, this, null,
+                                         DirectStreamEncoder.DEFAULT_BYTE_BUFFER_SIZE);
         try {
-            se = StreamEncoder.forOutputStreamWriter(out, this, (String)null);
+            se = (de != null) ? null
+                : StreamEncoder.forOutputStreamWriter(out, this, (String)null);
         } catch (UnsupportedEncodingException e) {
             throw new Error(e);
         }
@@ -145,10 +159,39 @@ public class OutputStreamWriter extends Writer {
      * @spec JSR-51
      */
     public OutputStreamWriter(OutputStream out, Charset cs) {
+        this(out, cs, DirectStreamEncoder.DEFAULT_BYTE_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an OutputStreamWriter that uses the given charset and, if the
+     * charset is UTF-8, ISO-8859-1 or US-ASCII, writes to the underlying
+     * stream through a buffer of the given size. Other charsets use the
+     * buffer size of their encoder.
+     *
+     * @param  out
+     *         An OutputStream
+     *
+     * @param  cs
+     *         A charset
+     *
+     * @param  bufferSize
+     *         The size of the byte buffer
+     *
+     * @exception  IllegalArgumentException
+     *             If bufferSize is less than 8
+     *
+     * @since 1.7
+     */
+    public OutputStreamWriter(OutputStream out, Charset cs, int bufferSize) {
         super(out);
         if (cs == null)
             throw new NullPointerException("charset");
-        se = StreamEncoder.forOutputStreamWriter(out, this, cs);
+        if (bufferSize < DirectStreamEncoder.MIN_BYTE_BUFFER_SIZE)
+            throw new IllegalArgumentException("Buffer size < "
+                + DirectStreamEncoder.MIN_BYTE_BUFFER_SIZE);
+        de = DirectStreamEncoder.forCharset(out, this, cs, bufferSize);
+        se = (de != null) ? null
+            : StreamEncoder.forOutputStreamWriter(out, this, cs);
     }
 
     /**
@@ -167,6 +210,7 @@ public class OutputStreamWriter extends Writer {
         super(out);
         if (enc == null)
             throw new NullPointerException("charset encoder");
+        de = null;
         se = StreamEncoder.forOutputStreamWriter(out, this, enc);
     }
 
@@ -191,6 +235,8 @@ public class OutputStreamWriter extends Writer {
      * @spec JSR-51
      */
     public String getEncoding() {
+        if (de != null)
+            return de.getEncoding();
         return se.getEncoding();
     }
 
@@ -200,6 +246,10 @@ public class OutputStreamWriter extends Writer {
      * be invoked by PrintStream.
      */
     void flushBuffer() throws IOException {
+        if (de != null) {
+            de.flushBuffer();
+            return;
+        }
         se.flushBuffer();
     }
 
@@ -209,6 +259,10 @@ public class OutputStreamWriter extends Writer {
      * @exception  IOException  If an I/O error occurs
      */
     public void write(int c) throws IOException {
+        if (de != null) {
+            de.write(c);
+            return;
+        }
         synchronized (lock) {                                                   //IBM-perf_ShortString
     		if (!bufferFlushed)                                          //IBM-perf_ShortString
     			if(1 >= (BUFFER_SIZE - index)) {	//no space left in buffer, so write existing contents  //IBM-perf_ShortString
@@ -234,6 +288,10 @@ public class OutputStreamWriter extends Writer {
      * @exception  IOException  If an I/O error occurs
      */
     public void write(char cbuf[], int off, int len) throws IOException {
+        if (de != null) {
+            de.write(cbuf, off, len);
+            return;
+        }
         synchronized (lock) {                                                   //IBM-perf_ShortString
     		if (!bufferFlushed)                                          //IBM-perf_ShortString
     			if(cbuf.length >= (BUFFER_SIZE - index)) {	//no space left in buffer, so write existing contents  //IBM-perf_ShortString
@@ -260,6 +318,10 @@ public class OutputStreamWriter extends Writer {
      * @exception  IOException  If an I/O error occurs
      */
     public void write(String str, int off, int len) throws IOException {
+        if (de != null) {
+            de.write(str, off, len);
+            return;
+        }
       synchronized (lock) {                                                     //IBM-perf_ShortString
     		if (!bufferFlushed)                                          //IBM-perf_ShortString
     		if(str.length() >= (BUFFER_SIZE - index)) {       //no space left in buffer, so write existing contents  //IBM-perf_ShortString
@@ -284,6 +346,10 @@ public class OutputStreamWriter extends Writer {
      * @exception  IOException  If an I/O error occurs
      */
     public void flush() throws IOException {
+        if (de != null) {
+            de.flush();
+            return;
+        }
      synchronized (lock) {                                                      //IBM-perf_ShortString
 			emptyBuffer();                                           //IBM-perf_ShortString
 			se.flush();                                              //IBM-perf_ShortString
@@ -291,6 +357,10 @@ public class OutputStreamWriter extends Writer {
     }
 
     public void close() throws IOException {
+        if (de != null) {
+            de.close();
+            return;
+        }
      synchronized (lock) {                                                      //IBM-perf_ShortString
 			emptyBuffer();                                           //IBM-perf_ShortString
 			streamClosed = true;                                     //IBM-perf_ShortString
@@ -36,6 +36,7 @@
 
 package java.io;
 
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import sun.nio.ch.FileChannelImpl;
 import sun.misc.IoTrace;
@@ -73,6 +74,11 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
     private FileDescriptor fd;
     private FileChannel channel = null;
     private boolean rw;
+    /* Whether the mode is "rws" or "rwd" */
+    private boolean syncWrites;
+
+    /* Serves the positional reads and writes when mapping is on, or null */
+    private volatile MappedFileWindows windows;
 
     /* The path of the referenced file */
     private final String path;
@@ -220,6 +226,7 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
             imode = O_RDWR;
             rw = true;
             if (mode.length() > 2) {
+                syncWrites = true;
                 if (mode.equals("rws"))
                     imode |= O_SYNC;
                 else if (mode.equals("rwd"))
@@ -303,6 +310,71 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
         }
     }
 
+    /**
+     * Turns on or off the memory mapping of this file for the positional
+     * read and write methods, {@link #read(long, byte[], int, int)},
+     * {@link #readFully(long, byte[], int, int)} and
+     * {@link #write(long, byte[], int, int)}.
+     *
+     * <p> When mapping is on, the file is divided into windows of
+     * <code>windowSize</code> bytes, each mapped into memory through the
+     * {@link #getChannel channel} of this file the first time it is
+     * accessed. A positional read or write that falls within the mapped
+     * part of the file then copies the bytes from or to memory without a
+     * system call, and without locking, so that any number of threads can
+     * read concurrently. Bytes past the end of the file, as it was when a
+     * window was last mapped, are read and written through the channel; a
+     * window is mapped again when the file is found to have grown. Writes
+     * go through the channel only if the file was opened in <tt>"rws"</tt>
+     * or <tt>"rwd"</tt> mode, so that they keep being written synchronously.
+     * The reads and writes at the file pointer are not affected.
+     *
+     * <p> As for any {@link java.nio.MappedByteBuffer}, the behavior of
+     * accesses to a mapped window is unspecified if the file is truncated,
+     * by {@link #setLength setLength} or otherwise, while mapping is on.
+     * Changes written to a mapped window are written to the storage device
+     * by the operating system, at some time before the mapping is released.
+     *
+     * @param      windowSize  the size of the windows mapped, in bytes, or
+     *                         <code>0</code> to turn mapping off
+     * @exception  IllegalArgumentException  if <code>windowSize</code> is
+     *             negative, or positive and less than 4096
+     * @exception  IOException  if this file has been closed
+     * @see        #getSyscallsSaved()
+     * @since 1.7
+     */
+    public void mapWindows(int windowSize) throws IOException {
+        if (windowSize < 0 || (windowSize > 0 && windowSize < 4096))
+            throw new IllegalArgumentException("Illegal window size: " + windowSize);
+        synchronized (closeLock) {
+            if (closed)
+                throw new IOException("Stream Closed");
+            if (windowSize == 0) {
+                windows = null;
+            } else {
+                windows = new MappedFileWindows(getChannel(),
+                                                rw && !syncWrites,
+                                                windowSize);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of system calls saved by serving positional reads
+     * and writes from mapped windows since mapping was last turned on: the
+     * number of reads and writes served entirely from memory, less the
+     * number of calls made to find the size of the file and to map windows.
+     * The count is <code>0</code> when mapping is off.
+     *
+     * @return     the number of system calls saved
+     * @see        #mapWindows(int)
+     * @since 1.7
+     */
+    public long getSyscallsSaved() {
+        MappedFileWindows w = windows;
+        return (w == null) ? 0 : w.syscallsSaved();
+    }
+
     /**
      * Opens a file and returns the file descriptor.  The file is
      * opened in read-write mode if the O_RDWR bit in <code>mode</code>
@@ -461,6 +533,97 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
         } while (n < len);
     }
 
+    /**
+     * Reads up to <code>len</code> bytes of data from this file, starting
+     * at the given position, into an array of bytes. The file pointer is
+     * not changed, and any number of threads may read concurrently. If the
+     * position is at or past the end of the file, <code>-1</code> is
+     * returned.
+     *
+     * <p> The bytes are read through the {@link #getChannel channel} of
+     * this file, as by {@link FileChannel#read(ByteBuffer, long)}, or from
+     * memory if {@link #mapWindows mapping} is on.
+     *
+     * @param      position  the file position at which to start reading
+     * @param      b     the buffer into which the data is read.
+     * @param      off   the start offset in array <code>b</code>
+     *                   at which the data is written.
+     * @param      len   the maximum number of bytes read.
+     * @return     the total number of bytes read into the buffer, or
+     *             <code>-1</code> if the position is at or past the end of
+     *             the file.
+     * @exception  IOException If the random access file has been closed, or
+     *             if some other I/O error occurs.
+     * @exception  IllegalArgumentException If <code>position</code> is
+     *             negative.
+     * @exception  IndexOutOfBoundsException If <code>off</code> is negative,
+     * <code>len</code> is negative, or <code>len</code> is greater than
+     * <code>b.length - off</code>
+     * @since 1.7
+     */
+    public int read(long position, byte b[], int off, int len) throws IOException {
+        checkPositional(position, b, off, len);
+        if (len == 0)
+            return 0;
+        MappedFileWindows w = windows;
+        if (w != null) {
+            if (closed)
+                throw new IOException("Stream Closed");
+            return w.read(position, b, off, len);
+        }
+        return getChannel().read(ByteBuffer.wrap(b, off, len), position);
+    }
+
+    /**
+     * Reads exactly <code>len</code> bytes from this file, starting at the
+     * given position, into the byte array. The file pointer is not changed,
+     * and any number of threads may read concurrently.
+     *
+     * @param      position  the file position at which to start reading
+     * @param      b     the buffer into which the data is read.
+     * @param      off   the start offset of the data.
+     * @param      len   the number of bytes to read.
+     * @exception  EOFException  if the end of the file is reached before
+     *               reading all the bytes.
+     * @exception  IOException   if an I/O error occurs.
+     * @see        #read(long, byte[], int, int)
+     * @since 1.7
+     */
+    public final void readFully(long position, byte b[], int off, int len)
+        throws IOException
+    {
+        int n = 0;
+        do {
+            int count = this.read(position + n, b, off + n, len - n);
+            if (count < 0)
+                throw new EOFException();
+            n += count;
+        } while (n < len);
+    }
+
+    /**
+     * Reads <code>b.length</code> bytes from this file, starting at the
+     * given position, into the byte array. The file pointer is not changed.
+     *
+     * @param      position  the file position at which to start reading
+     * @param      b   the buffer into which the data is read.
+     * @exception  EOFException  if the end of the file is reached before
+     *               reading all the bytes.
+     * @exception  IOException   if an I/O error occurs.
+     * @see        #read(long, byte[], int, int)
+     * @since 1.7
+     */
+    public final void readFully(long position, byte b[]) throws IOException {
+        readFully(position, b, 0, b.length);
+    }
+
+    private static void checkPositional(long position, byte b[], int off, int len) {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if ((off < 0) || (len < 0) || (len > b.length - off))
+            throw new IndexOutOfBoundsException();
+    }
+
     /**
      * Attempts to skip over <code>n</code> bytes of input discarding the
      * skipped bytes.
@@ -563,6 +726,44 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
         writeBytes(b, off, len);
     }
 
+    /**
+     * Writes <code>len</code> bytes from the specified byte array starting
+     * at offset <code>off</code> to this file, starting at the given
+     * position. The file pointer is not changed. If the position is past
+     * the end of the file, the file is extended; the contents of the bytes
+     * between the old end of the file and the position are unspecified.
+     *
+     * <p> The bytes are written through the {@link #getChannel channel} of
+     * this file, as by {@link FileChannel#write(ByteBuffer, long)}, or to
+     * memory if {@link #mapWindows mapping} is on.
+     *
+     * @param      position  the file position at which to start writing
+     * @param      b     the data.
+     * @param      off   the start offset in the data.
+     * @param      len   the number of bytes to write.
+     * @exception  IOException  if an I/O error occurs.
+     * @exception  IllegalArgumentException If <code>position</code> is
+     *             negative.
+     * @exception  java.nio.channels.NonWritableChannelException If this
+     *             file was not opened for writing.
+     * @since 1.7
+     */
+    public void write(long position, byte b[], int off, int len) throws IOException {
+        checkPositional(position, b, off, len);
+        MappedFileWindows w = windows;
+        if (w != null) {
+            if (closed)
+                throw new IOException("Stream Closed");
+            w.write(position, b, off, len);
+            return;
+        }
+        FileChannel ch = getChannel();
+        ByteBuffer src = ByteBuffer.wrap(b, off, len);
+        while (src.hasRemaining()) {
+            position += ch.write(src, position);
+        }
+    }
+
     // 'Random access' stuff
 
     /**
@@ -639,6 +840,7 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
                 return;
             }
             closed = true;
+            windows = null;
         }
           if (channel != null) {
             /*
@@ -0,0 +1,75 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.io;
+
+/**
+ * A {@link BufferedOutputStream} whose methods are not synchronized.
+ * <p>
+ * This class behaves exactly like <code>BufferedOutputStream</code>, but
+ * without locking the stream on every write: an instance must not be used
+ * by more than one thread at a time without external synchronization.
+ *
+ * @see UnsyncBufferedInputStream
+ * @since 1.7
+ */
+public class UnsyncBufferedOutputStream extends BufferedOutputStream {
+
+    /**
+     * Creates an unsynchronized buffered stream with a buffer of 8192 bytes.
+     *
+     * @param out the underlying output stream
+     */
+    public UnsyncBufferedOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * Creates an unsynchronized buffered stream with the specified buffer
+     * size.
+     *
+     * @param out the underlying output stream
+     * @param size the buffer size
+     * @exception IllegalArgumentException if size <= 0
+     */
+    public UnsyncBufferedOutputStream(OutputStream out, int size) {
+        super(out, size);
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buf, 0, count);
+            count = 0;
+        }
+    }
+
+    public void write(int b) throws IOException {
+        if (count >= buf.length) {
+            flushBuffer();
+        }
+        buf[count++] = (byte)b;
+    }
+
+    public void write(byte b[], int off, int len) throws IOException {
+        if (len >= buf.length) {
+            /* If the request length exceeds the size of the output buffer,
+               flush the output buffer and then write the data directly.
+               In this way buffered streams will cascade harmlessly. */
+            flushBuffer();
+            out.write(b, off, len);
+            return;
+        }
+        if (len > buf.length - count) {
+            flushBuffer();
+        }
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.io;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A {@link ByteArrayOutputStream} whose methods are not synchronized and
+ * whose data is never copied to grow.
+ * <p>
+ * <code>ByteArrayOutputStream</code> locks the stream on every call and
+ * doubles its buffer with a copy each time it fills up. This class writes
+ * into a sequence of segments instead: when the last one is full a new one
+ * is added, as large as the data written so far up to a limit, and nothing
+ * is copied. The data can be read back without copying either, with
+ * {@link #getBuffer()} when it lies in a single segment, and with
+ * {@link #toByteBuffers()} or {@link #writeTo(OutputStream)} in any case.
+ * <p>
+ * The inherited field <code>buf</code> is the last segment, and
+ * <code>count</code> the total number of bytes written. An instance must
+ * not be used by more than one thread at a time without external
+ * synchronization.
+ *
+ * @since 1.7
+ */
+public class UnsyncByteArrayOutputStream extends ByteArrayOutputStream {
+
+    /** the largest size given to a new segment, unless a write needs more */
+    private static final int MAX_SEGMENT_SIZE = 1 << 20;
+
+    private static final byte[][] NO_SEGMENTS = new byte[0][];
+
+    /** the full segments before buf */
+    private byte[][] segments = NO_SEGMENTS;
+    private int segmentCount;
+    /** the number of bytes in the full segments */
+    private int filled;
+
+    /**
+     * Creates a stream whose first segment has 32 bytes.
+     */
+    public UnsyncByteArrayOutputStream() {
+        super(32);
+    }
+
+    /**
+     * Creates a stream whose first segment has the specified size.
+     *
+     * @param size the size of the first segment
+     * @exception IllegalArgumentException if size is negative
+     */
+    public UnsyncByteArrayOutputStream(int size) {
+        super(size);
+    }
+
+    /**
+     * Makes buf a new, empty segment with room for at least minCapacity
+     * bytes.
+     */
+    private void addSegment(int minCapacity) {
+        if (segmentCount == segments.length) {
+            segments = Arrays.copyOf(segments, Math.max(4, segmentCount * 2));
+        }
+        segments[segmentCount++] = buf;
+        filled = count;
+        int size = Math.max(Math.min(Math.max(count, 32), MAX_SEGMENT_SIZE), minCapacity);
+        if (size > Integer.MAX_VALUE - count) {
+            throw new OutOfMemoryError();
+        }
+        buf = new byte[size];
+    }
+
+    public void write(int b) {
+        if (count - filled == buf.length) {
+            addSegment(1);
+        }
+        buf[count - filled] = (byte) b;
+        count++;
+    }
+
+    public void write(byte b[], int off, int len) {
+        if ((off < 0) || (off > b.length) || (len < 0) ||
+            ((off + len) - b.length > 0)) {
+            throw new IndexOutOfBoundsException();
+        }
+        int room = buf.length - (count - filled);
+        if (len > room) {
+            System.arraycopy(b, off, buf, count - filled, room);
+            count += room;
+            off += room;
+            len -= room;
+            addSegment(len);
+        }
+        System.arraycopy(b, off, buf, count - filled, len);
+        count += len;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        for (int i = 0; i < segmentCount; i++) {
+            out.write(segments[i]);
+        }
+        out.write(buf, 0, count - filled);
+    }
+
+    /**
+     * Discards the data written. The last segment is kept for the data
+     * written next.
+     */
+    public void reset() {
+        Arrays.fill(segments, 0, segmentCount, null);
+        segmentCount = 0;
+        filled = 0;
+        count = 0;
+    }
+
+    /**
+     * Returns an array holding the data written in its first
+     * {@link #size()} bytes. If the data lies in a single segment, the
+     * segment itself is returned; otherwise the segments are first merged
+     * into one. The array is shared with the stream: it must not be modified,
+     * and is only valid until the next write or reset.
+     *
+     * @return the internal buffer
+     */
+    public byte[] getBuffer() {
+        if (segmentCount > 0) {
+            byte[] merged = toByteArray();
+            reset();
+            buf = merged;
+            count = merged.length;
+        }
+        return buf;
+    }
+
+    /**
+     * Returns the data written as buffers wrapping the segments, in order.
+     * The buffers share the segments: they must not be modified, and are
+     * only valid until the next reset.
+     *
+     * @return the data written
+     */
+    public ByteBuffer[] toByteBuffers() {
+        ByteBuffer[] result = new ByteBuffer[segmentCount + 1];
+        for (int i = 0; i < segmentCount; i++) {
+            result[i] = ByteBuffer.wrap(segments[i]);
+        }
+        result[segmentCount] = ByteBuffer.wrap(buf, 0, count - filled);
+        return result;
+    }
+
+    public byte[] toByteArray() {
+        if (segmentCount == 0) {
+            return Arrays.copyOf(buf, count);
+        }
+        byte[] result = new byte[count];
+        int off = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            byte[] segment = segments[i];
+            System.arraycopy(segment, 0, result, off, segment.length);
+            off += segment.length;
+        }
+        System.arraycopy(buf, 0, result, off, count - filled);
+        return result;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String toString() {
+        byte[] bytes = getBuffer();
+        return new String(bytes, 0, count);
+    }
+
+    public String toString(String charsetName)
+        throws UnsupportedEncodingException
+    {
+        byte[] bytes = getBuffer();
+        return new String(bytes, 0, count, charsetName);
+    }
+
+    @Deprecated
+    public String toString(int hibyte) {
+        byte[] bytes = getBuffer();
+        return new String(bytes, hibyte, 0, count);
+    }
+}
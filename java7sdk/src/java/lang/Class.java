@@ -26,6 +26,7 @@ import sun.reflect.generics.factory.CoreReflectionFactory;
 import sun.reflect.generics.scope.ClassScope;
 import sun.reflect.misc.ReflectUtil;
 import sun.reflect.annotation.AnnotationType;
+import com.ibm.lang.reflect.ReflectionData;
 
 /**
  * An instance of class Class is the in-image representation
@@ -684,6 +685,11 @@ public Method getDeclaredMethod(String name, Class<?>... parameterTypes) throws
 		throwNoSuchMethodException(name, parameterTypes);
 	}
 
+	Method indexedMethod = lookupIndexedMethod(name, parameterTypes, true);
+	if (indexedMethod != null) {
+		return indexedMethod;
+	}
+
 	J9VMInternals.prepare(this);
 
 	// Handle the no parameter case upfront
@@ -966,6 +972,11 @@ public Method getMethod(String name, Class<?>... parameterTypes) throws NoSuchMe
 		throwNoSuchMethodException(name, parameterTypes);
 	}
 
+	Method indexedMethod = lookupIndexedMethod(name, parameterTypes, false);
+	if (indexedMethod != null) {
+		return indexedMethod;
+	}
+
 	J9VMInternals.prepare(this);
 
 	// Handle the no parameter case upfront
@@ -2789,6 +2800,31 @@ private Constructor cacheConstructor(Constructor constructor) {
 	}
 }
 
+/*
+ * Answers a copy of the method found by name and parameter types in the
+ * shared ReflectionData of this class, or null if there is none, so that
+ * getMethod() and getDeclaredMethod() need not search the class hierarchy.
+ * A miss falls back to the search, which reports the failure. The index is
+ * not used before initCacheIds() has found Method.copy().
+ */
+private Method lookupIndexedMethod(String name, Class[] parameters, boolean declared) {
+	if (copyMethod == null || name == null) return null;
+	ReflectionData data = ReflectionData.of(this);
+	Method method = declared ? data.getDeclaredMethod(name, parameters) : data.getMethod(name, parameters);
+	if (method == null) return null;
+	try {
+		return (Method)copyMethod.invoke(method, NoArgs);
+	} catch (IllegalAccessException e) {
+		InternalError err = new InternalError(e.toString());
+		err.initCause(e);
+		throw err;
+	} catch (InvocationTargetException e) {
+		InternalError err = new InternalError(e.toString());
+		err.initCause(e);
+		throw err;
+	}
+}
+
 private Method[] copyMethods(Method[] methods) {
 	Method[] result = new Method[methods.length];
 	try {
@@ -16,6 +16,7 @@ import java.lang.reflect.*;
 import java.util.Hashtable;
 import java.security.cert.Certificate;
 import java.lang.ref.SoftReference;
+import com.ibm.lang.management.ClassLoadingProfiler;
 
 /*
  * Licensed Materials - Property of IBM,
@@ -78,6 +79,11 @@ public abstract class ClassLoader {
 	private static boolean allowArraySyntax;
 	private static boolean lazyClassLoaderInit = false;
 
+	//	class loading profile options, see ClassLoadingProfiler
+	private static boolean profileClassLoading;
+	private static boolean recordLoadOrder;
+	private volatile ClassLoadingProfiler.Counters profileCounters;
+
 	static final void initializeClassLoaders() {
 		if (bootstrapClassLoader != null) return;
 
@@ -303,7 +309,14 @@ protected final Class<?> defineClass (
 		protectionDomain = getDefaultProtectionDomain();
 
 	final ProtectionDomain pd = protectionDomain;
-	Class answer = defineClassImpl(className, classRep, offset, length, pd);
+	Class answer;
+	if (profileClassLoading) {
+		long start = System.nanoTime();
+		answer = defineClassImpl(className, classRep, offset, length, pd);
+		profileCounters().classDefined(System.nanoTime() - start);
+	} else {
+		answer = defineClassImpl(className, classRep, offset, length, pd);
+	}
 	if (isVerboseImpl()) {
 		String location = "<unknown>"; //$NON-NLS-1$
 		if (pd != null) {
@@ -595,6 +608,16 @@ static void completeInitialization() {
 		}
 	}
 
+	profileClassLoading = "true".equalsIgnoreCase(System.getProperty("ibm.cl.profile")); //$NON-NLS-1$ //$NON-NLS-2$
+	if (profileClassLoading) ClassLoadingProfiler.enableProfiling();
+	String loadOrderFile = System.getProperty("ibm.cl.recordLoadOrder"); //$NON-NLS-1$
+	if (loadOrderFile != null) {
+		ClassLoadingProfiler.recordLoadOrder(loadOrderFile);
+		recordLoadOrder = true;
+	}
+	String preloadFile = System.getProperty("ibm.cl.preload"); //$NON-NLS-1$
+	if (preloadFile != null) ClassLoadingProfiler.preload(preloadFile, applicationClassLoader);
+
 	initSystemClassLoader = true;
 }
 
@@ -721,6 +744,9 @@ public Class<?> loadClass (String className) throws ClassNotFoundException {
  *					If the class could not be found.
  */
 protected Class<?> loadClass(final String className, boolean resolveClass) throws ClassNotFoundException {
+	if (profileClassLoading) {
+		return profiledLoadClass(className, resolveClass);
+	}
 	if (isParallelCapable) {
 		Class	ret;
 		try {
@@ -739,6 +765,33 @@ protected Class<?> loadClass(final String className, boolean resolveClass) throw
 	}
 }
 
+/*
+ * loadClass(String, boolean) when class loading is profiled, which also
+ * times the wait for the class loading lock.
+ */
+private Class<?> profiledLoadClass(String className, boolean resolveClass) throws ClassNotFoundException {
+	ClassLoadingProfiler.Counters counters = profileCounters();
+	try {
+		Object lock = isParallelCapable ? getClassLoadingLock(className) : this;
+		long start = System.nanoTime();
+		synchronized(lock) {
+			counters.loadClassCalled(System.nanoTime() - start);
+			return loadClassHelper(className, resolveClass);
+		}
+	} finally {
+		if (isParallelCapable) classNameBasedLock.remove(className);
+	}
+}
+
+private ClassLoadingProfiler.Counters profileCounters() {
+	ClassLoadingProfiler.Counters counters = profileCounters;
+	if (counters == null) {
+		counters = ClassLoadingProfiler.countersFor(this);
+		profileCounters = counters;
+	}
+	return counters;
+}
+
 private Class<?> loadClassHelper(String className, boolean resolveClass) throws ClassNotFoundException {
 	// Ask the VM to look in its cache.
 	Class loadedClass = findLoadedClass(className);
@@ -757,7 +810,20 @@ private Class<?> loadClassHelper(String className, boolean resolveClass) throws
 
 		// not findLoadedClass or by parent.loadClass, try locally
 		if (loadedClass == null) {
-			loadedClass = findClass(className);
+			if (profileClassLoading) {
+				long start = System.nanoTime();
+				try {
+					loadedClass = findClass(className);
+				} finally {
+					profileCounters().findClassCalled(System.nanoTime() - start);
+				}
+			} else {
+				loadedClass = findClass(className);
+			}
+		}
+
+		if (recordLoadOrder && this == applicationClassLoader) {
+			ClassLoadingProfiler.classLoaded(className);
 		}
 	}
 
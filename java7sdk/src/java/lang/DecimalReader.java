@@ -0,0 +1,326 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.lang;
+
+import java.math.BigInteger;
+
+import sun.misc.FloatingDecimal;
+
+/**
+ * Parses numbers from a range of a {@link CharSequence} or of an ASCII
+ * {@code byte[]} without copying the range into a {@code String} first.
+ * <p>
+ * Decimal {@code double} values with at most 18 significant digits are
+ * converted with the Clinger fast path when both the digits and the power
+ * of ten are exact doubles, and otherwise with the Eisel-Lemire algorithm,
+ * which is exact in all but a handful of cases it detects itself. Those
+ * cases, and all other forms accepted by {@link Double#valueOf(String)},
+ * are left to {@link FloatingDecimal}.
+ *
+ * @see Integer#parseInt(CharSequence, int, int, int)
+ * @see Long#parseLong(CharSequence, int, int, int)
+ * @see Double#parseDouble(CharSequence, int, int)
+ */
+final class DecimalReader {
+
+    private DecimalReader() {
+    }
+
+    /*
+     * Sources are passed as Object so that one implementation serves
+     * character sequences and byte arrays.
+     */
+    private static char charAt(Object src, int index) {
+        if (src instanceof String) {
+            return ((String) src).charAt(index);
+        } else if (src instanceof byte[]) {
+            return (char) (((byte[]) src)[index] & 0xff);
+        }
+        return ((CharSequence) src).charAt(index);
+    }
+
+    private static int length(Object src) {
+        if (src instanceof byte[]) {
+            return ((byte[]) src).length;
+        }
+        return ((CharSequence) src).length();
+    }
+
+    private static void checkRange(Object src, int start, int end) {
+        int length = length(src);
+        if (start < 0 || start > end || end > length) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end
+                    + ", length " + length);
+        }
+    }
+
+    /* Only called to report a failure */
+    private static String text(Object src, int start, int end) {
+        if (src instanceof byte[]) {
+            char[] chars = new char[end - start];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = charAt(src, start + i);
+            }
+            return new String(chars);
+        }
+        return ((CharSequence) src).subSequence(start, end).toString();
+    }
+
+    /**
+     * Parses a signed integer in the given radix from the characters between
+     * {@code start} and {@code end}, following the rules of
+     * {@link Long#parseLong(String, int)}.
+     *
+     * @param min the smallest value of the target type, either
+     *            {@code Integer.MIN_VALUE} or {@code Long.MIN_VALUE}
+     */
+    static long parseLong(Object src, int start, int end, int radix, long min) {
+        if (src == null) {
+            throw new NullPointerException();
+        }
+        checkRange(src, start, end);
+        if (radix < Character.MIN_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " less than Character.MIN_RADIX");
+        }
+        if (radix > Character.MAX_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " greater than Character.MAX_RADIX");
+        }
+
+        long result = 0;
+        boolean negative = false;
+        int i = start;
+        long limit = min + 1;
+
+        if (i == end) {
+            throw NumberFormatException.forInputString("");
+        }
+        char firstChar = charAt(src, i);
+        if (firstChar < '0') { // Possible leading "+" or "-"
+            if (firstChar == '-') {
+                negative = true;
+                limit = min;
+            } else if (firstChar != '+') {
+                throw NumberFormatException.forInputString(text(src, start, end));
+            }
+            if (end - start == 1) { // Cannot have lone "+" or "-"
+                throw NumberFormatException.forInputString(text(src, start, end));
+            }
+            i++;
+        }
+        long multmin = limit / radix;
+        while (i < end) {
+            // Accumulating negatively avoids surprises near MAX_VALUE
+            int digit = Character.digit(charAt(src, i++), radix);
+            if (digit < 0 || result < multmin) {
+                throw NumberFormatException.forInputString(text(src, start, end));
+            }
+            result *= radix;
+            if (result < limit + digit) {
+                throw NumberFormatException.forInputString(text(src, start, end));
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses a {@code double} from the characters between {@code start} and
+     * {@code end}, accepting the same strings as
+     * {@link Double#valueOf(String)}.
+     */
+    static double parseDouble(Object src, int start, int end) {
+        if (src == null) {
+            throw new NullPointerException();
+        }
+        checkRange(src, start, end);
+
+        // [+-] digits [. digits] [(e|E) [+-] digits]
+        int i = start;
+        boolean negative = false;
+        if (i < end) {
+            char c = charAt(src, i);
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                i++;
+            }
+        }
+        long w = 0;
+        int digits = 0;
+        int significant = 0;
+        int dot = -1;
+        int scale = 0;
+        for (; i < end; i++) {
+            char c = charAt(src, i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (significant > 0 || c != '0') {
+                    // 18 digits always fit in w; 19 may overflow it, as
+                    // "9999999999999999999" or "9223372036854775808" would
+                    if (++significant > 18) {
+                        return slowParse(src, start, end);
+                    }
+                    w = 10 * w + (c - '0');
+                }
+                if (dot >= 0) {
+                    scale--;
+                }
+            } else if (c == '.' && dot < 0) {
+                dot = i;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return slowParse(src, start, end);
+        }
+        if (i < end) {
+            char c = charAt(src, i);
+            if (c != 'e' && c != 'E' || ++i == end) {
+                return slowParse(src, start, end);
+            }
+            boolean negativeExp = false;
+            c = charAt(src, i);
+            if (c == '-' || c == '+') {
+                negativeExp = c == '-';
+                if (++i == end) {
+                    return slowParse(src, start, end);
+                }
+            }
+            int exp = 0;
+            for (; i < end; i++) {
+                c = charAt(src, i);
+                if (c < '0' || c > '9' || exp > 100000) {
+                    return slowParse(src, start, end);
+                }
+                exp = 10 * exp + (c - '0');
+            }
+            scale += negativeExp ? -exp : exp;
+        }
+
+        double value;
+        if (w == 0) {
+            value = 0.0;
+        } else if (scale >= -22 && scale <= 22 && w <= (1L << 53)) {
+            // both factors are exact, so is the correctly rounded result
+            value = (double) w;
+            value = (scale < 0) ? value / SMALL_POWERS[-scale] : value * SMALL_POWERS[scale];
+        } else {
+            long bits = eiselLemire(w, scale);
+            if (bits < 0) {
+                return slowParse(src, start, end);
+            }
+            value = Double.longBitsToDouble(bits);
+        }
+        return negative ? -value : value;
+    }
+
+    private static double slowParse(Object src, int start, int end) {
+        return FloatingDecimal.readJavaFormatString(text(src, start, end)).doubleValue();
+    }
+
+    private static final double[] SMALL_POWERS = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final int MIN_POWER = -342;
+    private static final int MAX_POWER = 308;
+
+    /*
+     * 5^q for MIN_POWER <= q <= MAX_POWER, normalized to 128 bits with the
+     * top bit set, as {high 64 bits, low 64 bits} pairs. Positive powers are
+     * truncated, negative ones rounded up. The table is built with
+     * BigInteger when a double first needs it.
+     */
+    private static class Pow5Table {
+        static final long[] POW5_128 = new long[2 * (MAX_POWER - MIN_POWER + 1)];
+
+        static {
+            BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+            BigInteger five = BigInteger.valueOf(5);
+            for (int q = MIN_POWER; q <= MAX_POWER; q++) {
+                BigInteger c;
+                if (q >= 0) {
+                    BigInteger pow = five.pow(q);
+                    // a negative distance truncates
+                    c = pow.shiftLeft(128 - pow.bitLength());
+                } else {
+                    BigInteger pow = five.pow(-q);
+                    int z = pow.subtract(BigInteger.ONE).bitLength();
+                    int b = (q >= -27) ? z + 127 : 2 * z + 128;
+                    c = BigInteger.ONE.shiftLeft(b).divide(pow).add(BigInteger.ONE);
+                    if (c.bitLength() > 128) {
+                        c = c.shiftRight(c.bitLength() - 128);
+                    }
+                }
+                int index = 2 * (q - MIN_POWER);
+                POW5_128[index] = c.shiftRight(64).longValue();
+                POW5_128[index + 1] = c.and(mask).longValue();
+            }
+        }
+    }
+
+    /**
+     * Answers the bits of the double nearest to {@code w * 10^q}, or -1 when
+     * the result is subnormal, out of range, or cannot be decided from a
+     * 128 bit product.
+     *
+     * @ar.org.fitc.ref "D. Lemire - Number Parsing at a Gigabyte per Second"
+     */
+    private static long eiselLemire(long w, int q) {
+        // PRE: w > 0
+        if (q < MIN_POWER || q > MAX_POWER) {
+            return -1;
+        }
+        int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+
+        // the top 55 bits of w * 5^q, refined with the low half if needed
+        int index = 2 * (q - MIN_POWER);
+        long[] table = Pow5Table.POW5_128;
+        long lo = w * table[index];
+        long hi = DecimalWriter.multiplyHigh(w, table[index]);
+        if ((hi & 0x1FF) == 0x1FF) {
+            long secondHi = DecimalWriter.multiplyHigh(w, table[index + 1]);
+            long sum = lo + secondHi;
+            if ((sum ^ Long.MIN_VALUE) < (lo ^ Long.MIN_VALUE)) {
+                hi++;
+            }
+            lo = sum;
+            if (lo == -1L && (q < -27 || q > 55)) {
+                return -1;
+            }
+        }
+
+        int upperbit = (int) (hi >>> 63);
+        int shift = upperbit + 9;
+        long mantissa = hi >>> shift;
+        // floor(log2(10^q)) + 63, then biased
+        int power2 = (((152170 + 65536) * q) >> 16) + 63 + upperbit - lz + 1023;
+        if (power2 <= 0) {
+            return -1;
+        }
+        if (lo == 0 || lo == 1) {
+            // exactly halfway between two doubles: round to even
+            if (q >= -4 && q <= 23 && (mantissa & 3) == 1 && (mantissa << shift) == hi) {
+                mantissa &= ~1L;
+            }
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << 52)) {
+            mantissa = 1L << 52;
+            power2++;
+        }
+        mantissa &= ~(1L << 52);
+        if (power2 >= 0x7FF) {
+            return -1;
+        }
+        return mantissa | ((long) power2 << 52);
+    }
+}
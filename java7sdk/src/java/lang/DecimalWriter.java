@@ -0,0 +1,488 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.lang;
+
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/**
+ * Writes decimal representations of {@code long} and {@code double} values
+ * into caller-supplied {@code char[]}, {@code byte[]}, {@link CharBuffer}
+ * and {@link ByteBuffer} destinations without allocating. Byte destinations
+ * receive ASCII.
+ * <p>
+ * Integral values use the two-digit tables of {@link Integer}. Doubles are
+ * converted with the Ryu algorithm, which yields the shortest decimal that
+ * reads back as the same {@code double}, and are laid out in the format of
+ * {@link Double#toString(double)}.
+ *
+ * @see Integer#toChars(int, char[], int)
+ * @see Long#toChars(long, char[], int)
+ * @see Double#toChars(double, char[], int)
+ */
+final class DecimalWriter {
+
+    private DecimalWriter() {
+    }
+
+    /*
+     * Destinations are passed as Object, and written at absolute indexes
+     * so that one implementation serves arrays and direct buffers.
+     */
+    private static void put(Object dst, int index, char c) {
+        if (dst instanceof char[]) {
+            ((char[]) dst)[index] = c;
+        } else if (dst instanceof byte[]) {
+            ((byte[]) dst)[index] = (byte) c;
+        } else if (dst instanceof CharBuffer) {
+            ((CharBuffer) dst).put(index, c);
+        } else {
+            ((ByteBuffer) dst).put(index, (byte) c);
+        }
+    }
+
+    /**
+     * Writes the decimal representation of {@code i} at {@code offset}.
+     *
+     * @return the number of characters written, or -1 if more than
+     *         {@code avail} would be needed, in which case nothing is written
+     */
+    static int writeLong(long i, Object dst, int offset, int avail) {
+        if (i == Long.MIN_VALUE) {
+            return writeString("-9223372036854775808", dst, offset, avail);
+        }
+        int size = (i < 0) ? Long.stringSize(-i) + 1 : Long.stringSize(i);
+        if (size > avail) {
+            return -1;
+        }
+        int pos = putDigits(dst, offset + size, (i < 0) ? -i : i);
+        if (i < 0) {
+            put(dst, pos - 1, '-');
+        }
+        return size;
+    }
+
+    /*
+     * Writes all digits of the non-negative v backwards, ending before
+     * index end, and answers the index of the first digit written
+     */
+    private static int putDigits(Object dst, int end, long v) {
+        int pos = end;
+        while (v >= 100) {
+            long q = v / 100;
+            int r = (int) (v - ((q << 6) + (q << 5) + (q << 2)));
+            v = q;
+            put(dst, --pos, Integer.DigitOnes[r]);
+            put(dst, --pos, Integer.DigitTens[r]);
+        }
+        int r = (int) v;
+        put(dst, --pos, Integer.DigitOnes[r]);
+        if (r >= 10) {
+            put(dst, --pos, Integer.DigitTens[r]);
+        }
+        return pos;
+    }
+
+    /*
+     * Writes the lowest count digits of the non-negative v backwards,
+     * ending before index end, and answers the remaining high digits
+     */
+    private static long putDigits(Object dst, int end, long v, int count) {
+        for (int pos = end - 1; pos >= end - count; pos--) {
+            long q = v / 10;
+            put(dst, pos, Integer.digits[(int) (v - ((q << 3) + (q << 1)))]);
+            v = q;
+        }
+        return v;
+    }
+
+    private static int writeString(String s, Object dst, int offset, int avail) {
+        int size = s.length();
+        if (size > avail) {
+            return -1;
+        }
+        for (int i = 0; i < size; i++) {
+            put(dst, offset + i, s.charAt(i));
+        }
+        return size;
+    }
+
+    /*
+     * Ryu, see U. Adams, "Ryu: Fast Float-to-String Conversion", PLDI 2018.
+     * The tables hold 5^i and 2^k / 5^q scaled to POW5_BITCOUNT and
+     * POW5_INV_BITCOUNT bits, as {low 64 bits, high bits} pairs.
+     */
+    private static final int POW5_BITCOUNT = 125;
+    private static final int POW5_INV_BITCOUNT = 125;
+    private static final int POW5_TABLE_SIZE = 326;
+    private static final int POW5_INV_TABLE_SIZE = 342;
+
+    /*
+     * The tables are only built when a double is first written, as
+     * computing them uses BigInteger.
+     */
+    private static class Pow5Tables {
+        static final long[][] POW5_SPLIT = new long[POW5_TABLE_SIZE][];
+        static final long[][] POW5_INV_SPLIT = new long[POW5_INV_TABLE_SIZE][];
+
+        static {
+            BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+            BigInteger five = BigInteger.valueOf(5);
+            for (int i = 0; i < POW5_INV_TABLE_SIZE; i++) {
+                BigInteger pow = five.pow(i);
+                int pow5len = pow.bitLength();
+                if (i < POW5_TABLE_SIZE) {
+                    int shift = pow5len - POW5_BITCOUNT;
+                    BigInteger split = (shift >= 0) ? pow.shiftRight(shift) : pow.shiftLeft(-shift);
+                    POW5_SPLIT[i] = new long[] {
+                        split.and(mask).longValue(), split.shiftRight(64).longValue() };
+                }
+                BigInteger inv = BigInteger.ONE.shiftLeft(pow5len - 1 + POW5_INV_BITCOUNT)
+                    .divide(pow).add(BigInteger.ONE);
+                POW5_INV_SPLIT[i] = new long[] {
+                    inv.and(mask).longValue(), inv.shiftRight(64).longValue() };
+            }
+        }
+    }
+
+    /* Returns ceil(log_2(5^e)), or 1 if e == 0; valid for 0 <= e <= 3528 */
+    private static int pow5bits(int e) {
+        return (int) (((e * 1217359L) >>> 19) + 1);
+    }
+
+    /* Returns floor(log_10(2^e)); valid for 0 <= e <= 1650 */
+    private static int log10Pow2(int e) {
+        return (int) ((e * 78913L) >>> 18);
+    }
+
+    /* Returns floor(log_10(5^e)); valid for 0 <= e <= 2620 */
+    private static int log10Pow5(int e) {
+        return (int) ((e * 732923L) >>> 20);
+    }
+
+    private static boolean multipleOfPowerOf5(long value, int p) {
+        int count = 0;
+        while (value % 5 == 0) {
+            value /= 5;
+            count++;
+        }
+        return count >= p;
+    }
+
+    private static boolean multipleOfPowerOf2(long value, int p) {
+        return (value & ((1L << p) - 1)) == 0;
+    }
+
+    /* Returns the high 64 bits of the unsigned 128 bit product a * b */
+    static long multiplyHigh(long a, long b) {
+        long a0 = a & 0xFFFFFFFFL;
+        long a1 = a >>> 32;
+        long b0 = b & 0xFFFFFFFFL;
+        long b1 = b >>> 32;
+        long p01 = a0 * b1;
+        long p10 = a1 * b0;
+        long mid = ((a0 * b0) >>> 32) + (p01 & 0xFFFFFFFFL) + (p10 & 0xFFFFFFFFL);
+        return a1 * b1 + (p01 >>> 32) + (p10 >>> 32) + (mid >>> 32);
+    }
+
+    /* Returns (m * mul) >> j for a 128 bit mul, where 64 < j < 128 */
+    private static long mulShift(long m, long[] mul, int j) {
+        long lo = m * mul[1];
+        long hi = multiplyHigh(m, mul[1]);
+        long mid = multiplyHigh(m, mul[0]);
+        long sum = lo + mid;
+        if ((sum ^ Long.MIN_VALUE) < (lo ^ Long.MIN_VALUE)) {
+            hi++;
+        }
+        int shift = j - 64;
+        return (sum >>> shift) | (hi << (64 - shift));
+    }
+
+    private static int decimalLength(long v) {
+        long p = 10;
+        for (int i = 1; i < 19; i++) {
+            if (v < p) {
+                return i;
+            }
+            p = 10 * p;
+        }
+        return 19;
+    }
+
+    /**
+     * Writes the shortest decimal representation of {@code v} that reads
+     * back as {@code v} at {@code offset}, in the format of
+     * {@link Double#toString(double)}.
+     *
+     * @return the number of characters written, or -1 if more than
+     *         {@code avail} would be needed, in which case nothing is written
+     */
+    static int writeDouble(double v, Object dst, int offset, int avail) {
+        long bits = Double.doubleToRawLongBits(v);
+        boolean sign = bits < 0;
+        int ieeeExponent = (int) ((bits >>> 52) & 0x7ff);
+        long ieeeMantissa = bits & ((1L << 52) - 1);
+        if (ieeeExponent == 0x7ff) {
+            return writeString((ieeeMantissa != 0) ? "NaN" : sign ? "-Infinity" : "Infinity",
+                    dst, offset, avail);
+        }
+        if (ieeeExponent == 0 && ieeeMantissa == 0) {
+            return writeString(sign ? "-0.0" : "0.0", dst, offset, avail);
+        }
+
+        // Step 1: decode into m2 * 2^e2, biased by 2 to make room for the bounds
+        int e2;
+        long m2;
+        if (ieeeExponent == 0) {
+            e2 = 1 - 1023 - 52 - 2;
+            m2 = ieeeMantissa;
+        } else {
+            e2 = ieeeExponent - 1023 - 52 - 2;
+            m2 = ieeeMantissa | (1L << 52);
+        }
+        boolean acceptBounds = (m2 & 1) == 0;
+
+        // Step 2: the interval of valid decimal representations
+        long mv = 4 * m2;
+        int mmShift = (ieeeMantissa != 0 || ieeeExponent <= 1) ? 1 : 0;
+
+        // Step 3: convert to a decimal power base
+        long vr, vp, vm;
+        int e10;
+        boolean vmIsTrailingZeros = false;
+        boolean vrIsTrailingZeros = false;
+        if (e2 >= 0) {
+            int q = Math.max(0, log10Pow2(e2) - ((e2 > 3) ? 1 : 0));
+            e10 = q;
+            int k = POW5_INV_BITCOUNT + pow5bits(q) - 1;
+            int i = -e2 + q + k;
+            long[] mul = Pow5Tables.POW5_INV_SPLIT[q];
+            vr = mulShift(4 * m2, mul, i);
+            vp = mulShift(4 * m2 + 2, mul, i);
+            vm = mulShift(4 * m2 - 1 - mmShift, mul, i);
+            if (q <= 21) {
+                // only one of mp, mv and mm can be a multiple of 5, if any
+                if (mv % 5 == 0) {
+                    vrIsTrailingZeros = multipleOfPowerOf5(mv, q);
+                } else if (acceptBounds) {
+                    vmIsTrailingZeros = multipleOfPowerOf5(mv - 1 - mmShift, q);
+                } else if (multipleOfPowerOf5(mv + 2, q)) {
+                    vp--;
+                }
+            }
+        } else {
+            int q = Math.max(0, log10Pow5(-e2) - ((-e2 > 1) ? 1 : 0));
+            e10 = q + e2;
+            int i = -e2 - q;
+            int k = pow5bits(i) - POW5_BITCOUNT;
+            int j = q - k;
+            long[] mul = Pow5Tables.POW5_SPLIT[i];
+            vr = mulShift(4 * m2, mul, j);
+            vp = mulShift(4 * m2 + 2, mul, j);
+            vm = mulShift(4 * m2 - 1 - mmShift, mul, j);
+            if (q <= 1) {
+                // mv has at least q trailing zero bits, as mv = 4 * m2
+                vrIsTrailingZeros = true;
+                if (acceptBounds) {
+                    vmIsTrailingZeros = mmShift == 1;
+                } else {
+                    vp--;
+                }
+            } else if (q < 63) {
+                vrIsTrailingZeros = multipleOfPowerOf2(mv, q);
+            }
+        }
+
+        // Step 4: find the shortest representation in the interval
+        int removed = 0;
+        int lastRemovedDigit = 0;
+        long output;
+        if (vmIsTrailingZeros || vrIsTrailingZeros) {
+            while (vp / 10 > vm / 10) {
+                vmIsTrailingZeros &= vm % 10 == 0;
+                vrIsTrailingZeros &= lastRemovedDigit == 0;
+                lastRemovedDigit = (int) (vr % 10);
+                vr /= 10;
+                vp /= 10;
+                vm /= 10;
+                removed++;
+            }
+            if (vmIsTrailingZeros) {
+                while (vm % 10 == 0) {
+                    vrIsTrailingZeros &= lastRemovedDigit == 0;
+                    lastRemovedDigit = (int) (vr % 10);
+                    vr /= 10;
+                    vp /= 10;
+                    vm /= 10;
+                    removed++;
+                }
+            }
+            if (vrIsTrailingZeros && lastRemovedDigit == 5 && vr % 2 == 0) {
+                // round half to even
+                lastRemovedDigit = 4;
+            }
+            output = vr + (((vr == vm && (!acceptBounds || !vmIsTrailingZeros))
+                    || lastRemovedDigit >= 5) ? 1 : 0);
+        } else {
+            while (vp / 10 > vm / 10) {
+                lastRemovedDigit = (int) (vr % 10);
+                vr /= 10;
+                vp /= 10;
+                vm /= 10;
+                removed++;
+            }
+            output = vr + ((vr == vm || lastRemovedDigit >= 5) ? 1 : 0);
+        }
+        int olength = decimalLength(output);
+        int sciExp = e10 + removed + olength - 1;
+
+        // Step 5: lay out as Double.toString does
+        int start = sign ? offset + 1 : offset;
+        int size;
+        if (sciExp >= -3 && sciExp < 7) {
+            if (sciExp >= 0) {
+                int intDigits = sciExp + 1;
+                int fracDigits = Math.max(olength - intDigits, 1);
+                size = (start - offset) + intDigits + 1 + fracDigits;
+                if (size > avail) {
+                    return -1;
+                }
+                int dot = start + intDigits;
+                if (olength > intDigits) {
+                    long high = putDigits(dst, dot + 1 + fracDigits, output, fracDigits);
+                    putDigits(dst, dot, high, intDigits);
+                } else {
+                    put(dst, dot + 1, '0');
+                    for (int i = start + olength; i < dot; i++) {
+                        put(dst, i, '0');
+                    }
+                    putDigits(dst, start + olength, output, olength);
+                }
+                put(dst, dot, '.');
+            } else {
+                int zeros = -sciExp - 1;
+                size = (start - offset) + 2 + zeros + olength;
+                if (size > avail) {
+                    return -1;
+                }
+                put(dst, start, '0');
+                put(dst, start + 1, '.');
+                for (int i = 0; i < zeros; i++) {
+                    put(dst, start + 2 + i, '0');
+                }
+                putDigits(dst, start + 2 + zeros + olength, output, olength);
+            }
+        } else {
+            int fracDigits = Math.max(olength - 1, 1);
+            int absExp = (sciExp < 0) ? -sciExp : sciExp;
+            int expDigits = (absExp >= 100) ? 3 : (absExp >= 10) ? 2 : 1;
+            size = (start - offset) + 2 + fracDigits + 1 + ((sciExp < 0) ? 1 : 0) + expDigits;
+            if (size > avail) {
+                return -1;
+            }
+            long high = output;
+            if (olength > 1) {
+                high = putDigits(dst, start + 2 + fracDigits, output, fracDigits);
+            } else {
+                put(dst, start + 2, '0');
+            }
+            put(dst, start, (char) ('0' + high));
+            put(dst, start + 1, '.');
+            int pos = start + 2 + fracDigits;
+            put(dst, pos++, 'E');
+            if (sciExp < 0) {
+                put(dst, pos++, '-');
+            }
+            putDigits(dst, pos + expDigits, absExp, expDigits);
+        }
+        if (sign) {
+            put(dst, offset, '-');
+        }
+        return size;
+    }
+
+    /*
+     * Array entry points: the whole representation must fit between
+     * offset and the end of the array.
+     */
+
+    static int writeLong(long i, char[] dst, int offset) {
+        return checkFits(writeLong(i, dst, offset, available(dst.length, offset)), offset);
+    }
+
+    static int writeLong(long i, byte[] dst, int offset) {
+        return checkFits(writeLong(i, dst, offset, available(dst.length, offset)), offset);
+    }
+
+    static int writeDouble(double v, char[] dst, int offset) {
+        return checkFits(writeDouble(v, dst, offset, available(dst.length, offset)), offset);
+    }
+
+    static int writeDouble(double v, byte[] dst, int offset) {
+        return checkFits(writeDouble(v, dst, offset, available(dst.length, offset)), offset);
+    }
+
+    private static int available(int length, int offset) {
+        if (offset < 0 || offset > length) {
+            throw new ArrayIndexOutOfBoundsException(offset);
+        }
+        return length - offset;
+    }
+
+    private static int checkFits(int n, int offset) {
+        if (n < 0) {
+            throw new ArrayIndexOutOfBoundsException(offset);
+        }
+        return n;
+    }
+
+    /*
+     * Buffer entry points: heap buffers are written through their array,
+     * and the position is advanced past the characters written.
+     */
+
+    static int writeLong(long i, CharBuffer dst) {
+        int pos = dst.position();
+        int n = dst.hasArray()
+            ? writeLong(i, dst.array(), dst.arrayOffset() + pos, dst.remaining())
+            : writeLong(i, dst, pos, dst.remaining());
+        return advance(dst, pos, n);
+    }
+
+    static int writeLong(long i, ByteBuffer dst) {
+        int pos = dst.position();
+        int n = dst.hasArray()
+            ? writeLong(i, dst.array(), dst.arrayOffset() + pos, dst.remaining())
+            : writeLong(i, dst, pos, dst.remaining());
+        return advance(dst, pos, n);
+    }
+
+    static int writeDouble(double v, CharBuffer dst) {
+        int pos = dst.position();
+        int n = dst.hasArray()
+            ? writeDouble(v, dst.array(), dst.arrayOffset() + pos, dst.remaining())
+            : writeDouble(v, dst, pos, dst.remaining());
+        return advance(dst, pos, n);
+    }
+
+    static int writeDouble(double v, ByteBuffer dst) {
+        int pos = dst.position();
+        int n = dst.hasArray()
+            ? writeDouble(v, dst.array(), dst.arrayOffset() + pos, dst.remaining())
+            : writeDouble(v, dst, pos, dst.remaining());
+        return advance(dst, pos, n);
+    }
+
+    private static int advance(java.nio.Buffer dst, int pos, int n) {
+        if (n < 0) {
+            throw new BufferOverflowException();
+        }
+        dst.position(pos + n);
+        return n;
+    }
+}
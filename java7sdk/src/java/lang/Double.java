@@ -36,6 +36,9 @@
 
 package java.lang;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
 import sun.misc.FloatingDecimal;
 import sun.misc.FpUtils;
 import sun.misc.DoubleConsts;
@@ -207,6 +210,83 @@ public final class Double extends Number implements Comparable<Double> {
         return new FloatingDecimal(d).toJavaFormatString();
     }
 
+    /**
+     * Writes the decimal representation of the specified {@code double}
+     * into a character array, starting at {@code offset}, without
+     * allocating. The layout is that of {@link #toString(double)}, but the
+     * digits are always the shortest that {@link #parseDouble(String)} reads
+     * back as the same value, so for some values fewer digits are written
+     * than {@code toString} produces.
+     *
+     * @param   d        the {@code double} to be converted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first character to write.
+     * @return  the number of characters written.
+     * @throws  IndexOutOfBoundsException if {@code offset} is negative or
+     *          the representation does not fit between {@code offset} and
+     *          the end of {@code dst}; nothing is written in that case.
+     * @since   1.7
+     */
+    public static int toChars(double d, char[] dst, int offset) {
+        return DecimalWriter.writeDouble(d, dst, offset);
+    }
+
+    /**
+     * Writes the decimal representation of the specified {@code double}
+     * as ASCII bytes into a byte array, starting at {@code offset}.
+     *
+     * @param   d        the {@code double} to be converted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first byte to write.
+     * @return  the number of bytes written.
+     * @throws  IndexOutOfBoundsException if {@code offset} is negative or
+     *          the representation does not fit between {@code offset} and
+     *          the end of {@code dst}; nothing is written in that case.
+     * @see     #toChars(double, char[], int)
+     * @since   1.7
+     */
+    public static int toBytes(double d, byte[] dst, int offset) {
+        return DecimalWriter.writeDouble(d, dst, offset);
+    }
+
+    /**
+     * Writes the decimal representation of the specified {@code double}
+     * into a character buffer at its current position, and advances the
+     * position past the characters written.
+     *
+     * @param   d        the {@code double} to be converted.
+     * @param   dst      the destination buffer.
+     * @return  the number of characters written.
+     * @throws  java.nio.BufferOverflowException if the representation does
+     *          not fit in the remaining space of {@code dst}; nothing is
+     *          written in that case.
+     * @throws  java.nio.ReadOnlyBufferException if {@code dst} is read-only.
+     * @see     #toChars(double, char[], int)
+     * @since   1.7
+     */
+    public static int toChars(double d, CharBuffer dst) {
+        return DecimalWriter.writeDouble(d, dst);
+    }
+
+    /**
+     * Writes the decimal representation of the specified {@code double}
+     * as ASCII bytes into a byte buffer at its current position, and
+     * advances the position past the bytes written.
+     *
+     * @param   d        the {@code double} to be converted.
+     * @param   dst      the destination buffer.
+     * @return  the number of bytes written.
+     * @throws  java.nio.BufferOverflowException if the representation does
+     *          not fit in the remaining space of {@code dst}; nothing is
+     *          written in that case.
+     * @throws  java.nio.ReadOnlyBufferException if {@code dst} is read-only.
+     * @see     #toChars(double, char[], int)
+     * @since   1.7
+     */
+    public static int toBytes(double d, ByteBuffer dst) {
+        return DecimalWriter.writeDouble(d, dst);
+    }
+
     /**
      * Returns a hexadecimal string representation of the
      * {@code double} argument. All characters mentioned below
@@ -512,7 +592,7 @@ public final class Double extends Number implements Comparable<Double> {
      *             parsable number.
      */
     public static Double valueOf(String s) throws NumberFormatException {
-        return new Double(FloatingDecimal.readJavaFormatString(s).doubleValue());
+        return new Double(DecimalReader.parseDouble(s, 0, s.length()));
     }
 
     /**
@@ -548,7 +628,52 @@ public final class Double extends Number implements Comparable<Double> {
      * @since 1.2
      */
     public static double parseDouble(String s) throws NumberFormatException {
-        return FloatingDecimal.readJavaFormatString(s).doubleValue();
+        return DecimalReader.parseDouble(s, 0, s.length());
+    }
+
+    /**
+     * Parses the characters of {@code s} from {@code beginIndex} to
+     * {@code endIndex - 1} as a {@code double}, accepting the same
+     * strings as {@link #valueOf(String)}, without creating a substring.
+     *
+     * @param  s            the {@code CharSequence} to be parsed.
+     * @param  beginIndex   the index of the first character to parse.
+     * @param  endIndex     the index after the last character to parse.
+     * @return the {@code double} value represented by the range.
+     * @throws NullPointerException  if {@code s} is null
+     * @throws IndexOutOfBoundsException  if {@code beginIndex} is negative,
+     *         or greater than {@code endIndex}, or if {@code endIndex} is
+     *         greater than {@code s.length()}
+     * @throws NumberFormatException if the range does not contain
+     *         a parsable {@code double}.
+     * @since 1.7
+     */
+    public static double parseDouble(CharSequence s, int beginIndex, int endIndex)
+            throws NumberFormatException {
+        return DecimalReader.parseDouble(s, beginIndex, endIndex);
+    }
+
+    /**
+     * Parses the ASCII bytes of {@code ascii} from {@code beginIndex} to
+     * {@code endIndex - 1} as a {@code double}, accepting the same
+     * strings as {@link #valueOf(String)}.
+     *
+     * @param  ascii        the bytes to be parsed.
+     * @param  beginIndex   the index of the first byte to parse.
+     * @param  endIndex     the index after the last byte to parse.
+     * @return the {@code double} value represented by the range.
+     * @throws NullPointerException  if {@code ascii} is null
+     * @throws IndexOutOfBoundsException  if {@code beginIndex} is negative,
+     *         or greater than {@code endIndex}, or if {@code endIndex} is
+     *         greater than {@code ascii.length}
+     * @throws NumberFormatException if the range does not contain
+     *         a parsable {@code double}.
+     * @see    #parseDouble(CharSequence, int, int)
+     * @since 1.7
+     */
+    public static double parseDouble(byte[] ascii, int beginIndex, int endIndex)
+            throws NumberFormatException {
+        return DecimalReader.parseDouble(ascii, beginIndex, endIndex);
     }
 
     /**
@@ -36,6 +36,8 @@
 
 package java.lang;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.util.Properties;
 
 /**
@@ -344,6 +346,81 @@ public final class Integer extends Number implements Comparable<Integer> {
         return new String(0, size, buf);
     }
 
+    /**
+     * Writes the decimal representation of the specified {@code int}
+     * into a character array, starting at {@code offset}. The characters
+     * written are the same as those of {@link #toString(int)}, but no
+     * {@code String} or intermediate buffer is allocated.
+     *
+     * @param   i        the {@code int} to be converted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first character to write.
+     * @return  the number of characters written.
+     * @throws  IndexOutOfBoundsException if {@code offset} is negative or
+     *          the representation does not fit between {@code offset} and
+     *          the end of {@code dst}; nothing is written in that case.
+     * @since   1.7
+     */
+    public static int toChars(int i, char[] dst, int offset) {
+        return DecimalWriter.writeLong(i, dst, offset);
+    }
+
+    /**
+     * Writes the decimal representation of the specified {@code int}
+     * as ASCII bytes into a byte array, starting at {@code offset}.
+     *
+     * @param   i        the {@code int} to be converted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first byte to write.
+     * @return  the number of bytes written.
+     * @throws  IndexOutOfBoundsException if {@code offset} is negative or
+     *          the representation does not fit between {@code offset} and
+     *          the end of {@code dst}; nothing is written in that case.
+     * @see     #toChars(int, char[], int)
+     * @since   1.7
+     */
+    public static int toBytes(int i, byte[] dst, int offset) {
+        return DecimalWriter.writeLong(i, dst, offset);
+    }
+
+    /**
+     * Writes the decimal representation of the specified {@code int}
+     * into a character buffer at its current position, and advances the
+     * position past the characters written.
+     *
+     * @param   i        the {@code int} to be converted.
+     * @param   dst      the destination buffer.
+     * @return  the number of characters written.
+     * @throws  java.nio.BufferOverflowException if the representation does
+     *          not fit in the remaining space of {@code dst}; nothing is
+     *          written in that case.
+     * @throws  java.nio.ReadOnlyBufferException if {@code dst} is read-only.
+     * @see     #toChars(int, char[], int)
+     * @since   1.7
+     */
+    public static int toChars(int i, CharBuffer dst) {
+        return DecimalWriter.writeLong(i, dst);
+    }
+
+    /**
+     * Writes the decimal representation of the specified {@code int}
+     * as ASCII bytes into a byte buffer at its current position, and
+     * advances the position past the bytes written.
+     *
+     * @param   i        the {@code int} to be converted.
+     * @param   dst      the destination buffer.
+     * @return  the number of bytes written.
+     * @throws  java.nio.BufferOverflowException if the representation does
+     *          not fit in the remaining space of {@code dst}; nothing is
+     *          written in that case.
+     * @throws  java.nio.ReadOnlyBufferException if {@code dst} is read-only.
+     * @see     #toChars(int, char[], int)
+     * @since   1.7
+     */
+    public static int toBytes(int i, ByteBuffer dst) {
+        return DecimalWriter.writeLong(i, dst);
+    }
+
     /**
      * Places characters representing the integer i into the
      * character array buf. The characters are placed into
@@ -538,6 +615,59 @@ public final class Integer extends Number implements Comparable<Integer> {
         return parseInt(s,10);
     }
 
+    /**
+     * Parses the characters of {@code s} from {@code beginIndex} to
+     * {@code endIndex - 1} as a signed {@code int} in the specified radix,
+     * following the rules of {@link #parseInt(String, int)}, without
+     * creating a substring.
+     *
+     * @param      s            the {@code CharSequence} containing the
+     *                          {@code int} representation to be parsed
+     * @param      beginIndex   the index of the first character to parse.
+     * @param      endIndex     the index after the last character to parse.
+     * @param      radix        the radix to be used while parsing.
+     * @return     the {@code int} represented by the range in the
+     *             specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or greater than {@code endIndex}, or if
+     *             {@code endIndex} is greater than {@code s.length()}.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code int} in the specified radix.
+     * @since      1.7
+     */
+    public static int parseInt(CharSequence s, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        return (int) DecimalReader.parseLong(s, beginIndex, endIndex, radix, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Parses the ASCII bytes of {@code ascii} from {@code beginIndex} to
+     * {@code endIndex - 1} as a signed {@code int} in the specified radix,
+     * following the rules of {@link #parseInt(String, int)}. This avoids
+     * decoding text read from a byte stream into a {@code String}.
+     *
+     * @param      ascii        the bytes containing the {@code int}
+     *                          representation to be parsed
+     * @param      beginIndex   the index of the first byte to parse.
+     * @param      endIndex     the index after the last byte to parse.
+     * @param      radix        the radix to be used while parsing.
+     * @return     the {@code int} represented by the range in the
+     *             specified radix.
+     * @throws     NullPointerException  if {@code ascii} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or greater than {@code endIndex}, or if
+     *             {@code endIndex} is greater than {@code ascii.length}.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code int} in the specified radix.
+     * @see        #parseInt(CharSequence, int, int, int)
+     * @since      1.7
+     */
+    public static int parseInt(byte[] ascii, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        return (int) DecimalReader.parseLong(ascii, beginIndex, endIndex, radix, Integer.MIN_VALUE);
+    }
+
     /**
      * Returns an {@code Integer} object holding the value
      * extracted from the specified {@code String} when parsed
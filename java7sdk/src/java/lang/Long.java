@@ -36,6 +36,9 @@
 
 package java.lang;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
 /**
  * The {@code Long} class wraps a value of the primitive type {@code
  * long} in an object. An object of type {@code Long} contains a
@@ -280,6 +283,81 @@ public final class Long extends Number implements Comparable<Long> {
         return new String(0, size, buf);
     }
 
+    /**
+     * Writes the decimal representation of the specified {@code long}
+     * into a character array, starting at {@code offset}. The characters
+     * written are the same as those of {@link #toString(long)}, but no
+     * {@code String} or intermediate buffer is allocated.
+     *
+     * @param   i        the {@code long} to be converted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first character to write.
+     * @return  the number of characters written.
+     * @throws  IndexOutOfBoundsException if {@code offset} is negative or
+     *          the representation does not fit between {@code offset} and
+     *          the end of {@code dst}; nothing is written in that case.
+     * @since   1.7
+     */
+    public static int toChars(long i, char[] dst, int offset) {
+        return DecimalWriter.writeLong(i, dst, offset);
+    }
+
+    /**
+     * Writes the decimal representation of the specified {@code long}
+     * as ASCII bytes into a byte array, starting at {@code offset}.
+     *
+     * @param   i        the {@code long} to be converted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first byte to write.
+     * @return  the number of bytes written.
+     * @throws  IndexOutOfBoundsException if {@code offset} is negative or
+     *          the representation does not fit between {@code offset} and
+     *          the end of {@code dst}; nothing is written in that case.
+     * @see     #toChars(long, char[], int)
+     * @since   1.7
+     */
+    public static int toBytes(long i, byte[] dst, int offset) {
+        return DecimalWriter.writeLong(i, dst, offset);
+    }
+
+    /**
+     * Writes the decimal representation of the specified {@code long}
+     * into a character buffer at its current position, and advances the
+     * position past the characters written.
+     *
+     * @param   i        the {@code long} to be converted.
+     * @param   dst      the destination buffer.
+     * @return  the number of characters written.
+     * @throws  java.nio.BufferOverflowException if the representation does
+     *          not fit in the remaining space of {@code dst}; nothing is
+     *          written in that case.
+     * @throws  java.nio.ReadOnlyBufferException if {@code dst} is read-only.
+     * @see     #toChars(long, char[], int)
+     * @since   1.7
+     */
+    public static int toChars(long i, CharBuffer dst) {
+        return DecimalWriter.writeLong(i, dst);
+    }
+
+    /**
+     * Writes the decimal representation of the specified {@code long}
+     * as ASCII bytes into a byte buffer at its current position, and
+     * advances the position past the bytes written.
+     *
+     * @param   i        the {@code long} to be converted.
+     * @param   dst      the destination buffer.
+     * @return  the number of bytes written.
+     * @throws  java.nio.BufferOverflowException if the representation does
+     *          not fit in the remaining space of {@code dst}; nothing is
+     *          written in that case.
+     * @throws  java.nio.ReadOnlyBufferException if {@code dst} is read-only.
+     * @see     #toChars(long, char[], int)
+     * @since   1.7
+     */
+    public static int toBytes(long i, ByteBuffer dst) {
+        return DecimalWriter.writeLong(i, dst);
+    }
+
     /**
      * Places characters representing the integer i into the
      * character array buf. The characters are placed into
@@ -494,6 +572,59 @@ public final class Long extends Number implements Comparable<Long> {
         return parseLong(s, 10);
     }
 
+    /**
+     * Parses the characters of {@code s} from {@code beginIndex} to
+     * {@code endIndex - 1} as a signed {@code long} in the specified radix,
+     * following the rules of {@link #parseLong(String, int)}, without
+     * creating a substring.
+     *
+     * @param      s            the {@code CharSequence} containing the
+     *                          {@code long} representation to be parsed
+     * @param      beginIndex   the index of the first character to parse.
+     * @param      endIndex     the index after the last character to parse.
+     * @param      radix        the radix to be used while parsing.
+     * @return     the {@code long} represented by the range in the
+     *             specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or greater than {@code endIndex}, or if
+     *             {@code endIndex} is greater than {@code s.length()}.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code long} in the specified radix.
+     * @since      1.7
+     */
+    public static long parseLong(CharSequence s, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        return DecimalReader.parseLong(s, beginIndex, endIndex, radix, Long.MIN_VALUE);
+    }
+
+    /**
+     * Parses the ASCII bytes of {@code ascii} from {@code beginIndex} to
+     * {@code endIndex - 1} as a signed {@code long} in the specified radix,
+     * following the rules of {@link #parseLong(String, int)}. This avoids
+     * decoding text read from a byte stream into a {@code String}.
+     *
+     * @param      ascii        the bytes containing the {@code long}
+     *                          representation to be parsed
+     * @param      beginIndex   the index of the first byte to parse.
+     * @param      endIndex     the index after the last byte to parse.
+     * @param      radix        the radix to be used while parsing.
+     * @return     the {@code long} represented by the range in the
+     *             specified radix.
+     * @throws     NullPointerException  if {@code ascii} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or greater than {@code endIndex}, or if
+     *             {@code endIndex} is greater than {@code ascii.length}.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code long} in the specified radix.
+     * @see        #parseLong(CharSequence, int, int, int)
+     * @since      1.7
+     */
+    public static long parseLong(byte[] ascii, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        return DecimalReader.parseLong(ascii, beginIndex, endIndex, radix, Long.MIN_VALUE);
+    }
+
     /**
      * Returns a {@code Long} object holding the value
      * extracted from the specified {@code String} when parsed
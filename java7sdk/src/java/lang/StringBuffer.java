@@ -164,8 +164,18 @@ public StringBuffer append (float value) {
  * @param		value	the integer
  * @return		this StringBuffer
  */
-public StringBuffer append (int value) {
-	return append(Integer.toString(value));
+public synchronized StringBuffer append (int value) {
+	if (value == Integer.MIN_VALUE) {
+		return append("-2147483648");
+	}
+	int newSize = count + ((value < 0) ? Integer.stringSize(-value) + 1 : Integer.stringSize(value));
+	if (newSize > this.value.length) {
+		ensureCapacityImpl(newSize);
+	}
+	// digits are written backwards, ending at newSize
+	Integer.getChars(value, newSize, this.value);
+	count = newSize;
+	return this;
 }
 
 /**
@@ -175,8 +185,17 @@ public StringBuffer append (int value) {
  * @param		value	the long
  * @return		this StringBuffer
  */
-public StringBuffer append (long value) {
-	return append(Long.toString(value));
+public synchronized StringBuffer append (long value) {
+	if (value == Long.MIN_VALUE) {
+		return append("-9223372036854775808");
+	}
+	int newSize = count + ((value < 0) ? Long.stringSize(-value) + 1 : Long.stringSize(value));
+	if (newSize > this.value.length) {
+		ensureCapacityImpl(newSize);
+	}
+	Long.getChars(value, newSize, this.value);
+	count = newSize;
+	return this;
 }
 
 /**
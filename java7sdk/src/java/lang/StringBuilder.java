@@ -169,7 +169,17 @@ public StringBuilder append (float value) {
  * @return		this StringBuilder
  */
 public StringBuilder append (int value) {
-	return append(Integer.toString(value));
+	if (value == Integer.MIN_VALUE) {
+		return append("-2147483648");
+	}
+	int newSize = count + ((value < 0) ? Integer.stringSize(-value) + 1 : Integer.stringSize(value));
+	if (newSize > this.value.length) {
+		ensureCapacityImpl(newSize);
+	}
+	// digits are written backwards, ending at newSize
+	Integer.getChars(value, newSize, this.value);
+	count = newSize;
+	return this;
 }
 
 /**
@@ -180,7 +190,16 @@ public StringBuilder append (int value) {
  * @return		this StringBuilder
  */
 public StringBuilder append (long value) {
-	return append(Long.toString(value));
+	if (value == Long.MIN_VALUE) {
+		return append("-9223372036854775808");
+	}
+	int newSize = count + ((value < 0) ? Long.stringSize(-value) + 1 : Long.stringSize(value));
+	if (newSize > this.value.length) {
+		ensureCapacityImpl(newSize);
+	}
+	Long.getChars(value, newSize, this.value);
+	count = newSize;
+	return this;
 }
 
 /**
@@ -486,16 +486,103 @@ class StringCoding {
         if (ix>=0)                                                              //IBM-io_converter
             name = name.substring(ix+2);                                        //IBM-io_converter
         Converters.setDefaultEncodingName(name);                                //IBM-io_converter
+        defaultFastPath = -1;
         MessageUtils.err("[ Warning: The encoding '" + csn +                    //IBM-io_converter
                          "' is not supported; using '" + name + "' instead. ]"); //IBM-io_converter
     }
 
 
+    /*
+     * Charsets that agree with ISO-8859-1 over some byte range can be decoded
+     * and encoded by copying, without looking up a converter at all.  UTF-8
+     * and US-ASCII only take the fast path when every byte or char is ASCII.
+     */
+    private static final int FAST_NONE   = 0;
+    private static final int FAST_LATIN1 = 1;
+    private static final int FAST_ASCII  = 2;
+
+    /* Fast path kind of the default encoding, -1 until first computed */
+    private static int defaultFastPath = -1;
+
+    /*
+     * Answer the fast path kind for the given charset name, where "\ufffc"
+     * stands for the default encoding
+     */
+    private static int fastPathFor(String csn) {
+        if (csn.equals("\ufffc")) {
+            int kind = defaultFastPath;
+            if (kind < 0) {
+                String name = Converters.getDefaultEncodingName();
+                kind = (name == null) ? FAST_NONE : fastPathFor(name);
+                defaultFastPath = kind;
+            }
+            return kind;
+        }
+        if (csn.equalsIgnoreCase("UTF-8") || csn.equalsIgnoreCase("UTF8")
+            || csn.equalsIgnoreCase("US-ASCII") || csn.equalsIgnoreCase("ASCII"))
+            return FAST_ASCII;
+        if (csn.equalsIgnoreCase("ISO-8859-1") || csn.equalsIgnoreCase("ISO8859_1")
+            || csn.equalsIgnoreCase("8859_1") || csn.equalsIgnoreCase("latin1"))
+            return FAST_LATIN1;
+        return FAST_NONE;
+    }
+
+    /*
+     * Answer the fast path kind for a Charset object.  Only the platform
+     * charsets are trusted to behave as their name says.
+     */
+    private static int fastPathFor(Charset cs) {
+        int kind = fastPathFor(cs.name());
+        if (kind != FAST_NONE && cs.getClass().getClassLoader0() != null)
+            return FAST_NONE;
+        return kind;
+    }
+
+    /*
+     * Decode by copying, or answer null if the slow path is required
+     */
+    private static char[] decodeFast(int kind, byte[] ba, int off, int len) {
+        if (kind == FAST_NONE)
+            return null;
+        int end = off + len;
+        if (kind == FAST_ASCII) {
+            for (int i = off; i < end; i++) {
+                if (ba[i] < 0)
+                    return null;
+            }
+        }
+        char[] ca = new char[len];
+        for (int i = 0; i < len; i++)
+            ca[i] = (char)(ba[off + i] & 0xff);
+        return ca;
+    }
+
+    /*
+     * Encode by copying, or answer null if the slow path is required
+     */
+    private static byte[] encodeFast(int kind, char[] ca, int off, int len) {
+        if (kind == FAST_NONE)
+            return null;
+        int limit = (kind == FAST_LATIN1) ? 0xff : 0x7f;
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            if (ca[i] > limit)
+                return null;
+        }
+        byte[] ba = new byte[len];
+        for (int i = 0; i < len; i++)
+            ba[i] = (byte)ca[off + i];
+        return ba;
+    }
+
     /*                                                                          //IBM-io_converter
      * Decode from a named charset                                              //IBM-io_converter
      */                                                                         //IBM-io_converter
     static char[] decode(String charsetName, byte[] ba, int off, int len)       //IBM-io_converter
         throws UnsupportedEncodingException {                                   //IBM-io_converter
+        char[] fast = decodeFast(fastPathFor(charsetName), ba, off, len);
+        if (fast != null)
+            return fast;
         Object obj = getDecoder(charsetName);                                   //IBM-io_converter
 
         /*                                                                      //IBM-io_converter
@@ -586,6 +673,9 @@ class StringCoding {
      */                                                                         //IBM-io_converter
     static byte[] encode(String charsetName, char[] ca, int off, int len)       //IBM-io_converter
         throws UnsupportedEncodingException {                                   //IBM-io_converter
+        byte[] fast = encodeFast(fastPathFor(charsetName), ca, off, len);
+        if (fast != null)
+            return fast;
         Object obj = getEncoder(charsetName);                                   //IBM-io_converter
                                                                                 //IBM-io_converter
         /*                                                                      //IBM-io_converter
@@ -790,6 +880,9 @@ class StringCoding {
         // check (... && (isTrusted || SM == null || getClassLoader0())) in trim
         // but it then can be argued that the SM is null when the opertaion
         // is started...
+        char[] fast = decodeFast(fastPathFor(cs), ba, off, len);
+        if (fast != null)
+            return fast;
         CharsetDecoder cd = cs.newDecoder();
         int en = scale(len, cd.maxCharsPerByte());
         char[] ca = new char[en];
@@ -879,6 +972,9 @@ class StringCoding {
     }
 
     static byte[] encode(Charset cs, char[] ca, int off, int len) {             //IBM-io_converter
+        byte[] fast = encodeFast(fastPathFor(cs), ca, off, len);
+        if (fast != null)
+            return fast;
         CharsetEncoder ce = cs.newEncoder();
         int en = scale(len, ce.maxBytesPerChar());
         byte[] ba = new byte[en];
@@ -0,0 +1,367 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+package java.lang.invoke;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.sun.xml.internal.ws.org.objectweb.asm.ClassWriter;
+import com.sun.xml.internal.ws.org.objectweb.asm.Label;
+import com.sun.xml.internal.ws.org.objectweb.asm.MethodVisitor;
+import com.sun.xml.internal.ws.org.objectweb.asm.Opcodes;
+import com.sun.xml.internal.ws.org.objectweb.asm.Type;
+
+import static java.lang.invoke.MethodHandleStatics.UNSAFE;
+
+/**
+ * Converts method handles into instances of single-method interfaces.
+ * <p>
+ * Unlike a {@link java.lang.reflect.Proxy}, an instance created here is of
+ * a class generated for the interface, whose methods call the method handle
+ * with {@code invokeExact} on their own arguments: nothing is boxed, no
+ * argument array is allocated and no {@code InvocationHandler} is
+ * consulted. The classes are cached per interface and per type of the
+ * captured values, so each interface normally has a single implementation
+ * class, shared by all the handles it wraps.
+ * <p>
+ * {@link #metafactory(MethodHandles.Lookup, String, MethodType, MethodHandle)}
+ * is an {@code invokedynamic} bootstrap method. Frameworks may call
+ * {@link #instanceFactory(MethodType, MethodHandle)} directly.
+ * {@link MethodHandleProxies#asInterfaceInstance(Class, MethodHandle)} uses
+ * the same classes.
+ *
+ * @since 1.7
+ */
+public final class InterfaceMetafactory implements Opcodes {
+
+	private static final String MH = "java/lang/invoke/MethodHandle"; //$NON-NLS-1$
+	private static final String MH_SIG = "Ljava/lang/invoke/MethodHandle;"; //$NON-NLS-1$
+	private static final String OBJ = "java/lang/Object"; //$NON-NLS-1$
+
+	/* Shared by all the types that are not single-method interfaces; always empty */
+	private static final ConcurrentMap<MethodType, Factory> NOT_SINGLE_METHOD = new ConcurrentHashMap<MethodType, Factory>(1);
+
+	/* Generated classes of each interface, keyed by the erased types of the captured values */
+	private static final ClassValue<ConcurrentMap<MethodType, Factory>> factories = new ClassValue<ConcurrentMap<MethodType, Factory>>() {
+		protected ConcurrentMap<MethodType, Factory> computeValue(Class<?> type) {
+			if (!type.isInterface() || MethodHandleProxies.getSingleNameMethods(type) == null) {
+				return NOT_SINGLE_METHOD;
+			}
+			return new ConcurrentHashMap<MethodType, Factory>();
+		}
+	};
+
+	private InterfaceMetafactory() {
+	}
+
+	/* A generated class and how to create and inspect its instances */
+	static final class Factory {
+		final Class<?> intfc;
+		final Method[] methods;
+		final Class<?> implClass;
+		/* (MethodHandle target, MethodHandle[] handles, captured...)Object */
+		final MethodHandle constructor;
+		/* (Object)MethodHandle */
+		final MethodHandle targetGetter;
+
+		Factory(Class<?> intfc, Method[] methods, Class<?> implClass, MethodHandle constructor, MethodHandle targetGetter) {
+			this.intfc = intfc;
+			this.methods = methods;
+			this.implClass = implClass;
+			this.constructor = constructor;
+			this.targetGetter = targetGetter;
+		}
+
+		/*
+		 * Answers the handles called by the methods of an instance wrapping
+		 * target, each taking the captured values followed by the parameters
+		 * of its method.
+		 */
+		MethodHandle[] handles(MethodHandle target, MethodType captured) {
+			MethodHandle[] handles = new MethodHandle[methods.length];
+			for (int i = 0; i < methods.length; i++) {
+				Method m = methods[i];
+				MethodType type = MethodType.methodType(m.getReturnType(), m.getParameterTypes());
+				handles[i] = target.asType(type.insertParameterTypes(0, captured.parameterArray()));
+			}
+			return handles;
+		}
+	}
+
+	/**
+	 * Bootstraps an {@code invokedynamic} call site whose invocation answers
+	 * an instance of the interface returned by {@code invokedType}. The
+	 * arguments of the call site are captured: each call of the interface
+	 * method invokes {@code target} with the captured values followed by
+	 * the arguments of the call.
+	 *
+	 * @param caller the lookup of the class containing the call site, which
+	 *        must have access to the interface
+	 * @param name the name of the method of the interface
+	 * @param invokedType the type of the call site, returning the interface
+	 * @param target the method handle called by the method of the interface
+	 * @return a constant call site creating the instances
+	 * @throws IllegalAccessException if {@code caller} cannot access the
+	 *         interface
+	 * @throws IllegalArgumentException if the return type of
+	 *         {@code invokedType} is not a single-method interface whose
+	 *         method is called {@code name}
+	 * @throws WrongMethodTypeException if {@code target} cannot be converted
+	 *         to the type of the method of the interface
+	 */
+	public static CallSite metafactory(MethodHandles.Lookup caller, String name, MethodType invokedType, MethodHandle target) throws IllegalAccessException {
+		Class<?> intfc = invokedType.returnType();
+		if (!Modifier.isPublic(intfc.getModifiers())
+				&& (((caller.lookupModes() & MethodHandles.Lookup.PACKAGE) == 0) || !MethodHandles.Lookup.isSamePackage(intfc, caller.lookupClass()))) {
+			throw new IllegalAccessException(intfc + " is not accessible from " + caller); //$NON-NLS-1$
+		}
+		MethodHandle factory = instanceFactory(invokedType, target);
+		String methodName = getFactory(intfc, invokedType.changeReturnType(void.class).erase()).methods[0].getName();
+		if (!methodName.equals(name)) {
+			throw new IllegalArgumentException("method of " + intfc.getName() + " is not called " + name); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return new ConstantCallSite(factory);
+	}
+
+	/**
+	 * Answers a method handle of type {@code invokedType} that creates
+	 * instances of the interface returned by {@code invokedType}. Its
+	 * arguments are captured by the instance: each call of the interface
+	 * method invokes {@code target} with the captured values followed by
+	 * the arguments of the call, as if by {@code invoke}.
+	 * <p>
+	 * If the interface method has several declarations, as with bridge
+	 * methods, {@code target} is converted to each of their types. Checked
+	 * exceptions thrown by {@code target} and not declared by the interface
+	 * method are wrapped in an {@link UndeclaredThrowableException}.
+	 *
+	 * @param invokedType the types of the captured values, returning the
+	 *        interface
+	 * @param target the method handle called by the method of the interface
+	 * @return a method handle creating the instances
+	 * @throws IllegalArgumentException if the return type of
+	 *         {@code invokedType} is not a single-method interface
+	 * @throws WrongMethodTypeException if {@code target} cannot be converted
+	 *         to the type of the method of the interface
+	 * @throws NullPointerException if either argument is null
+	 */
+	public static MethodHandle instanceFactory(MethodType invokedType, MethodHandle target) {
+		Class<?> intfc = invokedType.returnType();
+		MethodType captured = invokedType.changeReturnType(void.class).erase();
+		Factory factory = getFactory(intfc, captured);
+		MethodHandle[] handles = factory.handles(target, captured);
+		return MethodHandles.insertArguments(factory.constructor, 0, target, handles).asType(invokedType);
+	}
+
+	/*
+	 * Answers an instance of the interface calling mh, which captures no
+	 * values. The instance reports target as the handle it wraps.
+	 */
+	static Object newInstance(Class<?> intfc, MethodHandle target, MethodHandle mh) {
+		MethodType captured = MethodType.methodType(void.class);
+		Factory factory = getFactory(intfc, captured);
+		MethodHandle[] handles = factory.handles(mh, captured);
+		try {
+			return (Object)factory.constructor.invokeExact(target, handles);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new InternalError(e.toString());
+		}
+	}
+
+	/*
+	 * Answers the factory of the instance, or null if it was not created by
+	 * this class.
+	 */
+	static Factory factoryOf(Object x) {
+		if (x != null) {
+			Class<?> c = x.getClass();
+			Class<?>[] interfaces = c.getInterfaces();
+			if (interfaces.length == 1) {
+				for (Factory factory : factories.get(interfaces[0]).values()) {
+					if (factory.implClass == c) {
+						return factory;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * Answers the handle wrapped by an instance created by this class.
+	 */
+	static MethodHandle targetOf(Factory factory, Object x) {
+		try {
+			return (MethodHandle)factory.targetGetter.invokeExact(x);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new InternalError(e.toString());
+		}
+	}
+
+	private static Factory getFactory(Class<?> intfc, MethodType captured) {
+		ConcurrentMap<MethodType, Factory> map = factories.get(intfc);
+		Factory factory = map.get(captured);
+		if (factory == null) {
+			if (!intfc.isInterface()) {
+				throw new IllegalArgumentException("not an interface: " + intfc.getName()); //$NON-NLS-1$
+			}
+			Method[] methods = (map == NOT_SINGLE_METHOD) ? null : MethodHandleProxies.getSingleNameMethods(intfc);
+			if (methods == null) {
+				throw new IllegalArgumentException("not a single-method interface: " + intfc.getName()); //$NON-NLS-1$
+			}
+			factory = createFactory(intfc, methods, captured);
+			Factory existing = map.putIfAbsent(captured, factory);
+			if (existing != null) {
+				factory = existing;
+			}
+		}
+		return factory;
+	}
+
+	private static Factory createFactory(Class<?> intfc, Method[] methods, MethodType captured) {
+		byte[] bytes = generate(intfc, methods, captured);
+		// hosted by the interface, the class resolves the types of its methods like the interface does
+		Class<?> implClass = UNSAFE.defineAnonymousClass(intfc, bytes, null);
+		try {
+			MethodType constructorType = captured.insertParameterTypes(0, MethodHandle.class, MethodHandle[].class);
+			MethodHandle constructor = new ConstructorHandle(implClass, constructorType);
+			constructor = constructor.asType(constructorType.changeReturnType(Object.class));
+			MethodHandle targetGetter = new FieldGetterHandle(implClass, "target", MethodHandle.class, implClass); //$NON-NLS-1$
+			targetGetter = targetGetter.asType(MethodType.methodType(MethodHandle.class, Object.class));
+			return new Factory(intfc, methods, implClass, constructor, targetGetter);
+		} catch (NoSuchMethodException | NoSuchFieldException | IllegalAccessException e) {
+			throw new InternalError(e.toString());
+		}
+	}
+
+	/*
+	 * final class <intfc>$$Wrapper implements intfc {
+	 *     final MethodHandle target, h0, h1...;
+	 *     final <captured type> c0, c1...;
+	 *     R m(P p...) { return h0.invokeExact(c0, c1..., p...); }
+	 * }
+	 */
+	private static byte[] generate(Class<?> intfc, Method[] methods, MethodType captured) {
+		String className = intfc.getName().replace('.', '/') + "$$Wrapper"; //$NON-NLS-1$
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_6, ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null, OBJ, new String[] { Type.getInternalName(intfc) });
+		cw.visitField(ACC_FINAL, "target", MH_SIG, null, null).visitEnd(); //$NON-NLS-1$
+		for (int i = 0; i < methods.length; i++) {
+			cw.visitField(ACC_FINAL, "h" + i, MH_SIG, null, null).visitEnd(); //$NON-NLS-1$
+		}
+		Class<?>[] capturedTypes = captured.parameterArray();
+		for (int i = 0; i < capturedTypes.length; i++) {
+			cw.visitField(ACC_FINAL, "c" + i, Type.getDescriptor(capturedTypes[i]), null, null).visitEnd(); //$NON-NLS-1$
+		}
+
+		MethodType constructorType = captured.insertParameterTypes(0, MethodHandle.class, MethodHandle[].class);
+		MethodVisitor mv = cw.visitMethod(0, "<init>", constructorType.toMethodDescriptorString(), null, null); //$NON-NLS-1$
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, OBJ, "<init>", "()V"); //$NON-NLS-1$ //$NON-NLS-2$
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, className, "target", MH_SIG); //$NON-NLS-1$
+		for (int i = 0; i < methods.length; i++) {
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitLdcInsn(Integer.valueOf(i));
+			mv.visitInsn(AALOAD);
+			mv.visitFieldInsn(PUTFIELD, className, "h" + i, MH_SIG); //$NON-NLS-1$
+		}
+		int slot = 3;
+		for (int i = 0; i < capturedTypes.length; i++) {
+			Type type = Type.getType(capturedTypes[i]);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(type.getOpcode(ILOAD), slot);
+			mv.visitFieldInsn(PUTFIELD, className, "c" + i, type.getDescriptor()); //$NON-NLS-1$
+			slot += type.getSize();
+		}
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		HashSet<String> generated = new HashSet<String>();
+		for (int i = 0; i < methods.length; i++) {
+			Method m = methods[i];
+			// superinterfaces may declare the same method more than once
+			if (generated.add(m.getName() + Type.getMethodDescriptor(m))) {
+				generateMethod(cw, className, m, "h" + i, capturedTypes); //$NON-NLS-1$
+			}
+		}
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void generateMethod(ClassWriter cw, String className, Method m, String handleField, Class<?>[] capturedTypes) {
+		Class<?>[] exceptionTypes = m.getExceptionTypes();
+		String[] exceptions = new String[exceptionTypes.length];
+		boolean declaresThrowable = false;
+		for (int i = 0; i < exceptionTypes.length; i++) {
+			exceptions[i] = Type.getInternalName(exceptionTypes[i]);
+			declaresThrowable |= exceptionTypes[i] == Throwable.class;
+		}
+		String descriptor = Type.getMethodDescriptor(m);
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_FINAL, m.getName(), descriptor, null, exceptions);
+		mv.visitCode();
+		Label start = new Label();
+		Label end = new Label();
+		Label rethrow = new Label();
+		Label wrap = new Label();
+		if (!declaresThrowable) {
+			mv.visitTryCatchBlock(start, end, rethrow, "java/lang/RuntimeException"); //$NON-NLS-1$
+			mv.visitTryCatchBlock(start, end, rethrow, "java/lang/Error"); //$NON-NLS-1$
+			for (String exception : exceptions) {
+				mv.visitTryCatchBlock(start, end, rethrow, exception);
+			}
+			mv.visitTryCatchBlock(start, end, wrap, "java/lang/Throwable"); //$NON-NLS-1$
+		}
+		mv.visitLabel(start);
+
+		// h.invokeExact(c0, c1..., p...)
+		StringBuilder invokeDescriptor = new StringBuilder("("); //$NON-NLS-1$
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, className, handleField, MH_SIG);
+		for (int i = 0; i < capturedTypes.length; i++) {
+			String capturedDescriptor = Type.getDescriptor(capturedTypes[i]);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, className, "c" + i, capturedDescriptor); //$NON-NLS-1$
+			invokeDescriptor.append(capturedDescriptor);
+		}
+		int slot = 1;
+		for (Type type : Type.getArgumentTypes(m)) {
+			mv.visitVarInsn(type.getOpcode(ILOAD), slot);
+			invokeDescriptor.append(type.getDescriptor());
+			slot += type.getSize();
+		}
+		Type returnType = Type.getReturnType(m);
+		invokeDescriptor.append(')').append(returnType.getDescriptor());
+		mv.visitMethodInsn(INVOKEVIRTUAL, MH, "invokeExact", invokeDescriptor.toString()); //$NON-NLS-1$
+		mv.visitInsn(returnType.getOpcode(IRETURN));
+		mv.visitLabel(end);
+
+		if (!declaresThrowable) {
+			mv.visitLabel(rethrow);
+			mv.visitInsn(ATHROW);
+			mv.visitLabel(wrap);
+			mv.visitVarInsn(ASTORE, slot);
+			mv.visitTypeInsn(NEW, "java/lang/reflect/UndeclaredThrowableException"); //$NON-NLS-1$
+			mv.visitInsn(DUP);
+			mv.visitVarInsn(ALOAD, slot);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/reflect/UndeclaredThrowableException", "<init>", "(Ljava/lang/Throwable;)V"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			mv.visitInsn(ATHROW);
+		}
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+}
@@ -37,9 +37,6 @@
 package java.lang.invoke;
 
 import java.lang.reflect.*;
-import java.security.AccessController;
-import java.security.PrivilegedAction;
-import sun.invoke.WrapperInstance;
 import java.util.ArrayList;
 import sun.reflect.Reflection;
 import sun.reflect.CallerSensitive;
@@ -164,60 +161,8 @@ public class MethodHandleProxies {
         } else {
             mh = target;
         }
-        ClassLoader proxyLoader = intfc.getClassLoader();
-        if (proxyLoader == null) {
-            ClassLoader cl = Thread.currentThread().getContextClassLoader(); // avoid use of BCP
-            proxyLoader = cl != null ? cl : ClassLoader.getSystemClassLoader();
-        }
-        final Method[] methods = getSingleNameMethods(intfc);
-        if (methods == null)
-            throw new IllegalArgumentException("not a single-method interface: "+intfc.getName());
-        final MethodHandle[] vaTargets = new MethodHandle[methods.length];
-        for (int i = 0; i < methods.length; i++) {
-            Method sm = methods[i];
-            MethodType smMT = MethodType.methodType(sm.getReturnType(), sm.getParameterTypes());
-            MethodHandle checkTarget = mh.asType(smMT);  // make throw WMT
-            checkTarget = checkTarget.asType(checkTarget.type().changeReturnType(Object.class));
-            vaTargets[i] = checkTarget.asSpreader(Object[].class, smMT.parameterCount());
-        }
-        final InvocationHandler ih = new InvocationHandler() {
-                private Object getArg(String name) {
-                    if ((Object)name == "getWrapperInstanceTarget")  return target;
-                    if ((Object)name == "getWrapperInstanceType")    return intfc;
-                    throw new AssertionError();
-                }
-                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-                    for (int i = 0; i < methods.length; i++) {
-                        if (method.equals(methods[i]))
-                            return vaTargets[i].invokeExact(args);
-                    }
-                    if (method.getDeclaringClass() == WrapperInstance.class)
-                        return getArg(method.getName());
-                    if (isObjectMethod(method))
-                        return callObjectMethod(proxy, method, args);
-                    throw new InternalError("bad proxy method: "+method);
-                }
-            };
-
-        final Object proxy;
-        if (System.getSecurityManager() != null) {
-            // sun.invoke.WrapperInstance is a restricted interface not accessible
-            // by any non-null class loader.
-            final ClassLoader loader = proxyLoader;
-            proxy = AccessController.doPrivileged(new PrivilegedAction<Object>() {
-                public Object run() {
-                    return Proxy.newProxyInstance(
-                            loader,
-                            new Class<?>[]{ intfc, WrapperInstance.class },
-                            ih);
-                }
-            });
-        } else {
-            proxy = Proxy.newProxyInstance(proxyLoader,
-                                           new Class<?>[]{ intfc, WrapperInstance.class },
-                                           ih);
-        }
-        return intfc.cast(proxy);
+        // a class generated for intfc calls the handle directly, with no Proxy or InvocationHandler
+        return intfc.cast(InterfaceMetafactory.newInstance(intfc, target, mh));
     }
 
       private static MethodHandle maybeBindCaller(MethodHandle target, Class<?> hostClass) {
@@ -239,16 +184,14 @@ public class MethodHandleProxies {
      */
     public static
     boolean isWrapperInstance(Object x) {
-        return x instanceof WrapperInstance;
+        return InterfaceMetafactory.factoryOf(x) != null;
     }
 
-    private static WrapperInstance asWrapperInstance(Object x) {
-        try {
-            if (x != null)
-                return (WrapperInstance) x;
-        } catch (ClassCastException ex) {
-        }
-        throw new IllegalArgumentException("not a wrapper instance");
+    private static InterfaceMetafactory.Factory asWrapperInstance(Object x) {
+        InterfaceMetafactory.Factory factory = InterfaceMetafactory.factoryOf(x);
+        if (factory == null)
+            throw new IllegalArgumentException("not a wrapper instance");
+        return factory;
     }
 
     /**
@@ -262,7 +205,7 @@ public class MethodHandleProxies {
      */
     public static
     MethodHandle wrapperInstanceTarget(Object x) {
-        return asWrapperInstance(x).getWrapperInstanceTarget();
+        return InterfaceMetafactory.targetOf(asWrapperInstance(x), x);
     }
 
     /**
@@ -275,7 +218,7 @@ public class MethodHandleProxies {
      */
     public static
     Class<?> wrapperInstanceType(Object x) {
-        return asWrapperInstance(x).getWrapperInstanceType();
+        return asWrapperInstance(x).intfc;
     }
 
     private static
@@ -295,21 +238,7 @@ public class MethodHandleProxies {
         return false;
     }
 
-    private static
-    Object callObjectMethod(Object self, Method m, Object[] args) {
-        assert(isObjectMethod(m)) : m;
-        switch (m.getName()) {
-        case "toString":
-            return self.getClass().getName() + "@" + Integer.toHexString(self.hashCode());
-        case "hashCode":
-            return System.identityHashCode(self);
-        case "equals":
-            return (self == args[0]);
-        }
-        return null;
-    }
-
-    private static
+    static
     Method[] getSingleNameMethods(Class<?> intfc) {
         ArrayList<Method> methods = new ArrayList<Method>();
         String uniqueName = null;
@@ -219,7 +219,7 @@ public class MethodHandles {
 		/* Verify two classes share the same package in a way to avoid Class.getPackage()
 		 * and the security checks that go with it.
 		 */
-		private static boolean isSamePackage(Class<?> a, Class<?> b){
+		static boolean isSamePackage(Class<?> a, Class<?> b){
 			// Two of the same class share a package
 			if (a == b){
 				return true;
@@ -1753,8 +1753,16 @@ public class MethodHandles {
 		return buildTransformHandle(new DropHelper(location, valueTypes.size(), originalHandle), mtype);
 	}
 
-	/* A helper method to invoke argument transformation helpers */
+	/* A helper method to invoke argument transformation helpers, compiled once hot when they support it */
 	private static MethodHandle buildTransformHandle(ArgumentHelper helper, MethodType mtype){
+		if ((helper instanceof TransformCompiler.Transform) && (TransformCompiler.THRESHOLD >= 0)) {
+			return TransformCompiler.install((TransformCompiler.Transform)helper, mtype);
+		}
+		return buildInterpretedHandle(helper, mtype);
+	}
+
+	/* Answers a handle calling the helper with the arguments collected into an Object[] */
+	static MethodHandle buildInterpretedHandle(ArgumentHelper helper, MethodType mtype){
 		MethodType helperType = MethodType.methodType(Object.class, Object[].class);
 		try {
 			return lookup().bind(helper, "helper", helperType).asCollector(Object[].class, mtype.parameterCount()).asType(mtype); //$NON-NLS-1$
@@ -1766,7 +1774,7 @@ public class MethodHandles {
 	}
 
 	/* A helper class for use by the dropArguments methods */
-	private static final class DropHelper implements ArgumentHelper {
+	private static final class DropHelper implements TransformCompiler.Transform {
 
 		DropHelper(int pos, int count, MethodHandle mh) {
 			dropPos = pos;
@@ -1788,6 +1796,14 @@ public class MethodHandles {
 			return nextMethodHandle.invokeWithArguments(amendedArray);
 		}
 
+		public int emit(TransformCompiler.Emitter e, int[] args) {
+			int length = args.length - dropCount;
+			int[] amendedArgs = new int[length];
+			System.arraycopy(args, 0, amendedArgs, 0, dropPos);
+			System.arraycopy(args, dropPos + dropCount, amendedArgs, dropPos, length - dropPos);
+			return e.invoke(nextMethodHandle, amendedArgs);
+		}
+
 	}
 
 	static final MethodHandle spreadHelper(Class<?> arrayClass, int spreadCount, MethodHandle handle, MethodType collectType) {
@@ -1970,7 +1986,7 @@ public class MethodHandles {
 	}
 
 	/* A helper class for use by the insertArguments methods */
-	private static final class InsertHelper implements ArgumentHelper {
+	private static final class InsertHelper implements TransformCompiler.Transform {
 
 		InsertHelper(int pos, Object[] values, MethodHandle mh) {
 			this.pos = pos;
@@ -1994,9 +2010,19 @@ public class MethodHandles {
 			}
 			return nextMethodHandle.asFixedArity().invokeWithArguments(amendedArray);
 		}
+
+		public int emit(TransformCompiler.Emitter e, int[] args) {
+			int[] amendedArgs = new int[args.length + values.length];
+			System.arraycopy(args, 0, amendedArgs, 0, pos);
+			for (int i = 0; i < values.length; i++) {
+				amendedArgs[pos + i] = e.constant(values[i], nextMethodHandle.type.arguments[pos + i]);
+			}
+			System.arraycopy(args, pos, amendedArgs, pos + values.length, args.length - pos);
+			return e.invoke(nextMethodHandle.asFixedArity(), amendedArgs);
+		}
 	}
 
-	private static final class GuardWithTestHelper implements ArgumentHelper {
+	private static final class GuardWithTestHelper implements TransformCompiler.Transform {
 		private final MethodHandle guard;
 		private final MethodHandle trueTarget;
 		private final MethodHandle falseTarget;
@@ -2015,9 +2041,13 @@ public class MethodHandles {
 			}
 			return falseTarget.invokeWithArguments(arguments);
 		}
+
+		public int emit(TransformCompiler.Emitter e, int[] args) {
+			return e.guardWithTest(guard, trueTarget, falseTarget, args);
+		}
 	}
 
-	private static final class CatchHelper implements ArgumentHelper {
+	private static final class CatchHelper implements TransformCompiler.Transform {
 		private final MethodHandle tryTarget;
 		private final MethodHandle catchTarget;
 		private final Class<? extends Throwable> exceptionClass;
@@ -2042,9 +2072,13 @@ public class MethodHandles {
 				throw t;
 			}
 		}
+
+		public int emit(TransformCompiler.Emitter e, int[] args) {
+			return e.catchException(tryTarget, exceptionClass, catchTarget, args);
+		}
 	}
 
-	private static final class FilterHelper implements ArgumentHelper {
+	private static final class FilterHelper implements TransformCompiler.Transform {
 		private final MethodHandle target;
 		private final int startPos;
 		private final MethodHandle[] filters;
@@ -2066,9 +2100,20 @@ public class MethodHandles {
 			}
 			return target.invokeWithArguments(arguments);
 		}
+
+		public int emit(TransformCompiler.Emitter e, int[] args) {
+			int[] filteredArgs = args.clone();
+			for (int i = 0; i < filters.length; i++) {
+				MethodHandle filter = filters[i];
+				if (filter != null) {
+					filteredArgs[startPos + i] = e.invoke(filter, args[startPos + i]);
+				}
+			}
+			return e.invoke(target, filteredArgs);
+		}
 	}
 
-	private static final class FoldHelper implements ArgumentHelper {
+	private static final class FoldHelper implements TransformCompiler.Transform {
 		private final MethodHandle handle;
 		private final MethodHandle preprocessor;
 
@@ -2086,10 +2131,17 @@ public class MethodHandles {
 			newArgs[0] = preprocessor.invokeWithArguments(Arrays.copyOfRange(arguments, 0, preprocessor.type.parameterCount()));
 			return handle.invokeWithArguments(newArgs);
 		}
+
+		public int emit(TransformCompiler.Emitter e, int[] args) {
+			int[] newArgs = new int[args.length + 1];
+			System.arraycopy(args, 0, newArgs, 1, args.length);
+			newArgs[0] = e.invoke(preprocessor, Arrays.copyOfRange(args, 0, preprocessor.type.parameterCount()));
+			return e.invoke(handle, newArgs);
+		}
 	}
 
 	/* For use by foldArguments when the fold handle returns void */
-	private static final class VoidFoldHelper implements ArgumentHelper {
+	private static final class VoidFoldHelper implements TransformCompiler.Transform {
 		private final MethodHandle handle;
 		private final MethodHandle preprocessor;
 
@@ -2102,9 +2154,14 @@ public class MethodHandles {
 			preprocessor.invokeWithArguments(Arrays.copyOfRange(arguments, 0, preprocessor.type.parameterCount()));
 			return handle.invokeWithArguments(arguments);
 		}
+
+		public int emit(TransformCompiler.Emitter e, int[] args) {
+			e.invoke(preprocessor, Arrays.copyOfRange(args, 0, preprocessor.type.parameterCount()));
+			return e.invoke(handle, args);
+		}
 	}
 
-	private static final class PermuteHelper implements ArgumentHelper {
+	private static final class PermuteHelper implements TransformCompiler.Transform {
 		private final MethodHandle handle;
 		private final int[] permute;
 
@@ -2120,5 +2177,13 @@ public class MethodHandles {
 			}
 			return handle.invokeWithArguments(newArgs);
 		}
+
+		public int emit(TransformCompiler.Emitter e, int[] args) {
+			int[] newArgs = new int[permute.length];
+			for (int i = 0; i < permute.length; i++) {
+				newArgs[i] = args[permute[i]];
+			}
+			return e.invoke(handle, newArgs);
+		}
 	}
 }
@@ -0,0 +1,470 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+package java.lang.invoke;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import com.ibm.oti.lang.ArgumentHelper;
+import com.sun.xml.internal.ws.org.objectweb.asm.ClassWriter;
+import com.sun.xml.internal.ws.org.objectweb.asm.Label;
+import com.sun.xml.internal.ws.org.objectweb.asm.MethodVisitor;
+import com.sun.xml.internal.ws.org.objectweb.asm.Opcodes;
+import com.sun.xml.internal.ws.org.objectweb.asm.Type;
+
+import static java.lang.invoke.MethodHandleStatics.COMPILE_THRESHOLD;
+import static java.lang.invoke.MethodHandleStatics.UNSAFE;
+
+/**
+ * Compiles the argument transforms built by {@link MethodHandles} into
+ * bytecode once they are hot.
+ * <p>
+ * Combinators such as {@code insertArguments}, {@code filterArguments} or
+ * {@code guardWithTest} are interpreted by an {@link ArgumentHelper}, which
+ * receives the arguments collected into an {@code Object[]}, boxed, and
+ * calls the next handle with {@code invokeWithArguments}. Such a transform
+ * is handed out as the dynamic invoker of a {@link TransformCallSite}. Its
+ * first target is the interpreted helper, which counts invocations. When
+ * the count reaches {@code java.lang.invoke.MethodHandle.COMPILE_THRESHOLD}
+ * (30 by default, 0 compiles immediately, a negative value disables
+ * compilation), the transform is compiled to one static method in an
+ * anonymous class and the site is retargeted to it.
+ * <p>
+ * The compiled method works on erased types and calls the handles it does
+ * not know with {@code invokeExact}. Nested transforms and
+ * {@link FilterReturnHandle}s are inlined into the same method, so a whole
+ * adapter graph runs as one piece of straight-line bytecode. The handles
+ * and values the graph refers to are patched into the constant pool of the
+ * generated class; primitive values are loaded as plain constants.
+ */
+final class TransformCompiler {
+
+	static final int THRESHOLD = (COMPILE_THRESHOLD != null) ? COMPILE_THRESHOLD.intValue() : 30;
+
+	/* Transforms inlined into one method at most, to bound its size */
+	private static final int MAX_INLINED = 24;
+
+	private static final String MH = "java/lang/invoke/MethodHandle"; //$NON-NLS-1$
+	private static final String OBJ = "java/lang/Object"; //$NON-NLS-1$
+	private static final String CLS = "java/lang/Class"; //$NON-NLS-1$
+	private static final String TC = "java/lang/invoke/TransformCompiler"; //$NON-NLS-1$
+
+	private static int classCount;
+
+	private TransformCompiler() {
+	}
+
+	/**
+	 * Thrown by an {@link Emitter} for a transform it cannot express, which
+	 * then stays interpreted.
+	 */
+	static final class UnsupportedTransformException extends RuntimeException {
+		private static final long serialVersionUID = -4427366010683233528L;
+	}
+
+	/**
+	 * A helper whose transform can be expressed with the operations of an
+	 * {@link Emitter}.
+	 */
+	interface Transform extends ArgumentHelper {
+		/**
+		 * Emits the transform applied to the values {@code args}, which have
+		 * the erased parameter types of the transform.
+		 *
+		 * @return the value of the result, or -1 if it is void
+		 */
+		int emit(Emitter e, int[] args);
+	}
+
+	/**
+	 * The call site holding the current implementation of a transform.
+	 */
+	static final class TransformCallSite extends MutableCallSite {
+		final Transform transform;
+		private int remaining = THRESHOLD;
+
+		TransformCallSite(Transform transform, MethodType type) {
+			super(type);
+			this.transform = transform;
+		}
+
+		/* Called on each interpreted invocation; races only delay compilation */
+		void countDown() {
+			if (remaining > 0 && --remaining == 0) {
+				MethodHandle compiled = compile(this);
+				if (compiled != null) {
+					setTarget(compiled);
+				}
+			}
+		}
+	}
+
+	/* Counts the invocations of an interpreted transform */
+	static final class CountingHelper implements ArgumentHelper {
+		private final ArgumentHelper helper;
+		private final TransformCallSite site;
+
+		CountingHelper(ArgumentHelper helper, TransformCallSite site) {
+			this.helper = helper;
+			this.site = site;
+		}
+
+		public Object helper(Object[] arguments) throws Throwable {
+			site.countDown();
+			return helper.helper(arguments);
+		}
+	}
+
+	/**
+	 * Answers a handle of the specified type that runs the transform,
+	 * interpreted at first and compiled once hot.
+	 */
+	static MethodHandle install(Transform transform, MethodType type) {
+		TransformCallSite site = new TransformCallSite(transform, type);
+		MethodHandle target = null;
+		if (THRESHOLD == 0) {
+			target = compile(site);
+		}
+		if (target == null) {
+			target = MethodHandles.buildInterpretedHandle(new CountingHelper(transform, site), type);
+		}
+		site.setTarget(target);
+		return site.dynamicInvoker();
+	}
+
+	/**
+	 * Compiles the transform of the site. Answers null if the transform
+	 * cannot be compiled, in which case it stays interpreted.
+	 */
+	static MethodHandle compile(TransformCallSite site) {
+		MethodType type = site.type();
+		try {
+			Emitter e = new Emitter(type.erase());
+			int result = site.transform.emit(e, e.parameters());
+			return e.load(result).asType(type);
+		} catch (UnsupportedTransformException e) {
+			return null;
+		} catch (NoSuchMethodException e) {
+			return null;
+		} catch (IllegalAccessException e) {
+			return null;
+		} catch (LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Answers the inlinable transform the handle runs, or null.
+	 */
+	static Transform transformOf(MethodHandle handle) {
+		if (handle instanceof DynamicInvokerHandle) {
+			CallSite site = ((DynamicInvokerHandle) handle).site;
+			if (site instanceof TransformCallSite && site.type().equals(handle.type)) {
+				return ((TransformCallSite) site).transform;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Builds the body of the method implementing a transform. Values are
+	 * identified by ints: each value lives in a local variable of its
+	 * erased type, or is a constant. The operand stack is empty
+	 * between operations, so inlined code may contain exception handlers.
+	 */
+	static final class Emitter implements Opcodes {
+		private final MethodType type;
+		private final String className;
+		private final ClassWriter cw;
+		private final MethodVisitor mv;
+
+		/* Per value: the local variable slot, or -1 - constant index */
+		private final ArrayList<Integer> slots = new ArrayList<Integer>();
+		private final ArrayList<Class<?>> types = new ArrayList<Class<?>>();
+		private final ArrayList<Object> constants = new ArrayList<Object>();
+		/* Per constant: the index of its placeholder in the constant pool, or -1 if primitive */
+		private final ArrayList<Integer> cpIndexes = new ArrayList<Integer>();
+		/* The values of the reference constants */
+		private final IdentityHashMap<Object, Integer> constantValues = new IdentityHashMap<Object, Integer>();
+		private int nextSlot;
+		private int inlined;
+
+		Emitter(MethodType type) {
+			this.type = type;
+			synchronized (TransformCompiler.class) {
+				className = TC + "$Compiled" + classCount++; //$NON-NLS-1$
+			}
+			cw = new ClassWriter(ClassWriter.COMPUTE_MAXS + ClassWriter.COMPUTE_FRAMES);
+			cw.visit(V1_6, ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null, OBJ, null);
+			mv = cw.visitMethod(ACC_STATIC, "invoke", type.toMethodDescriptorString(), null, null); //$NON-NLS-1$
+			mv.visitCode();
+			for (Class<?> c : type.arguments) {
+				newValue(c);
+			}
+		}
+
+		int[] parameters() {
+			int[] result = new int[type.parameterCount()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = i;
+			}
+			return result;
+		}
+
+		private int newValue(Class<?> c) {
+			slots.add(Integer.valueOf(nextSlot));
+			types.add(c);
+			nextSlot += (c == long.class || c == double.class) ? 2 : 1;
+			return slots.size() - 1;
+		}
+
+		private static Class<?> erase(Class<?> c) {
+			return c.isPrimitive() ? c : Object.class;
+		}
+
+		/**
+		 * Answers the value holding the specified constant object.
+		 */
+		int constant(Object value) {
+			return constant(value, Object.class);
+		}
+
+		/**
+		 * Answers the value holding the specified constant, passed as a
+		 * parameter of the specified type: the primitive value of a wrapper
+		 * for a primitive type, the object itself otherwise.
+		 */
+		int constant(Object value, Class<?> type) {
+			if (type.isPrimitive()) {
+				return newConstant(unwrap(value, type), type, -1);
+			} else if (value == null) {
+				return newConstant(null, Object.class, -1);
+			}
+			Integer id = constantValues.get(value);
+			if (id == null) {
+				// the placeholder is replaced by the value when the class is defined
+				int cpIndex = cw.newConst("CONSTANT_PLACEHOLDER_" + constants.size()); //$NON-NLS-1$
+				id = Integer.valueOf(newConstant(value, Object.class, cpIndex));
+				constantValues.put(value, id);
+			}
+			return id.intValue();
+		}
+
+		private int newConstant(Object value, Class<?> type, int cpIndex) {
+			constants.add(value);
+			cpIndexes.add(Integer.valueOf(cpIndex));
+			slots.add(Integer.valueOf(-constants.size()));
+			types.add(type);
+			return slots.size() - 1;
+		}
+
+		/*
+		 * Answers the wrapper of the primitive type holding the value, which
+		 * insertArguments has checked to be a wrapper converting to it.
+		 */
+		private static Object unwrap(Object value, Class<?> type) {
+			if (type == boolean.class) {
+				return (Boolean) value;
+			} else if (type == char.class) {
+				return (Character) value;
+			}
+			Number number = (value instanceof Character)
+				? Integer.valueOf(((Character) value).charValue())
+				: (Number) value;
+			if (type == long.class) {
+				return Long.valueOf(number.longValue());
+			} else if (type == float.class) {
+				return Float.valueOf(number.floatValue());
+			} else if (type == double.class) {
+				return Double.valueOf(number.doubleValue());
+			}
+			return Integer.valueOf(number.intValue());
+		}
+
+		private void pushConstant(int index, Class<?> type) {
+			Object value = constants.get(index);
+			if (type == boolean.class) {
+				mv.visitLdcInsn(Integer.valueOf(((Boolean) value).booleanValue() ? 1 : 0));
+			} else if (type == char.class) {
+				mv.visitLdcInsn(Integer.valueOf(((Character) value).charValue()));
+			} else if (type.isPrimitive()) {
+				// byte, short and int constants are held as Integer
+				mv.visitLdcInsn(value);
+			} else if (value == null) {
+				mv.visitInsn(ACONST_NULL);
+			} else {
+				mv.visitLdcInsn("CONSTANT_PLACEHOLDER_" + index); //$NON-NLS-1$
+				if (value instanceof MethodHandle) {
+					mv.visitTypeInsn(CHECKCAST, MH);
+				} else if (value instanceof Class) {
+					mv.visitTypeInsn(CHECKCAST, CLS);
+				}
+			}
+		}
+
+		private void push(int value) {
+			int slot = slots.get(value).intValue();
+			if (slot < 0) {
+				pushConstant(-1 - slot, types.get(value));
+			} else {
+				mv.visitVarInsn(Type.getType(types.get(value)).getOpcode(ILOAD), slot);
+			}
+		}
+
+		private int store(Class<?> c) {
+			if (c == void.class) {
+				return -1;
+			}
+			int value = newValue(c);
+			mv.visitVarInsn(Type.getType(c).getOpcode(ISTORE), slots.get(value).intValue());
+			return value;
+		}
+
+		private void checkArguments(MethodType target, int[] args) {
+			if (target.parameterCount() != args.length) {
+				throw new UnsupportedTransformException();
+			}
+			for (int i = 0; i < args.length; i++) {
+				if (erase(target.arguments[i]) != types.get(args[i])) {
+					throw new UnsupportedTransformException();
+				}
+			}
+		}
+
+		/**
+		 * Invokes the handle on the specified values, inlining it if it is a
+		 * transform or a return filter.
+		 *
+		 * @return the value of the result, or -1 if it is void
+		 */
+		int invoke(MethodHandle target, int... args) {
+			MethodType targetType = target.type;
+			checkArguments(targetType, args);
+			if (inlined < MAX_INLINED) {
+				Transform transform = transformOf(target);
+				if (transform != null) {
+					inlined++;
+					return transform.emit(this, args);
+				}
+				if (target instanceof FilterReturnHandle) {
+					FilterReturnHandle filterReturn = (FilterReturnHandle) target;
+					MethodHandle next = filterReturn.next;
+					if (next.type.erase().parameterList().equals(targetType.erase().parameterList())
+							&& erase(filterReturn.filter.type.returnType) == erase(targetType.returnType)) {
+						inlined++;
+						int result = invoke(next, args);
+						return (result < 0) ? invoke(filterReturn.filter) : invoke(filterReturn.filter, result);
+					}
+				}
+			}
+			MethodType erased = targetType.erase();
+			push(constant(target.asType(erased)));
+			for (int arg : args) {
+				push(arg);
+			}
+			mv.visitMethodInsn(INVOKEVIRTUAL, MH, "invokeExact", erased.toMethodDescriptorString()); //$NON-NLS-1$
+			return store(erased.returnType);
+		}
+
+		/* Copies a value into the result variable of a branch */
+		private void copy(int from, int to) {
+			if (to >= 0) {
+				push(from);
+				mv.visitVarInsn(Type.getType(types.get(to)).getOpcode(ISTORE), slots.get(to).intValue());
+			}
+		}
+
+		/**
+		 * Invokes {@code trueTarget} or {@code falseTarget} on the values,
+		 * depending on the result of {@code guard} on the leading values.
+		 */
+		int guardWithTest(MethodHandle guard, MethodHandle trueTarget, MethodHandle falseTarget, int... args) {
+			int[] guardArgs = new int[guard.type.parameterCount()];
+			System.arraycopy(args, 0, guardArgs, 0, guardArgs.length);
+			int test = invoke(guard, guardArgs);
+			Class<?> returnType = erase(trueTarget.type.returnType);
+			int result = (returnType == void.class) ? -1 : newValue(returnType);
+			Label otherwise = new Label();
+			Label done = new Label();
+			push(test);
+			mv.visitJumpInsn(IFEQ, otherwise);
+			copy(invoke(trueTarget, args), result);
+			mv.visitJumpInsn(GOTO, done);
+			mv.visitLabel(otherwise);
+			copy(invoke(falseTarget, args), result);
+			mv.visitLabel(done);
+			return result;
+		}
+
+		/**
+		 * Invokes {@code tryTarget} on the values; if it throws an instance
+		 * of {@code exceptionClass}, invokes {@code catchTarget} on the
+		 * exception and the leading values.
+		 */
+		int catchException(MethodHandle tryTarget, Class<?> exceptionClass, MethodHandle catchTarget, int... args) {
+			Class<?> returnType = erase(tryTarget.type.returnType);
+			int result = (returnType == void.class) ? -1 : newValue(returnType);
+			int exceptionType = constant(exceptionClass);
+			Label start = new Label();
+			Label end = new Label();
+			Label handler = new Label();
+			Label done = new Label();
+			mv.visitTryCatchBlock(start, end, handler, "java/lang/Throwable"); //$NON-NLS-1$
+			mv.visitLabel(start);
+			copy(invoke(tryTarget, args), result);
+			mv.visitLabel(end);
+			mv.visitJumpInsn(GOTO, done);
+
+			mv.visitLabel(handler);
+			int exception = store(Object.class);
+			Label matches = new Label();
+			push(exceptionType);
+			push(exception);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "isInstance", "(Ljava/lang/Object;)Z"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			mv.visitJumpInsn(IFNE, matches);
+			push(exception);
+			mv.visitTypeInsn(CHECKCAST, "java/lang/Throwable"); //$NON-NLS-1$
+			mv.visitInsn(ATHROW);
+			mv.visitLabel(matches);
+			int[] catchArgs = new int[catchTarget.type.parameterCount()];
+			catchArgs[0] = exception;
+			System.arraycopy(args, 0, catchArgs, 1, catchArgs.length - 1);
+			copy(invoke(catchTarget, catchArgs), result);
+			mv.visitLabel(done);
+			return result;
+		}
+
+		/**
+		 * Finishes the method returning the specified value, defines the
+		 * class and answers a handle on the method.
+		 */
+		MethodHandle load(int result) throws NoSuchMethodException, IllegalAccessException {
+			if (type.returnType == void.class) {
+				mv.visitInsn(RETURN);
+			} else if (result < 0 || types.get(result) != type.returnType) {
+				throw new UnsupportedTransformException();
+			} else {
+				push(result);
+				mv.visitInsn(Type.getType(type.returnType).getOpcode(IRETURN));
+			}
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+			cw.visitEnd();
+
+			byte[] bytes = cw.toByteArray();
+			// u2 constant_pool_count follows the magic number and versions
+			Object[] patches = new Object[((bytes[8] & 0xFF) << 8) | (bytes[9] & 0xFF)];
+			for (int i = 0; i < constants.size(); i++) {
+				int cpIndex = cpIndexes.get(i).intValue();
+				if (cpIndex >= 0) {
+					patches[cpIndex] = constants.get(i);
+				}
+			}
+			Class<?> compiled = UNSAFE.defineAnonymousClass(TransformCompiler.class, bytes, patches);
+			UNSAFE.ensureClassInitialized(compiled);
+			return new DirectHandle(compiled, "invoke", type, MethodHandle.KIND_STATIC, null); //$NON-NLS-1$
+		}
+	}
+}
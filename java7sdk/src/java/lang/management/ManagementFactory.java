@@ -155,6 +155,9 @@ public class ManagementFactory {
                 new String[] { LogManager.LOGGING_MXBEAN_NAME });
 
         // Proprietary types
+        interfaceNameLookupTable.put(
+                "com.ibm.lang.management.ClassLoadingMXBean",
+                new String[] { CLASS_LOADING_MXBEAN_NAME });
         interfaceNameLookupTable.put(
                 "com.ibm.lang.management.GarbageCollectorMXBean",
                 new String[] { GARBAGE_COLLECTOR_MXBEAN_DOMAIN_TYPE });
@@ -644,6 +647,7 @@ public class ManagementFactory {
 
         interfaces.add(java.lang.management.PlatformLoggingMXBean.class);
 
+        interfaces.add(com.ibm.lang.management.ClassLoadingMXBean.class);
         interfaces.add(com.ibm.lang.management.GarbageCollectorMXBean.class);
         interfaces.add(com.ibm.lang.management.MemoryMXBean.class);
         interfaces.add(com.ibm.lang.management.MemoryPoolMXBean.class);
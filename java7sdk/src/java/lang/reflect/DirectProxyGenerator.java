@@ -0,0 +1,277 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.xml.internal.ws.org.objectweb.asm.ClassWriter;
+import com.sun.xml.internal.ws.org.objectweb.asm.Label;
+import com.sun.xml.internal.ws.org.objectweb.asm.MethodVisitor;
+import com.sun.xml.internal.ws.org.objectweb.asm.Opcodes;
+import com.sun.xml.internal.ws.org.objectweb.asm.Type;
+
+/**
+ * Generates the proxy classes of
+ * {@link Proxy#newDirectProxyInstance Proxy.newDirectProxyInstance}.
+ *
+ * <p>A direct proxy class has one final {@code MethodHandle} field per
+ * method, set by its constructor
+ * {@code (InvocationHandler h, MethodHandle[] handles)}. Each method
+ * invokes its handle with {@code invokeExact}, passing the proxy instance
+ * and its own arguments, so the handles must have the type answered by
+ * {@link #handleType}. Methods for which the handler supplies no handle
+ * get one that calls {@link InvocationHandler#invoke}.
+ */
+final class DirectProxyGenerator implements Opcodes {
+
+    private static final String MH = "java/lang/invoke/MethodHandle";
+    private static final String MH_SIG = "Ljava/lang/invoke/MethodHandle;";
+    private static final String UTE = "java/lang/reflect/UndeclaredThrowableException";
+
+    /* InvocationHandler.invoke(Object, Method, Object[]) */
+    private static MethodHandle invokeHandle;
+
+    private DirectProxyGenerator() {
+    }
+
+    /**
+     * Returns the methods of a proxy class implementing the specified
+     * interfaces: hashCode, equals and toString of {@code Object}, then
+     * the methods of each interface in order. Of the methods with the same
+     * name and descriptor, only the first is kept.
+     */
+    static Method[] proxyMethods(Class<?>[] interfaces) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Method m : allMethods(interfaces)) {
+            String key = key(m);
+            if (!methods.containsKey(key)) {
+                methods.put(key, m);
+            }
+        }
+        return methods.values().toArray(new Method[methods.size()]);
+    }
+
+    /**
+     * Returns the exception types that the proxy method for each name and
+     * descriptor may declare. Where several interfaces declare the method,
+     * only the types allowed by all of their declarations are kept, as
+     * {@code sun.misc.ProxyGenerator} does, so that no caller receives a
+     * checked exception its interface does not declare.
+     */
+    private static Map<String, Class<?>[]> exceptionTypes(Class<?>[] interfaces) {
+        Map<String, Class<?>[]> exceptionTypes = new HashMap<>();
+        for (Method m : allMethods(interfaces)) {
+            String key = key(m);
+            Class<?>[] types = exceptionTypes.get(key);
+            if (types == null) {
+                exceptionTypes.put(key, m.getExceptionTypes());
+            } else {
+                Class<?>[] other = m.getExceptionTypes();
+                List<Class<?>> legal = new ArrayList<>();
+                collectCompatibleTypes(types, other, legal);
+                collectCompatibleTypes(other, types, legal);
+                exceptionTypes.put(key, legal.toArray(new Class<?>[legal.size()]));
+            }
+        }
+        return exceptionTypes;
+    }
+
+    /**
+     * Adds to {@code list} each type of {@code from} that is the same as
+     * or a subclass of a type of {@code with}.
+     */
+    private static void collectCompatibleTypes(Class<?>[] from, Class<?>[] with, List<Class<?>> list) {
+        for (Class<?> fc : from) {
+            if (!list.contains(fc)) {
+                for (Class<?> wc : with) {
+                    if (wc.isAssignableFrom(fc)) {
+                        list.add(fc);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns hashCode, equals and toString of {@code Object}, then the
+     * instance methods of each interface in order, duplicates included.
+     */
+    private static List<Method> allMethods(Class<?>[] interfaces) {
+        List<Method> methods = new ArrayList<>();
+        try {
+            methods.add(Object.class.getMethod("hashCode"));
+            methods.add(Object.class.getMethod("equals", Object.class));
+            methods.add(Object.class.getMethod("toString"));
+        } catch (NoSuchMethodException e) {
+            throw new InternalError(e.toString());
+        }
+        for (Class<?> intf : interfaces) {
+            for (Method m : intf.getMethods()) {
+                if (!Modifier.isStatic(m.getModifiers())) {
+                    methods.add(m);
+                }
+            }
+        }
+        return methods;
+    }
+
+    private static String key(Method m) {
+        return m.getName() + Type.getMethodDescriptor(m);
+    }
+
+    /**
+     * Returns the type of the handle called by the specified method of a
+     * proxy class: the type of the method with a leading {@code Object}
+     * parameter for the proxy instance.
+     */
+    static MethodType handleType(Method m) {
+        return MethodType.methodType(m.getReturnType(), m.getParameterTypes())
+            .insertParameterTypes(0, Object.class);
+    }
+
+    /**
+     * Returns the handle called by the specified method of a proxy
+     * instance, as supplied by the handler or, if it supplies none, one
+     * that calls {@code h.invoke(proxy, m, args)}.
+     */
+    static MethodHandle methodHandle(MethodHandleInvocationHandler h, Method m) {
+        MethodHandle handle = h.methodHandle(m);
+        if (handle == null) {
+            handle = invokeHandle().bindTo(h);
+            int parameterCount = m.getParameterTypes().length;
+            if (parameterCount == 0) {
+                // invoke receives null rather than an empty array
+                handle = MethodHandles.insertArguments(handle, 1, m, null);
+            } else {
+                handle = MethodHandles.insertArguments(handle, 1, m)
+                    .asCollector(Object[].class, parameterCount);
+            }
+        }
+        return handle.asType(handleType(m));
+    }
+
+    private static MethodHandle invokeHandle() {
+        MethodHandle handle = invokeHandle;
+        if (handle == null) {
+            try {
+                handle = MethodHandles.publicLookup().findVirtual(InvocationHandler.class, "invoke",
+                    MethodType.methodType(Object.class, Object.class, Method.class, Object[].class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new InternalError(e.toString());
+            }
+            invokeHandle = handle;
+        }
+        return handle;
+    }
+
+    /**
+     * Generates a direct proxy class implementing the interfaces, whose
+     * methods are {@code methods}, as answered by {@link #proxyMethods}
+     * for the same interfaces.
+     */
+    static byte[] generateProxyClass(String name, Class<?>[] interfaces, Method[] methods) {
+        String className = name.replace('.', '/');
+        Map<String, Class<?>[]> exceptionTypes = exceptionTypes(interfaces);
+        String[] interfaceNames = new String[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceNames[i] = Type.getInternalName(interfaces[i]);
+        }
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_6, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null,
+                 "java/lang/reflect/Proxy", interfaceNames);
+        for (int i = 0; i < methods.length; i++) {
+            cw.visitField(ACC_PRIVATE | ACC_FINAL, "m" + i, MH_SIG, null, null).visitEnd();
+        }
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>",
+            "(Ljava/lang/reflect/InvocationHandler;[Ljava/lang/invoke/MethodHandle;)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/reflect/Proxy", "<init>",
+                           "(Ljava/lang/reflect/InvocationHandler;)V");
+        for (int i = 0; i < methods.length; i++) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitLdcInsn(Integer.valueOf(i));
+            mv.visitInsn(AALOAD);
+            mv.visitFieldInsn(PUTFIELD, className, "m" + i, MH_SIG);
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        for (int i = 0; i < methods.length; i++) {
+            generateMethod(cw, className, methods[i], "m" + i, exceptionTypes.get(key(methods[i])));
+        }
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void generateMethod(ClassWriter cw, String className, Method m, String field,
+                                       Class<?>[] exceptionTypes) {
+        String[] exceptions = new String[exceptionTypes.length];
+        boolean declaresThrowable = false;
+        for (int i = 0; i < exceptionTypes.length; i++) {
+            exceptions[i] = Type.getInternalName(exceptionTypes[i]);
+            declaresThrowable |= exceptionTypes[i] == Throwable.class;
+        }
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_FINAL, m.getName(),
+                                          Type.getMethodDescriptor(m), null, exceptions);
+        mv.visitCode();
+        Label start = new Label();
+        Label end = new Label();
+        Label rethrow = new Label();
+        Label wrap = new Label();
+        if (!declaresThrowable) {
+            mv.visitTryCatchBlock(start, end, rethrow, "java/lang/RuntimeException");
+            mv.visitTryCatchBlock(start, end, rethrow, "java/lang/Error");
+            for (String exception : exceptions) {
+                mv.visitTryCatchBlock(start, end, rethrow, exception);
+            }
+            mv.visitTryCatchBlock(start, end, wrap, "java/lang/Throwable");
+        }
+        mv.visitLabel(start);
+
+        // m<i>.invokeExact(this, args...)
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, className, field, MH_SIG);
+        mv.visitVarInsn(ALOAD, 0);
+        int slot = 1;
+        for (Type type : Type.getArgumentTypes(m)) {
+            mv.visitVarInsn(type.getOpcode(ILOAD), slot);
+            slot += type.getSize();
+        }
+        Type returnType = Type.getReturnType(m);
+        mv.visitMethodInsn(INVOKEVIRTUAL, MH, "invokeExact",
+                           handleType(m).toMethodDescriptorString());
+        mv.visitInsn(returnType.getOpcode(IRETURN));
+        mv.visitLabel(end);
+
+        if (!declaresThrowable) {
+            mv.visitLabel(rethrow);
+            mv.visitInsn(ATHROW);
+            mv.visitLabel(wrap);
+            mv.visitVarInsn(ASTORE, slot);
+            mv.visitTypeInsn(NEW, UTE);
+            mv.visitInsn(DUP);
+            mv.visitVarInsn(ALOAD, slot);
+            mv.visitMethodInsn(INVOKESPECIAL, UTE, "<init>", "(Ljava/lang/Throwable;)V");
+            mv.visitInsn(ATHROW);
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * An {@link InvocationHandler} that can supply a method handle for each
+ * method of a proxy instance created by
+ * {@link Proxy#newDirectProxyInstance Proxy.newDirectProxyInstance}.
+ *
+ * <p>When a proxy instance is created, {@link #methodHandle} is called once
+ * for each method of its proxy class, including {@code hashCode},
+ * {@code equals} and {@code toString}. A method of the proxy instance for
+ * which a method handle was returned invokes that handle directly, as if
+ * by {@code invoke}, with the proxy instance followed by the arguments of
+ * the method: the arguments are not copied into an array, primitive
+ * values are not boxed and {@link #invoke invoke} is not called. The
+ * methods for which {@code null} was returned are dispatched to
+ * {@code invoke} as for any proxy instance.
+ *
+ * <p>Checked exceptions thrown by a method handle that are not declared by
+ * the method of the proxy interface are wrapped in an
+ * {@link UndeclaredThrowableException}, as they are for {@code invoke}.
+ *
+ * @see     Proxy#newDirectProxyInstance
+ * @since   1.7
+ */
+public interface MethodHandleInvocationHandler extends InvocationHandler {
+
+    /**
+     * Returns the method handle to invoke for the specified method of a
+     * proxy instance being created, or {@code null} to have the method
+     * dispatched to {@link #invoke invoke}.
+     *
+     * <p>The type of the method handle must be convertible, by
+     * {@link MethodHandle#asType asType}, to the return type and parameter
+     * types of {@code method} with a leading {@code Object} parameter that
+     * receives the proxy instance.
+     *
+     * @param   method the method of the proxy class, as it would be passed
+     *          to {@code invoke}
+     * @return  the method handle to invoke, or {@code null}
+     */
+    MethodHandle methodHandle(Method method);
+}
@@ -36,6 +36,7 @@
 
 package java.lang.reflect;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.WeakCache.BiFunction;
 import java.security.AccessController;
@@ -44,6 +45,8 @@ import java.security.PrivilegedAction;
 import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.ibm.tenant.DoNotIsolate;
@@ -248,7 +251,38 @@ public class Proxy implements java.io.Serializable {
      * a cache of proxy classes
      */
     private static final WeakCache<ClassLoader, Class<?>[], Class<?>>
-        proxyClassCache = new WeakCache<>(new KeyFactory(), new ProxyClassFactory());
+        proxyClassCache = new WeakCache<>(new KeyFactory(), new ProxyClassFactory(false));
+
+    /**
+     * a cache of direct proxy classes, see newDirectProxyInstance
+     */
+    private static final WeakCache<ClassLoader, Class<?>[], Class<?>>
+        directProxyClassCache = new WeakCache<>(new KeyFactory(), new ProxyClassFactory(true));
+
+    /** parameter types of a direct proxy class constructor */
+    private static final Class<?>[] directConstructorParams =
+        { InvocationHandler.class, MethodHandle[].class };
+
+    /**
+     * the methods of each direct proxy class, in the order of the
+     * method handles passed to its constructor
+     */
+    private static final ClassValue<Method[]> directProxyMethods = new ClassValue<Method[]>() {
+        @Override
+        protected Method[] computeValue(Class<?> type) {
+            Method[] methods = generatedProxyMethods.get(type.getName());
+            return (methods != null)
+                ? methods
+                : DirectProxyGenerator.proxyMethods(type.getInterfaces());
+        }
+    };
+
+    /**
+     * the methods a direct proxy class was generated with, by class name,
+     * from its generation until they are recorded in directProxyMethods
+     */
+    private static final ConcurrentMap<String, Method[]> generatedProxyMethods =
+        new ConcurrentHashMap<>();
 
     /**
      * the invocation handler for this proxy instance.
@@ -469,6 +503,18 @@ public class Proxy implements java.io.Serializable {
         return proxyClassCache.get(loader, interfaces);
     }
 
+    /**
+     * Generate a direct proxy class.  Must call the checkProxyAccess method
+     * to perform permission checks before calling this.
+     */
+    private static Class<?> getDirectProxyClass0(ClassLoader loader,
+                                                 Class<?>... interfaces) {
+        if (interfaces.length > 65535) {
+            throw new IllegalArgumentException("interface limit exceeded");
+        }
+        return directProxyClassCache.get(loader, interfaces);
+    }
+
     /*
      * a key used for proxy class with 0 implemented interfaces
      */
@@ -606,6 +652,13 @@ public class Proxy implements java.io.Serializable {
     private static final class ProxyClassFactory
         implements BiFunction<ClassLoader, Class<?>[], Class<?>>
     {
+        // whether to generate direct proxy classes
+        private final boolean direct;
+
+        ProxyClassFactory(boolean direct) {
+            this.direct = direct;
+        }
+
         // prefix for all proxy class names
         private static final String proxyClassNamePrefix = "$Proxy";
 
@@ -693,11 +746,34 @@ public class Proxy implements java.io.Serializable {
             /*
              * Generate the specified proxy class.
              */
-            byte[] proxyClassFile = ProxyGenerator.generateProxyClass(
-                proxyName, interfaces);
+            Method[] methods = null;
+            byte[] proxyClassFile;
+            if (direct) {
+                methods = DirectProxyGenerator.proxyMethods(interfaces);
+                proxyClassFile = DirectProxyGenerator.generateProxyClass(
+                    proxyName, interfaces, methods);
+            } else {
+                proxyClassFile = ProxyGenerator.generateProxyClass(
+                    proxyName, interfaces);
+            }
             try {
-                return defineClass0(loader, proxyName,
-                                    proxyClassFile, 0, proxyClassFile.length);
+                if (methods == null) {
+                    return defineClass0(loader, proxyName,
+                                        proxyClassFile, 0, proxyClassFile.length);
+                }
+                /*
+                 * Keep the methods with the class rather than computing
+                 * them again when the first instance is created.
+                 */
+                generatedProxyMethods.put(proxyName, methods);
+                try {
+                    Class<?> proxyClass = defineClass0(loader, proxyName,
+                        proxyClassFile, 0, proxyClassFile.length);
+                    directProxyMethods.get(proxyClass);
+                    return proxyClass;
+                } finally {
+                    generatedProxyMethods.remove(proxyName);
+                }
             } catch (ClassFormatError e) {
                 /*
                  * A ClassFormatError here means that (barring bugs in the
@@ -772,20 +848,103 @@ public class Proxy implements java.io.Serializable {
                 // implement non-public interfaces that requires a special permission
                 return AccessController.doPrivileged(new PrivilegedAction<Object>() {
                     public Object run() {
-                        return newInstance(cons, ih);
+                        return newInstance(cons, new Object[] {ih});
                     }
                 });
             } else {
-                return newInstance(cons, ih);
+                return newInstance(cons, new Object[] {ih});
             }
         } catch (NoSuchMethodException e) {
             throw new InternalError(e.toString());
         }
     }
 
-    private static Object newInstance(Constructor<?> cons, InvocationHandler h) {
+    /**
+     * Returns an instance of a direct proxy class for the specified
+     * interfaces whose methods invoke the method handles supplied by the
+     * specified handler.
+     *
+     * <p>{@link MethodHandleInvocationHandler#methodHandle h.methodHandle}
+     * is called for each method of the proxy class, in the same way as
+     * {@code invoke} would be called for each method of a proxy class of
+     * {@link #newProxyInstance newProxyInstance}. The proxy instance then
+     * invokes the returned handles directly, without creating an argument
+     * array or boxing primitive values, and dispatches the other methods
+     * to {@code h.invoke}. This suits proxy instances whose methods are
+     * invoked at high rates, such as remote call stubs.
+     *
+     * <p>Direct proxy classes have the properties of proxy classes listed
+     * above, except that their constructor takes the method handles as a
+     * second argument. They are cached separately from the classes of
+     * {@code newProxyInstance}: {@link #isProxyClass isProxyClass} and
+     * {@link #getInvocationHandler getInvocationHandler} accept both.
+     *
+     * @param   loader the class loader to define the proxy class
+     * @param   interfaces the list of interfaces for the proxy class
+     *          to implement
+     * @param   h the handler supplying the method handles, and receiving
+     *          the invocations of the other methods
+     * @return  a proxy instance with the specified handler of a direct
+     *          proxy class that is defined by the specified class loader
+     *          and that implements the specified interfaces
+     * @throws  IllegalArgumentException if any of the restrictions on the
+     *          parameters that may be passed to {@code getProxyClass}
+     *          are violated
+     * @throws  java.lang.invoke.WrongMethodTypeException if a method handle
+     *          supplied by {@code h} cannot be converted to the type of its
+     *          method
+     * @throws  NullPointerException if the {@code interfaces} array
+     *          argument or any of its elements are {@code null}, or
+     *          if the handler, {@code h}, is {@code null}
+     * @since   1.7
+     */
+    @CallerSensitive
+    public static Object newDirectProxyInstance(ClassLoader loader,
+                                                Class<?>[] interfaces,
+                                                MethodHandleInvocationHandler h)
+        throws IllegalArgumentException
+    {
+        if (h == null) {
+            throw new NullPointerException();
+        }
+
+        final Class<?>[] intfs = interfaces.clone();
+        final SecurityManager sm = System.getSecurityManager();
+        if (sm != null) {
+            checkProxyAccess(Reflection.getCallerClass(), loader, intfs);
+        }
+
+        Class<?> cl = getDirectProxyClass0(loader, intfs);
+
+        /*
+         * Ask the handler for the method handles, then invoke the
+         * constructor with them.
+         */
+        Method[] methods = directProxyMethods.get(cl);
+        MethodHandle[] handles = new MethodHandle[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            handles[i] = DirectProxyGenerator.methodHandle(h, methods[i]);
+        }
         try {
-            return cons.newInstance(new Object[] {h} );
+            final Constructor<?> cons = cl.getConstructor(directConstructorParams);
+            final Object[] args = { h, handles };
+            if (sm != null && ProxyAccessHelper.needsNewInstanceCheck(cl)) {
+                return AccessController.doPrivileged(new PrivilegedAction<Object>() {
+                    public Object run() {
+                        return newInstance(cons, args);
+                    }
+                });
+            } else {
+                return newInstance(cons, args);
+            }
+        } catch (NoSuchMethodException e) {
+            throw new InternalError(e.toString());
+        }
+    }
+
+    private static Object newInstance(Constructor<?> cons, Object[] args) {
+        try {
+            return cons.newInstance(args);
         } catch (IllegalAccessException | InstantiationException e) {
             throw new InternalError(e.toString());
         } catch (InvocationTargetException e) {
@@ -813,7 +972,42 @@ public class Proxy implements java.io.Serializable {
      * @throws  NullPointerException if {@code cl} is {@code null}
      */
     public static boolean isProxyClass(Class<?> cl) {
-        return Proxy.class.isAssignableFrom(cl) && proxyClassCache.containsValue(cl);
+        return Proxy.class.isAssignableFrom(cl) &&
+            (proxyClassCache.containsValue(cl) || directProxyClassCache.containsValue(cl));
+    }
+
+    /**
+     * Returns the number of proxy classes currently cached, including
+     * direct proxy classes. Classes are removed from the cache when their
+     * class loader or one of their interfaces is garbage collected.
+     *
+     * @return  the number of cached proxy classes
+     * @since   1.7
+     */
+    public static int getCachedProxyClassCount() {
+        return proxyClassCache.size() + directProxyClassCache.size();
+    }
+
+    /**
+     * Returns the number of requests for a proxy class, including direct
+     * proxy classes, that were answered with a cached class.
+     *
+     * @return  the number of proxy class cache hits
+     * @since   1.7
+     */
+    public static long getProxyClassCacheHitCount() {
+        return proxyClassCache.hitCount() + directProxyClassCache.hitCount();
+    }
+
+    /**
+     * Returns the number of requests for a proxy class, including direct
+     * proxy classes, that generated and defined a new class.
+     *
+     * @return  the number of proxy class cache misses
+     * @since   1.7
+     */
+    public static long getProxyClassCacheMissCount() {
+        return proxyClassCache.missCount() + directProxyClassCache.missCount();
     }
 
     /**
@@ -29,6 +29,7 @@ import java.lang.ref.WeakReference;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Cache mapping pairs of {@code (key, sub-key) -> value}. Keys and values are
@@ -45,7 +46,8 @@ import java.util.concurrent.ConcurrentMap;
  * keys are cleared. Cleared WeakReferences to individual values don't cause
  * expunging, but such entries are logically treated as non-existent and
  * trigger re-evaluation of {@code valueFactory} on request for their
- * key/subKey.
+ * key/subKey. The numbers of look-ups answered from the cache and of values
+ * created are counted, see {@link #hitCount} and {@link #missCount}.
  *
  * @author Peter Levart
  * @param <K> type of keys
@@ -79,6 +81,8 @@ final class WeakCache<K, P, V> {
         = new ConcurrentHashMap<>();
     private final BiFunction<K, P, ?> subKeyFactory;
     private final BiFunction<K, P, V> valueFactory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
 
     /**
      * Construct an instance of {@code WeakCache}
@@ -140,6 +144,11 @@ final class WeakCache<K, P, V> {
                 // supplier might be a Factory or a CacheValue<V> instance
                 V value = supplier.get();
                 if (value != null) {
+                    if (supplier == factory) {
+                        misses.incrementAndGet();
+                    } else {
+                        hits.incrementAndGet();
+                    }
                     return value;
                 }
             }
@@ -198,6 +207,22 @@ final class WeakCache<K, P, V> {
         return reverseMap.size();
     }
 
+    /**
+     * Returns the number of calls to {@link #get} that found their value
+     * already in the cache, or being created by another thread.
+     */
+    public long hitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of calls to {@link #get} that created their value
+     * with the {@code valueFactory}.
+     */
+    public long missCount() {
+        return misses.get();
+    }
+
     private void expungeStaleEntries() {
         CacheKey<K> cacheKey;
         while ((cacheKey = (CacheKey<K>)refQueue.poll()) != null) {
@@ -1420,6 +1420,39 @@ public class BigInteger extends Number implements Comparable<BigInteger>,
         return res;
     }
 
+    /**
+     * Returns a new {@code BigInteger} whose value is {@code this^d mod (p*q)},
+     * where the private exponent {@code d} is given by its Chinese Remainder
+     * Theorem components. This is the form used by RSA private key operations
+     * and costs about a quarter of {@code modPow(d, p.multiply(q))}, since
+     * both half-size exponentiations reuse the cached Montgomery constants of
+     * {@code p} and {@code q}.
+     *
+     * @param dP
+     *            {@code d mod (p-1)}.
+     * @param dQ
+     *            {@code d mod (q-1)}.
+     * @param p
+     *            the first prime factor of the modulus.
+     * @param q
+     *            the second prime factor of the modulus.
+     * @param qInv
+     *            {@code q^(-1) mod p}.
+     * @return {@code this^d mod (p*q)}.
+     * @throws NullPointerException
+     *             if any argument is {@code null}.
+     * @throws ArithmeticException
+     *             if {@code p} or {@code q} is not positive.
+     */
+    public BigInteger modPowCRT(BigInteger dP, BigInteger dQ, BigInteger p,
+            BigInteger q, BigInteger qInv) {
+        if (p.sign <= 0 || q.sign <= 0) {
+            // math.18=BigInteger: modulus not positive
+            throw new ArithmeticException(Messages.getString("math.18")); //$NON-NLS-1$
+        }
+        return Montgomery.crtModPow(this, dP, dQ, p, q, qInv);
+    }
+
     /**
      * Returns a new {@code BigInteger} whose value is {@code this mod m}. The
      * modulus {@code m} must be positive. The result is guaranteed to be in the
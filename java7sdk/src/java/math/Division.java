@@ -576,7 +576,7 @@ class Division {
     /**
      * Calculate the first digit of the inverse
      */
-    private static int calcN(BigInteger a) {
+    static int calcN(BigInteger a) {
         long m0 = a.digits[0] & 0xFFFFFFFFL;
         long n2 = 1L; // this is a'[0]
         long powerOfTwo = 2L;
@@ -672,67 +672,24 @@ class Division {
         return s; // a^(-1) mod m
     }
 
-    /*Implements the Montgomery modular exponentiation based in <i>The sliding windows algorithm and the Mongomery
-     *Reduction</i>.
-     *@ar.org.fitc.ref "A. Menezes,P. van Oorschot, S. Vanstone - Handbook of Applied Cryptography";
-     *@see #oddModPow(BigInteger, BigInteger,
-     *                           BigInteger)
-     */
-    static BigInteger slidingWindow(BigInteger x2, BigInteger a2, BigInteger exponent,BigInteger modulus, int n2){
-        // fill odd low pows of a2
-        BigInteger pows[] = new BigInteger[8];
-        BigInteger res = x2;
-        int lowexp;
-        BigInteger x3;
-        int acc3;
-        pows[0] = a2;
-        
-        x3 = monPro(a2,a2,modulus,n2);
-        for (int i = 1; i <= 7; i++){
-            pows[i] = monPro(pows[i-1],x3,modulus,n2) ;
-        }
-        
-        for (int i = exponent.bitLength()-1; i>=0;i--){
-            if( BitLevel.testBit(exponent,i) ) {
-                lowexp = 1;
-                acc3 = i;
-                
-                for(int j = Math.max(i-3,0);j <= i-1 ;j++) {
-                    if (BitLevel.testBit(exponent,j)) {
-                        if (j<acc3) {
-                            acc3 = j;
-                            lowexp = (lowexp << (i-j))^1;
-                        } else {
-                            lowexp = lowexp^(1<<(j-acc3));
-                        }
-                    }
-                }
-                
-                for(int j = acc3; j <= i; j++) {
-                    res = monPro(res,res,modulus,n2);
-                }
-                res = monPro(pows[(lowexp-1)>>1], res, modulus,n2);
-                i = acc3 ;
-            }else{
-                res = monPro(res, res, modulus, n2) ;
-            }
-        }
-        return res;
-    }
-    
     /**
      * Performs modular exponentiation using the Montgomery Reduction. It
      * requires that all parameters be positive and the modulus be odd. >
      * 
      * @see BigInteger#modPow(BigInteger, BigInteger)
      * @see #monPro(BigInteger, BigInteger, BigInteger, int)
-     * @see #slidingWindow(BigInteger, BigInteger, BigInteger, BigInteger,
-     *                      int)
+     * @see Montgomery#modPow(BigInteger, BigInteger)
      * @see #squareAndMultiply(BigInteger, BigInteger, BigInteger, BigInteger,
      *                      int)
      */
     static BigInteger oddModPow(BigInteger base, BigInteger exponent,
             BigInteger modulus) {
+        // PRE: (base > 0), (exponent > 0), (modulus > 0) and (odd modulus)
+        if (modulus.numberLength > 1) {
+            // in-place products with cached per-modulus constants, whether
+            // or not Quad arithmetic is enabled
+            return Montgomery.forModulus(modulus).modPow(base, exponent);
+        }
         // use oddModPow which uses long[] representation and Quad arithmetic
     	if (!Quad.enableQuadOptimization()) {
     		return oddModPow32Bit(base, exponent, modulus);
@@ -753,11 +710,7 @@ class Division {
         // Compute (modulus[0]^(-1)) (mod 2^32) for odd modulus
         
         int n2 = calcN(modulus);
-        if( modulus.numberLength == 1 ){
-            res = squareAndMultiply(x2,a2, exponent, modulus,n2);
-        } else {
-            res = slidingWindow(x2, a2, exponent, modulus, n2);
-        }
+        res = squareAndMultiply(x2,a2, exponent, modulus,n2);
         
         return monPro(res, BigInteger.ONE, modulus, n2);
     }
@@ -0,0 +1,265 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.math;
+
+/**
+ * Per-modulus context for Montgomery modular exponentiation with an odd
+ * multi-digit modulus. All products are computed in place over {@code int}
+ * arrays in <i>little endian</i> notation, so an exponentiation allocates only
+ * its window table and two scratch arrays instead of a new {@link BigInteger}
+ * per product.
+ * <p>
+ * A context holds the constants that depend only on the modulus, namely
+ * {@code n' = -modulus[0]^(-1) (mod 2^32)}, {@code R (mod modulus)} and
+ * {@code R^2 (mod modulus)} where {@code R = 2^(32 * len)}. Contexts are
+ * immutable and are kept in a small direct-mapped cache, so repeated
+ * exponentiations with the same modulus (RSA and DH keys) skip the two
+ * divisions needed to set them up.
+ * <p>
+ * The exponentiation uses a fixed window and always multiplies by a table
+ * entry read with a full masked scan, so the sequence of operations and the
+ * memory access pattern only depend on the bit length of the exponent.
+ *
+ * @see Division#oddModPow(BigInteger, BigInteger, BigInteger)
+ */
+final class Montgomery {
+
+    /** Number of cached contexts, must be a power of two. */
+    private static final int CACHE_SIZE = 16;
+
+    /**
+     * Direct-mapped cache of contexts indexed by the modulus hash code.
+     * Contexts are immutable, so a racy read only ever costs a rebuild.
+     */
+    private static final Montgomery[] cache = new Montgomery[CACHE_SIZE];
+
+    /** Exponent bit lengths above which the next window size is used. */
+    private static final int[] WINDOW_THRESHOLDS = { 7, 25, 81, 241, 673 };
+
+    /** A copy of the modulus this context was built for. */
+    private final BigInteger modulusValue;
+
+    /** The modulus digits, exactly {@code len} long. */
+    private final int[] modulus;
+
+    /** The modulus length in ints. */
+    private final int len;
+
+    /** The digit {@code -modulus[0]^(-1) (mod 2^32)}. */
+    private final int n0;
+
+    /** {@code R (mod modulus)}, the Montgomery form of one. */
+    private final int[] one;
+
+    /** {@code R^2 (mod modulus)}, used to convert into Montgomery form. */
+    private final int[] rSquared;
+
+    private Montgomery(BigInteger m) {
+        // PRE: (m > 0), (m is odd) and (m.numberLength > 1)
+        // a private copy, as Primality reuses the digits of its candidates
+        modulusValue = m.copy();
+        len = m.numberLength;
+        modulus = new int[len];
+        System.arraycopy(m.digits, 0, modulus, 0, len);
+        n0 = Division.calcN(m);
+        one = toDigits(BigInteger.getPowerOfTwo(len << 5).mod(m), len);
+        rSquared = toDigits(BigInteger.getPowerOfTwo(len << 6).mod(m), len);
+    }
+
+    /**
+     * Returns the cached context for the modulus {@code m}, building it if it
+     * is not present.
+     *
+     * @param m an odd positive modulus with more than one digit.
+     */
+    static Montgomery forModulus(BigInteger m) {
+        int slot = m.hashCode() & (CACHE_SIZE - 1);
+        Montgomery ctx = cache[slot];
+        if (ctx == null || !ctx.modulusValue.equals(m)) {
+            ctx = new Montgomery(m);
+            cache[slot] = ctx;
+        }
+        return ctx;
+    }
+
+    /**
+     * Computes {@code base^exponent (mod modulus)} using fixed-window
+     * exponentiation over Montgomery products.
+     *
+     * @param base a non-negative number.
+     * @param exponent a positive exponent.
+     * @return {@code base^exponent (mod modulus)}.
+     */
+    BigInteger modPow(BigInteger base, BigInteger exponent) {
+        // PRE: (base >= 0) and (exponent > 0)
+        if (base.compareTo(modulusValue) >= 0) {
+            base = base.mod(modulusValue);
+        }
+        int[] t = new int[len + 2];
+        int[] a = toDigits(base, len);
+        // n-residue of base [base * r (mod modulus)]
+        monPro(a, rSquared, t, a);
+
+        int bits = exponent.bitLength();
+        int w = windowSize(bits);
+        int[][] table = new int[1 << w][];
+        table[0] = one;
+        table[1] = a;
+        for (int i = 2; i < table.length; i++) {
+            table[i] = new int[len];
+            monPro(table[i - 1], a, t, table[i]);
+        }
+
+        int[] res = new int[len];
+        int[] sel = new int[len];
+        int pos = ((bits - 1) / w) * w;
+        select(table, getBits(exponent, pos, w), res);
+        for (pos -= w; pos >= 0; pos -= w) {
+            for (int i = 0; i < w; i++) {
+                monPro(res, res, t, res);
+            }
+            select(table, getBits(exponent, pos, w), sel);
+            monPro(res, sel, t, res);
+        }
+
+        // leave the Montgomery domain [res * 1 * r^(-1) (mod modulus)]
+        int[] unit = sel;
+        unit[0] = 1;
+        for (int i = 1; i < len; i++) {
+            unit[i] = 0;
+        }
+        monPro(res, unit, t, res);
+
+        BigInteger result = new BigInteger(1, len, res);
+        result.cutOffLeadingZeroes();
+        return result;
+    }
+
+    /**
+     * Computes the Montgomery product {@code a * b * r^(-1) (mod modulus)}
+     * with the CIOS method and stores it in {@code res}. The factors must be
+     * reduced and {@code len} digits long; {@code res} may be one of them.
+     *
+     * @param a the first factor.
+     * @param b the second factor.
+     * @param t scratch space of {@code len + 2} digits.
+     * @param res the destination of {@code len} digits.
+     * @ar.org.fitc.ref "C. K. Koc - Analyzing and Comparing Montgomery
+     *                  Multiplication Algorithms"
+     */
+    void monPro(int[] a, int[] b, int[] t, int[] res) {
+        int n = len;
+        int[] m = modulus;
+        for (int j = 0; j < n + 2; j++) {
+            t[j] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            // t += a * b[i]
+            int bI = b[i];
+            long carry = 0;
+            for (int j = 0; j < n; j++) {
+                carry = Multiplication.unsignedMultAddAdd(a[j], bI, t[j], (int) carry);
+                t[j] = (int) carry;
+                carry >>>= 32;
+            }
+            carry += t[n] & 0xFFFFFFFFL;
+            t[n] = (int) carry;
+            t[n + 1] = (int) (carry >>> 32);
+
+            // t = (t + q * modulus) / 2^32
+            int q = t[0] * n0;
+            carry = Multiplication.unsignedMultAddAdd(q, m[0], t[0], 0) >>> 32;
+            for (int j = 1; j < n; j++) {
+                carry = Multiplication.unsignedMultAddAdd(q, m[j], t[j], (int) carry);
+                t[j - 1] = (int) carry;
+                carry >>>= 32;
+            }
+            carry += t[n] & 0xFFFFFFFFL;
+            t[n - 1] = (int) carry;
+            t[n] = t[n + 1] + (int) (carry >>> 32);
+        }
+
+        // res = (t >= modulus) ? t - modulus : t, without branching on t
+        long borrow = 0;
+        for (int j = 0; j < n; j++) {
+            borrow += (t[j] & 0xFFFFFFFFL) - (m[j] & 0xFFFFFFFFL);
+            res[j] = (int) borrow;
+            borrow >>= 32;
+        }
+        int keep = (int) borrow & (t[n] - 1);
+        for (int j = 0; j < n; j++) {
+            res[j] = (t[j] & keep) | (res[j] & ~keep);
+        }
+    }
+
+    /**
+     * Copies {@code table[index]} to {@code dest} reading every entry, so the
+     * access pattern does not depend on {@code index}.
+     */
+    private void select(int[][] table, int index, int[] dest) {
+        for (int j = 0; j < len; j++) {
+            dest[j] = 0;
+        }
+        for (int i = 0; i < table.length; i++) {
+            int mask = ((i ^ index) - 1) >> 31;
+            int[] entry = table[i];
+            for (int j = 0; j < len; j++) {
+                dest[j] |= entry[j] & mask;
+            }
+        }
+    }
+
+    /** Returns the window size used for an exponent of {@code bits} bits. */
+    private static int windowSize(int bits) {
+        int w = 1;
+        while (w <= WINDOW_THRESHOLDS.length && bits > WINDOW_THRESHOLDS[w - 1]) {
+            w++;
+        }
+        return w;
+    }
+
+    /** Returns the {@code w} bits of {@code e} starting at bit {@code pos}. */
+    private static int getBits(BigInteger e, int pos, int w) {
+        int[] digits = e.digits;
+        int i = pos >> 5;
+        int shift = pos & 31;
+        int bits = digits[i] >>> shift;
+        if (shift + w > 32 && i + 1 < e.numberLength) {
+            bits |= digits[i + 1] << (32 - shift);
+        }
+        return bits & ((1 << w) - 1);
+    }
+
+    /** Returns the magnitude of {@code x} in a new array of {@code len} digits. */
+    private static int[] toDigits(BigInteger x, int len) {
+        // PRE: (x >= 0) and (x.numberLength <= len)
+        int[] res = new int[len];
+        System.arraycopy(x.digits, 0, res, 0, x.numberLength);
+        return res;
+    }
+
+    /**
+     * Computes {@code base^d (mod p * q)} from the Chinese Remainder Theorem
+     * components of a private exponent {@code d}, as used by RSA private key
+     * operations. Both halves use cached contexts for their prime moduli.
+     *
+     * @param base a non-negative number.
+     * @param dP {@code d (mod p - 1)}.
+     * @param dQ {@code d (mod q - 1)}.
+     * @param p an odd prime.
+     * @param q an odd prime.
+     * @param qInv {@code q^(-1) (mod p)}.
+     * @return {@code base^d (mod p * q)}.
+     */
+    static BigInteger crtModPow(BigInteger base, BigInteger dP, BigInteger dQ,
+            BigInteger p, BigInteger q, BigInteger qInv) {
+        BigInteger m1 = base.modPow(dP, p);
+        BigInteger m2 = base.modPow(dQ, q);
+        // h = qInv * (m1 - m2) (mod p)
+        BigInteger h = qInv.multiply(m1.subtract(m2)).mod(p);
+        return m2.add(h.multiply(q));
+    }
+}
@@ -96,6 +96,11 @@ import com.ibm.tenant.internal.TenantAccessFactory;
 public class URLClassLoader extends SecureClassLoader implements Closeable {
     /* The search path for classes and resources */
     private final URLClassPath ucp;
+
+    /* The package index of the search path, built on first use */
+    private volatile boolean indexable;
+    private volatile URLClassPathIndex index;
+    private final Object indexLock = new Object();
     
     /* 
      * IBM multitenancy management value add
@@ -239,6 +244,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
         }
         initializeSharedClassesSupport(urls);                                    //IBM-shared_classes_misc
 	ucp = new URLClassPath(urls, null, sharedClassURLClasspathHelper);       //IBM-shared_classes_misc
+        indexable = !usingSharedClasses() && URLClassPathIndex.isEnabled(urls);
         this.acc = AccessController.getContext();
         
         /*
@@ -299,6 +305,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
         }
         initializeSharedClassesSupport(urls);                                    //IBM-shared_classes_misc
 	ucp = new URLClassPath(urls, null, sharedClassURLClasspathHelper);       //IBM-shared_classes_misc
+        indexable = !usingSharedClasses() && URLClassPathIndex.isEnabled(urls);
         this.acc = AccessController.getContext();
         
         /*
@@ -464,6 +471,13 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkPermission(new RuntimePermission("closeClassLoader"));
         }
         List<IOException> errors = ucp.closeLoaders();
+        synchronized (indexLock) {
+            indexable = false;
+            if (index != null) {
+                errors.addAll(index.close());
+                index = null;
+            }
+        }
 
         // now close any remaining streams.
 
@@ -504,9 +518,40 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
      * @param url the URL to be added to the search path of URLs
      */
     protected void addURL(URL url) {
+        // the index only knows the original URLs
+        indexable = false;
         ucp.addURL(url);
     }
 
+    /*
+     * Answers the package index of the search path, building it on first
+     * use, or null if the search path is not indexed.
+     */
+    private URLClassPathIndex classPathIndex() {
+        if (!indexable) {
+            return null;
+        }
+        URLClassPathIndex result = index;
+        if (result == null) {
+            synchronized (indexLock) {
+                if (indexable && index == null) {
+                    final URL[] urls = ucp.getURLs();
+                    index = AccessController.doPrivileged(
+                        new PrivilegedAction<URLClassPathIndex>() {
+                            public URLClassPathIndex run() {
+                                return URLClassPathIndex.build(urls);
+                            }
+                        }, acc);
+                    if (index == null) {
+                        indexable = false;
+                    }
+                }
+                result = index;
+            }
+        }
+        return indexable ? result : null;
+    }
+
     /**
      * Returns the search path of URLs for loading classes and resources.
      * This includes the original list of URLs specified to the constructor,
@@ -964,6 +1009,10 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
         URL url = AccessController.doPrivileged(
             new PrivilegedAction<URL>() {
                 public URL run() {
+                    URLClassPathIndex index = classPathIndex();
+                    if (index != null && index.covers(name)) {
+                        return index.findResource(name);
+                    }
                     return ucp.findResource(name, true);
                 }
             }, acc);
@@ -1220,7 +1269,13 @@ final class ClassFinder implements PrivilegedExceptionAction
      public Object run() throws ClassNotFoundException {                         //IBM-shared_classes_misc
 	String path = name.replace('.', '/').concat(".class");                   //IBM-shared_classes_misc
         try {                                                                    //IBM-shared_classes_misc
-            Resource res = ucp.getResource(path, false, classloader, showClassLoading(name)); //IBM-shared_classes_misc
+            Resource res;
+            URLClassPathIndex index = classPathIndex();
+            if (index != null && index.covers(path)) {
+                res = index.getResource(path, classloader, showClassLoading(name));
+            } else {
+                res = ucp.getResource(path, false, classloader, showClassLoading(name)); //IBM-shared_classes_misc
+            }
             if (res != null)                                                     //IBM-shared_classes_misc
                 return defineClass(name, res);                                   //IBM-shared_classes_misc
         } catch (IOException e) {                                                //IBM-shared_classes_misc
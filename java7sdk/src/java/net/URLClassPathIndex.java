@@ -0,0 +1,362 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.AccessController;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+import sun.misc.Resource;
+import sun.misc.URLClassPath;
+import sun.net.www.ParseUtil;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * An index from package directory to the jar files of a class path that
+ * have entries in it, so that a {@link URLClassLoader} can find a class or
+ * resource without probing every jar in turn, and can fail at once when no
+ * jar has the package.
+ * <p>
+ * An index is only built for class paths made of local jar files that
+ * neither extend the class path with a {@code Class-Path} manifest
+ * attribute nor carry a {@code META-INF/INDEX.LIST}: for those, searching
+ * the candidate jars in class path order gives the same result as a
+ * linear search. Indexing can be turned off by setting the system property
+ * {@code com.ibm.net.URLClassLoader.index} to {@code false}.
+ * <p>
+ * The jar files are read in parallel. If the system
+ * property {@code com.ibm.net.URLClassLoader.indexCacheDir} names a
+ * directory, the index is also saved there and reused while the jar files
+ * keep their length and modification time.
+ * <p>
+ * Each candidate jar is searched through a {@link URLClassPath} of its own,
+ * so resources keep the code source, manifest and signers a linear search
+ * would give them.
+ */
+final class URLClassPathIndex {
+
+    /* Class paths shorter than this are searched linearly */
+    private static final int MIN_URLS = 16;
+
+    private static final int CACHE_MAGIC = 0x55434958;  // "UCIX"
+    private static final int CACHE_VERSION = 1;
+
+    private static final boolean useIndex = !"false".equalsIgnoreCase(
+        AccessController.doPrivileged(
+            new GetPropertyAction("com.ibm.net.URLClassLoader.index")));
+    private static final String cacheDir = AccessController.doPrivileged(
+        new GetPropertyAction("com.ibm.net.URLClassLoader.indexCacheDir"));
+
+    private final URL[] urls;
+    /* package directory -> indexes of the jars with entries in it, ascending */
+    private final Map<String, int[]> packages;
+    /* one class path per jar, created when first searched */
+    private final URLClassPath[] paths;
+
+    private URLClassPathIndex(URL[] urls, Map<String, int[]> packages) {
+        this.urls = urls;
+        this.packages = packages;
+        this.paths = new URLClassPath[urls.length];
+    }
+
+    /**
+     * Answers whether a class path with the specified URLs is worth
+     * indexing.
+     */
+    static boolean isEnabled(URL[] urls) {
+        return useIndex && urls.length >= MIN_URLS;
+    }
+
+    /**
+     * Builds the index of the specified class path, or answers null if the
+     * class path cannot be indexed. Must be called with the privileges
+     * needed to read the jar files.
+     */
+    static URLClassPathIndex build(URL[] urls) {
+        final File[] files = new File[urls.length];
+        for (int i = 0; i < urls.length; i++) {
+            URL url = urls[i];
+            if (!"file".equals(url.getProtocol()) || url.getFile().endsWith("/")) {
+                return null;
+            }
+            String path = ParseUtil.decode(url.getFile());
+            files[i] = new File(path.replace('/', File.separatorChar));
+            if (!files[i].isFile()) {
+                return null;
+            }
+        }
+        File cacheFile = cacheFile(files);
+        List<Set<String>> contents = null;
+        if (cacheFile != null) {
+            contents = readCache(cacheFile, files);
+        }
+        if (contents == null) {
+            contents = readJars(files);
+            if (contents == null) {
+                return null;
+            }
+            if (cacheFile != null) {
+                writeCache(cacheFile, files, contents);
+            }
+        }
+
+        Map<String, List<Integer>> lists = new HashMap<>();
+        for (int i = 0; i < contents.size(); i++) {
+            for (String dir : contents.get(i)) {
+                List<Integer> list = lists.get(dir);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    lists.put(dir, list);
+                }
+                list.add(i);
+            }
+        }
+        Map<String, int[]> packages = new HashMap<>(lists.size() * 4 / 3 + 1);
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+            List<Integer> list = entry.getValue();
+            int[] jars = new int[list.size()];
+            for (int i = 0; i < jars.length; i++) {
+                jars[i] = list.get(i);
+            }
+            packages.put(entry.getKey(), jars);
+        }
+        return new URLClassPathIndex(urls.clone(), packages);
+    }
+
+    /*
+     * The directory part of a resource name, which is what the index is
+     * keyed by: "a/b/C.class" -> "a/b", "r.txt" -> "".
+     */
+    private static String directory(String name) {
+        int i = name.lastIndexOf('/');
+        return (i < 0) ? "" : name.substring(0, i);
+    }
+
+    /**
+     * Answers whether the index can answer a look-up of the specified
+     * name. Names starting with '/' are left to the linear search.
+     */
+    boolean covers(String name) {
+        return !name.startsWith("/");
+    }
+
+    /**
+     * Finds the resource with the specified name in the first jar that has
+     * it, or answers null.
+     *
+     * @see URLClassPath#getResource(String, boolean, ClassLoader, boolean)
+     */
+    Resource getResource(String name, ClassLoader loader, boolean showLoading) {
+        int[] jars = packages.get(directory(name));
+        if (jars != null) {
+            for (int jar : jars) {
+                Resource res = path(jar).getResource(name, false, loader, showLoading);
+                if (res != null) {
+                    return res;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the URL of the resource with the specified name in the first
+     * jar that has it, or answers null.
+     */
+    URL findResource(String name) {
+        int[] jars = packages.get(directory(name));
+        if (jars != null) {
+            for (int jar : jars) {
+                URL url = path(jar).findResource(name, false);
+                if (url != null) {
+                    return url;
+                }
+            }
+        }
+        return null;
+    }
+
+    private URLClassPath path(int jar) {
+        synchronized (paths) {
+            URLClassPath path = paths[jar];
+            if (path == null) {
+                path = new URLClassPath(new URL[] { urls[jar] });
+                paths[jar] = path;
+            }
+            return path;
+        }
+    }
+
+    /**
+     * Closes the jar files opened by the index.
+     */
+    List<IOException> close() {
+        List<IOException> errors = new ArrayList<>();
+        synchronized (paths) {
+            for (URLClassPath path : paths) {
+                if (path != null) {
+                    errors.addAll(path.closeLoaders());
+                }
+            }
+        }
+        return errors;
+    }
+
+    /*
+     * Reads the package directories of each jar, in parallel. Answers null
+     * if a jar cannot be read or cannot be indexed.
+     */
+    private static List<Set<String>> readJars(File[] files) {
+        int threads = Math.min(files.length, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "URLClassLoader index");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        try {
+            List<Future<Set<String>>> futures = new ArrayList<>(files.length);
+            for (final File file : files) {
+                futures.add(executor.submit(new Callable<Set<String>>() {
+                    public Set<String> call() throws IOException {
+                        return readJar(file);
+                    }
+                }));
+            }
+            List<Set<String>> contents = new ArrayList<>(files.length);
+            for (Future<Set<String>> future : futures) {
+                Set<String> dirs = future.get();
+                if (dirs == null) {
+                    return null;
+                }
+                contents.add(dirs);
+            }
+            return contents;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Set<String> readJar(File file) throws IOException {
+        try (JarFile jar = new JarFile(file, false)) {
+            Manifest man = jar.getManifest();
+            if (man != null && man.getMainAttributes().getValue(Attributes.Name.CLASS_PATH) != null) {
+                return null;
+            }
+            Set<String> dirs = new HashSet<>();
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.equals("META-INF/INDEX.LIST")) {
+                    return null;
+                }
+                dirs.add(directory(name));
+            }
+            return dirs;
+        }
+    }
+
+    private static File cacheFile(File[] files) {
+        if (cacheDir == null) {
+            return null;
+        }
+        String[] paths = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            paths[i] = files[i].getAbsolutePath();
+        }
+        return new File(cacheDir, "urlindex-" + Integer.toHexString(Arrays.hashCode(paths)) + ".idx");
+    }
+
+    /*
+     * Answers the contents saved for the jar files, or null if there are
+     * none or any jar file changed since.
+     */
+    private static List<Set<String>> readCache(File cacheFile, File[] files) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION || in.readInt() != files.length) {
+                return null;
+            }
+            List<Set<String>> contents = new ArrayList<>(files.length);
+            for (File file : files) {
+                if (!in.readUTF().equals(file.getAbsolutePath())
+                        || in.readLong() != file.length()
+                        || in.readLong() != file.lastModified()) {
+                    return null;
+                }
+                int count = in.readInt();
+                Set<String> dirs = new HashSet<>(count * 4 / 3 + 1);
+                for (int i = 0; i < count; i++) {
+                    dirs.add(in.readUTF());
+                }
+                contents.add(dirs);
+            }
+            return contents;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /* The index is only an optimization: failing to save it is not an error */
+    private static void writeCache(File cacheFile, File[] files, List<Set<String>> contents) {
+        File temp = new File(cacheFile.getPath() + ".tmp" + Thread.currentThread().getId());
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(CACHE_MAGIC);
+                out.writeInt(CACHE_VERSION);
+                out.writeInt(files.length);
+                for (int i = 0; i < files.length; i++) {
+                    File file = files[i];
+                    out.writeUTF(file.getAbsolutePath());
+                    out.writeLong(file.length());
+                    out.writeLong(file.lastModified());
+                    Set<String> dirs = contents.get(i);
+                    out.writeInt(dirs.size());
+                    for (String dir : dirs) {
+                        out.writeUTF(dir);
+                    }
+                }
+            }
+            if (!temp.renameTo(cacheFile)) {
+                temp.delete();
+            }
+        } catch (IOException e) {
+            temp.delete();
+        }
+    }
+}
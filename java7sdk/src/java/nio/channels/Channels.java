@@ -153,43 +153,52 @@ public final class Channels {
     public static OutputStream newOutputStream(final WritableByteChannel ch) {
         checkNotNull(ch, "ch");
 
-        return new OutputStream() {
-
-                private ByteBuffer bb = null;
-                private byte[] bs = null;       // Invoker's previous array
-                private byte[] b1 = null;
+        return new ChannelOutputStream(ch);
+    }
 
-                public synchronized void write(int b) throws IOException {
-                   if (b1 == null)
-                        b1 = new byte[1];
-                    b1[0] = (byte)b;
-                    this.write(b1);
-                }
+    /*
+     * The stream returned by newOutputStream(WritableByteChannel); newChannel
+     * answers its channel, so that bytes can be transferred to it directly.
+     */
+    private static class ChannelOutputStream extends OutputStream {
+        final WritableByteChannel ch;
+        private ByteBuffer bb = null;
+        private byte[] bs = null;       // Invoker's previous array
+        private byte[] b1 = null;
+
+        ChannelOutputStream(WritableByteChannel ch) {
+            this.ch = ch;
+        }
 
-                public synchronized void write(byte[] bs, int off, int len)
-                    throws IOException
-                {
-                    if ((off < 0) || (off > bs.length) || (len < 0) ||
-                        ((off + len) > bs.length) || ((off + len) < 0)) {
-                        throw new IndexOutOfBoundsException();
-                    } else if (len == 0) {
-                        return;
-                    }
-                    ByteBuffer bb = ((this.bs == bs)
-                                     ? this.bb
-                                     : ByteBuffer.wrap(bs));
-                    bb.limit(Math.min(off + len, bb.capacity()));
-                    bb.position(off);
-                    this.bb = bb;
-                    this.bs = bs;
-                    Channels.writeFully(ch, bb);
-                }
+        public synchronized void write(int b) throws IOException {
+           if (b1 == null)
+                b1 = new byte[1];
+            b1[0] = (byte)b;
+            this.write(b1);
+        }
 
-                public void close() throws IOException {
-                    ch.close();
-                }
+        public synchronized void write(byte[] bs, int off, int len)
+            throws IOException
+        {
+            if ((off < 0) || (off > bs.length) || (len < 0) ||
+                ((off + len) > bs.length) || ((off + len) < 0)) {
+                throw new IndexOutOfBoundsException();
+            } else if (len == 0) {
+                return;
+            }
+            ByteBuffer bb = ((this.bs == bs)
+                             ? this.bb
+                             : ByteBuffer.wrap(bs));
+            bb.limit(Math.min(off + len, bb.capacity()));
+            bb.position(off);
+            this.bb = bb;
+            this.bs = bs;
+            Channels.writeFully(ch, bb);
+        }
 
-            };
+        public void close() throws IOException {
+            ch.close();
+        }
     }
 
     /**
@@ -424,6 +433,10 @@ public final class Channels {
      * its I/O operations to the given stream.  Closing the channel will in
      * turn cause the stream to be closed.  </p>
      *
+     * <p> If the stream is one returned by {@link
+     * #newOutputStream(WritableByteChannel) newOutputStream} then the channel
+     * that it writes to is returned.  </p>
+     *
      * @param  out
      *         The stream to which bytes are to be written
      *
@@ -437,6 +450,10 @@ public final class Channels {
                 return ((FileOutputStream)out).getChannel();
         }
 
+        if (out instanceof ChannelOutputStream) {
+            return ((ChannelOutputStream)out).ch;
+        }
+
         return new WritableByteChannelImpl(out);
     }
 
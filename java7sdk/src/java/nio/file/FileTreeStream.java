@@ -0,0 +1,190 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.nio.file;
+
+import java.nio.file.attribute.*;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * A {@code DirectoryStream} over the files of a file tree, depth-first,
+ * read lazily: only the directories on the way to the current file are
+ * open, so the memory used depends on the depth of the tree and not on its
+ * size.
+ *
+ * @see Files#newFileTreeStream
+ */
+
+class FileTreeStream implements DirectoryStream<Path> {
+    private final boolean followLinks;
+    private final int maxDepth;
+    private final Filter<? super Path> filter;
+
+    // the open directories, innermost first
+    private final ArrayDeque<Node> stack = new ArrayDeque<>();
+
+    // the next file to return, or null if not yet found
+    private Path next;
+    private boolean iteratorReturned;
+    private boolean closed;
+
+    /**
+     * An open directory.
+     */
+    private static class Node extends FileTreeWalker.AncestorDirectory {
+        final DirectoryStream<Path> stream;
+        final Iterator<Path> iterator;
+        Node(Path dir, Object key, DirectoryStream<Path> stream) {
+            super(dir, key);
+            this.stream = stream;
+            this.iterator = stream.iterator();
+        }
+    }
+
+    FileTreeStream(Path start,
+                   int maxDepth,
+                   Filter<? super Path> filter,
+                   FileVisitOption... options)
+        throws IOException
+    {
+        boolean fl = false;
+        for (FileVisitOption option: options) {
+            // will throw NPE if options contains null
+            switch (option) {
+                case FOLLOW_LINKS : fl = true; break;
+                default:
+                    throw new AssertionError("Should not get here");
+            }
+        }
+        this.followLinks = fl;
+        this.maxDepth = maxDepth;
+        this.filter = filter;
+
+        BasicFileAttributes attrs =
+            FileTreeWalker.readAttributes(start, null, followLinks);
+        if (accept(start))
+            next = start;
+        if (maxDepth > 0 && attrs.isDirectory())
+            stack.push(new Node(start, attrs.fileKey(), Files.newDirectoryStream(start)));
+    }
+
+    private boolean accept(Path file) throws IOException {
+        return (filter == null) || filter.accept(file);
+    }
+
+    /**
+     * Closes the innermost open directory.
+     */
+    private void pop() throws IOException {
+        stack.pop().stream.close();
+    }
+
+    /**
+     * Finds the next file accepted by the filter, or returns {@code null}
+     * at the end of the tree.
+     */
+    private Path fetch() throws IOException {
+        while (!stack.isEmpty()) {
+            Node node = stack.peek();
+            Path entry;
+            try {
+                if (!node.iterator.hasNext()) {
+                    pop();
+                    continue;
+                }
+                entry = node.iterator.next();
+            } catch (DirectoryIteratorException x) {
+                // the rest of the directory is skipped
+                try {
+                    pop();
+                } catch (IOException ignore) { }
+                throw x.getCause();
+            }
+
+            BasicFileAttributes attrs;
+            try {
+                attrs = FileTreeWalker.readAttributes(entry, node.stream, followLinks);
+            } catch (SecurityException x) {
+                // the file is ignored
+                continue;
+            }
+
+            // descend into the directory, unless at maximum depth
+            if (stack.size() < maxDepth && attrs.isDirectory()) {
+                Object key = attrs.fileKey();
+                if (followLinks && FileTreeWalker.isCycle(entry, key, stack))
+                    throw new FileSystemLoopException(entry.toString());
+                try {
+                    stack.push(new Node(entry, key, Files.newDirectoryStream(entry)));
+                } catch (SecurityException x) {
+                    // the directory is returned but not opened
+                }
+            }
+            if (accept(entry))
+                return entry;
+        }
+        return null;
+    }
+
+    @Override
+    public Iterator<Path> iterator() {
+        synchronized (this) {
+            if (closed)
+                throw new IllegalStateException("Directory stream is closed");
+            if (iteratorReturned)
+                throw new IllegalStateException("Iterator already obtained");
+            iteratorReturned = true;
+        }
+        return new Iterator<Path>() {
+            @Override
+            public boolean hasNext() {
+                synchronized (FileTreeStream.this) {
+                    if (next == null && !closed) {
+                        try {
+                            next = fetch();
+                        } catch (IOException x) {
+                            throw new DirectoryIteratorException(x);
+                        }
+                    }
+                    return next != null;
+                }
+            }
+            @Override
+            public Path next() {
+                synchronized (FileTreeStream.this) {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    Path result = next;
+                    next = null;
+                    return result;
+                }
+            }
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        next = null;
+        IOException exc = null;
+        while (!stack.isEmpty()) {
+            try {
+                pop();
+            } catch (IOException x) {
+                if (exc == null)
+                    exc = x;
+            }
+        }
+        if (exc != null)
+            throw exc;
+    }
+}
@@ -48,10 +48,13 @@ import sun.nio.fs.BasicFileAttributesHolder;
  */
 
 class FileTreeWalker {
-    private final boolean followLinks;
-    private final LinkOption[] linkOptions;
-    private final FileVisitor<? super Path> visitor;
-    private final int maxDepth;
+    private static final LinkOption[] FOLLOW = new LinkOption[0];
+    private static final LinkOption[] NOFOLLOW =
+        new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
+
+    final boolean followLinks;
+    final FileVisitor<? super Path> visitor;
+    final int maxDepth;
 
     FileTreeWalker(Set<FileVisitOption> options,
                    FileVisitor<? super Path> visitor,
@@ -67,8 +70,6 @@ class FileTreeWalker {
             }
         }
         this.followLinks = fl;
-        this.linkOptions = (fl) ? new LinkOption[0] :
-            new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
         this.visitor = visitor;
         this.maxDepth = maxDepth;
     }
@@ -79,10 +80,113 @@ class FileTreeWalker {
     void walk(Path start) throws IOException {
         FileVisitResult result = walk(start,
                                       0,
-                                      new ArrayList<AncestorDirectory>());
+                                      new ArrayList<AncestorDirectory>(),
+                                      null);
         Objects.requireNonNull(result, "FileVisitor returned null");
     }
 
+    /**
+     * Reads the basic attributes of a file. If following links and the
+     * attributes of the target cannot be read then the attributes of the
+     * link are read.
+     *
+     * <p> Entries of a directory are read using the open stream of the
+     * directory: attributes cached with the entry are used if possible, and
+     * otherwise, when the stream is a {@link SecureDirectoryStream}, they are
+     * read relative to the open directory so that the path does not need to
+     * be resolved again from the starting file.
+     *
+     * @param   file
+     *          the file
+     * @param   parent
+     *          the open stream of the directory in which the file was found,
+     *          or {@code null} if it is the starting file
+     * @param   followLinks
+     *          whether to follow symbolic links
+     */
+    static BasicFileAttributes readAttributes(Path file,
+                                              DirectoryStream<Path> parent,
+                                              boolean followLinks)
+        throws IOException
+    {
+        LinkOption[] linkOptions = (followLinks) ? FOLLOW : NOFOLLOW;
+        if (parent != null) {
+            // if attributes are cached then use them if possible
+            if ((file instanceof BasicFileAttributesHolder) &&
+                (System.getSecurityManager() == null))
+            {
+                BasicFileAttributes cached = ((BasicFileAttributesHolder)file).get();
+                if (cached != null && (!followLinks || !cached.isSymbolicLink()))
+                    return cached;
+            }
+            if (parent instanceof SecureDirectoryStream) {
+                @SuppressWarnings("unchecked")
+                SecureDirectoryStream<Path> sds = (SecureDirectoryStream<Path>)parent;
+                Path name = file.getFileName();
+                BasicFileAttributeView view =
+                    sds.getFileAttributeView(name, BasicFileAttributeView.class, linkOptions);
+                if (view != null) {
+                    try {
+                        return view.readAttributes();
+                    } catch (IOException x) {
+                        if (!followLinks)
+                            throw x;
+                        return sds.getFileAttributeView(name,
+                                                        BasicFileAttributeView.class,
+                                                        NOFOLLOW).readAttributes();
+                    }
+                }
+            }
+        }
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class, linkOptions);
+        } catch (IOException x) {
+            if (!followLinks)
+                throw x;
+            return Files.readAttributes(file,
+                                        BasicFileAttributes.class,
+                                        LinkOption.NOFOLLOW_LINKS);
+        }
+    }
+
+    /**
+     * Tests if a directory is one of its own ancestors, which means that
+     * following links has led to a cycle.
+     *
+     * @param   dir
+     *          the directory
+     * @param   key
+     *          the file key of the directory, may be {@code null}
+     * @param   ancestors
+     *          the ancestors of the directory
+     */
+    static boolean isCycle(Path dir,
+                           Object key,
+                           Iterable<? extends AncestorDirectory> ancestors)
+    {
+        // if this directory and ancestor has a file key then we compare
+        // them; otherwise we use less efficient isSameFile test.
+        for (AncestorDirectory ancestor: ancestors) {
+            Object ancestorKey = ancestor.fileKey();
+            if (key != null && ancestorKey != null) {
+                if (key.equals(ancestorKey))
+                    return true;
+            } else {
+                boolean isSameFile = false;
+                try {
+                    isSameFile = Files.isSameFile(dir, ancestor.file());
+                } catch (IOException x) {
+                    // ignore
+                } catch (SecurityException x) {
+                    // ignore
+                }
+                if (isSameFile)
+                    return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @param   file
      *          the directory to visit
@@ -90,50 +194,31 @@ class FileTreeWalker {
      *          depth remaining
      * @param   ancestors
      *          use when cycle detection is enabled
+     * @param   parent
+     *          the open stream of the directory containing the file, or
+     *          {@code null} for the starting file
      */
     private FileVisitResult walk(Path file,
                                  int depth,
-                                 List<AncestorDirectory> ancestors)
+                                 List<AncestorDirectory> ancestors,
+                                 DirectoryStream<Path> parent)
         throws IOException
     {
-        // if attributes are cached then use them if possible
         BasicFileAttributes attrs = null;
-        if ((depth > 0) &&
-            (file instanceof BasicFileAttributesHolder) &&
-            (System.getSecurityManager() == null))
-        {
-            BasicFileAttributes cached = ((BasicFileAttributesHolder)file).get();
-            if (cached != null && (!followLinks || !cached.isSymbolicLink()))
-                attrs = cached;
-        }
         IOException exc = null;
 
         // attempt to get attributes of file. If fails and we are following
         // links then a link target might not exist so get attributes of link
-        if (attrs == null) {
-            try {
-                try {
-                    attrs = Files.readAttributes(file, BasicFileAttributes.class, linkOptions);
-                } catch (IOException x1) {
-                    if (followLinks) {
-                        try {
-                            attrs = Files.readAttributes(file,
-                                                         BasicFileAttributes.class,
-                                                         LinkOption.NOFOLLOW_LINKS);
-                        } catch (IOException x2) {
-                            exc = x2;
-                        }
-                    } else {
-                        exc = x1;
-                    }
-                }
-            } catch (SecurityException x) {
-                // If access to starting file is denied then SecurityException
-                // is thrown, otherwise the file is ignored.
-                if (depth == 0)
-                    throw x;
-                return FileVisitResult.CONTINUE;
-            }
+        try {
+            attrs = readAttributes(file, parent, followLinks);
+        } catch (IOException x) {
+            exc = x;
+        } catch (SecurityException x) {
+            // If access to starting file is denied then SecurityException
+            // is thrown, otherwise the file is ignored.
+            if (depth == 0)
+                throw x;
+            return FileVisitResult.CONTINUE;
         }
 
         // unable to get attributes of file
@@ -149,32 +234,10 @@ class FileTreeWalker {
         // check for cycles when following links
         if (followLinks) {
             Object key = attrs.fileKey();
-
-            // if this directory and ancestor has a file key then we compare
-            // them; otherwise we use less efficient isSameFile test.
-            for (AncestorDirectory ancestor: ancestors) {
-                Object ancestorKey = ancestor.fileKey();
-                if (key != null && ancestorKey != null) {
-                    if (key.equals(ancestorKey)) {
-                        // cycle detected
-                        return visitor.visitFileFailed(file,
-                            new FileSystemLoopException(file.toString()));
-                    }
-                } else {
-                    boolean isSameFile = false;
-                    try {
-                        isSameFile = Files.isSameFile(file, ancestor.file());
-                    } catch (IOException x) {
-                        // ignore
-                    } catch (SecurityException x) {
-                        // ignore
-                    }
-                    if (isSameFile) {
-                        // cycle detected
-                        return visitor.visitFileFailed(file,
-                            new FileSystemLoopException(file.toString()));
-                    }
-                }
+            if (isCycle(file, key, ancestors)) {
+                // cycle detected
+                return visitor.visitFileFailed(file,
+                    new FileSystemLoopException(file.toString()));
             }
 
             ancestors.add(new AncestorDirectory(file, key));
@@ -207,7 +270,7 @@ class FileTreeWalker {
 
                 try {
                     for (Path entry: stream) {
-                        result = walk(entry, depth+1, ancestors);
+                        result = walk(entry, depth+1, ancestors, stream);
 
                         // returning null will cause NPE to be thrown
                         if (result == null || result == FileVisitResult.TERMINATE)
@@ -242,7 +305,7 @@ class FileTreeWalker {
         }
     }
 
-    private static class AncestorDirectory {
+    static class AncestorDirectory {
         private final Path dir;
         private final Object key;
         AncestorDirectory(Path dir, Object key) {
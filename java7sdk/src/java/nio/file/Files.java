@@ -42,6 +42,7 @@ import java.nio.file.spi.FileTypeDetector;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
@@ -52,11 +53,14 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
+import com.ibm.jvm.io.FileAttributeCache;
+import sun.nio.ch.StreamTransfers;
 
 /**
  * This class consists exclusively of static methods that operate on files,
@@ -78,6 +82,38 @@ public final class Files {
         return path.getFileSystem().provider();
     }
 
+    /**
+     * The file attribute cache, or {@code null} if it is not enabled.
+     */
+    private static final FileAttributeCache attributeCache =
+        FileAttributeCache.getInstance();
+
+    /**
+     * Returns the basic attributes of a file of the default file system
+     * from the attribute cache, following symbolic links, after checking
+     * read access as the default provider does. Returns {@code null} if the
+     * cache is not enabled or the file is of another file system.
+     */
+    private static BasicFileAttributes cachedAttributes(Path path)
+        throws IOException
+    {
+        if (attributeCache == null ||
+            path.getFileSystem() != FileSystems.getDefault())
+            return null;
+        SecurityManager sm = System.getSecurityManager();
+        if (sm != null)
+            sm.checkRead(path.toString());
+        return attributeCache.readAttributes(path);
+    }
+
+    /**
+     * Drops the cached attributes of a file after it has been changed.
+     */
+    private static void invalidate(Path path) {
+        if (attributeCache != null)
+            attributeCache.invalidate(path);
+    }
+
     // -- File contents --
 
     /**
@@ -596,7 +632,11 @@ public final class Files {
     {
         EnumSet<StandardOpenOption> options =
             EnumSet.<StandardOpenOption>of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
-        newByteChannel(path, options, attrs).close();
+        try {
+            newByteChannel(path, options, attrs).close();
+        } finally {
+            invalidate(path);
+        }
         return path;
     }
 
@@ -638,7 +678,11 @@ public final class Files {
     public static Path createDirectory(Path dir, FileAttribute<?>... attrs)
         throws IOException
     {
-        provider(dir).createDirectory(dir, attrs);
+        try {
+            provider(dir).createDirectory(dir, attrs);
+        } finally {
+            invalidate(dir);
+        }
         return dir;
     }
 
@@ -1087,7 +1131,11 @@ public final class Files {
      *          is invoked to check delete access to the file
      */
     public static void delete(Path path) throws IOException {
-        provider(path).delete(path);
+        try {
+            provider(path).delete(path);
+        } finally {
+            invalidate(path);
+        }
     }
 
     /**
@@ -1126,7 +1174,11 @@ public final class Files {
      *          is invoked to check delete access to the file.
      */
     public static boolean deleteIfExists(Path path) throws IOException {
-        return provider(path).deleteIfExists(path);
+        try {
+            return provider(path).deleteIfExists(path);
+        } finally {
+            invalidate(path);
+        }
     }
 
     // -- Copying and moving files --
@@ -1233,12 +1285,16 @@ public final class Files {
         throws IOException
     {
         FileSystemProvider provider = provider(source);
-        if (provider(target) == provider) {
-            // same provider
-            provider.copy(source, target, options);
-        } else {
-            // different providers
-            CopyMoveHelper.copyToForeignTarget(source, target, options);
+        try {
+            if (provider(target) == provider) {
+                // same provider
+                provider.copy(source, target, options);
+            } else {
+                // different providers
+                CopyMoveHelper.copyToForeignTarget(source, target, options);
+            }
+        } finally {
+            invalidate(target);
         }
         return target;
     }
@@ -1353,12 +1409,17 @@ public final class Files {
         throws IOException
     {
         FileSystemProvider provider = provider(source);
-        if (provider(target) == provider) {
-            // same provider
-            provider.move(source, target, options);
-        } else {
-            // different providers
-            CopyMoveHelper.moveToForeignTarget(source, target, options);
+        try {
+            if (provider(target) == provider) {
+                // same provider
+                provider.move(source, target, options);
+            } else {
+                // different providers
+                CopyMoveHelper.moveToForeignTarget(source, target, options);
+            }
+        } finally {
+            invalidate(source);
+            invalidate(target);
         }
         return target;
     }
@@ -1694,6 +1755,11 @@ public final class Files {
                                                                    LinkOption... options)
         throws IOException
     {
+        if (type == BasicFileAttributes.class && options.length == 0) {
+            BasicFileAttributes attrs = cachedAttributes(path);
+            if (attrs != null)
+                return type.cast(attrs);
+        }
         return provider(path).readAttributes(path, type, options);
     }
 
@@ -2256,8 +2322,12 @@ public final class Files {
     public static Path setLastModifiedTime(Path path, FileTime time)
         throws IOException
     {
-        getFileAttributeView(path, BasicFileAttributeView.class)
-            .setTimes(time, null, null);
+        try {
+            getFileAttributeView(path, BasicFileAttributeView.class)
+                .setTimes(time, null, null);
+        } finally {
+            invalidate(path);
+        }
         return path;
     }
 
@@ -2336,7 +2406,8 @@ public final class Files {
     public static boolean exists(Path path, LinkOption... options) {
         try {
             if (followLinks(options)) {
-                provider(path).checkAccess(path);
+                if (cachedAttributes(path) == null)
+                    provider(path).checkAccess(path);
             } else {
                 // attempt to read attributes without following links
                 readAttributes(path, BasicFileAttributes.class,
@@ -2385,7 +2456,8 @@ public final class Files {
     public static boolean notExists(Path path, LinkOption... options) {
         try {
             if (followLinks(options)) {
-                provider(path).checkAccess(path);
+                if (cachedAttributes(path) == null)
+                    provider(path).checkAccess(path);
             } else {
                 // attempt to read attributes without following links
                 readAttributes(path, BasicFileAttributes.class,
@@ -2649,6 +2721,138 @@ public final class Files {
                             visitor);
     }
 
+    /**
+     * Walks a file tree, reading directories in parallel.
+     *
+     * <p> This method walks the file tree as the {@link
+     * #walkFileTree(Path,Set,int,FileVisitor) walkFileTree} method does, with
+     * the directories opened, and the attributes of their entries read, by
+     * tasks of the given pool.
+     *
+     * <p> If {@code ordered} is {@code true} then the visitor is invoked on
+     * the calling thread, in the same order and with the same results as
+     * {@code walkFileTree}; the pool reads the next few subdirectories of each
+     * directory ahead of the visitor. The entries of a directory are read
+     * before it is visited, so the visitor should not rely on seeing the
+     * entries that it creates in directories not yet visited.
+     *
+     * <p> If {@code ordered} is {@code false} then the visitor is invoked
+     * concurrently by the tasks of the pool, and must be thread-safe. The
+     * {@link FileVisitor#preVisitDirectory preVisitDirectory} method is
+     * invoked for a directory before its entries are visited, and the {@link
+     * FileVisitor#postVisitDirectory postVisitDirectory} method after its
+     * entries and all of their descendants have been visited; otherwise the
+     * order of the visits is unspecified. A result of {@link
+     * FileVisitResult#SKIP_SIBLINGS SKIP_SIBLINGS} skips the siblings whose
+     * visit has not yet started, and a result of {@link
+     * FileVisitResult#TERMINATE TERMINATE}, or an exception or error thrown
+     * by the visitor, terminates the walk once the visits in progress have
+     * completed. The first exception or error thrown is propagated to the
+     * caller of this method.
+     *
+     * @param   start
+     *          the starting file
+     * @param   options
+     *          options to configure the traversal
+     * @param   maxDepth
+     *          the maximum number of directory levels to visit
+     * @param   visitor
+     *          the file visitor to invoke for each file
+     * @param   pool
+     *          the pool in which to read directories
+     * @param   ordered
+     *          whether to invoke the visitor in order on the calling thread
+     *
+     * @return  the starting file
+     *
+     * @throws  IllegalArgumentException
+     *          if the {@code maxDepth} parameter is negative
+     * @throws  SecurityException
+     *          If the security manager denies access to the starting file.
+     *          In the case of the default provider, the {@link
+     *          SecurityManager#checkRead(String) checkRead} method is invoked
+     *          to check read access to the directory.
+     * @throws  IOException
+     *          if an I/O error is thrown by a visitor method
+     *
+     * @since 1.7
+     */
+    public static Path walkFileTree(Path start,
+                                    Set<FileVisitOption> options,
+                                    int maxDepth,
+                                    FileVisitor<? super Path> visitor,
+                                    ForkJoinPool pool,
+                                    boolean ordered)
+        throws IOException
+    {
+        if (maxDepth < 0)
+            throw new IllegalArgumentException("'maxDepth' is negative");
+        Objects.requireNonNull(visitor);
+        Objects.requireNonNull(pool);
+        new ParallelFileTreeWalker(options, visitor, maxDepth, pool, ordered).walk(start);
+        return start;
+    }
+
+    /**
+     * Opens a stream over the files of a file tree.
+     *
+     * <p> The stream returns the starting file and then, if it is a
+     * directory, the files below it, depth-first: each directory is
+     * returned before its entries. The tree is read lazily, as the stream
+     * is iterated, with only the directories on the way to the current file
+     * open; the memory used depends on the depth of the tree and not on the
+     * number of files in it. The {@code maxDepth} parameter, the {@link
+     * FileVisitOption#FOLLOW_LINKS FOLLOW_LINKS} option and files to which
+     * the security manager denies access are treated as by the {@link
+     * #walkFileTree(Path,Set,int,FileVisitor) walkFileTree} method.
+     *
+     * <p> If a {@code filter} is given then only the files that it accepts
+     * are returned; the directories that it rejects are still descended.
+     *
+     * <p> If the attributes of a file cannot be read, a directory cannot be
+     * opened or read, or following links leads to a cycle, then the
+     * iterator throws {@link DirectoryIteratorException} with the {@code
+     * IOException} as cause. The file, or the remainder of the directory, is
+     * skipped, and the iteration may continue with the next file.
+     *
+     * <p> The stream must be closed to close the directories that remain
+     * open, preferably with the try-with-resources statement.
+     *
+     * @param   start
+     *          the starting file
+     * @param   maxDepth
+     *          the maximum number of directory levels to visit
+     * @param   filter
+     *          the filter of the files to return, or {@code null}
+     * @param   options
+     *          options to configure the traversal
+     *
+     * @return  a new and open {@code DirectoryStream} object
+     *
+     * @throws  IllegalArgumentException
+     *          if the {@code maxDepth} parameter is negative
+     * @throws  SecurityException
+     *          If the security manager denies access to the starting file.
+     *          In the case of the default provider, the {@link
+     *          SecurityManager#checkRead(String) checkRead} method is invoked
+     *          to check read access to the directory.
+     * @throws  IOException
+     *          if the attributes of the starting file cannot be read, or it
+     *          is a directory that cannot be opened
+     *
+     * @since 1.7
+     */
+    public static DirectoryStream<Path> newFileTreeStream(Path start,
+                                                          int maxDepth,
+                                                          DirectoryStream.Filter<? super Path> filter,
+                                                          FileVisitOption... options)
+        throws IOException
+    {
+        if (maxDepth < 0)
+            throw new IllegalArgumentException("'maxDepth' is negative");
+        return new FileTreeStream(start, maxDepth, filter, options);
+    }
+
 
     // -- Utility methods for simple usages --
 
@@ -2740,14 +2944,30 @@ public final class Files {
     private static long copy(InputStream source, OutputStream sink)
         throws IOException
     {
-        long nread = 0L;
-        byte[] buf = new byte[BUFFER_SIZE];
-        int n;
-        while ((n = source.read(buf)) > 0) {
-            sink.write(buf, 0, n);
-            nread += n;
+        return source.transferTo(sink);
+    }
+
+    /**
+     * Moves all bytes from a file channel, starting at position 0, to the
+     * channel of an output stream. Bytes beyond the size of the file when
+     * the transfer began, and all bytes of files that report no size, are
+     * copied through the stream.
+     */
+    private static long transfer(FileChannel source,
+                                 WritableByteChannel target,
+                                 OutputStream out)
+        throws IOException
+    {
+        long size = source.size();
+        long pos = 0L;
+        while (pos < size) {
+            long n = source.transferTo(pos, size - pos, target);
+            if (n <= 0)
+                break;
+            pos += n;
         }
-        return nread;
+        source.position(pos);
+        return pos + copy(Channels.newInputStream(source), out);
     }
 
     /**
@@ -2776,6 +2996,12 @@ public final class Files {
      * highly input stream and file system provider specific and therefore not
      * specified.
      *
+     * <p> The bytes are copied with the {@link InputStream#transferTo
+     * transferTo} method of the input stream; where it is a {@link
+     * java.io.FileInputStream} and the file is written with a {@link
+     * FileChannel}, they are moved between the channels without being copied
+     * into the Java heap.
+     *
      * <p> <b>Usage example</b>: Suppose we want to capture a web page and save
      * it to a file:
      * <pre>
@@ -2863,6 +3089,8 @@ public final class Files {
         // do the copy
         try (OutputStream out = ostream) {
             return copy(in, out);
+        } finally {
+            invalidate(target);
         }
     }
 
@@ -2885,6 +3113,12 @@ public final class Files {
      * then its {@link java.io.Flushable#flush flush} method may need to invoked
      * after this method completes so as to flush any buffered output.
      *
+     * <p> Where the file is read with a {@link FileChannel} and the output
+     * stream writes to a file channel or to a blocking socket channel, as a
+     * {@link java.io.FileOutputStream} does, the bytes are moved with {@link
+     * FileChannel#transferTo FileChannel.transferTo}, which the operating
+     * system may carry out without copying them into the Java heap.
+     *
      * @param   source
      *          the  path to the file
      * @param   out
@@ -2903,6 +3137,16 @@ public final class Files {
         // ensure not null before opening file
         Objects.requireNonNull(out);
 
+        // move the bytes between the channels if the stream writes to one
+        WritableByteChannel target = StreamTransfers.transferTarget(out);
+        if (target != null) {
+            try (SeekableByteChannel sbc = newByteChannel(source)) {
+                if (sbc instanceof FileChannel)
+                    return transfer((FileChannel)sbc, target, out);
+                return copy(Channels.newInputStream(sbc), out);
+            }
+        }
+
         try (InputStream in = newInputStream(source)) {
             return copy(in, out);
         }
@@ -3108,6 +3352,8 @@ public final class Files {
                 out.write(bytes, (len-rem), n);
                 rem -= n;
             }
+        } finally {
+            invalidate(path);
         }
         return path;
     }
@@ -3165,6 +3411,8 @@ public final class Files {
                 writer.append(line);
                 writer.newLine();
             }
+        } finally {
+            invalidate(path);
         }
         return path;
     }
@@ -0,0 +1,501 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.nio.file;
+
+import java.nio.file.attribute.*;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * File tree walker that reads directories in parallel using a {@link
+ * ForkJoinPool}.
+ *
+ * <p> In <em>ordered</em> mode the visitor is invoked on the calling thread
+ * in exactly the order, and with the same results, as {@link FileTreeWalker}.
+ * The directories are read ahead by tasks of the pool: when the entries of
+ * a directory are visited, the next few of its subdirectories are already
+ * being read, with the attributes of their entries. At most {@code
+ * readAhead} directories are read ahead at each level of the tree.
+ *
+ * <p> In <em>unordered</em> mode the visitor is invoked by the tasks of the
+ * pool, concurrently, and must be thread-safe. Each directory is visited by
+ * one task, which forks a task for each batch of its entries; the batches
+ * read the attributes of the entries, visit the files and fork a task for
+ * each subdirectory. {@code preVisitDirectory} is still invoked before, and
+ * {@code postVisitDirectory} after, the visits of the entries of the
+ * directory and of their descendants. {@code SKIP_SIBLINGS} skips the
+ * entries of the directory not yet visited, and {@code TERMINATE} stops the
+ * walk once the visits in progress have completed.
+ *
+ * @see Files#walkFileTree(Path,Set,int,FileVisitor,ForkJoinPool,boolean)
+ */
+
+class ParallelFileTreeWalker extends FileTreeWalker {
+    // number of entries of a directory visited by a task in unordered mode
+    private static final int BATCH_SIZE = 128;
+
+    private final ForkJoinPool pool;
+    private final boolean ordered;
+    private final int readAhead;
+
+    // set when the unordered walk is to stop
+    private volatile boolean terminated;
+    // the first exception or error thrown by the visitor in unordered mode
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    ParallelFileTreeWalker(Set<FileVisitOption> options,
+                           FileVisitor<? super Path> visitor,
+                           int maxDepth,
+                           ForkJoinPool pool,
+                           boolean ordered)
+    {
+        super(options, visitor, maxDepth);
+        this.pool = pool;
+        this.ordered = ordered;
+        this.readAhead = Math.max(2, pool.getParallelism() * 2);
+    }
+
+    /**
+     * Walk file tree starting at the given file
+     */
+    @Override
+    void walk(Path start) throws IOException {
+        // If access to starting file is denied then SecurityException
+        // is thrown
+        BasicFileAttributes attrs = null;
+        IOException exc = null;
+        try {
+            attrs = readAttributes(start, null, followLinks);
+        } catch (IOException x) {
+            exc = x;
+        }
+
+        if (ordered) {
+            FileVisitResult result = walkOrdered(start, 0, attrs, exc, null,
+                                                 new ArrayList<AncestorDirectory>());
+            Objects.requireNonNull(result, "FileVisitor returned null");
+            return;
+        }
+
+        pool.invoke(new VisitTask(start, 0, attrs, exc,
+                                  Collections.<AncestorDirectory>emptyList(), null));
+        Throwable t = failure.get();
+        if (t instanceof IOException)
+            throw (IOException)t;
+        if (t instanceof RuntimeException)
+            throw (RuntimeException)t;
+        if (t instanceof Error)
+            throw (Error)t;
+    }
+
+    // -- ordered mode --
+
+    /**
+     * An entry of a directory with its attributes, or the exception thrown
+     * reading them.
+     */
+    private static class Entry {
+        final Path file;
+        final BasicFileAttributes attrs;
+        final IOException exc;
+        // reads the entries of this directory ahead of the visit
+        ForkJoinTask<Listing> reader;
+
+        Entry(Path file, BasicFileAttributes attrs, IOException exc) {
+            this.file = file;
+            this.attrs = attrs;
+            this.exc = exc;
+        }
+    }
+
+    /**
+     * The entries of a directory, read by a {@link ReadTask}.
+     */
+    private static class Listing {
+        // the directory could not be opened
+        IOException openFailure;
+        // access to the directory was denied
+        boolean denied;
+        final List<Entry> entries = new ArrayList<>();
+        // the exception to notify to postVisitDirectory
+        IOException ioe;
+    }
+
+    private class ReadTask extends RecursiveTask<Listing> {
+        private final Path dir;
+        ReadTask(Path dir) {
+            this.dir = dir;
+        }
+        @Override
+        protected Listing compute() {
+            return read(dir);
+        }
+    }
+
+    /**
+     * Reads the entries of a directory and their attributes.
+     */
+    private Listing read(Path dir) {
+        Listing listing = new Listing();
+        DirectoryStream<Path> stream;
+        try {
+            stream = Files.newDirectoryStream(dir);
+        } catch (IOException x) {
+            listing.openFailure = x;
+            return listing;
+        } catch (SecurityException x) {
+            listing.denied = true;
+            return listing;
+        }
+        try {
+            for (Path entry: stream) {
+                BasicFileAttributes attrs = null;
+                IOException exc = null;
+                try {
+                    attrs = readAttributes(entry, stream, followLinks);
+                } catch (IOException x) {
+                    exc = x;
+                } catch (SecurityException x) {
+                    // the file is ignored
+                    continue;
+                }
+                listing.entries.add(new Entry(entry, attrs, exc));
+            }
+        } catch (DirectoryIteratorException e) {
+            // IOException will be notified to postVisitDirectory
+            listing.ioe = e.getCause();
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // IOException will be notified to postVisitDirectory
+                if (listing.ioe == null)
+                    listing.ioe = e;
+            }
+        }
+        return listing;
+    }
+
+    /**
+     * Submits read tasks for the next {@code count} subdirectories in the
+     * list, starting at index {@code from}, returning the index after the
+     * last one submitted.
+     */
+    private int readAhead(List<Entry> entries, int from, int depth, int count) {
+        int i = from;
+        while (count > 0 && i < entries.size()) {
+            Entry entry = entries.get(i++);
+            if (entry.exc == null && entry.attrs.isDirectory() && depth < maxDepth) {
+                entry.reader = pool.submit(new ReadTask(entry.file));
+                count--;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Visits a file, and the file tree below it if it is a directory, on
+     * the calling thread.
+     *
+     * @param   reader
+     *          the task reading the directory ahead, or {@code null}
+     */
+    private FileVisitResult walkOrdered(Path file,
+                                        int depth,
+                                        BasicFileAttributes attrs,
+                                        IOException exc,
+                                        ForkJoinTask<Listing> reader,
+                                        List<AncestorDirectory> ancestors)
+        throws IOException
+    {
+        // unable to get attributes of file
+        if (exc != null) {
+            return visitor.visitFileFailed(file, exc);
+        }
+
+        // at maximum depth or file is not a directory
+        if (depth >= maxDepth || !attrs.isDirectory()) {
+            return visitor.visitFile(file, attrs);
+        }
+
+        // check for cycles when following links
+        if (followLinks) {
+            Object key = attrs.fileKey();
+            if (isCycle(file, key, ancestors)) {
+                if (reader != null)
+                    reader.cancel(false);
+                return visitor.visitFileFailed(file,
+                    new FileSystemLoopException(file.toString()));
+            }
+            ancestors.add(new AncestorDirectory(file, key));
+        }
+
+        try {
+            Listing listing = (reader != null) ? reader.join() : read(file);
+            if (listing.denied) {
+                // ignore, as per spec
+                return FileVisitResult.CONTINUE;
+            }
+            if (listing.openFailure != null) {
+                return visitor.visitFileFailed(file, listing.openFailure);
+            }
+
+            List<Entry> entries = listing.entries;
+            int next = 0;
+            int i = 0;
+            try {
+                FileVisitResult result = visitor.preVisitDirectory(file, attrs);
+                if (result != FileVisitResult.CONTINUE) {
+                    return result;
+                }
+
+                next = readAhead(entries, 0, depth+1, readAhead);
+                for (; i < entries.size(); i++) {
+                    Entry entry = entries.get(i);
+                    if (entry.reader != null)
+                        next = readAhead(entries, next, depth+1, 1);
+                    result = walkOrdered(entry.file, depth+1, entry.attrs,
+                                         entry.exc, entry.reader, ancestors);
+                    entry.reader = null;
+
+                    // returning null will cause NPE to be thrown
+                    if (result == null || result == FileVisitResult.TERMINATE)
+                        return result;
+
+                    // skip remaining siblings in this directory
+                    if (result == FileVisitResult.SKIP_SIBLINGS)
+                        break;
+                }
+            } finally {
+                // cancel the reads of directories that will not be visited
+                for (int j = i; j < next; j++) {
+                    ForkJoinTask<Listing> r = entries.get(j).reader;
+                    if (r != null)
+                        r.cancel(false);
+                }
+            }
+
+            // invoke postVisitDirectory last
+            return visitor.postVisitDirectory(file, listing.ioe);
+
+        } finally {
+            // remove key from trail if doing cycle detection
+            if (followLinks) {
+                ancestors.remove(ancestors.size()-1);
+            }
+        }
+    }
+
+    // -- unordered mode --
+
+    /**
+     * Records the first exception or error thrown by the visitor, and stops
+     * the walk.
+     */
+    private void fail(Throwable t) {
+        failure.compareAndSet(null, t);
+        terminated = true;
+    }
+
+    /**
+     * Acts on the result of a visit method invoked in unordered mode.
+     *
+     * @param   dir
+     *          the directory containing the file visited, or {@code null}
+     */
+    private void onResult(FileVisitResult result, VisitTask dir) {
+        if (result == null)
+            throw new NullPointerException("FileVisitor returned null");
+        if (result == FileVisitResult.TERMINATE) {
+            terminated = true;
+        } else if (result == FileVisitResult.SKIP_SIBLINGS && dir != null) {
+            dir.skipEntries = true;
+        }
+    }
+
+    /**
+     * Visits a file, and the file tree below it if it is a directory.
+     */
+    private class VisitTask extends RecursiveAction {
+        private final Path file;
+        private final int depth;
+        private final BasicFileAttributes attrs;
+        private final IOException exc;
+        private final List<AncestorDirectory> ancestors;
+        // the visit of the directory containing the file, or null
+        private final VisitTask parent;
+
+        // the open stream of the directory, while its entries are visited
+        DirectoryStream<Path> stream;
+        // the directory and ancestors, when following links
+        List<AncestorDirectory> trail;
+        // set when the remaining entries of the directory are to be skipped
+        volatile boolean skipEntries;
+
+        VisitTask(Path file,
+                  int depth,
+                  BasicFileAttributes attrs,
+                  IOException exc,
+                  List<AncestorDirectory> ancestors,
+                  VisitTask parent)
+        {
+            this.file = file;
+            this.depth = depth;
+            this.attrs = attrs;
+            this.exc = exc;
+            this.ancestors = ancestors;
+            this.parent = parent;
+        }
+
+        @Override
+        protected void compute() {
+            if (terminated)
+                return;
+            try {
+                onResult(visit(), parent);
+            } catch (Throwable t) {
+                fail(t);
+            }
+        }
+
+        private FileVisitResult visit() throws IOException {
+            // unable to get attributes of file
+            if (exc != null) {
+                return visitor.visitFileFailed(file, exc);
+            }
+
+            // at maximum depth or file is not a directory
+            if (depth >= maxDepth || !attrs.isDirectory()) {
+                return visitor.visitFile(file, attrs);
+            }
+
+            // check for cycles when following links
+            trail = ancestors;
+            if (followLinks) {
+                Object key = attrs.fileKey();
+                if (isCycle(file, key, ancestors)) {
+                    return visitor.visitFileFailed(file,
+                        new FileSystemLoopException(file.toString()));
+                }
+                trail = new ArrayList<>(ancestors);
+                trail.add(new AncestorDirectory(file, key));
+            }
+
+            // open the directory
+            try {
+                stream = Files.newDirectoryStream(file);
+            } catch (IOException x) {
+                return visitor.visitFileFailed(file, x);
+            } catch (SecurityException x) {
+                // ignore, as per spec
+                return FileVisitResult.CONTINUE;
+            }
+
+            // the exception notified to the postVisitDirectory method
+            IOException ioe = null;
+
+            // invoke preVisitDirectory and then visit the entries in batches
+            List<BatchTask> batches = new ArrayList<>();
+            try {
+                FileVisitResult result = visitor.preVisitDirectory(file, attrs);
+                if (result != FileVisitResult.CONTINUE) {
+                    return result;
+                }
+
+                try {
+                    List<Path> batch = new ArrayList<>(BATCH_SIZE);
+                    for (Path entry: stream) {
+                        if (terminated || skipEntries)
+                            break;
+                        batch.add(entry);
+                        if (batch.size() == BATCH_SIZE) {
+                            BatchTask task = new BatchTask(this, batch);
+                            task.fork();
+                            batches.add(task);
+                            batch = new ArrayList<>(BATCH_SIZE);
+                        }
+                    }
+                    if (!batch.isEmpty())
+                        new BatchTask(this, batch).invoke();
+                } catch (DirectoryIteratorException e) {
+                    // IOException will be notified to postVisitDirectory
+                    ioe = e.getCause();
+                }
+            } finally {
+                // the batches read attributes using the stream
+                for (int i = batches.size() - 1; i >= 0; i--)
+                    batches.get(i).join();
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    // IOException will be notified to postVisitDirectory
+                    if (ioe == null)
+                        ioe = e;
+                }
+                stream = null;
+            }
+
+            if (terminated)
+                return FileVisitResult.TERMINATE;
+
+            // invoke postVisitDirectory last
+            return visitor.postVisitDirectory(file, ioe);
+        }
+    }
+
+    /**
+     * Visits a batch of entries of a directory: files are visited by this
+     * task, and a task is forked for each subdirectory.
+     */
+    private class BatchTask extends RecursiveAction {
+        private final VisitTask dir;
+        private final List<Path> entries;
+
+        BatchTask(VisitTask dir, List<Path> entries) {
+            this.dir = dir;
+            this.entries = entries;
+        }
+
+        @Override
+        protected void compute() {
+            List<VisitTask> subdirs = new ArrayList<>();
+            try {
+                for (Path entry: entries) {
+                    if (terminated || dir.skipEntries)
+                        break;
+                    BasicFileAttributes attrs = null;
+                    IOException exc = null;
+                    try {
+                        attrs = readAttributes(entry, dir.stream, followLinks);
+                    } catch (IOException x) {
+                        exc = x;
+                    } catch (SecurityException x) {
+                        // the file is ignored
+                        continue;
+                    }
+                    VisitTask task = new VisitTask(entry, dir.depth+1, attrs,
+                                                   exc, dir.trail, dir);
+                    if (exc == null && attrs.isDirectory() && dir.depth+1 < maxDepth) {
+                        task.fork();
+                        subdirs.add(task);
+                    } else {
+                        task.compute();
+                    }
+                }
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                for (int i = subdirs.size() - 1; i >= 0; i--)
+                    subdirs.get(i).join();
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.util;
+
+import java.util.concurrent.WeakInterner;
+
+/**
+ * An immutable map from resource keys to values, stored as a sorted array
+ * of keys and a parallel array of values. Lookups are binary searches, so
+ * no hash table or entry objects are needed.
+ * <p>
+ * The bundles of a family usually define the same keys for every locale,
+ * so the sorted key arrays are interned: maps with the same keys share a
+ * single array.
+ */
+final class CompactResourceMap extends AbstractMap<String,Object> {
+
+    /* The key arrays in use, so that equal ones are shared */
+    private static final WeakInterner<Keys> keyArrays = new WeakInterner<>();
+
+    private final Keys keys;
+    private final Object[] values;
+    private transient Set<String> keySet;
+    private transient Set<Map.Entry<String,Object>> entrySet;
+
+    /*
+     * A sorted key array, compared by content so it can be interned.
+     */
+    private static final class Keys {
+        final String[] names;
+        final int hash;
+
+        Keys(String[] names) {
+            this.names = names;
+            this.hash = Arrays.hashCode(names);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object obj) {
+            return obj instanceof Keys && Arrays.equals(names, ((Keys) obj).names);
+        }
+    }
+
+    private CompactResourceMap(String[] names, Object[] values) {
+        this.keys = keyArrays.intern(new Keys(names));
+        this.values = values;
+    }
+
+    /**
+     * Returns an immutable copy of the given map, whose keys must be
+     * strings and whose values must not be null.
+     */
+    static CompactResourceMap copyOf(Map<?,?> map) {
+        String[] names = new String[map.size()];
+        int i = 0;
+        for (Object key : map.keySet()) {
+            names[i++] = (String) key;
+        }
+        Arrays.sort(names);
+        Object[] values = new Object[names.length];
+        for (i = 0; i < names.length; i++) {
+            values[i] = map.get(names[i]);
+        }
+        return new CompactResourceMap(names, values);
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        return Arrays.binarySearch(keys.names, key);
+    }
+
+    public Object get(Object key) {
+        int i = indexOf(key);
+        return (i >= 0) ? values[i] : null;
+    }
+
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public Set<String> keySet() {
+        Set<String> ks = keySet;
+        if (ks == null) {
+            keySet = ks = new AbstractSet<String>() {
+                public Iterator<String> iterator() {
+                    return new ArrayIterator<String>() {
+                        String get(int i) {
+                            return keys.names[i];
+                        }
+                    };
+                }
+
+                public boolean contains(Object o) {
+                    return indexOf(o) >= 0;
+                }
+
+                public int size() {
+                    return values.length;
+                }
+            };
+        }
+        return ks;
+    }
+
+    public Set<Map.Entry<String,Object>> entrySet() {
+        Set<Map.Entry<String,Object>> es = entrySet;
+        if (es == null) {
+            entrySet = es = new AbstractSet<Map.Entry<String,Object>>() {
+                public Iterator<Map.Entry<String,Object>> iterator() {
+                    return new ArrayIterator<Map.Entry<String,Object>>() {
+                        Map.Entry<String,Object> get(int i) {
+                            return new SimpleImmutableEntry<>(keys.names[i], values[i]);
+                        }
+                    };
+                }
+
+                public int size() {
+                    return values.length;
+                }
+            };
+        }
+        return es;
+    }
+
+    private abstract class ArrayIterator<E> implements Iterator<E> {
+        private int next;
+
+        abstract E get(int i);
+
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        public E next() {
+            if (next >= values.length) {
+                throw new NoSuchElementException();
+            }
+            return get(next++);
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
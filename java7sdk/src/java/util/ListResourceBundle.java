@@ -208,7 +208,7 @@ public abstract class ListResourceBundle extends ResourceBundle {
             }
             temp.put(key, value);
         }
-        lookup = temp;
+        lookup = CompactResourceMap.copyOf(temp);
     }
 
     private Map<String,Object> lookup = null;
@@ -48,6 +48,7 @@ import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.io.OutputStreamWriter;
 import java.io.BufferedWriter;
+import java.util.concurrent.WeakInterner;
 
 /**
  * The <code>Properties</code> class represents a persistent set of
@@ -412,8 +413,8 @@ class Properties extends Hashtable<Object,Object> {
                 }
                 valueStart++;
             }
-            String key = loadConvert(lr.lineBuf, 0, keyLen, convtBuf);
-            String value = loadConvert(lr.lineBuf, valueStart, limit - valueStart, convtBuf);
+            String key = WeakInterner.dedup(loadConvert(lr.lineBuf, 0, keyLen, convtBuf));
+            String value = WeakInterner.dedup(loadConvert(lr.lineBuf, valueStart, limit - valueStart, convtBuf));
             put(key, value);
         }
     }
@@ -65,6 +65,7 @@ import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.jar.JarEntry;
 
 import sun.reflect.CallerSensitive;
@@ -304,6 +305,17 @@ public abstract class ResourceBundle {
     private static final ConcurrentMap<CacheKey, BundleReference> cacheList
         = new ConcurrentHashMap<>(INITIAL_CACHE_SIZE);
 
+    /**
+     * The bundles loaded by preload, by class loader. A bundle class
+     * refers to its class loader, so the bundles are held through a
+     * SoftReference; held strongly, they would keep the weak key, and
+     * so the class loader, reachable for ever. Holding all the bundles
+     * of a loader in one list keeps their cache entries from being
+     * cleared one by one.
+     */
+    private static final Map<ClassLoader, SoftReference<List<ResourceBundle>>> preloadedBundles
+        = new WeakHashMap<>();
+
     /**
      * Queue for reference objects referring to class loaders or bundles.
      */
@@ -1726,6 +1738,72 @@ public abstract class ResourceBundle {
                 set.remove(key);
             }
         }
+        synchronized (preloadedBundles) {
+            preloadedBundles.remove(loader);
+        }
+    }
+
+    /**
+     * Loads the resource bundles with the given base names for each of the
+     * given locales, using the given class loader and the default
+     * <code>ResourceBundle.Control</code>, in tasks run by the given
+     * executor. This lets an application load the bundles it will need
+     * in parallel while it starts, so that later calls to
+     * {@link #getBundle(String, Locale, ClassLoader) getBundle} find them in
+     * the cache.
+     *
+     * <p>The bundles loaded, with their parent chains, are kept in the cache
+     * together until memory is low or {@link #clearCache(ClassLoader)
+     * clearCache} is called for <code>loader</code>; they do not keep
+     * <code>loader</code> from being garbage collected. Bundles that
+     * cannot be found are ignored.
+     *
+     * @param baseNames the base names of the bundles to load
+     * @param locales the locales for which to load each bundle
+     * @param loader the class loader from which to load the bundles
+     * @param executor the executor that runs the loading tasks
+     * @exception NullPointerException if any argument, base name or locale
+     *        is <code>null</code>
+     * @exception java.util.concurrent.RejectedExecutionException if the
+     *        executor does not accept a task
+     * @since 1.7
+     */
+    public static void preload(Collection<String> baseNames,
+                               Collection<Locale> locales,
+                               final ClassLoader loader,
+                               Executor executor) {
+        if (loader == null || executor == null) {
+            throw new NullPointerException();
+        }
+        List<String> names = new ArrayList<>(baseNames);
+        List<Locale> targetLocales = new ArrayList<>(locales);
+        if (names.contains(null) || targetLocales.contains(null)) {
+            throw new NullPointerException();
+        }
+        for (final String baseName : names) {
+            for (final Locale locale : targetLocales) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        ResourceBundle bundle;
+                        try {
+                            bundle = getBundleImpl(baseName, locale, loader,
+                                                   Control.INSTANCE);
+                        } catch (MissingResourceException e) {
+                            return;
+                        }
+                        synchronized (preloadedBundles) {
+                            SoftReference<List<ResourceBundle>> ref = preloadedBundles.get(loader);
+                            List<ResourceBundle> bundles = (ref == null) ? null : ref.get();
+                            if (bundles == null) {
+                                bundles = new ArrayList<>();
+                                preloadedBundles.put(loader, new SoftReference<>(bundles));
+                            }
+                            bundles.add(bundle);
+                        }
+                    }
+                });
+            }
+        }
     }
 
     /**
@@ -46,6 +46,12 @@ import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 
 /**
@@ -214,12 +220,15 @@ public final class ServiceLoader<S>
      * <p> After invoking this method, subsequent invocations of the {@link
      * #iterator() iterator} method will lazily look up and instantiate
      * providers from scratch, just as is done by a newly-created loader.
+     * The provider-configuration files of this loader's service are read
+     * again as well.
      *
      * <p> This method is intended for use in situations in which new providers
      * can be installed into a running Java virtual machine.
      */
     public void reload() {
         providers.clear();
+        clearConfigNames(service, loader);
         lookupIterator = new LazyIterator(service, loader);
     }
 
@@ -251,8 +260,8 @@ public final class ServiceLoader<S>
     // Parse a single line from the given configuration file, adding the name
     // on the line to the names list.
     //
-    private int parseLine(Class service, URL u, BufferedReader r, int lc,
-                          List<String> names)
+    private static int parseLine(Class service, URL u, BufferedReader r, int lc,
+                                 List<String> names)
         throws IOException, ServiceConfigurationError
     {
         String ln = r.readLine();
@@ -274,7 +283,7 @@ public final class ServiceLoader<S>
                 if (!Character.isJavaIdentifierPart(cp) && (cp != '.'))
                     fail(service, u, lc, "Illegal provider-class name: " + ln);
             }
-            if (!providers.containsKey(ln) && !names.contains(ln))
+            if (!names.contains(ln))
                 names.add(ln);
         }
         return lc + 1;
@@ -289,15 +298,14 @@ public final class ServiceLoader<S>
     // @param  u
     //         The URL naming the configuration file to be parsed
     //
-    // @return A (possibly empty) iterator that will yield the provider-class
-    //         names in the given configuration file that are not yet members
-    //         of the returned set
+    // @return A (possibly empty) list of the distinct provider-class names
+    //         in the given configuration file
     //
     // @throws ServiceConfigurationError
     //         If an I/O error occurs while reading from the given URL, or
     //         if a configuration-file format error is detected
     //
-    private Iterator<String> parse(Class service, URL u)
+    private static List<String> parse(Class service, URL u)
         throws ServiceConfigurationError
     {
         InputStream in = null;
@@ -318,22 +326,117 @@ public final class ServiceLoader<S>
                 fail(service, "Error closing configuration file", y);
             }
         }
-        return names.iterator();
+        return names;
     }
 
-    // Private inner class implementing fully-lazy provider lookup
+    // The provider-class names parsed from local configuration files, by
+    // class loader, service name and configuration-file URL.  The files
+    // are still located on every lookup, so that providers added to a
+    // class loader are seen, but a file already parsed is not read again.
     //
-    private class LazyIterator
-        implements Iterator<S>
+    private static final Map<ClassLoader,Map<String,Map<String,List<String>>>>
+        parsedConfigs = new WeakHashMap<>();
+
+    // Return the provider-class names in the given configuration file,
+    // parsing it only if it has not been parsed for the given loader before.
+    //
+    private static List<String> configNames(Class service, ClassLoader loader,
+                                            URL u)
+        throws ServiceConfigurationError
     {
+        String protocol = u.getProtocol();
+        if (!protocol.equals("jar") && !protocol.equals("file"))
+            return parse(service, u);
+        String key = u.toExternalForm();
+        Map<String,List<String>> configs;
+        synchronized (parsedConfigs) {
+            Map<String,Map<String,List<String>>> services
+                = parsedConfigs.get(loader);
+            if (services == null) {
+                services = new HashMap<>();
+                parsedConfigs.put(loader, services);
+            }
+            configs = services.get(service.getName());
+            if (configs == null) {
+                configs = new HashMap<>();
+                services.put(service.getName(), configs);
+            }
+            List<String> names = configs.get(key);
+            if (names != null)
+                return names;
+        }
+        List<String> names = Collections.unmodifiableList(parse(service, u));
+        synchronized (parsedConfigs) {
+            configs.put(key, names);
+        }
+        return names;
+    }
 
-        Class<S> service;
+    // Forget the parsed configuration files of the given service and loader.
+    //
+    private static void clearConfigNames(Class service, ClassLoader loader) {
+        synchronized (parsedConfigs) {
+            Map<String,Map<String,List<String>>> services
+                = parsedConfigs.get(loader);
+            if (services != null)
+                services.remove(service.getName());
+        }
+    }
+
+    // Load the named provider class, without initializing it, and check
+    // that it is a subtype of the service.
+    //
+    private static <S> Class<? extends S> providerClass(Class<S> service,
+                                                        ClassLoader loader,
+                                                        String cn)
+        throws ServiceConfigurationError
+    {
+        Class<?> c = null;
+        try {
+            c = Class.forName(cn, false, loader);
+        } catch (ClassNotFoundException x) {
+            fail(service,
+                 "Provider " + cn + " not found");
+        }
+        if (!service.isAssignableFrom(c)) {
+            fail(service,
+                 "Provider " + cn  + " not a subtype");
+        }
+        return c.asSubclass(service);
+    }
+
+    // Load and instantiate the named provider class.
+    //
+    private static <S> S newProvider(Class<S> service, ClassLoader loader,
+                                     String cn)
+        throws ServiceConfigurationError
+    {
+        Class<? extends S> c = providerClass(service, loader, cn);
+        try {
+            return service.cast(c.newInstance());
+        } catch (Throwable x) {
+            fail(service,
+                 "Provider " + cn + " could not be instantiated",
+                 x);
+        }
+        throw new Error();          // This cannot happen
+    }
+
+    // Private inner class implementing lazy lookup of the distinct
+    // provider-class names, in configuration order
+    //
+    private static class NameIterator
+        implements Iterator<String>
+    {
+
+        Class<?> service;
         ClassLoader loader;
         Enumeration<URL> configs = null;
         Iterator<String> pending = null;
+        Set<String> seen = new HashSet<>();
         String nextName = null;
 
-        private LazyIterator(Class<S> service, ClassLoader loader) {
+        private NameIterator(Class<?> service, ClassLoader loader) {
             this.service = service;
             this.loader = loader;
         }
@@ -353,13 +456,60 @@ public final class ServiceLoader<S>
                     fail(service, "Error locating configuration files", x);
                 }
             }
-            while ((pending == null) || !pending.hasNext()) {
-                if (!configs.hasMoreElements()) {
+            do {
+                while ((pending == null) || !pending.hasNext()) {
+                    if (!configs.hasMoreElements()) {
+                        return false;
+                    }
+                    pending = configNames(service, loader,
+                                          configs.nextElement()).iterator();
+                }
+                nextName = pending.next();
+            } while (!seen.add(nextName));
+            return true;
+        }
+
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String cn = nextName;
+            nextName = null;
+            return cn;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    // Private inner class implementing fully-lazy provider lookup
+    //
+    private class LazyIterator
+        implements Iterator<S>
+    {
+
+        Class<S> service;
+        ClassLoader loader;
+        NameIterator names;
+        String nextName = null;
+
+        private LazyIterator(Class<S> service, ClassLoader loader) {
+            this.service = service;
+            this.loader = loader;
+            this.names = new NameIterator(service, loader);
+        }
+
+        public boolean hasNext() {
+            while (nextName == null) {
+                if (!names.hasNext()) {
                     return false;
                 }
-                pending = parse(service, configs.nextElement());
+                String cn = names.next();
+                if (!providers.containsKey(cn))
+                    nextName = cn;
             }
-            nextName = pending.next();
             return true;
         }
 
@@ -369,27 +519,9 @@ public final class ServiceLoader<S>
             }
             String cn = nextName;
             nextName = null;
-            Class<?> c = null;
-            try {
-                c = Class.forName(cn, false, loader);
-            } catch (ClassNotFoundException x) {
-                fail(service,
-                     "Provider " + cn + " not found");
-            }
-            if (!service.isAssignableFrom(c)) {
-                fail(service,
-                     "Provider " + cn  + " not a subtype");
-            }
-            try {
-                S p = service.cast(c.newInstance());
-                providers.put(cn, p);
-                return p;
-            } catch (Throwable x) {
-                fail(service,
-                     "Provider " + cn + " could not be instantiated",
-                     x);
-            }
-            throw new Error();          // This cannot happen
+            S p = newProvider(service, loader, cn);
+            providers.put(cn, p);
+            return p;
         }
 
         public void remove() {
@@ -463,6 +595,155 @@ public final class ServiceLoader<S>
         };
     }
 
+    /**
+     * Lazily loads the classes of the available providers of this loader's
+     * service, without instantiating them.
+     *
+     * <p> The iterators of the returned iterable locate the
+     * provider-configuration files and load the provider classes named in
+     * them, in the order in which the {@link #iterator iterator} would
+     * instantiate them, but do not initialize the classes, create any
+     * providers or change the provider cache of this loader.  This lets the
+     * caller choose among the providers by their classes, or by annotations
+     * on them, before creating any.
+     *
+     * <p> The methods of these iterators throw a {@link
+     * ServiceConfigurationError} in the same circumstances as those of the
+     * iterator returned by {@link #iterator iterator}, except those arising
+     * from the instantiation of a provider.  They do not support removal.
+     *
+     * @return  An iterable over the provider classes of this loader's
+     *          service
+     *
+     * @since 1.7
+     */
+    public Iterable<Class<? extends S>> providerTypes() {
+        final Class<S> service = this.service;
+        final ClassLoader loader = this.loader;
+        return new Iterable<Class<? extends S>>() {
+            public Iterator<Class<? extends S>> iterator() {
+                return new Iterator<Class<? extends S>>() {
+
+                    NameIterator names = new NameIterator(service, loader);
+
+                    public boolean hasNext() {
+                        return names.hasNext();
+                    }
+
+                    public Class<? extends S> next() {
+                        return providerClass(service, loader, names.next());
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+
+                };
+            }
+        };
+    }
+
+    /**
+     * Loads and instantiates all the available providers of this loader's
+     * service, using the given executor to instantiate those that are not
+     * in the provider cache.
+     *
+     * <p> The providers not in the cache are instantiated by tasks submitted
+     * to the executor, so that providers whose construction is costly can be
+     * created in parallel.  Once all have been created, they are added to
+     * the provider cache in the order in which the {@link #iterator
+     * iterator} would have instantiated them, and a list of all the
+     * providers in that order is returned.  The providers must therefore
+     * be safe to instantiate concurrently, and in any order.
+     *
+     * <p> If a provider cannot be located or instantiated then a {@link
+     * ServiceConfigurationError} is thrown, after every task has completed,
+     * for the first such provider in the order of the iterator; the
+     * providers before it are added to the cache.
+     *
+     * @param  executor
+     *         The executor used to instantiate the providers
+     *
+     * @return The providers of this loader's service, in iteration order
+     *
+     * @throws ServiceConfigurationError
+     *         If a provider-configuration file violates the specified
+     *         format, or names a provider class that cannot be found and
+     *         instantiated, or if the executor rejects a task
+     *
+     * @since 1.7
+     */
+    public List<S> loadAll(Executor executor) {
+        List<String> names = new ArrayList<>();
+        for (NameIterator i = new NameIterator(service, loader); i.hasNext();)
+            names.add(i.next());
+
+        Map<String,FutureTask<S>> tasks = new HashMap<>();
+        RejectedExecutionException rejected = null;
+        try {
+            for (final String cn : names) {
+                if (providers.containsKey(cn))
+                    continue;
+                FutureTask<S> task = new FutureTask<>(new Callable<S>() {
+                    public S call() {
+                        return newProvider(service, loader, cn);
+                    }
+                });
+                executor.execute(task);
+                tasks.put(cn, task);
+            }
+        } catch (RejectedExecutionException x) {
+            // Run here the submitted tasks the executor has not started,
+            // as it may never do so; those it has started are waited for
+            for (FutureTask<S> task : tasks.values())
+                task.run();
+            rejected = x;
+        }
+
+        // Wait for every task, then report the first failure in order
+        boolean interrupted = false;
+        for (FutureTask<S> task : tasks.values()) {
+            while (true) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException x) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException x) {
+                    break;
+                }
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        if (rejected != null)
+            fail(service, "Could not instantiate providers", rejected);
+
+        List<S> result = new ArrayList<>(names.size());
+        for (String cn : names) {
+            S p = providers.get(cn);
+            if (p == null) {
+                try {
+                    p = tasks.get(cn).get();
+                } catch (ExecutionException x) {
+                    Throwable cause = x.getCause();
+                    if (cause instanceof ServiceConfigurationError)
+                        throw (ServiceConfigurationError)cause;
+                    fail(service,
+                         "Provider " + cn + " could not be instantiated",
+                         cause);
+                } catch (InterruptedException | CancellationException x) {
+                    fail(service,
+                         "Provider " + cn + " could not be instantiated",
+                         x);
+                }
+                providers.put(cn, p);
+            }
+            result.add(p);
+        }
+        return result;
+    }
+
     /**
      * Creates a new service loader for the given service type and class
      * loader.
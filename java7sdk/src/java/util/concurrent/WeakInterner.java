@@ -0,0 +1,478 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package java.util.concurrent;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent table of canonical instances that holds them only weakly.
+ * {@link #intern} returns a previously interned object equal to its
+ * argument if one is still reachable, and otherwise adds the argument and
+ * returns it. Unlike {@link String#intern}, the table can be sized,
+ * several independent tables can be used, and lookups are counted so the
+ * effect of interning can be observed.
+ *
+ * <p>The table is divided into segments in the same way as
+ * {@link ConcurrentHashMap}: lookups of present objects do not lock, and
+ * insertions only lock the segment they hash to. Entries whose referents
+ * have been garbage collected are removed by the next insertion into their
+ * segment.
+ *
+ * <p>The static {@link #dedup(String)} method gives libraries a shared
+ * table for canonicalizing strings they create in bulk, such as keys read
+ * by {@link java.util.Properties#load} or strings read by
+ * {@link java.io.ObjectInputStream}. Unless the system property
+ * {@code java.util.concurrent.WeakInterner.dedupStrings} is set to
+ * {@code true}, it returns its argument unchanged.
+ *
+ * <p>This class does not permit {@code null} to be interned.
+ *
+ * @param <T> the type of interned objects
+ */
+public class WeakInterner<T> {
+
+    /**
+     * The default initial capacity for this table,
+     * used when not otherwise specified in a constructor.
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * The default concurrency level for this table,
+     * used when not otherwise specified in a constructor.
+     */
+    static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * The load factor of each segment table.
+     */
+    static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * The maximum capacity of a segment table.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The maximum number of segments.
+     */
+    static final int MAX_SEGMENTS = 1 << 16;
+
+    /**
+     * Mask value for indexing into segments. The upper bits of a
+     * key's hash code are used to choose the segment.
+     */
+    final int segmentMask;
+
+    /**
+     * Shift value for indexing within segments.
+     */
+    final int segmentShift;
+
+    /**
+     * The segments, each of which is a specialized hash table
+     */
+    final Segment<T>[] segments;
+
+    /**
+     * Holds the shared string table behind {@link #dedup(String)}.
+     * Cannot be a static field in the enclosing class, as loading the
+     * property must not happen until the table is first used.
+     */
+    private static class StringDedup {
+        static final WeakInterner<String> TABLE =
+            java.security.AccessController.doPrivileged(
+                new sun.security.action.GetBooleanAction(
+                    "java.util.concurrent.WeakInterner.dedupStrings")).booleanValue()
+            ? new WeakInterner<String>(1024, DEFAULT_CONCURRENCY_LEVEL)
+            : null;
+    }
+
+    /**
+     * Applies a supplemental hash function to a given hashCode, which
+     * spreads bits to regularize both segment and index locations,
+     * using variant of single-word Wang/Jenkins hash.
+     */
+    private static int hash(int h) {
+        h += (h <<  15) ^ 0xffffcd7d;
+        h ^= (h >>> 10);
+        h += (h <<   3);
+        h ^= (h >>>  6);
+        h += (h <<   2) + (h << 14);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the segment that should be used for key with given hash
+     * @param hash the hash code for the key
+     * @return the segment
+     */
+    final Segment<T> segmentFor(int hash) {
+        return segments[(hash >>> segmentShift) & segmentMask];
+    }
+
+    /**
+     * Interned entry. The referent is held weakly and the next field is
+     * immutable, so bins can be traversed without locking.
+     */
+    static final class Entry<T> extends WeakReference<T> {
+        final int hash;
+        final Entry<T> next;
+
+        Entry(T referent, int hash, Entry<T> next, ReferenceQueue<T> queue) {
+            super(referent, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+
+        @SuppressWarnings("unchecked")
+        static final <T> Entry<T>[] newArray(int i) {
+            return new Entry[i];
+        }
+    }
+
+    /**
+     * Segments are specialized versions of hash tables. This subclasses
+     * from ReentrantLock opportunistically, just to simplify some locking
+     * and avoid separate construction.
+     */
+    static final class Segment<T> extends ReentrantLock {
+        /*
+         * As in ConcurrentHashMap, bins are kept in a consistent state
+         * so they can be read without locking: entries are only added at
+         * the front of a bin, and removing an entry clones the entries
+         * in front of it. The volatile count field is written after every
+         * structural change and read before looking at the table.
+         */
+
+        private static final long serialVersionUID = -3432286536470543826L;
+
+        /**
+         * The number of entries in this segment, including entries whose
+         * referents were cleared but have not been expunged yet.
+         */
+        transient volatile int count;
+
+        /**
+         * The table is rehashed when its size exceeds this threshold.
+         */
+        transient int threshold;
+
+        /**
+         * The per-segment table.
+         */
+        transient volatile Entry<T>[] table;
+
+        /**
+         * Queue on which the entries of this segment are enqueued once
+         * their referents have been cleared.
+         */
+        final ReferenceQueue<T> queue = new ReferenceQueue<T>();
+
+        /**
+         * The number of lookups that returned an existing instance.
+         */
+        final AtomicLong hits = new AtomicLong();
+
+        /**
+         * The number of lookups that added their argument. Only
+         * updated while holding the lock.
+         */
+        volatile long misses;
+
+        Segment(int initialCapacity) {
+            setTable(Entry.<T>newArray(initialCapacity));
+        }
+
+        @SuppressWarnings("unchecked")
+        static final <T> Segment<T>[] newArray(int i) {
+            return new Segment[i];
+        }
+
+        /**
+         * Sets table to new Entry array.
+         * Call only while holding lock or in constructor.
+         */
+        void setTable(Entry<T>[] newTable) {
+            threshold = (int)(newTable.length * LOAD_FACTOR);
+            table = newTable;
+        }
+
+        /**
+         * Returns properly casted first entry of bin for given hash.
+         */
+        Entry<T> getFirst(int hash) {
+            Entry<T>[] tab = table;
+            return tab[hash & (tab.length - 1)];
+        }
+
+        T get(Object sample, int hash) {
+            if (count != 0) { // read-volatile
+                Entry<T> e = getFirst(hash);
+                while (e != null) {
+                    if (e.hash == hash) {
+                        T v = e.get();
+                        if (v != null && sample.equals(v))
+                            return v;
+                    }
+                    e = e.next;
+                }
+            }
+            return null;
+        }
+
+        T intern(T sample, int hash) {
+            T v = get(sample, hash);
+            if (v != null) {
+                hits.incrementAndGet();
+                return v;
+            }
+            lock();
+            try {
+                expungeStaleEntries();
+                int c = count;
+                if (c++ > threshold) { // ensure capacity
+                    rehash();
+                    // rehash counted only the live entries
+                    c = count + 1;
+                }
+                Entry<T>[] tab = table;
+                int index = hash & (tab.length - 1);
+                Entry<T> first = tab[index];
+                for (Entry<T> e = first; e != null; e = e.next) {
+                    if (e.hash == hash) {
+                        v = e.get();
+                        if (v != null && sample.equals(v)) {
+                            hits.incrementAndGet();
+                            return v;
+                        }
+                    }
+                }
+                tab[index] = new Entry<T>(sample, hash, first, queue);
+                misses++;
+                count = c; // write-volatile
+                return sample;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Removes the entries whose referents have been cleared.
+         * Call only while holding lock.
+         */
+        @SuppressWarnings("unchecked")
+        void expungeStaleEntries() {
+            Entry<T> stale;
+            while ((stale = (Entry<T>) queue.poll()) != null) {
+                Entry<T>[] tab = table;
+                int index = stale.hash & (tab.length - 1);
+                Entry<T> first = tab[index];
+                Entry<T> e = first;
+                while (e != null && e != stale)
+                    e = e.next;
+                // a stale entry may already have been dropped by rehash
+                if (e == null)
+                    continue;
+                int c = count - 1;
+                Entry<T> newFirst = e.next;
+                for (Entry<T> p = first; p != e; p = p.next) {
+                    T v = p.get();
+                    if (v != null)
+                        newFirst = new Entry<T>(v, p.hash, newFirst, queue);
+                    else
+                        --c; // p itself is no longer in the table
+                }
+                tab[index] = newFirst;
+                count = c; // write-volatile
+            }
+        }
+
+        /**
+         * Doubles the table, dropping entries whose referents have been
+         * cleared. Call only while holding lock.
+         */
+        void rehash() {
+            Entry<T>[] oldTable = table;
+            int oldCapacity = oldTable.length;
+            if (oldCapacity >= MAXIMUM_CAPACITY)
+                return;
+
+            Entry<T>[] newTable = Entry.newArray(oldCapacity << 1);
+            int sizeMask = newTable.length - 1;
+            int c = 0;
+            for (int i = 0; i < oldCapacity; i++) {
+                // Existing readers may still be traversing the old table,
+                // so its bins are left intact and live entries are cloned.
+                for (Entry<T> e = oldTable[i]; e != null; e = e.next) {
+                    T v = e.get();
+                    if (v != null) {
+                        int k = e.hash & sizeMask;
+                        newTable[k] = new Entry<T>(v, e.hash, newTable[k], queue);
+                        c++;
+                    }
+                }
+            }
+            setTable(newTable);
+            count = c; // write-volatile
+        }
+
+        void clear() {
+            lock();
+            try {
+                setTable(Entry.<T>newArray(table.length));
+                count = 0; // write-volatile
+                // entries of the old table are ignored when enqueued
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    /**
+     * Creates a new, empty table with the specified initial capacity
+     * and concurrency level.
+     *
+     * @param initialCapacity the initial capacity. The implementation
+     * performs internal sizing to accommodate this many objects.
+     * @param concurrencyLevel the estimated number of concurrently
+     * inserting threads. The implementation performs internal sizing
+     * to try to accommodate this many threads.
+     * @throws IllegalArgumentException if the initial capacity is
+     * negative or the concurrencyLevel is nonpositive.
+     */
+    public WeakInterner(int initialCapacity, int concurrencyLevel) {
+        if (initialCapacity < 0 || concurrencyLevel <= 0)
+            throw new IllegalArgumentException();
+
+        if (concurrencyLevel > MAX_SEGMENTS)
+            concurrencyLevel = MAX_SEGMENTS;
+
+        // Find power-of-two sizes best matching arguments
+        int sshift = 0;
+        int ssize = 1;
+        while (ssize < concurrencyLevel) {
+            ++sshift;
+            ssize <<= 1;
+        }
+        segmentShift = 32 - sshift;
+        segmentMask = ssize - 1;
+        this.segments = Segment.newArray(ssize);
+
+        if (initialCapacity > MAXIMUM_CAPACITY)
+            initialCapacity = MAXIMUM_CAPACITY;
+        int c = initialCapacity / ssize;
+        if (c * ssize < initialCapacity)
+            ++c;
+        int cap = 1;
+        while (cap < c)
+            cap <<= 1;
+
+        for (int i = 0; i < this.segments.length; ++i)
+            this.segments[i] = new Segment<T>(cap);
+    }
+
+    /**
+     * Creates a new, empty table with a default initial capacity (16)
+     * and concurrency level (16).
+     */
+    public WeakInterner() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Returns the canonical instance equal to the given object. If the
+     * table holds a reachable object equal to {@code sample}, that object
+     * is returned; otherwise {@code sample} is added and returned.
+     *
+     * @param sample the object to canonicalize
+     * @return an object equal to {@code sample}
+     * @throws NullPointerException if {@code sample} is null
+     */
+    public T intern(T sample) {
+        int hash = hash(sample.hashCode());
+        return segmentFor(hash).intern(sample, hash);
+    }
+
+    /**
+     * Returns the approximate number of objects in this table. Objects
+     * that have been garbage collected may still be counted until their
+     * segment is next updated.
+     *
+     * @return the approximate number of objects in this table
+     */
+    public int size() {
+        long sum = 0;
+        for (Segment<T> segment : segments)
+            sum += segment.count;
+        return (sum > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int)sum;
+    }
+
+    /**
+     * Returns the number of {@link #intern} calls that returned an object
+     * already in the table.
+     *
+     * @return the hit count
+     */
+    public long hitCount() {
+        long sum = 0;
+        for (Segment<T> segment : segments)
+            sum += segment.hits.get();
+        return sum;
+    }
+
+    /**
+     * Returns the number of {@link #intern} calls that added their
+     * argument to the table.
+     *
+     * @return the miss count
+     */
+    public long missCount() {
+        long sum = 0;
+        for (Segment<T> segment : segments)
+            sum += segment.misses;
+        return sum;
+    }
+
+    /**
+     * Removes all objects from this table. The hit and miss counts are
+     * not reset.
+     */
+    public void clear() {
+        for (Segment<T> segment : segments)
+            segment.clear();
+    }
+
+    /**
+     * Returns the shared string table used by {@link #dedup(String)}, for
+     * example to report its statistics.
+     *
+     * @return the shared string table, or {@code null} if string
+     *         deduplication is disabled
+     */
+    public static WeakInterner<String> dedupTable() {
+        return StringDedup.TABLE;
+    }
+
+    /**
+     * Returns a canonical instance of the given string from the shared
+     * string table, or the string itself if string deduplication is
+     * disabled.
+     *
+     * @param s the string to canonicalize, may be {@code null}
+     * @return a string equal to {@code s}, or {@code null} if {@code s}
+     *         is {@code null}
+     */
+    public static String dedup(String s) {
+        WeakInterner<String> table = StringDedup.TABLE;
+        if (table == null || s == null)
+            return s;
+        return table.intern(s);
+    }
+}
@@ -41,6 +41,7 @@ import javax.sql.*;
 import java.io.*;
 
 import java.lang.reflect.*;
+import java.util.concurrent.WeakInterner;
 
 /**
  * Provides implementations for the methods that set and get
@@ -317,7 +318,7 @@ public class RowSetMetaDataImpl implements RowSetMetaData,  Serializable {
     public void setColumnLabel(int columnIndex, String label) throws SQLException {
         checkColRange(columnIndex);
         if (label != null) {
-            colInfo[columnIndex].columnLabel = label;
+            colInfo[columnIndex].columnLabel = WeakInterner.dedup(label);
         } else {
             colInfo[columnIndex].columnLabel = "";
         }
@@ -337,7 +338,7 @@ public class RowSetMetaDataImpl implements RowSetMetaData,  Serializable {
     public void setColumnName(int columnIndex, String columnName) throws SQLException {
         checkColRange(columnIndex);
         if (columnName != null) {
-            colInfo[columnIndex].columnName = columnName;
+            colInfo[columnIndex].columnName = WeakInterner.dedup(columnName);
         } else {
             colInfo[columnIndex].columnName = "";
         }
@@ -359,7 +360,7 @@ public class RowSetMetaDataImpl implements RowSetMetaData,  Serializable {
     public void setSchemaName(int columnIndex, String schemaName) throws SQLException {
         checkColRange(columnIndex);
         if (schemaName != null ) {
-            colInfo[columnIndex].schemaName = schemaName;
+            colInfo[columnIndex].schemaName = WeakInterner.dedup(schemaName);
         } else {
             colInfo[columnIndex].schemaName = "";
         }
@@ -422,7 +423,7 @@ public class RowSetMetaDataImpl implements RowSetMetaData,  Serializable {
     public void setTableName(int columnIndex, String tableName) throws SQLException {
         checkColRange(columnIndex);
         if (tableName != null) {
-            colInfo[columnIndex].tableName = tableName;
+            colInfo[columnIndex].tableName = WeakInterner.dedup(tableName);
         } else {
             colInfo[columnIndex].tableName = "";
         }
@@ -443,7 +444,7 @@ public class RowSetMetaDataImpl implements RowSetMetaData,  Serializable {
     public void setCatalogName(int columnIndex, String catalogName) throws SQLException {
         checkColRange(columnIndex);
         if (catalogName != null)
-            colInfo[columnIndex].catName = catalogName;
+            colInfo[columnIndex].catName = WeakInterner.dedup(catalogName);
         else
             colInfo[columnIndex].catName = "";
     }
@@ -485,7 +486,7 @@ public class RowSetMetaDataImpl implements RowSetMetaData,  Serializable {
         throws SQLException {
         checkColRange(columnIndex);
         if (typeName != null) {
-            colInfo[columnIndex].colTypeName = typeName;
+            colInfo[columnIndex].colTypeName = WeakInterner.dedup(typeName);
         } else {
             colInfo[columnIndex].colTypeName = "";
         }
@@ -41,6 +41,7 @@ import javax.sql.*;
 import java.io.*;
 import java.math.*;
 import java.util.Map;
+import java.util.concurrent.WeakInterner;
 import sun.reflect.misc.ReflectUtil;
 
 /**
@@ -191,7 +192,7 @@ public class SQLInputImpl implements SQLInput {
             return null;
         } else {
             lastValueWasNull = false;
-            return attrib;
+            return WeakInterner.dedup(attrib);
         }
     }
 
@@ -0,0 +1,35 @@
+/*
+ * Licensed Materials - Property of IBM,
+ *     Copyright IBM Corp. 2014  All Rights Reserved
+ */
+
+package sun.nio.ch;
+
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Support for moving bytes from a file to an output stream with
+ * {@link FileChannel#transferTo}, shared by
+ * {@code FileInputStream.transferTo} and {@code Files.copy}.
+ */
+public final class StreamTransfers {
+
+    private StreamTransfers() { }
+
+    /**
+     * Returns the channel that the given stream writes to, if bytes can be
+     * moved to it directly with FileChannel.transferTo, or null.
+     */
+    public static WritableByteChannel transferTarget(OutputStream out) {
+        WritableByteChannel ch = Channels.newChannel(out);
+        if (ch instanceof FileChannel)
+            return ch;
+        if (ch instanceof SelectableChannel && ((SelectableChannel)ch).isBlocking())
+            return ch;
+        return null;
+    }
+}